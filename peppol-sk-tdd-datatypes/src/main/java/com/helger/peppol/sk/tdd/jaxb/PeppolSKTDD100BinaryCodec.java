@@ -0,0 +1,809 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.jaxb;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.io.resource.ClassPathResource;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+import jakarta.xml.bind.UnmarshallerHandler;
+
+/**
+ * A compact binary encoding for Peppol SK TDD 1.0.0 documents, intended for internal transport
+ * and archiving. The encoding is a stream of XML events where the element and attribute names are
+ * pre-seeded from a frozen name table, so that known names are written as a small index only. The
+ * name table is not schema-informed: it is a fixed list of 94 names that were collected from sample
+ * TDDs. All other names, including every UBL name that did not occur in the samples, are encoded
+ * inline on their first occurrence. These names and all text values are written once and referenced
+ * by index on every later occurrence.<br>
+ * The name tables are shipped as class path resources (see {@link #NAME_TABLE_PATH_PREFIX}) and are
+ * never modified once released. New names are added by shipping a new name table version, which is
+ * then used for encoding. The version of the used name table is part of the header, and all name
+ * table versions remain available for decoding, so archived data stays readable after updates of
+ * the XSDs or of this library.<br>
+ * The round trip to the textual XML form is lossless with respect to elements, attributes, text
+ * content and namespace declarations. As with the default fidelity options of EXI, comments,
+ * processing instructions and the DOCTYPE are not preserved.<br>
+ * Note: this is not the W3C EXI format.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class PeppolSKTDD100BinaryCodec
+{
+  /** The magic bytes at the beginning of every encoded document */
+  public static final byte [] MAGIC = { 'S', 'K', 'T', 'B' };
+  /** The current format version */
+  public static final int FORMAT_VERSION = 2;
+  /**
+   * The class path prefix of the frozen name tables. The version number and ".txt" are appended,
+   * starting with 1.
+   */
+  public static final String NAME_TABLE_PATH_PREFIX = "binary/tdd-100-names-";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (PeppolSKTDD100BinaryCodec.class);
+
+  private static final int EVENT_END_DOCUMENT = 0;
+  private static final int EVENT_START_ELEMENT = 1;
+  private static final int EVENT_END_ELEMENT = 2;
+  private static final int EVENT_ATTRIBUTE = 3;
+  private static final int EVENT_CHARACTERS = 4;
+  private static final int EVENT_NAMESPACE = 5;
+
+  /**
+   * A single immutable name table.
+   */
+  private static final class NameTable
+  {
+    private final int m_nVersion;
+    private final List <String []> m_aNames;
+    private final Map <String, Integer> m_aIndex = new HashMap <> ();
+
+    NameTable (final int nVersion, @NonNull final List <String []> aNames)
+    {
+      m_nVersion = nVersion;
+      m_aNames = aNames;
+      for (int i = 0; i < aNames.size (); ++i)
+      {
+        final String [] aName = aNames.get (i);
+        m_aIndex.putIfAbsent (_key (aName[0], aName[1]), Integer.valueOf (i));
+      }
+    }
+  }
+
+  /**
+   * All frozen name tables, indexed by version - 1. The last one is used for encoding.
+   */
+  private static final class NameTables
+  {
+    static final List <NameTable> ALL = _readAll ();
+    static final NameTable LATEST = ALL.get (ALL.size () - 1);
+
+    @NonNull
+    private static List <NameTable> _readAll ()
+    {
+      final List <NameTable> ret = new ArrayList <> ();
+      while (true)
+      {
+        final int nVersion = ret.size () + 1;
+        final ClassPathResource aRes = new ClassPathResource (NAME_TABLE_PATH_PREFIX + nVersion + ".txt",
+                                                              PeppolSKTDD100BinaryCodec.class.getClassLoader ());
+        if (!aRes.exists ())
+          break;
+        final List <String []> aNames = new ArrayList <> ();
+        try (final InputStream aIS = aRes.getInputStream ())
+        {
+          if (aIS == null)
+            throw new IllegalStateException ("Failed to open name table " + aRes.getPath ());
+          for (final String sLine : new String (aIS.readAllBytes (), StandardCharsets.UTF_8).split ("\n"))
+          {
+            if (sLine.isEmpty () || sLine.charAt (0) == '#')
+              continue;
+            final int nTab = sLine.indexOf ('\t');
+            if (nTab < 0)
+              throw new IllegalStateException ("Invalid line '" + sLine + "' in name table " + aRes.getPath ());
+            aNames.add (new String [] { sLine.substring (0, nTab), sLine.substring (nTab + 1) });
+          }
+        }
+        catch (final IOException ex)
+        {
+          throw new IllegalStateException ("Failed to read name table " + aRes.getPath (), ex);
+        }
+        ret.add (new NameTable (nVersion, aNames));
+      }
+      if (ret.isEmpty ())
+        throw new IllegalStateException ("Found no name table at " + NAME_TABLE_PATH_PREFIX + "1.txt");
+      return ret;
+    }
+  }
+
+  private PeppolSKTDD100BinaryCodec ()
+  {}
+
+  @NonNull
+  private static String _key (@NonNull final String sNamespaceURI, @NonNull final String sLocalName)
+  {
+    return sNamespaceURI + '\u0000' + sLocalName;
+  }
+
+  @NonNull
+  private static SAXParser _createSAXParser () throws ParserConfigurationException, SAXException
+  {
+    final SAXParserFactory aFactory = SAXParserFactory.newInstance ();
+    aFactory.setNamespaceAware (true);
+    aFactory.setFeature (XMLConstants.FEATURE_SECURE_PROCESSING, true);
+    aFactory.setFeature ("http://apache.org/xml/features/disallow-doctype-decl", true);
+    return aFactory.newSAXParser ();
+  }
+
+  private static void _writeVarInt (@NonNull final DataOutputStream aDOS, final int nValue) throws IOException
+  {
+    int n = nValue;
+    while ((n & ~0x7f) != 0)
+    {
+      aDOS.writeByte ((n & 0x7f) | 0x80);
+      n >>>= 7;
+    }
+    aDOS.writeByte (n);
+  }
+
+  private static int _readVarInt (@NonNull final DataInputStream aDIS) throws IOException
+  {
+    int ret = 0;
+    int nShift = 0;
+    while (true)
+    {
+      final int b = aDIS.readUnsignedByte ();
+      // Only non-negative values are written, so the fifth byte may only carry 3 bits
+      if (nShift == 28 && (b & 0xf8) != 0)
+        throw new IOException ("Malformed variable length integer");
+      ret |= (b & 0x7f) << nShift;
+      if ((b & 0x80) == 0)
+        return ret;
+      nShift += 7;
+    }
+  }
+
+  /**
+   * SAX handler that writes the binary event stream.
+   */
+  private static final class EncodingHandler extends DefaultHandler
+  {
+    private final DataOutputStream m_aDOS;
+    private final Map <String, Integer> m_aNames = new HashMap <> (NameTables.LATEST.m_aIndex);
+    private int m_nNameCount = NameTables.LATEST.m_aNames.size ();
+    private final Map <String, Integer> m_aValues = new HashMap <> ();
+    private final StringBuilder m_aText = new StringBuilder ();
+
+    EncodingHandler (@NonNull final DataOutputStream aDOS)
+    {
+      m_aDOS = aDOS;
+    }
+
+    private void _writeString (@NonNull final String s) throws IOException
+    {
+      final byte [] aBytes = s.getBytes (StandardCharsets.UTF_8);
+      _writeVarInt (m_aDOS, aBytes.length);
+      m_aDOS.write (aBytes);
+    }
+
+    private void _writeValue (@NonNull final String sValue) throws IOException
+    {
+      final Integer aIdx = m_aValues.get (sValue);
+      if (aIdx != null)
+        _writeVarInt (m_aDOS, aIdx.intValue () + 1);
+      else
+      {
+        _writeVarInt (m_aDOS, 0);
+        _writeString (sValue);
+        m_aValues.put (sValue, Integer.valueOf (m_aValues.size ()));
+      }
+    }
+
+    private void _writeName (@Nullable final String sNamespaceURI, @NonNull final String sLocalName) throws IOException
+    {
+      final String sNS = sNamespaceURI == null ? "" : sNamespaceURI;
+      final String sKey = _key (sNS, sLocalName);
+      final Integer aIdx = m_aNames.get (sKey);
+      if (aIdx != null)
+        _writeVarInt (m_aDOS, aIdx.intValue () + 1);
+      else
+      {
+        _writeVarInt (m_aDOS, 0);
+        _writeValue (sNS);
+        _writeString (sLocalName);
+        m_aNames.put (sKey, Integer.valueOf (m_nNameCount++));
+      }
+    }
+
+    private void _flushText () throws IOException
+    {
+      if (m_aText.length () > 0)
+      {
+        m_aDOS.writeByte (EVENT_CHARACTERS);
+        _writeValue (m_aText.toString ());
+        m_aText.setLength (0);
+      }
+    }
+
+    @Override
+    public void startPrefixMapping (final String sPrefix, final String sURI) throws SAXException
+    {
+      try
+      {
+        _flushText ();
+        m_aDOS.writeByte (EVENT_NAMESPACE);
+        _writeValue (sPrefix == null ? "" : sPrefix);
+        _writeValue (sURI == null ? "" : sURI);
+      }
+      catch (final IOException ex)
+      {
+        throw new SAXException (ex);
+      }
+    }
+
+    @Override
+    public void startElement (final String sURI,
+                              final String sLocalName,
+                              final String sQName,
+                              final Attributes aAttrs) throws SAXException
+    {
+      try
+      {
+        _flushText ();
+        m_aDOS.writeByte (EVENT_START_ELEMENT);
+        _writeName (sURI, sLocalName);
+        for (int i = 0; i < aAttrs.getLength (); ++i)
+        {
+          m_aDOS.writeByte (EVENT_ATTRIBUTE);
+          _writeName (aAttrs.getURI (i), aAttrs.getLocalName (i));
+          _writeValue (aAttrs.getValue (i));
+        }
+      }
+      catch (final IOException ex)
+      {
+        throw new SAXException (ex);
+      }
+    }
+
+    @Override
+    public void characters (final char [] aChars, final int nStart, final int nLength)
+    {
+      m_aText.append (aChars, nStart, nLength);
+    }
+
+    @Override
+    public void ignorableWhitespace (final char [] aChars, final int nStart, final int nLength)
+    {
+      m_aText.append (aChars, nStart, nLength);
+    }
+
+    @Override
+    public void endElement (final String sURI, final String sLocalName, final String sQName) throws SAXException
+    {
+      try
+      {
+        _flushText ();
+        m_aDOS.writeByte (EVENT_END_ELEMENT);
+      }
+      catch (final IOException ex)
+      {
+        throw new SAXException (ex);
+      }
+    }
+
+    @Override
+    public void endDocument () throws SAXException
+    {
+      try
+      {
+        _flushText ();
+        m_aDOS.writeByte (EVENT_END_DOCUMENT);
+        m_aDOS.flush ();
+      }
+      catch (final IOException ex)
+      {
+        throw new SAXException (ex);
+      }
+    }
+  }
+
+  @NonNull
+  private static DataOutputStream _startEncoding (@NonNull final OutputStream aOS) throws IOException
+  {
+    final DataOutputStream aDOS = new DataOutputStream (aOS);
+    aDOS.write (MAGIC);
+    aDOS.writeByte (FORMAT_VERSION);
+    _writeVarInt (aDOS, NameTables.LATEST.m_nVersion);
+    return aDOS;
+  }
+
+  /**
+   * Encode the provided TDD into the binary form.
+   *
+   * @param aTDD
+   *        The TDD to be encoded. May not be <code>null</code>.
+   * @return <code>null</code> if encoding failed.
+   */
+  public static byte @Nullable [] encode (@NonNull final TaxDataType aTDD)
+  {
+    try
+    {
+      final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream (1024);
+      final EncodingHandler aHandler = new EncodingHandler (_startEncoding (aBAOS));
+      final Marshaller aMarshaller = PeppolSKTDD100JAXBContext.getInstance ().createMarshaller ();
+      aMarshaller.marshal (PeppolSKTDD100JAXBContext.createRootElement (aTDD), aHandler);
+      return aBAOS.toByteArray ();
+    }
+    catch (final IOException | JAXBException ex)
+    {
+      LOGGER.error ("Failed to encode TDD", ex);
+      return null;
+    }
+  }
+
+  /**
+   * Encode the provided textual XML representation of a TDD into the binary form. The XML is not
+   * validated against the XSDs.
+   *
+   * @param aXMLBytes
+   *        The textual XML. May not be <code>null</code>.
+   * @return <code>null</code> if the XML could not be parsed.
+   */
+  public static byte @Nullable [] encodeXML (final byte @NonNull [] aXMLBytes)
+  {
+    try
+    {
+      final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream (Math.max (64, aXMLBytes.length / 4));
+      final EncodingHandler aHandler = new EncodingHandler (_startEncoding (aBAOS));
+      _createSAXParser ().parse (new InputSource (new ByteArrayInputStream (aXMLBytes)), aHandler);
+      return aBAOS.toByteArray ();
+    }
+    catch (final IOException | SAXException | ParserConfigurationException ex)
+    {
+      LOGGER.error ("Failed to encode TDD XML", ex);
+      return null;
+    }
+  }
+
+  /**
+   * Replay the encoded data as SAX events into the provided handler.
+   *
+   * @param aEncoded
+   *        The encoded bytes. May not be <code>null</code>.
+   * @param aHandler
+   *        The handler to receive the events. May not be <code>null</code>.
+   * @throws IOException
+   *         If the encoded data is malformed
+   * @throws SAXException
+   *         If the handler fails
+   */
+  public static void decode (final byte @NonNull [] aEncoded, @NonNull final ContentHandler aHandler) throws IOException,
+                                                                                                             SAXException
+  {
+    final DataInputStream aDIS = new DataInputStream (new ByteArrayInputStream (aEncoded));
+    final byte [] aMagic = new byte [MAGIC.length];
+    aDIS.readFully (aMagic);
+    for (int i = 0; i < MAGIC.length; ++i)
+      if (aMagic[i] != MAGIC[i])
+        throw new IOException ("Not an encoded Peppol SK TDD");
+    final int nVersion = aDIS.readUnsignedByte ();
+    final List <String []> aNames;
+    if (nVersion == FORMAT_VERSION)
+    {
+      final int nNameTableVersion = _readVarInt (aDIS);
+      if (nNameTableVersion < 1 || nNameTableVersion > NameTables.ALL.size ())
+        throw new IOException ("Unsupported name table version " + nNameTableVersion);
+      aNames = new ArrayList <> (NameTables.ALL.get (nNameTableVersion - 1).m_aNames);
+    }
+    else
+      throw new IOException ("Unsupported format version " + nVersion);
+    final List <String> aValues = new ArrayList <> ();
+    // Element stack with the namespace prefixes declared on each element
+    final Deque <String []> aElementStack = new ArrayDeque <> ();
+    final Deque <List <String>> aPrefixStack = new ArrayDeque <> ();
+    // In-scope namespace bindings, last one wins
+    final List <String []> aBindings = new ArrayList <> ();
+    final List <String> aPendingPrefixes = new ArrayList <> ();
+    AttributesImpl aPendingAttrs = null;
+    String [] aPendingElement = null;
+
+    aHandler.startDocument ();
+    while (true)
+    {
+      final int nEvent;
+      try
+      {
+        nEvent = aDIS.readUnsignedByte ();
+      }
+      catch (final EOFException ex)
+      {
+        throw new IOException ("Unexpected end of encoded data", ex);
+      }
+
+      if (nEvent != EVENT_ATTRIBUTE && aPendingElement != null)
+      {
+        // Start element is complete
+        aHandler.startElement (aPendingElement[0],
+                               aPendingElement[1],
+                               _getQName (aBindings, aPendingElement),
+                               aPendingAttrs);
+        aElementStack.push (aPendingElement);
+        aPrefixStack.push (new ArrayList <> (aPendingPrefixes));
+        aPendingPrefixes.clear ();
+        aPendingElement = null;
+        aPendingAttrs = null;
+      }
+
+      switch (nEvent)
+      {
+        case EVENT_END_DOCUMENT:
+          if (!aElementStack.isEmpty ())
+            throw new IOException ("Unexpected end of document");
+          aHandler.endDocument ();
+          return;
+        case EVENT_NAMESPACE:
+        {
+          final String sPrefix = _readValue (aDIS, aValues);
+          final String sURI = _readValue (aDIS, aValues);
+          aBindings.add (new String [] { sPrefix, sURI });
+          aPendingPrefixes.add (sPrefix);
+          aHandler.startPrefixMapping (sPrefix, sURI);
+          break;
+        }
+        case EVENT_START_ELEMENT:
+          aPendingElement = _readName (aDIS, aNames, aValues);
+          aPendingAttrs = new AttributesImpl ();
+          break;
+        case EVENT_ATTRIBUTE:
+        {
+          if (aPendingElement == null)
+            throw new IOException ("Attribute outside of start element");
+          final String [] aName = _readName (aDIS, aNames, aValues);
+          final String sValue = _readValue (aDIS, aValues);
+          aPendingAttrs.addAttribute (aName[0], aName[1], _getQName (aBindings, aName), "CDATA", sValue);
+          break;
+        }
+        case EVENT_CHARACTERS:
+        {
+          final char [] aChars = _readValue (aDIS, aValues).toCharArray ();
+          aHandler.characters (aChars, 0, aChars.length);
+          break;
+        }
+        case EVENT_END_ELEMENT:
+        {
+          if (aElementStack.isEmpty ())
+            throw new IOException ("Unbalanced end element");
+          final String [] aName = aElementStack.pop ();
+          aHandler.endElement (aName[0], aName[1], _getQName (aBindings, aName));
+          final List <String> aPrefixes = aPrefixStack.pop ();
+          for (final String sPrefix : aPrefixes)
+          {
+            aHandler.endPrefixMapping (sPrefix);
+            aBindings.remove (aBindings.size () - 1);
+          }
+          break;
+        }
+        default:
+          throw new IOException ("Unknown event type " + nEvent);
+      }
+    }
+  }
+
+  @NonNull
+  private static String _readValue (@NonNull final DataInputStream aDIS, @NonNull final List <String> aValues) throws IOException
+  {
+    final int nIdx = _readVarInt (aDIS);
+    if (nIdx > 0)
+    {
+      if (nIdx > aValues.size ())
+        throw new IOException ("Invalid value reference " + nIdx);
+      return aValues.get (nIdx - 1);
+    }
+    final String ret = _readString (aDIS);
+    aValues.add (ret);
+    return ret;
+  }
+
+  @NonNull
+  private static String _readString (@NonNull final DataInputStream aDIS) throws IOException
+  {
+    final int nLen = _readVarInt (aDIS);
+    // The input is always a ByteArrayInputStream, so available() is the remaining length
+    if (nLen < 0 || nLen > aDIS.available ())
+      throw new IOException ("Invalid string length " + nLen);
+    final byte [] aBytes = new byte [nLen];
+    aDIS.readFully (aBytes);
+    return new String (aBytes, StandardCharsets.UTF_8);
+  }
+
+  @NonNull
+  private static String [] _readName (@NonNull final DataInputStream aDIS,
+                                      @NonNull final List <String []> aNames,
+                                      @NonNull final List <String> aValues) throws IOException
+  {
+    final int nIdx = _readVarInt (aDIS);
+    if (nIdx > 0)
+    {
+      if (nIdx > aNames.size ())
+        throw new IOException ("Invalid name reference " + nIdx);
+      return aNames.get (nIdx - 1);
+    }
+    final String sNamespaceURI = _readValue (aDIS, aValues);
+    final String sLocalName = _readString (aDIS);
+    final String [] ret = { sNamespaceURI, sLocalName };
+    aNames.add (ret);
+    return ret;
+  }
+
+  @NonNull
+  private static String _getQName (@NonNull final List <String []> aBindings, @NonNull final String [] aName)
+  {
+    if (aName[0].length () == 0)
+      return aName[1];
+    for (int i = aBindings.size () - 1; i >= 0; --i)
+    {
+      final String [] aBinding = aBindings.get (i);
+      if (aBinding[1].equals (aName[0]))
+        return aBinding[0].length () == 0 ? aName[1] : aBinding[0] + ':' + aName[1];
+    }
+    // Should not happen for data created by this class
+    return aName[1];
+  }
+
+  /**
+   * Decode the provided binary data into a TDD. The result is not validated against the XSDs.
+   *
+   * @param aEncoded
+   *        The encoded bytes. May not be <code>null</code>.
+   * @return <code>null</code> if decoding failed.
+   */
+  @Nullable
+  public static TaxDataType decode (final byte @NonNull [] aEncoded)
+  {
+    try
+    {
+      final Unmarshaller aUnmarshaller = PeppolSKTDD100JAXBContext.getInstance ().createUnmarshaller ();
+      final UnmarshallerHandler aHandler = aUnmarshaller.getUnmarshallerHandler ();
+      decode (aEncoded, aHandler);
+      final Object aResult = aHandler.getResult ();
+      if (aResult instanceof JAXBElement <?> aElement && aElement.getValue () instanceof TaxDataType aTDD)
+        return aTDD;
+      LOGGER.error ("Decoded object is not a TDD but " + (aResult == null ? "null" : aResult.getClass ().getName ()));
+      return null;
+    }
+    catch (final IOException | SAXException | JAXBException | RuntimeException ex)
+    {
+      // Runtime exceptions may be thrown by the unmarshaller on unexpected events of malformed data
+      LOGGER.error ("Failed to decode TDD", ex);
+      return null;
+    }
+  }
+
+  /**
+   * Decode the provided binary data into the textual XML form, using UTF-8 encoding.
+   *
+   * @param aEncoded
+   *        The encoded bytes. May not be <code>null</code>.
+   * @return <code>null</code> if decoding failed.
+   */
+  public static byte @Nullable [] decodeToXML (final byte @NonNull [] aEncoded)
+  {
+    try
+    {
+      final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream (aEncoded.length * 4);
+      try (final Writer aWriter = new OutputStreamWriter (aBAOS, StandardCharsets.UTF_8))
+      {
+        decode (aEncoded, new XMLWritingHandler (aWriter));
+      }
+      return aBAOS.toByteArray ();
+    }
+    catch (final IOException | SAXException | RuntimeException ex)
+    {
+      LOGGER.error ("Failed to decode TDD to XML", ex);
+      return null;
+    }
+  }
+
+  /**
+   * Minimal SAX handler writing textual XML.
+   */
+  private static final class XMLWritingHandler extends DefaultHandler
+  {
+    private final Writer m_aWriter;
+    private final List <String []> m_aPendingNS = new ArrayList <> ();
+    private boolean m_bStartTagOpen = false;
+
+    XMLWritingHandler (@NonNull final Writer aWriter)
+    {
+      m_aWriter = aWriter;
+    }
+
+    private void _escape (@NonNull final String s, final boolean bAttr) throws IOException
+    {
+      for (int i = 0; i < s.length (); ++i)
+      {
+        final char c = s.charAt (i);
+        switch (c)
+        {
+          case '&':
+            m_aWriter.write ("&amp;");
+            break;
+          case '<':
+            m_aWriter.write ("&lt;");
+            break;
+          case '>':
+            m_aWriter.write ("&gt;");
+            break;
+          case '"':
+            m_aWriter.write (bAttr ? "&quot;" : "\"");
+            break;
+          case '\r':
+            m_aWriter.write ("&#13;");
+            break;
+          case '\t':
+          case '\n':
+            if (bAttr)
+              m_aWriter.write ("&#" + (int) c + ";");
+            else
+              m_aWriter.write (c);
+            break;
+          default:
+            m_aWriter.write (c);
+        }
+      }
+    }
+
+    private void _closeStartTag () throws IOException
+    {
+      if (m_bStartTagOpen)
+      {
+        m_aWriter.write ('>');
+        m_bStartTagOpen = false;
+      }
+    }
+
+    @Override
+    public void startDocument () throws SAXException
+    {
+      try
+      {
+        m_aWriter.write ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+      }
+      catch (final IOException ex)
+      {
+        throw new SAXException (ex);
+      }
+    }
+
+    @Override
+    public void startPrefixMapping (final String sPrefix, final String sURI)
+    {
+      m_aPendingNS.add (new String [] { sPrefix, sURI });
+    }
+
+    @Override
+    public void startElement (final String sURI,
+                              final String sLocalName,
+                              final String sQName,
+                              final Attributes aAttrs) throws SAXException
+    {
+      try
+      {
+        _closeStartTag ();
+        m_aWriter.write ('<');
+        m_aWriter.write (sQName);
+        for (final String [] aNS : m_aPendingNS)
+        {
+          m_aWriter.write (aNS[0].length () == 0 ? " xmlns" : " xmlns:" + aNS[0]);
+          m_aWriter.write ("=\"");
+          _escape (aNS[1], true);
+          m_aWriter.write ('"');
+        }
+        m_aPendingNS.clear ();
+        for (int i = 0; i < aAttrs.getLength (); ++i)
+        {
+          m_aWriter.write (' ');
+          m_aWriter.write (aAttrs.getQName (i));
+          m_aWriter.write ("=\"");
+          _escape (aAttrs.getValue (i), true);
+          m_aWriter.write ('"');
+        }
+        m_bStartTagOpen = true;
+      }
+      catch (final IOException ex)
+      {
+        throw new SAXException (ex);
+      }
+    }
+
+    @Override
+    public void characters (final char [] aChars, final int nStart, final int nLength) throws SAXException
+    {
+      try
+      {
+        _closeStartTag ();
+        _escape (new String (aChars, nStart, nLength), false);
+      }
+      catch (final IOException ex)
+      {
+        throw new SAXException (ex);
+      }
+    }
+
+    @Override
+    public void endElement (final String sURI, final String sLocalName, final String sQName) throws SAXException
+    {
+      try
+      {
+        if (m_bStartTagOpen)
+        {
+          m_aWriter.write ("/>");
+          m_bStartTagOpen = false;
+        }
+        else
+        {
+          m_aWriter.write ("</");
+          m_aWriter.write (sQName);
+          m_aWriter.write ('>');
+        }
+      }
+      catch (final IOException ex)
+      {
+        throw new SAXException (ex);
+      }
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.jaxb;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.peppol.sk.tdd.v2026_04_14.ObjectFactory;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+
+/**
+ * Holder for the shared {@link JAXBContext} of Peppol SK TDD 1.0.0 documents. Creating the context
+ * for the TDD and all referenced UBL types is expensive, so it is created once on first use and
+ * shared afterwards. {@link JAXBContext} objects are thread-safe, whereas the marshallers and
+ * unmarshallers created from it are not.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public final class PeppolSKTDD100JAXBContext
+{
+  private static final class SingletonHolder
+  {
+    static final JAXBContext INSTANCE = _createContext ();
+  }
+
+  private PeppolSKTDD100JAXBContext ()
+  {}
+
+  @NonNull
+  private static JAXBContext _createContext ()
+  {
+    try
+    {
+      return JAXBContext.newInstance (ObjectFactory.class);
+    }
+    catch (final JAXBException ex)
+    {
+      throw new IllegalStateException ("Failed to create JAXBContext for Peppol SK TDD 1.0.0", ex);
+    }
+  }
+
+  /**
+   * @return The shared JAXB context for Peppol SK TDD 1.0.0. Never <code>null</code>.
+   */
+  @NonNull
+  public static JAXBContext getInstance ()
+  {
+    return SingletonHolder.INSTANCE;
+  }
+
+  /**
+   * Wrap the provided TDD into the root element so that it can be marshalled.
+   *
+   * @param aTDD
+   *        The TDD to be wrapped. May not be <code>null</code>.
+   * @return The root element. Never <code>null</code>.
+   */
+  @NonNull
+  public static JAXBElement <TaxDataType> createRootElement (@NonNull final TaxDataType aTDD)
+  {
+    return new ObjectFactory ().createTaxData (aTDD);
+  }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.jaxb;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.io.resource.IReadableResource;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Unmarshaller;
+
+/**
+ * A fast reader for Peppol SK TDD 1.0.0 documents that binds the build-time generated JAXB classes
+ * directly to an {@link XMLStreamReader}. In contrast to {@link PeppolSKTDD100Marshaller} no XML
+ * Schema validation is performed and no intermediate DOM is created, which makes this reader
+ * suitable for bulk re-reading of already validated (e.g. archived) documents.<br>
+ * In strict mode the root element must be the TDD root element, and every problem reported by the
+ * JAXB runtime (e.g. unexpected elements) lets the reading fail. In lenient mode unknown content is
+ * silently skipped.<br>
+ * Instances of this class are immutable and can be shared between threads.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public class PeppolSKTDD100StaxReader
+{
+  /** The qualified name of the root element */
+  public static final QName ROOT_ELEMENT = new QName (CPeppolSKTDD.TDD_XSD_1_0_0_NS, "TaxData");
+  public static final boolean DEFAULT_STRICT = true;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (PeppolSKTDD100StaxReader.class);
+  private static final XMLInputFactory XIF = _createInputFactory ();
+
+  private final boolean m_bStrict;
+
+  @NonNull
+  private static XMLInputFactory _createInputFactory ()
+  {
+    final XMLInputFactory ret = XMLInputFactory.newFactory ();
+    // No DTDs and no external entities in TDDs
+    ret.setProperty (XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    ret.setProperty (XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    ret.setProperty (XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+    ret.setProperty (XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+    return ret;
+  }
+
+  /**
+   * Constructor using the default strictness.
+   *
+   * @see #DEFAULT_STRICT
+   */
+  public PeppolSKTDD100StaxReader ()
+  {
+    this (DEFAULT_STRICT);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param bStrict
+   *        <code>true</code> to enable the strictness checks, <code>false</code> to read
+   *        leniently.
+   */
+  public PeppolSKTDD100StaxReader (final boolean bStrict)
+  {
+    m_bStrict = bStrict;
+  }
+
+  /**
+   * @return <code>true</code> if strict reading is enabled, <code>false</code> if not.
+   */
+  public final boolean isStrict ()
+  {
+    return m_bStrict;
+  }
+
+  /**
+   * Read a TDD from the provided stream reader. The reader must be positioned at the start of the
+   * document or at the start of the root element. The stream reader is not closed by this method.
+   *
+   * @param aReader
+   *        The stream reader to read from. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed.
+   */
+  @Nullable
+  public TaxDataType read (@NonNull final XMLStreamReader aReader)
+  {
+    try
+    {
+      if (aReader.getEventType () == XMLStreamConstants.START_DOCUMENT)
+        aReader.nextTag ();
+
+      if (m_bStrict)
+      {
+        final QName aRootName = aReader.getName ();
+        if (!ROOT_ELEMENT.equals (aRootName))
+        {
+          LOGGER.warn ("Expected root element " + ROOT_ELEMENT + " but found " + aRootName);
+          return null;
+        }
+      }
+
+      final Unmarshaller aUnmarshaller = PeppolSKTDD100JAXBContext.getInstance ().createUnmarshaller ();
+      if (m_bStrict)
+      {
+        // Every event is considered a failure
+        aUnmarshaller.setEventHandler (aEvent -> {
+          LOGGER.warn ("Strict TDD reading failed: " + aEvent.getMessage ());
+          return false;
+        });
+      }
+      final JAXBElement <TaxDataType> aElement = aUnmarshaller.unmarshal (aReader, TaxDataType.class);
+      return aElement.getValue ();
+    }
+    catch (final XMLStreamException | JAXBException ex)
+    {
+      LOGGER.warn ("Failed to read TDD via StAX", ex);
+      return null;
+    }
+  }
+
+  /**
+   * Read a TDD from the provided input stream. The stream is not closed by this method.
+   *
+   * @param aIS
+   *        The input stream to read from. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed.
+   */
+  @Nullable
+  public TaxDataType read (@NonNull final InputStream aIS)
+  {
+    XMLStreamReader aReader = null;
+    try
+    {
+      aReader = XIF.createXMLStreamReader (aIS);
+      return read (aReader);
+    }
+    catch (final XMLStreamException ex)
+    {
+      LOGGER.warn ("Failed to create XMLStreamReader", ex);
+      return null;
+    }
+    finally
+    {
+      if (aReader != null)
+        try
+        {
+          aReader.close ();
+        }
+        catch (final XMLStreamException ex)
+        {
+          // ignore
+        }
+    }
+  }
+
+  /**
+   * Read a TDD from the provided byte array.
+   *
+   * @param aBytes
+   *        The bytes to read from. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed.
+   */
+  @Nullable
+  public TaxDataType read (final byte @NonNull [] aBytes)
+  {
+    return read (new ByteArrayInputStream (aBytes));
+  }
+
+  /**
+   * Read a TDD from the provided resource.
+   *
+   * @param aRes
+   *        The resource to read from. May not be <code>null</code>.
+   * @return <code>null</code> if reading failed or if the resource does not exist.
+   */
+  @Nullable
+  public TaxDataType read (@NonNull final IReadableResource aRes)
+  {
+    try (final InputStream aIS = aRes.getInputStream ())
+    {
+      if (aIS == null)
+      {
+        LOGGER.warn ("Failed to open input stream of " + aRes.getPath ());
+        return null;
+      }
+      return read (aIS);
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.warn ("Failed to read " + aRes.getPath (), ex);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.jaxb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.helger.io.resource.ClassPathResource;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+
+/**
+ * Test class for class {@link PeppolSKTDD100BinaryCodec}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDD100BinaryCodecTest
+{
+  @Test
+  public void testRoundtripXML () throws IOException
+  {
+    final PeppolSKTDD100Marshaller m = new PeppolSKTDD100Marshaller ();
+    for (final ClassPathResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final byte [] aXML;
+      try (final InputStream aIS = aRes.getInputStream ())
+      {
+        aXML = aIS.readAllBytes ();
+      }
+
+      final byte [] aEncoded = PeppolSKTDD100BinaryCodec.encodeXML (aXML);
+      assertNotNull (aRes.getPath (), aEncoded);
+      assertTrue (aRes.getPath () + ": " + aEncoded.length + " vs. " + aXML.length, aEncoded.length < aXML.length);
+
+      final byte [] aDecoded = PeppolSKTDD100BinaryCodec.decodeToXML (aEncoded);
+      assertNotNull (aRes.getPath (), aDecoded);
+
+      // Same content as the original
+      final TaxDataType aExpected = m.read (aXML);
+      assertNotNull (aExpected);
+      final TaxDataType aRead = m.read (aDecoded);
+      assertNotNull (new String (aDecoded, StandardCharsets.UTF_8), aRead);
+      assertEquals (aRes.getPath (), aExpected, aRead);
+
+      // Encoding the decoded XML results in the same bytes
+      final byte [] aEncoded2 = PeppolSKTDD100BinaryCodec.encodeXML (aDecoded);
+      assertNotNull (aEncoded2);
+      assertEquals (new String (aEncoded, StandardCharsets.ISO_8859_1), new String (aEncoded2, StandardCharsets.ISO_8859_1));
+    }
+  }
+
+  @Test
+  public void testRoundtripJAXB ()
+  {
+    final PeppolSKTDD100Marshaller m = new PeppolSKTDD100Marshaller ();
+    for (final ClassPathResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final TaxDataType aTDD = m.read (aRes);
+      assertNotNull (aRes.getPath (), aTDD);
+
+      final byte [] aEncoded = PeppolSKTDD100BinaryCodec.encode (aTDD);
+      assertNotNull (aRes.getPath (), aEncoded);
+
+      final TaxDataType aDecoded = PeppolSKTDD100BinaryCodec.decode (aEncoded);
+      assertEquals (aRes.getPath (), aTDD, aDecoded);
+    }
+  }
+
+  @Test
+  public void testInvalid ()
+  {
+    assertNull (PeppolSKTDD100BinaryCodec.decode (new byte [0]));
+    assertNull (PeppolSKTDD100BinaryCodec.decode ("SKTB".getBytes (StandardCharsets.ISO_8859_1)));
+    assertNull (PeppolSKTDD100BinaryCodec.decode ("<TaxData/>".getBytes (StandardCharsets.ISO_8859_1)));
+    assertNull (PeppolSKTDD100BinaryCodec.decodeToXML (new byte [] { 'S', 'K', 'T', 'B', 9, 0, 0, 0, 0 }));
+    // The development format version 1 is no longer supported
+    assertNull (PeppolSKTDD100BinaryCodec.decode (new byte [] { 'S', 'K', 'T', 'B', 1, 0, 0, 0, 0, 0 }));
+    // Unknown name table version
+    assertNull (PeppolSKTDD100BinaryCodec.decode (new byte [] { 'S', 'K', 'T', 'B', 2, 0x7f, 0 }));
+    // Start element with a new name in a new namespace with a huge string length
+    assertNull (PeppolSKTDD100BinaryCodec.decode (new byte [] { 'S',
+                                                                'K',
+                                                                'T',
+                                                                'B',
+                                                                2,
+                                                                1,
+                                                                1,
+                                                                0,
+                                                                0,
+                                                                (byte) 0xff,
+                                                                (byte) 0xff,
+                                                                (byte) 0xff,
+                                                                (byte) 0xff,
+                                                                0x07 }));
+    // Same with a variable length integer that would be negative
+    assertNull (PeppolSKTDD100BinaryCodec.decodeToXML (new byte [] { 'S',
+                                                                     'K',
+                                                                     'T',
+                                                                     'B',
+                                                                     2,
+                                                                     1,
+                                                                     1,
+                                                                     0,
+                                                                     0,
+                                                                     (byte) 0xff,
+                                                                     (byte) 0xff,
+                                                                     (byte) 0xff,
+                                                                     (byte) 0xff,
+                                                                     0x0f }));
+    // Truncated string
+    assertNull (PeppolSKTDD100BinaryCodec.decodeToXML (new byte [] { 'S', 'K', 'T', 'B', 2, 1, 1, 0, 0, 5, 'a' }));
+  }
+
+  @Test
+  public void testHeader ()
+  {
+    final TaxDataType aTDD = new PeppolSKTDD100Marshaller ().read (PeppolSKTestFiles.getAllGoodTDD100Files ()
+                                                                                   .getFirstOrNull ());
+    assertNotNull (aTDD);
+    final byte [] aEncoded = PeppolSKTDD100BinaryCodec.encode (aTDD);
+    assertNotNull (aEncoded);
+    assertEquals (PeppolSKTDD100BinaryCodec.FORMAT_VERSION, aEncoded[PeppolSKTDD100BinaryCodec.MAGIC.length]);
+    // The name table version
+    assertTrue (aEncoded[PeppolSKTDD100BinaryCodec.MAGIC.length + 1] >= 1);
+  }
+
+  @Test
+  public void testArchivedData () throws IOException
+  {
+    // Encoded with name table version 1 - must remain decodable forever
+    final byte [] aEncoded;
+    try (final InputStream aIS = new ClassPathResource ("binary/base-example-v2-names-1.bin").getInputStream ())
+    {
+      assertNotNull (aIS);
+      aEncoded = aIS.readAllBytes ();
+    }
+    final TaxDataType aDecoded = PeppolSKTDD100BinaryCodec.decode (aEncoded);
+    assertNotNull (aDecoded);
+
+    final TaxDataType aExpected = new PeppolSKTDD100Marshaller ().read (new ClassPathResource ("external/tdd/1.0.0/good/base-example.xml"));
+    assertNotNull (aExpected);
+    assertEquals (aExpected, aDecoded);
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.jaxb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.helger.io.resource.ClassPathResource;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+
+/**
+ * Test class for class {@link PeppolSKTDD100StaxReader}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDD100StaxReaderTest
+{
+  @Test
+  public void testSameAsMarshaller ()
+  {
+    final PeppolSKTDD100Marshaller m = new PeppolSKTDD100Marshaller ();
+    final PeppolSKTDD100StaxReader aStrict = new PeppolSKTDD100StaxReader (true);
+    final PeppolSKTDD100StaxReader aLenient = new PeppolSKTDD100StaxReader (false);
+    for (final ClassPathResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final TaxDataType aExpected = m.read (aRes);
+      assertNotNull ("Failed to read " + aRes.getPath (), aExpected);
+
+      assertEquals (aRes.getPath (), aExpected, aStrict.read (aRes));
+      assertEquals (aRes.getPath (), aExpected, aLenient.read (aRes));
+    }
+  }
+
+  @Test
+  public void testWrongRootElement ()
+  {
+    final PeppolSKTDD100StaxReader aStrict = new PeppolSKTDD100StaxReader (true);
+    for (final ClassPathResource aRes : PeppolSKTestFiles.getAllGoodBillingInvoiceFiles ())
+      assertNull (aRes.getPath (), aStrict.read (aRes));
+  }
+}
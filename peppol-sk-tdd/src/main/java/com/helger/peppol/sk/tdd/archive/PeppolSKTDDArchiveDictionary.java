@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Adler32;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.ReturnsImmutableObject;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.io.resource.ClassPathResource;
+
+/**
+ * A preset dictionary for the compression of TDD archive entries with
+ * {@link java.util.zip.Deflater}. TDDs are small and very similar, so a dictionary containing the
+ * commonly used XML fragments improves the compression ratio considerably compared to compressing
+ * each document separately.<br>
+ * The ID of a dictionary is the Adler-32 checksum of its content (as used by zlib) and is stored
+ * with every archive entry, so that archives remain readable after a new dictionary was introduced.
+ * <br>
+ * The dictionaries shipped with this library are frozen: once released, a dictionary file is never
+ * changed. A new dictionary is added as the next version next to the existing ones and all of them
+ * remain available via {@link #getAllShipped()}.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class PeppolSKTDDArchiveDictionary
+{
+  /** The maximum useful dictionary size is the Deflate window size */
+  public static final int DEFAULT_MAX_SIZE = 32 * 1024;
+  /**
+   * The class path prefix of the shipped dictionaries. The version number starting at 1 and the
+   * suffix ".dict" are appended.
+   */
+  public static final String SHIPPED_DICTIONARY_PATH_PREFIX = "archive/tdd-100-";
+
+  private static final int MIN_SEGMENT_LENGTH = 4;
+  private static final int MAX_SEGMENT_LENGTH = 256;
+
+  private static final class ShippedHolder
+  {
+    static final List <PeppolSKTDDArchiveDictionary> ALL = _loadAllShipped ();
+    static final PeppolSKTDDArchiveDictionary LATEST = ALL.get (ALL.size () - 1);
+  }
+
+  private final byte [] m_aBytes;
+  private final int m_nID;
+
+  /**
+   * Constructor
+   *
+   * @param aBytes
+   *        The dictionary content. May neither be <code>null</code> nor empty.
+   */
+  public PeppolSKTDDArchiveDictionary (final byte @NonNull [] aBytes)
+  {
+    ValueEnforcer.notEmpty (aBytes, "Bytes");
+    m_aBytes = aBytes.clone ();
+    m_nID = getDictionaryID (m_aBytes);
+  }
+
+  /**
+   * @return The ID of this dictionary, which is the Adler-32 checksum of the content.
+   */
+  public int getID ()
+  {
+    return m_nID;
+  }
+
+  /**
+   * @return The number of bytes of this dictionary. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_aBytes.length;
+  }
+
+  /**
+   * @return A copy of the dictionary content. Never <code>null</code>.
+   */
+  @ReturnsMutableCopy
+  public byte @NonNull [] getAllBytes ()
+  {
+    return m_aBytes.clone ();
+  }
+
+  /**
+   * @return The dictionary content without copying. Must not be modified.
+   */
+  byte @NonNull [] bytes ()
+  {
+    return m_aBytes;
+  }
+
+  /**
+   * Get the dictionary ID of the provided dictionary content.
+   *
+   * @param aBytes
+   *        The dictionary content. May not be <code>null</code>.
+   * @return The Adler-32 checksum of the provided bytes.
+   */
+  public static int getDictionaryID (final byte @NonNull [] aBytes)
+  {
+    final Adler32 aAdler = new Adler32 ();
+    aAdler.update (aBytes);
+    return (int) aAdler.getValue ();
+  }
+
+  @NonNull
+  private static List <PeppolSKTDDArchiveDictionary> _loadAllShipped ()
+  {
+    final List <PeppolSKTDDArchiveDictionary> ret = new ArrayList <> ();
+    while (true)
+    {
+      final String sPath = SHIPPED_DICTIONARY_PATH_PREFIX + (ret.size () + 1) + ".dict";
+      final ClassPathResource aRes = new ClassPathResource (sPath, PeppolSKTDDArchiveDictionary.class.getClassLoader ());
+      if (!aRes.exists ())
+        break;
+      try (final InputStream aIS = aRes.getInputStream ())
+      {
+        if (aIS == null)
+          throw new IllegalStateException ("Failed to open dictionary " + sPath);
+        ret.add (new PeppolSKTDDArchiveDictionary (aIS.readAllBytes ()));
+      }
+      catch (final IOException ex)
+      {
+        throw new IllegalStateException ("Failed to read dictionary " + sPath, ex);
+      }
+    }
+    if (ret.isEmpty ())
+      throw new IllegalStateException ("Found no dictionary at " + SHIPPED_DICTIONARY_PATH_PREFIX + "1.dict");
+    return Collections.unmodifiableList (ret);
+  }
+
+  /**
+   * @return All dictionaries shipped with this library, ordered by version. Archives written with
+   *         any of them can be read without further configuration. Never <code>null</code> nor
+   *         empty.
+   */
+  @NonNull
+  @Nonempty
+  @ReturnsImmutableObject
+  public static List <PeppolSKTDDArchiveDictionary> getAllShipped ()
+  {
+    return ShippedHolder.ALL;
+  }
+
+  /**
+   * @return The latest dictionary shipped with this library, used by default for new archives.
+   *         Version 1 was created with {@link #train(Iterable)} from the Peppol SK TDD 1.0.0 sample
+   *         files. Never <code>null</code>.
+   */
+  @NonNull
+  public static PeppolSKTDDArchiveDictionary getDefault ()
+  {
+    return ShippedHolder.LATEST;
+  }
+
+  private static void _addSegment (final byte @NonNull [] aSample,
+                                   final int nStart,
+                                   final int nEnd,
+                                   @NonNull final Set <String> aSeen,
+                                   @NonNull final Map <String, Integer> aDocFreq)
+  {
+    final int nLen = nEnd - nStart;
+    if (nLen >= MIN_SEGMENT_LENGTH && nLen <= MAX_SEGMENT_LENGTH)
+    {
+      // ISO-8859-1 maps each byte to exactly one char
+      final String sSegment = new String (aSample, nStart, nLen, StandardCharsets.ISO_8859_1);
+      if (aSeen.add (sSegment))
+        aDocFreq.merge (sSegment, Integer.valueOf (1), (a, b) -> Integer.valueOf (a.intValue () + b.intValue ()));
+    }
+  }
+
+  /**
+   * Train a new dictionary from the provided samples using the default maximum size.
+   *
+   * @param aSamples
+   *        The sample documents to train from. May not be <code>null</code> and should contain at
+   *        least 2 elements.
+   * @return The new dictionary. Never <code>null</code>.
+   * @see #train(Iterable, int)
+   */
+  @NonNull
+  public static PeppolSKTDDArchiveDictionary train (@NonNull final Iterable <byte []> aSamples)
+  {
+    return train (aSamples, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Train a new dictionary from the provided samples. Every sample is split into XML markup and
+   * text segments. The segments that occur in at least two samples are ranked by the number of
+   * samples they occur in times their length, and the best ranked segments are concatenated so that
+   * the most valuable segments are at the end of the dictionary, where Deflate can reference them
+   * with the shortest distances. The result only depends on the provided samples and their order
+   * is irrelevant.
+   *
+   * @param aSamples
+   *        The sample documents to train from. May not be <code>null</code>.
+   * @param nMaxSize
+   *        The maximum dictionary size in bytes. Must be &gt; 0.
+   * @return The new dictionary. Never <code>null</code>.
+   * @throws IllegalArgumentException
+   *         if no common segments were found
+   */
+  @NonNull
+  public static PeppolSKTDDArchiveDictionary train (@NonNull final Iterable <byte []> aSamples,
+                                                    @Nonnegative final int nMaxSize)
+  {
+    ValueEnforcer.notNull (aSamples, "Samples");
+    ValueEnforcer.isGT0 (nMaxSize, "MaxSize");
+
+    final Map <String, Integer> aDocFreq = new HashMap <> ();
+    int nSamples = 0;
+    for (final byte [] aSample : aSamples)
+    {
+      nSamples++;
+      final Set <String> aSeen = new HashSet <> ();
+      int nStart = 0;
+      for (int i = 0; i < aSample.length; ++i)
+      {
+        final byte b = aSample[i];
+        if (b == '<' && i > nStart)
+        {
+          // Markup starts a new segment
+          _addSegment (aSample, nStart, i, aSeen, aDocFreq);
+          nStart = i;
+        }
+        else
+          if (b == '>')
+          {
+            // Markup ends a segment
+            _addSegment (aSample, nStart, i + 1, aSeen, aDocFreq);
+            nStart = i + 1;
+          }
+      }
+      if (nStart < aSample.length)
+        _addSegment (aSample, nStart, aSample.length, aSeen, aDocFreq);
+    }
+
+    final int nMinDocFreq = nSamples > 1 ? 2 : 1;
+    final List <Map.Entry <String, Integer>> aCandidates = new ArrayList <> ();
+    for (final Map.Entry <String, Integer> aEntry : aDocFreq.entrySet ())
+      if (aEntry.getValue ().intValue () >= nMinDocFreq)
+        aCandidates.add (Map.entry (aEntry.getKey (),
+                                    Integer.valueOf (aEntry.getValue ().intValue () * aEntry.getKey ().length ())));
+    // Best score first, content as tie breaker for a stable result
+    aCandidates.sort (Comparator.comparing ((final Map.Entry <String, Integer> x) -> x.getValue ())
+                                .reversed ()
+                                .thenComparing (Map.Entry::getKey));
+
+    final List <String> aSelected = new ArrayList <> ();
+    int nTotal = 0;
+    for (final Map.Entry <String, Integer> aEntry : aCandidates)
+    {
+      final int nLen = aEntry.getKey ().length ();
+      if (nTotal + nLen <= nMaxSize)
+      {
+        aSelected.add (aEntry.getKey ());
+        nTotal += nLen;
+      }
+    }
+    if (aSelected.isEmpty ())
+      throw new IllegalArgumentException ("The samples have no common content to build a dictionary from");
+
+    // Most valuable segments last
+    Collections.reverse (aSelected);
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream (nTotal);
+    for (final String s : aSelected)
+      aBAOS.writeBytes (s.getBytes (StandardCharsets.ISO_8859_1));
+    return new PeppolSKTDDArchiveDictionary (aBAOS.toByteArray ());
+  }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.archive;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.annotation.style.ReturnsMutableObject;
+import com.helger.base.enforce.ValueEnforcer;
+
+/**
+ * Reader for TDD archives created by {@link PeppolSKTDDArchiveWriter}. All dictionaries that were
+ * used to write the archive must be provided - the dictionaries shipped with this library (see
+ * {@link PeppolSKTDDArchiveDictionary#getAllShipped()}) are always known.<br>
+ * The lengths stored in the archive are not trusted: entries larger than the maximum entry size are
+ * rejected and buffers only grow with the data actually read.
+ *
+ * @author Philip Helger
+ */
+@NotThreadSafe
+public class PeppolSKTDDArchiveReader implements AutoCloseable
+{
+  /** The default maximum uncompressed size of a single entry */
+  public static final int DEFAULT_MAX_ENTRY_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * A single archive entry.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  public static final class ArchiveEntry
+  {
+    private final String m_sName;
+    private final Integer m_aDictionaryID;
+    private final byte [] m_aData;
+
+    ArchiveEntry (@NonNull @Nonempty final String sName,
+                  @Nullable final Integer aDictionaryID,
+                  final byte @NonNull [] aData)
+    {
+      m_sName = sName;
+      m_aDictionaryID = aDictionaryID;
+      m_aData = aData;
+    }
+
+    /**
+     * @return The entry name. Neither <code>null</code> nor empty.
+     */
+    @NonNull
+    @Nonempty
+    public String getName ()
+    {
+      return m_sName;
+    }
+
+    /**
+     * @return <code>true</code> if the entry was compressed using a dictionary.
+     */
+    public boolean hasDictionaryID ()
+    {
+      return m_aDictionaryID != null;
+    }
+
+    /**
+     * @return The ID of the dictionary used to compress the entry or <code>null</code> if none was
+     *         used.
+     */
+    @Nullable
+    public Integer getDictionaryID ()
+    {
+      return m_aDictionaryID;
+    }
+
+    /**
+     * @return The uncompressed entry data. Never <code>null</code>.
+     */
+    @ReturnsMutableObject
+    public byte @NonNull [] getData ()
+    {
+      return m_aData;
+    }
+  }
+
+  private final DataInputStream m_aDIS;
+  private final Map <Integer, PeppolSKTDDArchiveDictionary> m_aDictionaries = new HashMap <> ();
+  private final Inflater m_aInflater = new Inflater (true);
+  private final byte [] m_aInBuffer = new byte [8 * 1024];
+  private final byte [] m_aOutBuffer = new byte [8 * 1024];
+  private int m_nMaxEntrySize = DEFAULT_MAX_ENTRY_SIZE;
+  private boolean m_bEndReached = false;
+  private boolean m_bClosed = false;
+
+  /**
+   * Constructor that only knows the shipped dictionaries.
+   *
+   * @param aIS
+   *        The input stream to read from. May not be <code>null</code>. It is closed when this
+   *        reader is closed.
+   * @throws IOException
+   *         if the archive header is invalid
+   */
+  public PeppolSKTDDArchiveReader (@NonNull final InputStream aIS) throws IOException
+  {
+    this (aIS, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aIS
+   *        The input stream to read from. May not be <code>null</code>. It is closed when this
+   *        reader is closed.
+   * @param aAdditionalDictionaries
+   *        Additional dictionaries that were used to write the archive. May be <code>null</code>.
+   * @throws IOException
+   *         if the archive header is invalid
+   */
+  public PeppolSKTDDArchiveReader (@NonNull final InputStream aIS,
+                                   @Nullable final Iterable <PeppolSKTDDArchiveDictionary> aAdditionalDictionaries) throws IOException
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+    m_aDIS = new DataInputStream (new BufferedInputStream (aIS));
+    for (final PeppolSKTDDArchiveDictionary aDict : PeppolSKTDDArchiveDictionary.getAllShipped ())
+      addDictionary (aDict);
+    if (aAdditionalDictionaries != null)
+      for (final PeppolSKTDDArchiveDictionary aDict : aAdditionalDictionaries)
+        addDictionary (aDict);
+
+    final byte [] aMagic = new byte [PeppolSKTDDArchiveWriter.MAGIC.length];
+    m_aDIS.readFully (aMagic);
+    for (int i = 0; i < aMagic.length; ++i)
+      if (aMagic[i] != PeppolSKTDDArchiveWriter.MAGIC[i])
+        throw new IOException ("Not a TDD archive");
+    final int nVersion = m_aDIS.readUnsignedByte ();
+    if (nVersion != PeppolSKTDDArchiveWriter.FORMAT_VERSION)
+      throw new IOException ("Unsupported TDD archive format version " + nVersion);
+  }
+
+  /**
+   * Register a dictionary for decompression.
+   *
+   * @param aDictionary
+   *        The dictionary to add. May not be <code>null</code>.
+   * @return this for chaining
+   */
+  @NonNull
+  public final PeppolSKTDDArchiveReader addDictionary (@NonNull final PeppolSKTDDArchiveDictionary aDictionary)
+  {
+    ValueEnforcer.notNull (aDictionary, "Dictionary");
+    m_aDictionaries.put (Integer.valueOf (aDictionary.getID ()), aDictionary);
+    return this;
+  }
+
+  /**
+   * @return The maximum uncompressed size of a single entry in bytes. Always &gt; 0.
+   */
+  @Nonnegative
+  public final int getMaxEntrySize ()
+  {
+    return m_nMaxEntrySize;
+  }
+
+  /**
+   * Set the maximum uncompressed size of a single entry. Entries claiming a larger size are
+   * rejected as corrupt.
+   *
+   * @param nMaxEntrySize
+   *        The maximum size in bytes. Must be &gt; 0.
+   * @return this for chaining
+   */
+  @NonNull
+  public final PeppolSKTDDArchiveReader setMaxEntrySize (@Nonnegative final int nMaxEntrySize)
+  {
+    ValueEnforcer.isGT0 (nMaxEntrySize, "MaxEntrySize");
+    m_nMaxEntrySize = nMaxEntrySize;
+    return this;
+  }
+
+  /**
+   * The maximum number of bytes Deflate needs to store the provided number of bytes, including the
+   * overhead of stored blocks.
+   */
+  private static long _getMaxCompressedLength (final int nUncompressedLength)
+  {
+    return nUncompressedLength + (nUncompressedLength >> 12) + (nUncompressedLength >> 14) + 64L;
+  }
+
+  /**
+   * Read the next entry of the archive.
+   *
+   * @return The next entry or <code>null</code> if the end of the archive was reached.
+   * @throws IOException
+   *         on read error, if the archive is corrupt or if the dictionary of the entry is unknown
+   */
+  @Nullable
+  public ArchiveEntry readNextEntry () throws IOException
+  {
+    if (m_bClosed)
+      throw new IllegalStateException ("The archive reader was already closed");
+    if (m_bEndReached)
+      return null;
+
+    final int nMarker = m_aDIS.readUnsignedByte ();
+    if (nMarker == PeppolSKTDDArchiveWriter.MARKER_END)
+    {
+      m_bEndReached = true;
+      return null;
+    }
+    if (nMarker != PeppolSKTDDArchiveWriter.MARKER_ENTRY)
+      throw new IOException ("Invalid entry marker " + nMarker);
+
+    final String sName = m_aDIS.readUTF ();
+    final int nFlags = m_aDIS.readUnsignedByte ();
+    final Integer aDictionaryID = (nFlags & PeppolSKTDDArchiveWriter.FLAG_DICTIONARY) != 0 ? Integer.valueOf (m_aDIS.readInt ())
+                                                                                          : null;
+    final int nUncompressedLength = m_aDIS.readInt ();
+    final int nCRC = m_aDIS.readInt ();
+    final int nCompressedLength = m_aDIS.readInt ();
+    if (nUncompressedLength < 0 || nCompressedLength < 0)
+      throw new IOException ("Invalid length in entry '" + sName + "'");
+    if (nUncompressedLength > m_nMaxEntrySize)
+      throw new IOException ("Entry '" +
+                             sName +
+                             "' has " +
+                             nUncompressedLength +
+                             " bytes which exceeds the maximum entry size of " +
+                             m_nMaxEntrySize +
+                             " bytes");
+    if (nCompressedLength > _getMaxCompressedLength (nUncompressedLength))
+      throw new IOException ("Invalid compressed length in entry '" + sName + "'");
+
+    m_aInflater.reset ();
+    if (aDictionaryID != null)
+    {
+      final PeppolSKTDDArchiveDictionary aDict = m_aDictionaries.get (aDictionaryID);
+      if (aDict == null)
+        throw new IOException ("Entry '" + sName + "' requires the unknown dictionary with ID " + aDictionaryID);
+      m_aInflater.setDictionary (aDict.bytes ());
+    }
+
+    // Inflate chunk by chunk, so that a corrupt length does not cause a large allocation
+    final ByteArrayOutputStream aData = new ByteArrayOutputStream (Math.min (nUncompressedLength, 64 * 1024));
+    int nRemaining = nCompressedLength;
+    try
+    {
+      while (aData.size () < nUncompressedLength)
+      {
+        if (m_aInflater.needsInput ())
+        {
+          if (nRemaining == 0)
+            throw new IOException ("Truncated data in entry '" + sName + "'");
+          final int nChunk = Math.min (nRemaining, m_aInBuffer.length);
+          m_aDIS.readFully (m_aInBuffer, 0, nChunk);
+          m_aInflater.setInput (m_aInBuffer, 0, nChunk);
+          nRemaining -= nChunk;
+        }
+        final int nRead = m_aInflater.inflate (m_aOutBuffer, 0, Math.min (m_aOutBuffer.length, nUncompressedLength - aData.size ()));
+        if (nRead == 0 && (m_aInflater.finished () || m_aInflater.needsDictionary ()))
+          throw new IOException ("Truncated data in entry '" + sName + "'");
+        aData.write (m_aOutBuffer, 0, nRead);
+      }
+    }
+    catch (final DataFormatException ex)
+    {
+      throw new IOException ("Corrupt data in entry '" + sName + "'", ex);
+    }
+    // Skip any compressed data not needed
+    if (nRemaining > 0)
+      m_aDIS.skipNBytes (nRemaining);
+    final byte [] aBytes = aData.toByteArray ();
+
+    final CRC32 aCRC = new CRC32 ();
+    aCRC.update (aBytes);
+    if ((int) aCRC.getValue () != nCRC)
+      throw new IOException ("Checksum mismatch in entry '" + sName + "'");
+
+    return new ArchiveEntry (sName, aDictionaryID, aBytes);
+  }
+
+  @Override
+  public void close () throws IOException
+  {
+    if (!m_bClosed)
+    {
+      m_bClosed = true;
+      try
+      {
+        m_aDIS.close ();
+      }
+      finally
+      {
+        m_aInflater.end ();
+      }
+    }
+  }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+
+/**
+ * Writer for TDD archives. Each entry is compressed separately with Deflate, using a preset
+ * {@link PeppolSKTDDArchiveDictionary}, so that single entries can be read without decompressing
+ * the whole archive. The ID of the used dictionary is stored per entry.<br>
+ * Archive layout (all numbers big endian):
+ * <ul>
+ * <li>Header: the 4 bytes {@link #MAGIC} and 1 byte {@link #FORMAT_VERSION}</li>
+ * <li>Per entry: 1 byte {@link #MARKER_ENTRY}, the entry name as modified UTF-8 (see
+ * {@link DataOutputStream#writeUTF(String)}), 1 byte flags ({@link #FLAG_DICTIONARY} if a dictionary
+ * was used), 4 bytes dictionary ID (only if the flag is set), 4 bytes uncompressed length, 4 bytes
+ * CRC-32 of the uncompressed data, 4 bytes compressed length and the raw Deflate data</li>
+ * <li>Trailer: 1 byte {@link #MARKER_END}</li>
+ * </ul>
+ *
+ * @author Philip Helger
+ */
+@NotThreadSafe
+public class PeppolSKTDDArchiveWriter implements AutoCloseable
+{
+  public static final byte [] MAGIC = { 'S', 'K', 'T', 'A' };
+  public static final int FORMAT_VERSION = 1;
+  public static final int MARKER_END = 0;
+  public static final int MARKER_ENTRY = 1;
+  public static final int FLAG_DICTIONARY = 0x01;
+  public static final int DEFAULT_COMPRESSION_LEVEL = Deflater.BEST_COMPRESSION;
+
+  private final DataOutputStream m_aDOS;
+  private final PeppolSKTDDArchiveDictionary m_aDictionary;
+  private final Deflater m_aDeflater;
+  private final byte [] m_aBuffer = new byte [8 * 1024];
+  private final CRC32 m_aCRC = new CRC32 ();
+  private boolean m_bClosed = false;
+  private int m_nEntryCount = 0;
+  private long m_nUncompressedBytes = 0;
+  private long m_nCompressedBytes = 0;
+
+  /**
+   * Constructor using the default dictionary and the default compression level.
+   *
+   * @param aOS
+   *        The output stream to write to. May not be <code>null</code>. It is closed when this
+   *        writer is closed.
+   * @throws IOException
+   *         if writing the header fails
+   */
+  public PeppolSKTDDArchiveWriter (@NonNull final OutputStream aOS) throws IOException
+  {
+    this (aOS, PeppolSKTDDArchiveDictionary.getDefault (), DEFAULT_COMPRESSION_LEVEL);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aOS
+   *        The output stream to write to. May not be <code>null</code>. It is closed when this
+   *        writer is closed.
+   * @param aDictionary
+   *        The dictionary to use. May be <code>null</code> to compress without a dictionary.
+   * @param nCompressionLevel
+   *        The Deflate compression level from 0 to 9.
+   * @throws IOException
+   *         if writing the header fails
+   */
+  public PeppolSKTDDArchiveWriter (@NonNull final OutputStream aOS,
+                                   @Nullable final PeppolSKTDDArchiveDictionary aDictionary,
+                                   final int nCompressionLevel) throws IOException
+  {
+    ValueEnforcer.notNull (aOS, "OutputStream");
+    ValueEnforcer.isBetweenInclusive (nCompressionLevel,
+                                      "CompressionLevel",
+                                      Deflater.NO_COMPRESSION,
+                                      Deflater.BEST_COMPRESSION);
+    m_aDOS = new DataOutputStream (new BufferedOutputStream (aOS));
+    m_aDictionary = aDictionary;
+    // Raw Deflate - the dictionary ID and the checksum are part of the entry header
+    m_aDeflater = new Deflater (nCompressionLevel, true);
+    m_aDOS.write (MAGIC);
+    m_aDOS.writeByte (FORMAT_VERSION);
+  }
+
+  /**
+   * @return The dictionary used for new entries. May be <code>null</code>.
+   */
+  @Nullable
+  public final PeppolSKTDDArchiveDictionary getDictionary ()
+  {
+    return m_aDictionary;
+  }
+
+  /**
+   * @return The number of entries written so far.
+   */
+  @Nonnegative
+  public final int getEntryCount ()
+  {
+    return m_nEntryCount;
+  }
+
+  /**
+   * @return The total number of uncompressed bytes of all entries written so far.
+   */
+  @Nonnegative
+  public final long getUncompressedBytes ()
+  {
+    return m_nUncompressedBytes;
+  }
+
+  /**
+   * @return The total number of compressed bytes of all entries written so far, excluding the
+   *         entry headers.
+   */
+  @Nonnegative
+  public final long getCompressedBytes ()
+  {
+    return m_nCompressedBytes;
+  }
+
+  /**
+   * Add a new entry to the archive.
+   *
+   * @param sName
+   *        The name of the entry (e.g. the TDD UUID). May neither be <code>null</code> nor empty.
+   * @param aData
+   *        The uncompressed data of the entry. May not be <code>null</code>.
+   * @return this for chaining
+   * @throws IOException
+   *         on write error
+   */
+  @NonNull
+  public PeppolSKTDDArchiveWriter addEntry (@NonNull @Nonempty final String sName, final byte @NonNull [] aData)
+                                                                                                             throws IOException
+  {
+    ValueEnforcer.notEmpty (sName, "Name");
+    ValueEnforcer.notNull (aData, "Data");
+    if (m_bClosed)
+      throw new IllegalStateException ("The archive writer was already closed");
+
+    m_aDeflater.reset ();
+    if (m_aDictionary != null)
+      m_aDeflater.setDictionary (m_aDictionary.bytes ());
+    m_aDeflater.setInput (aData);
+    m_aDeflater.finish ();
+    final ByteArrayOutputStream aCompressed = new ByteArrayOutputStream (Math.max (64, aData.length / 4));
+    while (!m_aDeflater.finished ())
+    {
+      final int nLen = m_aDeflater.deflate (m_aBuffer);
+      aCompressed.write (m_aBuffer, 0, nLen);
+    }
+
+    m_aCRC.reset ();
+    m_aCRC.update (aData);
+
+    m_aDOS.writeByte (MARKER_ENTRY);
+    m_aDOS.writeUTF (sName);
+    if (m_aDictionary != null)
+    {
+      m_aDOS.writeByte (FLAG_DICTIONARY);
+      m_aDOS.writeInt (m_aDictionary.getID ());
+    }
+    else
+      m_aDOS.writeByte (0);
+    m_aDOS.writeInt (aData.length);
+    m_aDOS.writeInt ((int) m_aCRC.getValue ());
+    m_aDOS.writeInt (aCompressed.size ());
+    aCompressed.writeTo (m_aDOS);
+
+    m_nEntryCount++;
+    m_nUncompressedBytes += aData.length;
+    m_nCompressedBytes += aCompressed.size ();
+    return this;
+  }
+
+  /**
+   * Add a new entry with the XML representation of the provided TDD to the archive.
+   *
+   * @param sName
+   *        The name of the entry (e.g. the TDD UUID). May neither be <code>null</code> nor empty.
+   * @param aTDD
+   *        The TDD to be added. May not be <code>null</code>.
+   * @return this for chaining
+   * @throws IOException
+   *         on write error or if the TDD could not be serialized
+   */
+  @NonNull
+  public PeppolSKTDDArchiveWriter addEntry (@NonNull @Nonempty final String sName, @NonNull final TaxDataType aTDD)
+                                                                                                                  throws IOException
+  {
+    ValueEnforcer.notNull (aTDD, "TDD");
+    final byte [] aBytes = new PeppolSKTDD100Marshaller ().getAsBytes (aTDD);
+    if (aBytes == null)
+      throw new IOException ("Failed to serialize TDD '" + sName + "'");
+    return addEntry (sName, aBytes);
+  }
+
+  /**
+   * Write the archive trailer and close the underlying stream.
+   *
+   * @throws IOException
+   *         on write error
+   */
+  @Override
+  public void close () throws IOException
+  {
+    if (!m_bClosed)
+    {
+      m_bClosed = true;
+      try
+      {
+        m_aDOS.writeByte (MARKER_END);
+        m_aDOS.close ();
+      }
+      finally
+      {
+        m_aDeflater.end ();
+      }
+    }
+  }
+}
@@ -0,0 +1,719 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.serialize;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.state.ESuccess;
+import com.helger.peppol.sk.tdd.serialize.PeppolSKTDD100Projection.EToken;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+
+/**
+ * Streaming CBOR (RFC 8949) writer and reader for the {@link PeppolSKTDD100Projection} of Peppol SK
+ * TDD 1.0.0 documents. Objects are written as indefinite length maps with text string keys, arrays
+ * as indefinite length arrays, strings as text strings and decimal values as decimal fractions (tag
+ * 4) so that the scale is preserved. The reader additionally accepts definite length containers,
+ * integers, floating point numbers and bignums. No tree model is created while reading or writing.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class PeppolSKTDD100CborCodec
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (PeppolSKTDD100CborCodec.class);
+
+  private static final int MAJOR_UNSIGNED = 0;
+  private static final int MAJOR_NEGATIVE = 1;
+  private static final int MAJOR_BYTES = 2;
+  private static final int MAJOR_TEXT = 3;
+  private static final int MAJOR_ARRAY = 4;
+  private static final int MAJOR_MAP = 5;
+  private static final int MAJOR_TAG = 6;
+  private static final int MAJOR_SIMPLE = 7;
+
+  private static final int INDEFINITE = 31;
+  private static final int BREAK = 0xff;
+
+  private static final int TAG_POS_BIGNUM = 2;
+  private static final int TAG_NEG_BIGNUM = 3;
+  private static final int TAG_DECIMAL_FRACTION = 4;
+
+  private static final BigInteger LONG_MIN = BigInteger.valueOf (Long.MIN_VALUE);
+  private static final BigInteger LONG_MAX = BigInteger.valueOf (Long.MAX_VALUE);
+
+  private PeppolSKTDD100CborCodec ()
+  {}
+
+  /**
+   * Streaming CBOR writer
+   */
+  static final class CborWriter implements PeppolSKTDD100Projection.IWriter
+  {
+    private final OutputStream m_aOS;
+
+    CborWriter (@NonNull final OutputStream aOS)
+    {
+      m_aOS = aOS;
+    }
+
+    private void _header (final int nMajor, final long nValue) throws IOException
+    {
+      final int nMT = nMajor << 5;
+      if (nValue < 24)
+        m_aOS.write (nMT | (int) nValue);
+      else
+        if (nValue <= 0xff)
+        {
+          m_aOS.write (nMT | 24);
+          m_aOS.write ((int) nValue);
+        }
+        else
+          if (nValue <= 0xffff)
+          {
+            m_aOS.write (nMT | 25);
+            m_aOS.write ((int) (nValue >> 8));
+            m_aOS.write ((int) nValue);
+          }
+          else
+            if (nValue <= 0xffffffffL)
+            {
+              m_aOS.write (nMT | 26);
+              for (int i = 3; i >= 0; --i)
+                m_aOS.write ((int) (nValue >> (8 * i)));
+            }
+            else
+            {
+              m_aOS.write (nMT | 27);
+              for (int i = 7; i >= 0; --i)
+                m_aOS.write ((int) (nValue >> (8 * i)));
+            }
+    }
+
+    private void _integer (@NonNull final BigInteger aValue) throws IOException
+    {
+      if (aValue.compareTo (LONG_MIN) >= 0 && aValue.compareTo (LONG_MAX) <= 0)
+      {
+        final long n = aValue.longValue ();
+        if (n >= 0)
+          _header (MAJOR_UNSIGNED, n);
+        else
+          _header (MAJOR_NEGATIVE, -1 - n);
+      }
+      else
+      {
+        final boolean bNegative = aValue.signum () < 0;
+        _header (MAJOR_TAG, bNegative ? TAG_NEG_BIGNUM : TAG_POS_BIGNUM);
+        byte [] aBytes = (bNegative ? BigInteger.ONE.negate ().subtract (aValue) : aValue).toByteArray ();
+        if (aBytes.length > 1 && aBytes[0] == 0)
+        {
+          // Strip the sign byte
+          final byte [] aStripped = new byte [aBytes.length - 1];
+          System.arraycopy (aBytes, 1, aStripped, 0, aStripped.length);
+          aBytes = aStripped;
+        }
+        _header (MAJOR_BYTES, aBytes.length);
+        m_aOS.write (aBytes);
+      }
+    }
+
+    @Override
+    public void beginObject () throws IOException
+    {
+      m_aOS.write ((MAJOR_MAP << 5) | INDEFINITE);
+    }
+
+    @Override
+    public void endObject () throws IOException
+    {
+      m_aOS.write (BREAK);
+    }
+
+    @Override
+    public void beginArray () throws IOException
+    {
+      m_aOS.write ((MAJOR_ARRAY << 5) | INDEFINITE);
+    }
+
+    @Override
+    public void endArray () throws IOException
+    {
+      m_aOS.write (BREAK);
+    }
+
+    @Override
+    public void name (@NonNull final String sName) throws IOException
+    {
+      value (sName);
+    }
+
+    @Override
+    public void value (@NonNull final String sValue) throws IOException
+    {
+      final byte [] aBytes = sValue.getBytes (StandardCharsets.UTF_8);
+      _header (MAJOR_TEXT, aBytes.length);
+      m_aOS.write (aBytes);
+    }
+
+    @Override
+    public void value (@NonNull final BigDecimal aValue) throws IOException
+    {
+      // [exponent, mantissa] with value = mantissa * 10^exponent
+      _header (MAJOR_TAG, TAG_DECIMAL_FRACTION);
+      _header (MAJOR_ARRAY, 2);
+      _integer (BigInteger.valueOf (-aValue.scale ()));
+      _integer (aValue.unscaledValue ());
+    }
+
+    @Override
+    public void flush () throws IOException
+    {
+      m_aOS.flush ();
+    }
+  }
+
+  /**
+   * Streaming CBOR pull reader
+   */
+  static final class CborReader implements PeppolSKTDD100Projection.IReader
+  {
+    private static final class Container
+    {
+      private final boolean m_bMap;
+      // Remaining data items or -1 for indefinite length
+      private long m_nRemaining;
+      private boolean m_bExpectName;
+
+      Container (final boolean bMap, final long nCount)
+      {
+        m_bMap = bMap;
+        m_nRemaining = nCount < 0 ? -1 : bMap ? 2 * nCount : nCount;
+        m_bExpectName = bMap;
+      }
+    }
+
+    private final DataInputStream m_aDIS;
+    private final Deque <Container> m_aStack = new ArrayDeque <> ();
+    private boolean m_bRootRead = false;
+    private EToken m_ePeeked;
+    private Object m_aPeekedValue;
+    private long m_nPeekedCount;
+
+    CborReader (@NonNull final InputStream aIS)
+    {
+      m_aDIS = new DataInputStream (aIS);
+    }
+
+    @NonNull
+    private static IOException _syntaxError (@NonNull final String sMsg)
+    {
+      return new IOException ("Malformed CBOR: " + sMsg);
+    }
+
+    private long _readArgument (final int nInfo) throws IOException
+    {
+      if (nInfo < 24)
+        return nInfo;
+      switch (nInfo)
+      {
+        case 24:
+          return m_aDIS.readUnsignedByte ();
+        case 25:
+          return m_aDIS.readUnsignedShort ();
+        case 26:
+          return m_aDIS.readInt () & 0xffffffffL;
+        case 27:
+        {
+          final long ret = m_aDIS.readLong ();
+          if (ret < 0)
+            throw _syntaxError ("argument too large");
+          return ret;
+        }
+        case INDEFINITE:
+          return -1;
+        default:
+          throw _syntaxError ("reserved additional information " + nInfo);
+      }
+    }
+
+    private long _readDefiniteArgument (final int nInfo) throws IOException
+    {
+      if (nInfo == INDEFINITE)
+        throw _syntaxError ("indefinite length is not allowed here");
+      return _readArgument (nInfo);
+    }
+
+    private byte @NonNull [] _readBytes (final long nLength) throws IOException
+    {
+      if (nLength < 0 || nLength > Integer.MAX_VALUE)
+        throw _syntaxError ("unsupported length " + nLength);
+      // Does not allocate the claimed length upfront, so a malformed length cannot exhaust memory
+      final byte [] ret = m_aDIS.readNBytes ((int) nLength);
+      if (ret.length != nLength)
+        throw _syntaxError ("unexpected end of data");
+      return ret;
+    }
+
+    @NonNull
+    private static BigDecimal _getFinite (final float fValue) throws IOException
+    {
+      if (Float.isNaN (fValue) || Float.isInfinite (fValue))
+        throw _syntaxError ("non-finite number " + fValue);
+      return new BigDecimal (Float.toString (fValue));
+    }
+
+    @NonNull
+    private static BigDecimal _getFinite (final double dValue) throws IOException
+    {
+      if (Double.isNaN (dValue) || Double.isInfinite (dValue))
+        throw _syntaxError ("non-finite number " + dValue);
+      return new BigDecimal (Double.toString (dValue));
+    }
+
+    @NonNull
+    private String _readText (final long nLength) throws IOException
+    {
+      if (nLength < 0)
+      {
+        // Indefinite length text: concatenation of definite chunks
+        final StringBuilder aSB = new StringBuilder ();
+        while (true)
+        {
+          final int nIB = m_aDIS.readUnsignedByte ();
+          if (nIB == BREAK)
+            return aSB.toString ();
+          if ((nIB >> 5) != MAJOR_TEXT)
+            throw _syntaxError ("invalid text chunk");
+          aSB.append (_readText (_readArgument (nIB & 0x1f)));
+        }
+      }
+      return new String (_readBytes (nLength), StandardCharsets.UTF_8);
+    }
+
+    @NonNull
+    private BigInteger _readInteger () throws IOException
+    {
+      final int nIB = m_aDIS.readUnsignedByte ();
+      final int nMajor = nIB >> 5;
+      final int nInfo = nIB & 0x1f;
+      switch (nMajor)
+      {
+        case MAJOR_UNSIGNED:
+          return BigInteger.valueOf (_readDefiniteArgument (nInfo));
+        case MAJOR_NEGATIVE:
+          return BigInteger.valueOf (-1 - _readDefiniteArgument (nInfo));
+        case MAJOR_TAG:
+        {
+          final long nTag = _readDefiniteArgument (nInfo);
+          if (nTag != TAG_POS_BIGNUM && nTag != TAG_NEG_BIGNUM)
+            throw _syntaxError ("unexpected tag " + nTag + " for integer");
+          return _readBignum (nTag);
+        }
+        default:
+          throw _syntaxError ("expected integer but found major type " + nMajor);
+      }
+    }
+
+    @NonNull
+    private BigDecimal _readDecimalFraction () throws IOException
+    {
+      final int nIB = m_aDIS.readUnsignedByte ();
+      if ((nIB >> 5) != MAJOR_ARRAY)
+        throw _syntaxError ("decimal fraction must be an array");
+      final long nLen = _readArgument (nIB & 0x1f);
+      if (nLen != 2 && nLen != -1)
+        throw _syntaxError ("decimal fraction must have 2 elements");
+      final BigInteger aExponent = _readInteger ();
+      final BigInteger aMantissa = _readInteger ();
+      if (nLen == -1 && m_aDIS.readUnsignedByte () != BREAK)
+        throw _syntaxError ("decimal fraction must have 2 elements");
+      if (aExponent.bitLength () > 31 || aExponent.intValue () == Integer.MIN_VALUE)
+        throw _syntaxError ("decimal fraction exponent out of range");
+      return new BigDecimal (aMantissa, -aExponent.intValue ());
+    }
+
+    @NonNull
+    private BigInteger _readBignum (final long nTag) throws IOException
+    {
+      final int nBytesIB = m_aDIS.readUnsignedByte ();
+      if ((nBytesIB >> 5) != MAJOR_BYTES)
+        throw _syntaxError ("bignum must be a byte string");
+      final BigInteger aValue = new BigInteger (1, _readBytes (_readDefiniteArgument (nBytesIB & 0x1f)));
+      return nTag == TAG_POS_BIGNUM ? aValue : BigInteger.ONE.negate ().subtract (aValue);
+    }
+
+    private static float _getHalfFloat (final int nBits)
+    {
+      final int nExp = (nBits >> 10) & 0x1f;
+      final int nMant = nBits & 0x3ff;
+      final float fValue;
+      if (nExp == 0)
+        fValue = (float) (nMant * Math.pow (2, -24));
+      else
+        if (nExp == 31)
+          fValue = nMant == 0 ? Float.POSITIVE_INFINITY : Float.NaN;
+        else
+          fValue = (float) ((nMant + 1024) * Math.pow (2, nExp - 25));
+      return (nBits & 0x8000) != 0 ? -fValue : fValue;
+    }
+
+    @NonNull
+    private EToken _readItem () throws IOException
+    {
+      int nIB = m_aDIS.readUnsignedByte ();
+      // Ignore tags other than numbers and use the tagged item
+      while ((nIB >> 5) == MAJOR_TAG)
+      {
+        final long nTag = _readDefiniteArgument (nIB & 0x1f);
+        if (nTag == TAG_DECIMAL_FRACTION)
+        {
+          m_aPeekedValue = _readDecimalFraction ();
+          return EToken.NUMBER;
+        }
+        if (nTag == TAG_POS_BIGNUM || nTag == TAG_NEG_BIGNUM)
+        {
+          m_aPeekedValue = new BigDecimal (_readBignum (nTag));
+          return EToken.NUMBER;
+        }
+        nIB = m_aDIS.readUnsignedByte ();
+      }
+
+      final int nMajor = nIB >> 5;
+      final int nInfo = nIB & 0x1f;
+      switch (nMajor)
+      {
+        case MAJOR_UNSIGNED:
+          m_aPeekedValue = new BigDecimal (BigInteger.valueOf (_readDefiniteArgument (nInfo)));
+          return EToken.NUMBER;
+        case MAJOR_NEGATIVE:
+          m_aPeekedValue = new BigDecimal (BigInteger.valueOf (-1 - _readDefiniteArgument (nInfo)));
+          return EToken.NUMBER;
+        case MAJOR_TEXT:
+          m_aPeekedValue = _readText (_readArgument (nInfo));
+          return EToken.STRING;
+        case MAJOR_ARRAY:
+          m_nPeekedCount = _readArgument (nInfo);
+          return EToken.BEGIN_ARRAY;
+        case MAJOR_MAP:
+          m_nPeekedCount = _readArgument (nInfo);
+          return EToken.BEGIN_OBJECT;
+        case MAJOR_SIMPLE:
+          switch (nInfo)
+          {
+            case 20:
+              m_aPeekedValue = "false";
+              return EToken.BOOLEAN;
+            case 21:
+              m_aPeekedValue = "true";
+              return EToken.BOOLEAN;
+            case 22:
+            case 23:
+              m_aPeekedValue = null;
+              return EToken.NULL;
+            case 25:
+              m_aPeekedValue = _getFinite (_getHalfFloat (m_aDIS.readUnsignedShort ()));
+              return EToken.NUMBER;
+            case 26:
+              m_aPeekedValue = _getFinite (m_aDIS.readFloat ());
+              return EToken.NUMBER;
+            case 27:
+              m_aPeekedValue = _getFinite (m_aDIS.readDouble ());
+              return EToken.NUMBER;
+            default:
+              throw _syntaxError ("unsupported simple value " + nInfo);
+          }
+        default:
+          throw _syntaxError ("unsupported major type " + nMajor);
+      }
+    }
+
+    @Override
+    @NonNull
+    public EToken peek () throws IOException
+    {
+      if (m_ePeeked != null)
+        return m_ePeeked;
+
+      final Container aTop = m_aStack.peek ();
+      final EToken ret;
+      if (aTop == null)
+      {
+        if (m_bRootRead)
+        {
+          if (m_aDIS.read () >= 0)
+            throw _syntaxError ("trailing content");
+          ret = EToken.END_DOCUMENT;
+        }
+        else
+        {
+          m_bRootRead = true;
+          ret = _readItem ();
+        }
+      }
+      else
+        if (aTop.m_nRemaining == 0)
+          ret = aTop.m_bMap ? EToken.END_OBJECT : EToken.END_ARRAY;
+        else
+        {
+          if (aTop.m_nRemaining < 0)
+          {
+            // Check for break
+            m_aDIS.mark (1);
+            final int nIB = m_aDIS.readUnsignedByte ();
+            if (nIB == BREAK)
+            {
+              if (aTop.m_bMap && !aTop.m_bExpectName)
+                throw _syntaxError ("map without value");
+              m_ePeeked = aTop.m_bMap ? EToken.END_OBJECT : EToken.END_ARRAY;
+              return m_ePeeked;
+            }
+            m_aDIS.reset ();
+          }
+          else
+            aTop.m_nRemaining--;
+
+          if (aTop.m_bMap && aTop.m_bExpectName)
+          {
+            final EToken eKey = _readItem ();
+            if (eKey != EToken.STRING)
+              throw _syntaxError ("only text string keys are supported");
+            ret = EToken.NAME;
+          }
+          else
+            ret = _readItem ();
+          if (aTop.m_bMap)
+            aTop.m_bExpectName = !aTop.m_bExpectName;
+        }
+      m_ePeeked = ret;
+      return ret;
+    }
+
+    private void _expect (@NonNull final EToken eExpected) throws IOException
+    {
+      final EToken e = peek ();
+      if (e != eExpected)
+        throw _syntaxError ("expected " + eExpected + " but found " + e);
+      m_ePeeked = null;
+    }
+
+    @Override
+    public void beginObject () throws IOException
+    {
+      _expect (EToken.BEGIN_OBJECT);
+      if (m_nPeekedCount > Long.MAX_VALUE / 2)
+        throw _syntaxError ("map too large");
+      m_aStack.push (new Container (true, m_nPeekedCount));
+    }
+
+    @Override
+    public void endObject () throws IOException
+    {
+      _expect (EToken.END_OBJECT);
+      m_aStack.pop ();
+    }
+
+    @Override
+    public void beginArray () throws IOException
+    {
+      _expect (EToken.BEGIN_ARRAY);
+      m_aStack.push (new Container (false, m_nPeekedCount));
+    }
+
+    @Override
+    public void endArray () throws IOException
+    {
+      _expect (EToken.END_ARRAY);
+      m_aStack.pop ();
+    }
+
+    @Override
+    @NonNull
+    public String nextName () throws IOException
+    {
+      _expect (EToken.NAME);
+      return (String) m_aPeekedValue;
+    }
+
+    @Override
+    @Nullable
+    public String nextString () throws IOException
+    {
+      final EToken e = peek ();
+      if (e != EToken.STRING && e != EToken.NUMBER && e != EToken.BOOLEAN && e != EToken.NULL)
+        throw _syntaxError ("expected a value but found " + e);
+      m_ePeeked = null;
+      if (m_aPeekedValue instanceof final BigDecimal aBD)
+        return aBD.toString ();
+      return (String) m_aPeekedValue;
+    }
+
+    @Override
+    @Nullable
+    public BigDecimal nextDecimal () throws IOException
+    {
+      final EToken e = peek ();
+      if (e == EToken.NUMBER)
+      {
+        m_ePeeked = null;
+        return (BigDecimal) m_aPeekedValue;
+      }
+      final String s = nextString ();
+      if (s == null)
+        return null;
+      try
+      {
+        return new BigDecimal (s);
+      }
+      catch (final NumberFormatException ex)
+      {
+        throw _syntaxError ("invalid number '" + s + "'");
+      }
+    }
+
+    @Override
+    public void skipValue () throws IOException
+    {
+      int nDepth = 0;
+      do
+      {
+        switch (peek ())
+        {
+          case BEGIN_OBJECT:
+            beginObject ();
+            nDepth++;
+            break;
+          case BEGIN_ARRAY:
+            beginArray ();
+            nDepth++;
+            break;
+          case END_OBJECT:
+            endObject ();
+            nDepth--;
+            break;
+          case END_ARRAY:
+            endArray ();
+            nDepth--;
+            break;
+          case END_DOCUMENT:
+            throw _syntaxError ("unexpected end of document");
+          default:
+            m_ePeeked = null;
+            break;
+        }
+      } while (nDepth > 0);
+    }
+  }
+
+  /**
+   * Write the CBOR projection of the provided TDD to the provided output stream. The stream is
+   * flushed but not closed.
+   *
+   * @param aTDD
+   *        The TDD to write. May not be <code>null</code>.
+   * @param aOS
+   *        The output stream to write to. May not be <code>null</code>.
+   * @return {@link ESuccess}
+   */
+  @NonNull
+  public static ESuccess write (@NonNull final TaxDataType aTDD, @NonNull final OutputStream aOS)
+  {
+    try
+    {
+      PeppolSKTDD100Projection.write (aTDD, new CborWriter (new BufferedOutputStream (aOS)));
+      return ESuccess.SUCCESS;
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.error ("Failed to write TDD as CBOR", ex);
+      return ESuccess.FAILURE;
+    }
+  }
+
+  /**
+   * Get the CBOR projection of the provided TDD as bytes.
+   *
+   * @param aTDD
+   *        The TDD to write. May not be <code>null</code>.
+   * @return <code>null</code> if writing failed.
+   */
+  public static byte @Nullable [] getAsBytes (@NonNull final TaxDataType aTDD)
+  {
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream (1024);
+    if (write (aTDD, aBAOS).isFailure ())
+      return null;
+    return aBAOS.toByteArray ();
+  }
+
+  /**
+   * Read a CBOR projection from the provided input stream. The stream must support mark/reset, or it
+   * is buffered internally. The stream is not closed.
+   *
+   * @param aIS
+   *        The input stream to read from. May not be <code>null</code>.
+   * @return The TDD containing only the projected fields or <code>null</code> if the CBOR is
+   *         malformed.
+   */
+  @Nullable
+  public static TaxDataType read (@NonNull final InputStream aIS)
+  {
+    try
+    {
+      final InputStream aRealIS = aIS.markSupported () ? aIS : new BufferedInputStream (aIS);
+      final CborReader aReader = new CborReader (aRealIS);
+      final TaxDataType ret = PeppolSKTDD100Projection.read (aReader);
+      if (aReader.peek () != EToken.END_DOCUMENT)
+        throw new IOException ("Unexpected content after the root map");
+      return ret;
+    }
+    catch (final IOException | RuntimeException ex)
+    {
+      LOGGER.error ("Failed to read TDD from CBOR", ex);
+      return null;
+    }
+  }
+
+  /**
+   * Read a CBOR projection from the provided bytes.
+   *
+   * @param aBytes
+   *        The bytes to read from. May not be <code>null</code>.
+   * @return The TDD containing only the projected fields or <code>null</code> if the CBOR is
+   *         malformed.
+   */
+  @Nullable
+  public static TaxDataType read (final byte @NonNull [] aBytes)
+  {
+    return read (new ByteArrayInputStream (aBytes));
+  }
+}
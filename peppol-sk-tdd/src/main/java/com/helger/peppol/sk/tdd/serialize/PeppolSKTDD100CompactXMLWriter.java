@@ -0,0 +1,654 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.serialize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.state.ESuccess;
+import com.helger.peppol.sk.tdd.jaxb.CPeppolSKTDD;
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100JAXBContext;
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
+import com.helger.peppol.sk.tdd.v100.PeppolSKTDD100Builder;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+import com.helger.xml.namespace.MapBasedNamespaceContext;
+
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+
+/**
+ * A compact XML serializer for Peppol SK TDD 1.0.0 documents. The invariant parts of every TDD (XML
+ * declaration, root element with all namespace declarations and the default
+ * <code>CustomizationID</code> and <code>ProfileID</code>) are written from pre-encoded byte
+ * arrays. All namespaces are declared once on the root element with the short prefixes
+ * <code>pxs</code>, <code>cbc</code> and <code>cac</code>, so only the variable content needs to be
+ * serialized. Additional namespace prefixes reported by the JAXB marshaller are declared as well,
+ * so that prefixes used in content (e.g. <code>xsi:type</code>) stay resolvable. The output is not
+ * formatted and is encoded into a reused buffer.<br>
+ * No XML Schema validation happens while writing - use {@link PeppolSKTDD100Marshaller} if that is
+ * required.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class PeppolSKTDD100CompactXMLWriter
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (PeppolSKTDD100CompactXMLWriter.class);
+
+  private static final MapBasedNamespaceContext NS_CTX = PeppolSKTDD100Marshaller.createNamespaceContext ();
+  private static final String NS_PXS = CPeppolSKTDD.TDD_XSD_1_0_0_NS;
+  private static final String NS_CBC = NS_CTX.getNamespaceURI ("cbc");
+  private static final String NS_CAC = NS_CTX.getNamespaceURI ("cac");
+
+  private static final byte [] XML_DECL = _bytes ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+  // Without the closing '>', as additional declarations may follow
+  private static final byte [] ROOT_START_OPEN = _bytes ("<pxs:TaxData xmlns:pxs=\"" +
+                                                         NS_PXS +
+                                                         "\" xmlns:cbc=\"" +
+                                                         NS_CBC +
+                                                         "\" xmlns:cac=\"" +
+                                                         NS_CAC +
+                                                         "\"");
+  private static final byte [] ROOT_END = _bytes ("</pxs:TaxData>");
+  private static final byte [] DEFAULT_CUSTOMIZATION_ID = _bytes ("<cbc:CustomizationID>" +
+                                                                  PeppolSKTDD100Builder.DEFAULT_CUSTOMIZATION_ID +
+                                                                  "</cbc:CustomizationID>");
+  private static final byte [] DEFAULT_PROFILE_ID = _bytes ("<cbc:ProfileID>" +
+                                                            PeppolSKTDD100Builder.DEFAULT_PROFILE_ID +
+                                                            "</cbc:ProfileID>");
+
+  /** Cache from namespace URI + local name to the encoded qualified name of the root namespaces */
+  private static final Map <String, byte []> QNAME_CACHE = new ConcurrentHashMap <> ();
+
+  private PeppolSKTDD100CompactXMLWriter ()
+  {}
+
+  private static byte @NonNull [] _bytes (@NonNull final String s)
+  {
+    return s.getBytes (StandardCharsets.UTF_8);
+  }
+
+  @Nullable
+  private static String _getRootPrefix (@NonNull final String sNamespaceURI)
+  {
+    if (NS_PXS.equals (sNamespaceURI))
+      return "pxs";
+    if (NS_CBC.equals (sNamespaceURI))
+      return "cbc";
+    if (NS_CAC.equals (sNamespaceURI))
+      return "cac";
+    return null;
+  }
+
+  @Nullable
+  private static String _getRootNamespaceURI (@NonNull final String sPrefix)
+  {
+    switch (sPrefix)
+    {
+      case "pxs":
+        return NS_PXS;
+      case "cbc":
+        return NS_CBC;
+      case "cac":
+        return NS_CAC;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * The SAX handler that receives the events from the JAXB marshaller and writes the compact
+   * output. Element and attribute names of the root namespaces always use the root prefixes. All
+   * prefix mappings reported by the marshaller are declared as well (unless they are identical to a
+   * root declaration), because prefixes may also be referenced from content like
+   * <code>xsi:type</code>. The output is encoded into a reused buffer, so that no objects are
+   * created per event.
+   */
+  private static final class CompactHandler extends DefaultHandler
+  {
+    private final OutputStream m_aOS;
+    private final byte [] m_aBuf = new byte [8 * 1024];
+    private int m_nBufLen = 0;
+    // Prefix mappings reported for the next element, as pairs of prefix and namespace URI
+    private final List <String> m_aPendingNS = new ArrayList <> ();
+    // Declared prefix mappings as pairs of prefix and namespace URI, per depth
+    private final List <List <String>> m_aNestedNS = new ArrayList <> ();
+    private int m_nDepth = 0;
+    private int m_nNextPrefix = 0;
+    private boolean m_bStartTagOpen = false;
+    // The pre-encoded default value that is currently buffered
+    private byte [] m_aPendingDefault;
+    private String m_sPendingDefaultValue;
+    private String m_sPendingLocalName;
+    private final StringBuilder m_aPendingText = new StringBuilder ();
+
+    CompactHandler (@NonNull final OutputStream aOS)
+    {
+      m_aOS = aOS;
+    }
+
+    void flush () throws IOException
+    {
+      if (m_nBufLen > 0)
+      {
+        m_aOS.write (m_aBuf, 0, m_nBufLen);
+        m_nBufLen = 0;
+      }
+      m_aOS.flush ();
+    }
+
+    private void _ensure (final int nBytes) throws SAXException
+    {
+      if (m_nBufLen + nBytes > m_aBuf.length)
+        try
+        {
+          m_aOS.write (m_aBuf, 0, m_nBufLen);
+          m_nBufLen = 0;
+        }
+        catch (final IOException ex)
+        {
+          throw new SAXException (ex);
+        }
+    }
+
+    private void _write (final int b) throws SAXException
+    {
+      _ensure (1);
+      m_aBuf[m_nBufLen++] = (byte) b;
+    }
+
+    private void _write (final byte @NonNull [] a) throws SAXException
+    {
+      if (a.length > m_aBuf.length)
+      {
+        _ensure (m_aBuf.length);
+        try
+        {
+          m_aOS.write (a);
+        }
+        catch (final IOException ex)
+        {
+          throw new SAXException (ex);
+        }
+      }
+      else
+      {
+        _ensure (a.length);
+        System.arraycopy (a, 0, m_aBuf, m_nBufLen, a.length);
+        m_nBufLen += a.length;
+      }
+    }
+
+    private void _writeASCII (@NonNull final String s) throws SAXException
+    {
+      for (int i = 0; i < s.length (); ++i)
+        _write (s.charAt (i));
+    }
+
+    private void _writeChar (final int c) throws SAXException
+    {
+      // UTF-8 encoding of a single code point
+      _ensure (4);
+      if (c < 0x80)
+        m_aBuf[m_nBufLen++] = (byte) c;
+      else
+        if (c < 0x800)
+        {
+          m_aBuf[m_nBufLen++] = (byte) (0xc0 | (c >> 6));
+          m_aBuf[m_nBufLen++] = (byte) (0x80 | (c & 0x3f));
+        }
+        else
+          if (c < 0x10000)
+          {
+            m_aBuf[m_nBufLen++] = (byte) (0xe0 | (c >> 12));
+            m_aBuf[m_nBufLen++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            m_aBuf[m_nBufLen++] = (byte) (0x80 | (c & 0x3f));
+          }
+          else
+          {
+            m_aBuf[m_nBufLen++] = (byte) (0xf0 | (c >> 18));
+            m_aBuf[m_nBufLen++] = (byte) (0x80 | ((c >> 12) & 0x3f));
+            m_aBuf[m_nBufLen++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            m_aBuf[m_nBufLen++] = (byte) (0x80 | (c & 0x3f));
+          }
+    }
+
+    private void _writeEscaped (@NonNull final CharSequence s, final boolean bAttr) throws SAXException
+    {
+      final int nLen = s.length ();
+      for (int i = 0; i < nLen; ++i)
+      {
+        final char c = s.charAt (i);
+        if (Character.isHighSurrogate (c) && i + 1 < nLen && Character.isLowSurrogate (s.charAt (i + 1)))
+        {
+          _writeChar (Character.toCodePoint (c, s.charAt (i + 1)));
+          ++i;
+        }
+        else
+          _writeEscaped (c, bAttr);
+      }
+    }
+
+    private void _writeEscaped (final char @NonNull [] aChars, final int nStart, final int nLength)
+                                                                                                    throws SAXException
+    {
+      final int nEnd = nStart + nLength;
+      for (int i = nStart; i < nEnd; ++i)
+      {
+        final char c = aChars[i];
+        if (Character.isHighSurrogate (c) && i + 1 < nEnd && Character.isLowSurrogate (aChars[i + 1]))
+        {
+          _writeChar (Character.toCodePoint (c, aChars[i + 1]));
+          ++i;
+        }
+        else
+          _writeEscaped (c, false);
+      }
+    }
+
+    private void _writeEscaped (final char c, final boolean bAttr) throws SAXException
+    {
+      switch (c)
+      {
+        case '&':
+          _writeASCII ("&amp;");
+          break;
+        case '<':
+          _writeASCII ("&lt;");
+          break;
+        case '>':
+          _writeASCII ("&gt;");
+          break;
+        case '"':
+          if (bAttr)
+            _writeASCII ("&quot;");
+          else
+            _write (c);
+          break;
+        case '\t':
+        case '\n':
+        case '\r':
+          if (bAttr || c == '\r')
+          {
+            _writeASCII ("&#");
+            _writeASCII (Integer.toString (c));
+            _write (';');
+          }
+          else
+            _write (c);
+          break;
+        default:
+          _writeChar (c);
+      }
+    }
+
+    private void _closeStartTag () throws SAXException
+    {
+      if (m_bStartTagOpen)
+      {
+        _write ('>');
+        m_bStartTagOpen = false;
+      }
+    }
+
+    /**
+     * @return The namespace URI bound to the provided prefix in the current scope or
+     *         <code>null</code>.
+     */
+    @Nullable
+    private String _getBoundNamespaceURI (@NonNull final String sPrefix)
+    {
+      for (int i = m_aNestedNS.size () - 1; i >= 0; --i)
+      {
+        final List <String> aList = m_aNestedNS.get (i);
+        if (aList != null)
+          for (int j = aList.size () - 2; j >= 0; j -= 2)
+            if (aList.get (j).equals (sPrefix))
+              return aList.get (j + 1);
+      }
+      return sPrefix.isEmpty () ? "" : _getRootNamespaceURI (sPrefix);
+    }
+
+    /**
+     * @return The prefix bound to the provided namespace URI in the current scope or
+     *         <code>null</code>. Root prefixes are preferred.
+     */
+    @Nullable
+    private String _getBoundPrefix (@NonNull final String sNamespaceURI)
+    {
+      final String sRootPrefix = _getRootPrefix (sNamespaceURI);
+      if (sRootPrefix != null && sNamespaceURI.equals (_getBoundNamespaceURI (sRootPrefix)))
+        return sRootPrefix;
+      for (int i = m_aNestedNS.size () - 1; i >= 0; --i)
+      {
+        final List <String> aList = m_aNestedNS.get (i);
+        if (aList != null)
+          for (int j = aList.size () - 2; j >= 0; j -= 2)
+          {
+            final String sPrefix = aList.get (j);
+            if (sPrefix.length () > 0 &&
+                aList.get (j + 1).equals (sNamespaceURI) &&
+                sNamespaceURI.equals (_getBoundNamespaceURI (sPrefix)))
+              return sPrefix;
+          }
+      }
+      return null;
+    }
+
+    private void _writeDeclarations (@NonNull final List <String> aDeclared) throws SAXException
+    {
+      for (int i = 0; i < aDeclared.size (); i += 2)
+      {
+        final String sPrefix = aDeclared.get (i);
+        if (sPrefix.isEmpty ())
+          _writeASCII (" xmlns=\"");
+        else
+        {
+          _writeASCII (" xmlns:");
+          _writeEscaped (sPrefix, true);
+          _write ('=');
+          _write ('"');
+        }
+        _writeEscaped (aDeclared.get (i + 1), true);
+        _write ('"');
+      }
+    }
+
+    /**
+     * Add the pending prefix mappings of the marshaller to the current scope, unless they are
+     * already in scope.
+     */
+    private void _declarePending (@NonNull final List <String> aDeclared)
+    {
+      for (int i = 0; i < m_aPendingNS.size (); i += 2)
+      {
+        final String sPrefix = m_aPendingNS.get (i);
+        final String sNamespaceURI = m_aPendingNS.get (i + 1);
+        if (!sNamespaceURI.equals (_getBoundNamespaceURI (sPrefix)))
+        {
+          aDeclared.add (sPrefix);
+          aDeclared.add (sNamespaceURI);
+        }
+      }
+      m_aPendingNS.clear ();
+    }
+
+    /**
+     * Make sure a prefix is bound to the provided namespace URI in the current scope.
+     */
+    private void _declareIfNeeded (@NonNull final String sNamespaceURI, @NonNull final List <String> aDeclared)
+    {
+      if (sNamespaceURI.length () > 0 && _getBoundPrefix (sNamespaceURI) == null)
+      {
+        // Not reported by the marshaller - create a prefix that is not yet in use
+        final String sDefaultPrefix = NS_CTX.getPrefix (sNamespaceURI);
+        String sPrefix = sDefaultPrefix != null && sDefaultPrefix.length () > 0 ? sDefaultPrefix
+                                                                                : "ns" + m_nNextPrefix++;
+        while (_getBoundNamespaceURI (sPrefix) != null)
+          sPrefix = "ns" + m_nNextPrefix++;
+        aDeclared.add (sPrefix);
+        aDeclared.add (sNamespaceURI);
+      }
+    }
+
+    private void _writeName (@NonNull final String sNamespaceURI,
+                             @NonNull final String sLocalName,
+                             @NonNull final String sPrefix) throws SAXException
+    {
+      if (sPrefix.equals (_getRootPrefix (sNamespaceURI)))
+        _write (QNAME_CACHE.computeIfAbsent (sNamespaceURI + '\u0000' + sLocalName,
+                                             k -> _bytes (sPrefix + ':' + sLocalName)));
+      else
+      {
+        if (sPrefix.length () > 0)
+        {
+          _writeEscaped (sPrefix, false);
+          _write (':');
+        }
+        _writeEscaped (sLocalName, false);
+      }
+    }
+
+    @Override
+    public void startDocument () throws SAXException
+    {
+      _write (XML_DECL);
+    }
+
+    @Override
+    public void startPrefixMapping (final String sPrefix, final String sURI)
+    {
+      m_aPendingNS.add (sPrefix == null ? "" : sPrefix);
+      m_aPendingNS.add (sURI == null ? "" : sURI);
+    }
+
+    @Override
+    public void startElement (final String sURI,
+                              final String sLocalName,
+                              final String sQName,
+                              final Attributes aAttrs) throws SAXException
+    {
+      final String sNamespaceURI = sURI == null ? "" : sURI;
+      final int nDepth = m_nDepth++;
+      if (nDepth == 0)
+      {
+        // Root element is pre-encoded
+        if (!NS_PXS.equals (sNamespaceURI) || !"TaxData".equals (sLocalName))
+          throw new SAXException ("Unexpected root element {" + sNamespaceURI + "}" + sLocalName);
+        final List <String> aDeclared = new ArrayList <> (0);
+        _declarePending (aDeclared);
+        _write (ROOT_START_OPEN);
+        _writeDeclarations (aDeclared);
+        _write ('>');
+        m_aNestedNS.add (aDeclared.isEmpty () ? null : aDeclared);
+        return;
+      }
+
+      if (nDepth == 1 && NS_CBC.equals (sNamespaceURI) && aAttrs.getLength () == 0 && m_aPendingNS.isEmpty ())
+      {
+        if ("CustomizationID".equals (sLocalName))
+        {
+          m_aPendingDefault = DEFAULT_CUSTOMIZATION_ID;
+          m_sPendingDefaultValue = PeppolSKTDD100Builder.DEFAULT_CUSTOMIZATION_ID;
+        }
+        else
+          if ("ProfileID".equals (sLocalName))
+          {
+            m_aPendingDefault = DEFAULT_PROFILE_ID;
+            m_sPendingDefaultValue = PeppolSKTDD100Builder.DEFAULT_PROFILE_ID;
+          }
+        if (m_aPendingDefault != null)
+        {
+          m_sPendingLocalName = sLocalName;
+          m_aPendingText.setLength (0);
+          m_aNestedNS.add (null);
+          return;
+        }
+      }
+
+      _closeStartTag ();
+
+      // Determine all declarations first, as they may be needed for the element name
+      final List <String> aDeclared = new ArrayList <> (0);
+      m_aNestedNS.add (aDeclared);
+      _declarePending (aDeclared);
+      if (sNamespaceURI.isEmpty ())
+      {
+        if (!"".equals (_getBoundNamespaceURI ("")))
+        {
+          // Undeclare an inherited default namespace
+          aDeclared.add ("");
+          aDeclared.add ("");
+        }
+      }
+      else
+        _declareIfNeeded (sNamespaceURI, aDeclared);
+      final int nAttrCount = aAttrs.getLength ();
+      for (int i = 0; i < nAttrCount; ++i)
+      {
+        final String sAttrURI = aAttrs.getURI (i);
+        if (sAttrURI != null)
+          _declareIfNeeded (sAttrURI, aDeclared);
+      }
+
+      _write ('<');
+      _writeName (sNamespaceURI, sLocalName, sNamespaceURI.isEmpty () ? "" : _getBoundPrefix (sNamespaceURI));
+      _writeDeclarations (aDeclared);
+      for (int i = 0; i < nAttrCount; ++i)
+      {
+        final String sAttrURI = aAttrs.getURI (i) == null ? "" : aAttrs.getURI (i);
+        _write (' ');
+        _writeName (sAttrURI, aAttrs.getLocalName (i), sAttrURI.isEmpty () ? "" : _getBoundPrefix (sAttrURI));
+        _write ('=');
+        _write ('"');
+        _writeEscaped (aAttrs.getValue (i), true);
+        _write ('"');
+      }
+      if (aDeclared.isEmpty ())
+        m_aNestedNS.set (m_aNestedNS.size () - 1, null);
+      m_bStartTagOpen = true;
+    }
+
+    @Override
+    public void characters (final char [] aChars, final int nStart, final int nLength) throws SAXException
+    {
+      if (m_aPendingDefault != null)
+      {
+        m_aPendingText.append (aChars, nStart, nLength);
+        return;
+      }
+      if (m_nDepth <= 1)
+      {
+        // Ignore any text directly in the root element
+        return;
+      }
+      _closeStartTag ();
+      _writeEscaped (aChars, nStart, nLength);
+    }
+
+    @Override
+    public void endElement (final String sURI, final String sLocalName, final String sQName) throws SAXException
+    {
+      final String sNamespaceURI = sURI == null ? "" : sURI;
+      final int nDepth = --m_nDepth;
+      if (nDepth == 0)
+      {
+        _write (ROOT_END);
+        m_aNestedNS.remove (m_aNestedNS.size () - 1);
+        return;
+      }
+
+      if (m_aPendingDefault != null)
+      {
+        m_aNestedNS.remove (m_aNestedNS.size () - 1);
+        if (m_sPendingDefaultValue.contentEquals (m_aPendingText))
+          _write (m_aPendingDefault);
+        else
+        {
+          _write ('<');
+          _writeName (NS_CBC, m_sPendingLocalName, "cbc");
+          _write ('>');
+          _writeEscaped (m_aPendingText, false);
+          _write ('<');
+          _write ('/');
+          _writeName (NS_CBC, m_sPendingLocalName, "cbc");
+          _write ('>');
+        }
+        m_aPendingDefault = null;
+        m_sPendingDefaultValue = null;
+        m_sPendingLocalName = null;
+        return;
+      }
+
+      if (m_bStartTagOpen)
+      {
+        // Empty element
+        _write ('/');
+        _write ('>');
+        m_bStartTagOpen = false;
+      }
+      else
+      {
+        _write ('<');
+        _write ('/');
+        _writeName (sNamespaceURI, sLocalName, sNamespaceURI.isEmpty () ? "" : _getBoundPrefix (sNamespaceURI));
+        _write ('>');
+      }
+      m_aNestedNS.remove (m_aNestedNS.size () - 1);
+    }
+  }
+
+  /**
+   * Write the provided TDD in the compact form to the provided output stream. The output stream is
+   * flushed but not closed.
+   *
+   * @param aTDD
+   *        The TDD to be written. May not be <code>null</code>.
+   * @param aOS
+   *        The output stream to write to. May not be <code>null</code>.
+   * @return {@link ESuccess}
+   */
+  @NonNull
+  public static ESuccess write (@NonNull final TaxDataType aTDD, @NonNull final OutputStream aOS)
+  {
+    try
+    {
+      final CompactHandler aHandler = new CompactHandler (aOS);
+
+      final Marshaller aMarshaller = PeppolSKTDD100JAXBContext.getInstance ().createMarshaller ();
+      aMarshaller.marshal (PeppolSKTDD100JAXBContext.createRootElement (aTDD), aHandler);
+
+      aHandler.flush ();
+      return ESuccess.SUCCESS;
+    }
+    catch (final IOException | JAXBException ex)
+    {
+      LOGGER.error ("Failed to write TDD in compact XML form", ex);
+      return ESuccess.FAILURE;
+    }
+  }
+
+  /**
+   * Get the provided TDD in the compact form as a byte array.
+   *
+   * @param aTDD
+   *        The TDD to be written. May not be <code>null</code>.
+   * @return <code>null</code> if writing failed.
+   */
+  public static byte @Nullable [] getAsBytes (@NonNull final TaxDataType aTDD)
+  {
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream (4 * 1024);
+    if (write (aTDD, aBAOS).isFailure ())
+      return null;
+    return aBAOS.toByteArray ();
+  }
+}
@@ -0,0 +1,644 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.serialize;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.state.ESuccess;
+import com.helger.peppol.sk.tdd.serialize.PeppolSKTDD100Projection.EToken;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+
+/**
+ * Streaming JSON writer and reader for the {@link PeppolSKTDD100Projection} of Peppol SK TDD 1.0.0
+ * documents. JSON is written as compact UTF-8 without whitespace. Decimal values are written as JSON
+ * numbers that keep the scale of the original value. No tree model is created while reading or
+ * writing.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class PeppolSKTDD100JsonCodec
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (PeppolSKTDD100JsonCodec.class);
+
+  private PeppolSKTDD100JsonCodec ()
+  {}
+
+  /**
+   * Streaming JSON writer
+   */
+  static final class JsonWriter implements PeppolSKTDD100Projection.IWriter
+  {
+    private final Writer m_aWriter;
+    // true if the current container has no element yet
+    private final Deque <Boolean> m_aFirst = new ArrayDeque <> ();
+    private boolean m_bAfterName = false;
+
+    JsonWriter (@NonNull final Writer aWriter)
+    {
+      m_aWriter = aWriter;
+    }
+
+    private void _beforeValue () throws IOException
+    {
+      if (m_bAfterName)
+      {
+        m_bAfterName = false;
+        return;
+      }
+      _separator ();
+    }
+
+    private void _separator () throws IOException
+    {
+      if (!m_aFirst.isEmpty ())
+      {
+        if (m_aFirst.peek ().booleanValue ())
+        {
+          m_aFirst.pop ();
+          m_aFirst.push (Boolean.FALSE);
+        }
+        else
+          m_aWriter.write (',');
+      }
+    }
+
+    private void _string (@NonNull final String s) throws IOException
+    {
+      m_aWriter.write ('"');
+      for (int i = 0; i < s.length (); ++i)
+      {
+        final char c = s.charAt (i);
+        switch (c)
+        {
+          case '"':
+            m_aWriter.write ("\\\"");
+            break;
+          case '\\':
+            m_aWriter.write ("\\\\");
+            break;
+          case '\n':
+            m_aWriter.write ("\\n");
+            break;
+          case '\r':
+            m_aWriter.write ("\\r");
+            break;
+          case '\t':
+            m_aWriter.write ("\\t");
+            break;
+          default:
+            if (c < 0x20)
+            {
+              m_aWriter.write ("\\u00");
+              m_aWriter.write (Character.forDigit (c >> 4, 16));
+              m_aWriter.write (Character.forDigit (c & 0xf, 16));
+            }
+            else
+              m_aWriter.write (c);
+        }
+      }
+      m_aWriter.write ('"');
+    }
+
+    @Override
+    public void beginObject () throws IOException
+    {
+      _beforeValue ();
+      m_aWriter.write ('{');
+      m_aFirst.push (Boolean.TRUE);
+    }
+
+    @Override
+    public void endObject () throws IOException
+    {
+      m_aFirst.pop ();
+      m_aWriter.write ('}');
+    }
+
+    @Override
+    public void beginArray () throws IOException
+    {
+      _beforeValue ();
+      m_aWriter.write ('[');
+      m_aFirst.push (Boolean.TRUE);
+    }
+
+    @Override
+    public void endArray () throws IOException
+    {
+      m_aFirst.pop ();
+      m_aWriter.write (']');
+    }
+
+    @Override
+    public void name (@NonNull final String sName) throws IOException
+    {
+      _separator ();
+      _string (sName);
+      m_aWriter.write (':');
+      m_bAfterName = true;
+    }
+
+    @Override
+    public void value (@NonNull final String sValue) throws IOException
+    {
+      _beforeValue ();
+      _string (sValue);
+    }
+
+    @Override
+    public void value (@NonNull final BigDecimal aValue) throws IOException
+    {
+      _beforeValue ();
+      // BigDecimal.toString is a valid JSON number and keeps the scale
+      m_aWriter.write (aValue.toString ());
+    }
+
+    @Override
+    public void flush () throws IOException
+    {
+      m_aWriter.flush ();
+    }
+  }
+
+  /**
+   * Streaming JSON pull reader
+   */
+  static final class JsonReader implements PeppolSKTDD100Projection.IReader
+  {
+    private enum EScope
+    {
+      EMPTY_DOCUMENT,
+      NONEMPTY_DOCUMENT,
+      EMPTY_OBJECT,
+      DANGLING_NAME,
+      NONEMPTY_OBJECT,
+      EMPTY_ARRAY,
+      NONEMPTY_ARRAY;
+    }
+
+    private final Reader m_aReader;
+    private final char [] m_aBuf = new char [4096];
+    private int m_nPos = 0;
+    private int m_nLimit = 0;
+    private final Deque <EScope> m_aScopes = new ArrayDeque <> ();
+    private EToken m_ePeeked;
+    private String m_sPeekedValue;
+
+    JsonReader (@NonNull final Reader aReader)
+    {
+      m_aReader = aReader;
+      m_aScopes.push (EScope.EMPTY_DOCUMENT);
+    }
+
+    private int _read () throws IOException
+    {
+      if (m_nPos >= m_nLimit)
+      {
+        m_nLimit = m_aReader.read (m_aBuf, 0, m_aBuf.length);
+        m_nPos = 0;
+        if (m_nLimit <= 0)
+        {
+          m_nLimit = 0;
+          return -1;
+        }
+      }
+      return m_aBuf[m_nPos++];
+    }
+
+    private void _unread ()
+    {
+      m_nPos--;
+    }
+
+    private int _nextNonWhitespace () throws IOException
+    {
+      int c;
+      do
+      {
+        c = _read ();
+      } while (c == ' ' || c == '\t' || c == '\n' || c == '\r');
+      return c;
+    }
+
+    @NonNull
+    private static IOException _syntaxError (@NonNull final String sMsg)
+    {
+      return new IOException ("Malformed JSON: " + sMsg);
+    }
+
+    @NonNull
+    private String _readString () throws IOException
+    {
+      final StringBuilder aSB = new StringBuilder ();
+      while (true)
+      {
+        final int c = _read ();
+        if (c < 0)
+          throw _syntaxError ("unterminated string");
+        if (c == '"')
+          return aSB.toString ();
+        if (c == '\\')
+        {
+          final int e = _read ();
+          switch (e)
+          {
+            case '"':
+            case '\\':
+            case '/':
+              aSB.append ((char) e);
+              break;
+            case 'b':
+              aSB.append ('\b');
+              break;
+            case 'f':
+              aSB.append ('\f');
+              break;
+            case 'n':
+              aSB.append ('\n');
+              break;
+            case 'r':
+              aSB.append ('\r');
+              break;
+            case 't':
+              aSB.append ('\t');
+              break;
+            case 'u':
+            {
+              int n = 0;
+              for (int i = 0; i < 4; ++i)
+              {
+                final int nDigit = Character.digit (_read (), 16);
+                if (nDigit < 0)
+                  throw _syntaxError ("invalid unicode escape");
+                n = (n << 4) | nDigit;
+              }
+              aSB.append ((char) n);
+              break;
+            }
+            default:
+              throw _syntaxError ("invalid escape");
+          }
+        }
+        else
+          aSB.append ((char) c);
+      }
+    }
+
+    @NonNull
+    private String _readLiteral (final int nFirst) throws IOException
+    {
+      final StringBuilder aSB = new StringBuilder ();
+      aSB.append ((char) nFirst);
+      while (true)
+      {
+        final int c = _read ();
+        if (c < 0)
+          break;
+        if ((c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '.' || c == '+' || c == '-')
+          aSB.append ((char) c);
+        else
+        {
+          _unread ();
+          break;
+        }
+      }
+      return aSB.toString ();
+    }
+
+    @NonNull
+    private EToken _readValue () throws IOException
+    {
+      final int c = _nextNonWhitespace ();
+      switch (c)
+      {
+        case '{':
+          return EToken.BEGIN_OBJECT;
+        case '[':
+          return EToken.BEGIN_ARRAY;
+        case '"':
+          m_sPeekedValue = _readString ();
+          return EToken.STRING;
+        case -1:
+          throw _syntaxError ("unexpected end of input");
+        default:
+        {
+          final String sLiteral = _readLiteral (c);
+          m_sPeekedValue = sLiteral;
+          switch (sLiteral)
+          {
+            case "true":
+            case "false":
+              return EToken.BOOLEAN;
+            case "null":
+              m_sPeekedValue = null;
+              return EToken.NULL;
+            default:
+              if (c == '-' || (c >= '0' && c <= '9'))
+                return EToken.NUMBER;
+              throw _syntaxError ("unexpected literal '" + sLiteral + "'");
+          }
+        }
+      }
+    }
+
+    @Override
+    @NonNull
+    public EToken peek () throws IOException
+    {
+      if (m_ePeeked != null)
+        return m_ePeeked;
+
+      final EScope eScope = m_aScopes.pop ();
+      EToken ret;
+      switch (eScope)
+      {
+        case EMPTY_DOCUMENT:
+          m_aScopes.push (EScope.NONEMPTY_DOCUMENT);
+          ret = _readValue ();
+          break;
+        case NONEMPTY_DOCUMENT:
+          m_aScopes.push (EScope.NONEMPTY_DOCUMENT);
+          if (_nextNonWhitespace () != -1)
+            throw _syntaxError ("trailing content");
+          ret = EToken.END_DOCUMENT;
+          break;
+        case EMPTY_ARRAY:
+        case NONEMPTY_ARRAY:
+        {
+          m_aScopes.push (EScope.NONEMPTY_ARRAY);
+          final int c = _nextNonWhitespace ();
+          if (c == ']')
+            ret = EToken.END_ARRAY;
+          else
+          {
+            if (eScope == EScope.NONEMPTY_ARRAY)
+            {
+              if (c != ',')
+                throw _syntaxError ("expected ',' or ']'");
+            }
+            else
+              _unread ();
+            ret = _readValue ();
+          }
+          break;
+        }
+        case EMPTY_OBJECT:
+        case NONEMPTY_OBJECT:
+        {
+          int c = _nextNonWhitespace ();
+          if (c == '}')
+          {
+            m_aScopes.push (eScope);
+            ret = EToken.END_OBJECT;
+          }
+          else
+          {
+            if (eScope == EScope.NONEMPTY_OBJECT)
+            {
+              if (c != ',')
+                throw _syntaxError ("expected ',' or '}'");
+              c = _nextNonWhitespace ();
+            }
+            if (c != '"')
+              throw _syntaxError ("expected property name");
+            m_sPeekedValue = _readString ();
+            m_aScopes.push (EScope.DANGLING_NAME);
+            ret = EToken.NAME;
+          }
+          break;
+        }
+        case DANGLING_NAME:
+          if (_nextNonWhitespace () != ':')
+            throw _syntaxError ("expected ':'");
+          m_aScopes.push (EScope.NONEMPTY_OBJECT);
+          ret = _readValue ();
+          break;
+        default:
+          throw new IllegalStateException ("Unexpected scope " + eScope);
+      }
+      m_ePeeked = ret;
+      return ret;
+    }
+
+    private void _expect (@NonNull final EToken eExpected) throws IOException
+    {
+      final EToken e = peek ();
+      if (e != eExpected)
+        throw _syntaxError ("expected " + eExpected + " but found " + e);
+      m_ePeeked = null;
+    }
+
+    @Override
+    public void beginObject () throws IOException
+    {
+      _expect (EToken.BEGIN_OBJECT);
+      m_aScopes.push (EScope.EMPTY_OBJECT);
+    }
+
+    @Override
+    public void endObject () throws IOException
+    {
+      _expect (EToken.END_OBJECT);
+      m_aScopes.pop ();
+    }
+
+    @Override
+    public void beginArray () throws IOException
+    {
+      _expect (EToken.BEGIN_ARRAY);
+      m_aScopes.push (EScope.EMPTY_ARRAY);
+    }
+
+    @Override
+    public void endArray () throws IOException
+    {
+      _expect (EToken.END_ARRAY);
+      m_aScopes.pop ();
+    }
+
+    @Override
+    @NonNull
+    public String nextName () throws IOException
+    {
+      _expect (EToken.NAME);
+      return m_sPeekedValue;
+    }
+
+    @Override
+    @Nullable
+    public String nextString () throws IOException
+    {
+      final EToken e = peek ();
+      if (e != EToken.STRING && e != EToken.NUMBER && e != EToken.BOOLEAN && e != EToken.NULL)
+        throw _syntaxError ("expected a value but found " + e);
+      m_ePeeked = null;
+      return m_sPeekedValue;
+    }
+
+    @Override
+    @Nullable
+    public BigDecimal nextDecimal () throws IOException
+    {
+      final String s = nextString ();
+      if (s == null)
+        return null;
+      try
+      {
+        return new BigDecimal (s);
+      }
+      catch (final NumberFormatException ex)
+      {
+        throw _syntaxError ("invalid number '" + s + "'");
+      }
+    }
+
+    @Override
+    public void skipValue () throws IOException
+    {
+      int nDepth = 0;
+      do
+      {
+        switch (peek ())
+        {
+          case BEGIN_OBJECT:
+            beginObject ();
+            nDepth++;
+            break;
+          case BEGIN_ARRAY:
+            beginArray ();
+            nDepth++;
+            break;
+          case END_OBJECT:
+            endObject ();
+            nDepth--;
+            break;
+          case END_ARRAY:
+            endArray ();
+            nDepth--;
+            break;
+          case END_DOCUMENT:
+            throw _syntaxError ("unexpected end of document");
+          default:
+            m_ePeeked = null;
+            break;
+        }
+      } while (nDepth > 0);
+    }
+  }
+
+  /**
+   * Write the JSON projection of the provided TDD to the provided output stream using UTF-8. The
+   * stream is flushed but not closed.
+   *
+   * @param aTDD
+   *        The TDD to write. May not be <code>null</code>.
+   * @param aOS
+   *        The output stream to write to. May not be <code>null</code>.
+   * @return {@link ESuccess}
+   */
+  @NonNull
+  public static ESuccess write (@NonNull final TaxDataType aTDD, @NonNull final OutputStream aOS)
+  {
+    try
+    {
+      PeppolSKTDD100Projection.write (aTDD,
+                                      new JsonWriter (new BufferedWriter (new OutputStreamWriter (aOS,
+                                                                                                  StandardCharsets.UTF_8))));
+      return ESuccess.SUCCESS;
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.error ("Failed to write TDD as JSON", ex);
+      return ESuccess.FAILURE;
+    }
+  }
+
+  /**
+   * Get the JSON projection of the provided TDD as UTF-8 bytes.
+   *
+   * @param aTDD
+   *        The TDD to write. May not be <code>null</code>.
+   * @return <code>null</code> if writing failed.
+   */
+  public static byte @Nullable [] getAsBytes (@NonNull final TaxDataType aTDD)
+  {
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream (2 * 1024);
+    if (write (aTDD, aBAOS).isFailure ())
+      return null;
+    return aBAOS.toByteArray ();
+  }
+
+  /**
+   * Read a JSON projection from the provided UTF-8 encoded input stream. The stream is not closed.
+   *
+   * @param aIS
+   *        The input stream to read from. May not be <code>null</code>.
+   * @return The TDD containing only the projected fields or <code>null</code> if the JSON is
+   *         malformed.
+   */
+  @Nullable
+  public static TaxDataType read (@NonNull final InputStream aIS)
+  {
+    try
+    {
+      final JsonReader aReader = new JsonReader (new InputStreamReader (aIS, StandardCharsets.UTF_8));
+      final TaxDataType ret = PeppolSKTDD100Projection.read (aReader);
+      if (aReader.peek () != EToken.END_DOCUMENT)
+        throw new IOException ("Unexpected content after the root object");
+      return ret;
+    }
+    catch (final IOException | RuntimeException ex)
+    {
+      LOGGER.error ("Failed to read TDD from JSON", ex);
+      return null;
+    }
+  }
+
+  /**
+   * Read a JSON projection from the provided UTF-8 encoded bytes.
+   *
+   * @param aBytes
+   *        The bytes to read from. May not be <code>null</code>.
+   * @return The TDD containing only the projected fields or <code>null</code> if the JSON is
+   *         malformed.
+   */
+  @Nullable
+  public static TaxDataType read (final byte @NonNull [] aBytes)
+  {
+    return read (new ByteArrayInputStream (aBytes));
+  }
+}
@@ -0,0 +1,1005 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.serialize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.datetime.xml.XMLOffsetDate;
+import com.helger.datetime.xml.XMLOffsetTime;
+import com.helger.peppol.sk.tdd.v2026_04_14.DocumentLineType;
+import com.helger.peppol.sk.tdd.v2026_04_14.MonetaryTotalType;
+import com.helger.peppol.sk.tdd.v2026_04_14.ReferencedDocumentTypeCodeType;
+import com.helger.peppol.sk.tdd.v2026_04_14.ReportedDocumentType;
+import com.helger.peppol.sk.tdd.v2026_04_14.ReportedTransactionType;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxAuthorityType;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataDocumentReporterRoleType;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataDocumentScopeType;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.AddressType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.CountryType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.CustomerPartyType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.ItemType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PartyIdentificationType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PartyTaxSchemeType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PartyType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.SupplierPartyType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxCategoryType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxSchemeType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxSubtotalType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxTotalType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.CustomizationIDType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.DocumentCurrencyCodeType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.EndpointIDType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.IDType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.InvoicedQuantityType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.IssueDateType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.IssueTimeType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.NameType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.NoteType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.ProfileIDType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.TaxCurrencyCodeType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.TaxPointDateType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.UUIDType;
+
+/**
+ * The structured projection of a Peppol SK TDD 1.0.0 that is used by
+ * {@link PeppolSKTDD100JsonCodec} and {@link PeppolSKTDD100CborCodec}. XML remains the authoritative
+ * format - the projection only contains the fields relevant for analytics and reading it back
+ * creates a {@link TaxDataType} that contains only these fields.<br>
+ * The root object contains the following optional properties (all values are strings unless noted
+ * otherwise):
+ * <ul>
+ * <li><code>customizationID</code>, <code>profileID</code>, <code>id</code>, <code>uuid</code></li>
+ * <li><code>issueDate</code> (ISO date with optional offset), <code>issueTime</code> (ISO time with
+ * optional offset)</li>
+ * <li><code>taxDataTypeCode</code>, <code>documentScope</code>, <code>reporterRole</code></li>
+ * <li><code>taxAuthorityID</code>, <code>taxAuthorityName</code></li>
+ * <li><code>reportingParty</code>, <code>receivingParty</code>,
+ * <code>reportersRepresentative</code> - the party identifiers in the form
+ * <code>scheme:value</code>. Identifiers without a scheme only contain the value, which is prefixed
+ * with a colon if the value itself contains a colon.</li>
+ * <li><code>reportedDocuments</code> - array with one ReportedDocument object per
+ * ReportedTransaction</li>
+ * </ul>
+ * A ReportedDocument object contains:
+ * <ul>
+ * <li><code>customizationID</code>, <code>profileID</code>, <code>id</code>, <code>uuid</code>,
+ * <code>issueDate</code>, <code>documentTypeCode</code>, <code>taxPointDate</code>,
+ * <code>documentCurrencyCode</code>, <code>taxCurrencyCode</code></li>
+ * <li><code>sellerTaxID</code>, <code>sellerTaxSchemeID</code>, <code>sellerCountry</code>,
+ * <code>buyerTaxID</code>, <code>buyerTaxSchemeID</code>, <code>buyerCountry</code></li>
+ * <li><code>totals</code> - object with the decimal values <code>lineExtensionAmount</code>,
+ * <code>taxExclusiveAmount</code>, <code>taxInclusiveAmount</code>,
+ * <code>allowanceTotalAmount</code>, <code>chargeTotalAmount</code>, <code>prepaidAmount</code>,
+ * <code>payableRoundingAmount</code> and <code>payableAmount</code>, all in the document
+ * currency</li>
+ * <li><code>taxTotals</code> - array of objects with the decimal <code>taxAmount</code>, the
+ * <code>currency</code> and <code>subtotals</code> - an array of objects with the decimals
+ * <code>taxableAmount</code>, <code>taxAmount</code> and <code>percent</code> as well as the
+ * <code>categoryID</code></li>
+ * <li><code>documentLines</code> - array of objects with <code>id</code>, <code>note</code>, the
+ * decimal <code>quantity</code>, <code>unitCode</code>, the decimal
+ * <code>lineExtensionAmount</code>, <code>itemName</code>, <code>taxCategoryID</code> and the
+ * decimal <code>taxPercent</code></li>
+ * </ul>
+ * Missing values are omitted. Readers ignore unknown properties.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class PeppolSKTDD100Projection
+{
+  /**
+   * The token types of the structured formats.
+   */
+  enum EToken
+  {
+    BEGIN_OBJECT,
+    END_OBJECT,
+    BEGIN_ARRAY,
+    END_ARRAY,
+    NAME,
+    STRING,
+    NUMBER,
+    BOOLEAN,
+    NULL,
+    END_DOCUMENT;
+  }
+
+  /**
+   * Streaming writer for a structured format.
+   */
+  interface IWriter
+  {
+    void beginObject () throws IOException;
+
+    void endObject () throws IOException;
+
+    void beginArray () throws IOException;
+
+    void endArray () throws IOException;
+
+    void name (@NonNull String sName) throws IOException;
+
+    void value (@NonNull String sValue) throws IOException;
+
+    void value (@NonNull BigDecimal aValue) throws IOException;
+
+    void flush () throws IOException;
+  }
+
+  /**
+   * Streaming pull reader for a structured format.
+   */
+  interface IReader
+  {
+    @NonNull
+    EToken peek () throws IOException;
+
+    void beginObject () throws IOException;
+
+    void endObject () throws IOException;
+
+    void beginArray () throws IOException;
+
+    void endArray () throws IOException;
+
+    default boolean hasNext () throws IOException
+    {
+      final EToken e = peek ();
+      return e != EToken.END_OBJECT && e != EToken.END_ARRAY && e != EToken.END_DOCUMENT;
+    }
+
+    @NonNull
+    String nextName () throws IOException;
+
+    /**
+     * @return The next string, number or boolean as a string, or <code>null</code> for a null
+     *         value.
+     * @throws IOException
+     *         on error
+     */
+    @Nullable
+    String nextString () throws IOException;
+
+    /**
+     * @return The next number (or string containing a number) or <code>null</code> for a null
+     *         value.
+     * @throws IOException
+     *         on error
+     */
+    @Nullable
+    BigDecimal nextDecimal () throws IOException;
+
+    void skipValue () throws IOException;
+  }
+
+  private PeppolSKTDD100Projection ()
+  {}
+
+  private static void _str (@NonNull final IWriter w, @NonNull final String sName, @Nullable final String sValue)
+                                                                                                            throws IOException
+  {
+    if (sValue != null)
+    {
+      w.name (sName);
+      w.value (sValue);
+    }
+  }
+
+  private static void _dec (@NonNull final IWriter w, @NonNull final String sName, @Nullable final BigDecimal aValue)
+                                                                                                                 throws IOException
+  {
+    if (aValue != null)
+    {
+      w.name (sName);
+      w.value (aValue);
+    }
+  }
+
+  @Nullable
+  private static String _getDate (@Nullable final XMLOffsetDate a)
+  {
+    if (a == null)
+      return null;
+    final ZoneOffset aOfs = a.getOffset ();
+    return a.toLocalDate ().toString () + (aOfs == null ? "" : aOfs.getId ());
+  }
+
+  @Nullable
+  private static String _getTime (@Nullable final XMLOffsetTime a)
+  {
+    if (a == null)
+      return null;
+    final ZoneOffset aOfs = a.getOffset ();
+    return a.toLocalTime ().toString () + (aOfs == null ? "" : aOfs.getId ());
+  }
+
+  @Nullable
+  private static XMLOffsetDate _parseDate (@Nullable final String s)
+  {
+    if (s == null)
+      return null;
+    // Date part is always yyyy-MM-dd
+    final LocalDate aDate = LocalDate.parse (s.substring (0, Math.min (10, s.length ())));
+    final ZoneOffset aOfs = s.length () > 10 ? ZoneOffset.of (s.substring (10)) : null;
+    return XMLOffsetDate.of (aDate, aOfs);
+  }
+
+  @Nullable
+  private static XMLOffsetTime _parseTime (@Nullable final String s)
+  {
+    if (s == null)
+      return null;
+    int nOfs = -1;
+    for (int i = 0; i < s.length () && nOfs < 0; ++i)
+    {
+      final char c = s.charAt (i);
+      if (c == '+' || c == '-' || c == 'Z')
+        nOfs = i;
+    }
+    if (nOfs < 0)
+      return XMLOffsetTime.of (LocalTime.parse (s), null);
+    return XMLOffsetTime.of (LocalTime.parse (s.substring (0, nOfs)), ZoneOffset.of (s.substring (nOfs)));
+  }
+
+  /**
+   * Get an identifier in the form <code>scheme:value</code>. Without a scheme only the value is
+   * used, prefixed with a colon if the value itself contains a colon.
+   */
+  @Nullable
+  private static String _getIdentifier (@Nullable final String sScheme, @Nullable final String sValue)
+  {
+    if (sValue == null)
+      return null;
+    if (sScheme == null)
+      return sValue.indexOf (':') < 0 ? sValue : ":" + sValue;
+    return sScheme + ":" + sValue;
+  }
+
+  @Nullable
+  private static String _getIdentifierScheme (@NonNull final String s)
+  {
+    final int nIdx = s.indexOf (':');
+    return nIdx <= 0 ? null : s.substring (0, nIdx);
+  }
+
+  @NonNull
+  private static String _getIdentifierValue (@NonNull final String s)
+  {
+    final int nIdx = s.indexOf (':');
+    return nIdx < 0 ? s : s.substring (nIdx + 1);
+  }
+
+  @Nullable
+  private static String _getEndpoint (@Nullable final PartyType aParty)
+  {
+    if (aParty == null)
+      return null;
+    final EndpointIDType aEID = aParty.getEndpointID ();
+    if (aEID == null)
+      return null;
+    return _getIdentifier (aEID.getSchemeID (), aEID.getValue ());
+  }
+
+  @NonNull
+  private static PartyType _parseEndpoint (@NonNull final String s)
+  {
+    final PartyType ret = new PartyType ();
+    ret.setEndpointID (_getIdentifierValue (s)).setSchemeID (_getIdentifierScheme (s));
+    return ret;
+  }
+
+  @Nullable
+  private static PartyTaxSchemeType _getPartyTaxScheme (@Nullable final PartyType aParty)
+  {
+    if (aParty == null || !aParty.hasPartyTaxSchemeEntries ())
+      return null;
+    return aParty.getPartyTaxSchemeAtIndex (0);
+  }
+
+  @Nullable
+  private static String _getTaxID (@Nullable final PartyType aParty)
+  {
+    final PartyTaxSchemeType aPTS = _getPartyTaxScheme (aParty);
+    return aPTS == null ? null : aPTS.getCompanyIDValue ();
+  }
+
+  @Nullable
+  private static String _getTaxSchemeID (@Nullable final PartyType aParty)
+  {
+    final PartyTaxSchemeType aPTS = _getPartyTaxScheme (aParty);
+    return aPTS == null || aPTS.getTaxScheme () == null ? null : aPTS.getTaxScheme ().getIDValue ();
+  }
+
+  @Nullable
+  private static String _getCountry (@Nullable final PartyType aParty)
+  {
+    if (aParty == null || aParty.getPostalAddress () == null || aParty.getPostalAddress ().getCountry () == null)
+      return null;
+    return aParty.getPostalAddress ().getCountry ().getIdentificationCodeValue ();
+  }
+
+  @NonNull
+  private static PartyTaxSchemeType _getOrCreatePartyTaxScheme (@NonNull final PartyType aParty)
+  {
+    PartyTaxSchemeType ret = _getPartyTaxScheme (aParty);
+    if (ret == null)
+    {
+      ret = new PartyTaxSchemeType ();
+      aParty.addPartyTaxScheme (ret);
+    }
+    return ret;
+  }
+
+  private static void _setTaxID (@NonNull final PartyType aParty, @NonNull final String sTaxID)
+  {
+    _getOrCreatePartyTaxScheme (aParty).setCompanyID (sTaxID);
+  }
+
+  private static void _setTaxSchemeID (@NonNull final PartyType aParty, @NonNull final String sTaxSchemeID)
+  {
+    final TaxSchemeType aTS = new TaxSchemeType ();
+    aTS.setID (sTaxSchemeID);
+    _getOrCreatePartyTaxScheme (aParty).setTaxScheme (aTS);
+  }
+
+  private static void _setCountry (@NonNull final PartyType aParty, @NonNull final String sCountry)
+  {
+    final AddressType aPA = new AddressType ();
+    final CountryType aC = new CountryType ();
+    aC.setIdentificationCode (sCountry);
+    aPA.setCountry (aC);
+    aParty.setPostalAddress (aPA);
+  }
+
+  /**
+   * Write the projection of the provided TDD.
+   *
+   * @param aTDD
+   *        The TDD to write. May not be <code>null</code>.
+   * @param w
+   *        The writer to use. May not be <code>null</code>.
+   * @throws IOException
+   *         on write error
+   */
+  static void write (@NonNull final TaxDataType aTDD, @NonNull final IWriter w) throws IOException
+  {
+    w.beginObject ();
+    _str (w, "customizationID", aTDD.getCustomizationIDValue ());
+    _str (w, "profileID", aTDD.getProfileIDValue ());
+    _str (w, "id", aTDD.getIDValue ());
+    _str (w, "uuid", aTDD.getUUIDValue ());
+    _str (w, "issueDate", _getDate (aTDD.getIssueDateValue ()));
+    _str (w, "issueTime", _getTime (aTDD.getIssueTimeValue ()));
+    if (aTDD.getTaxDataTypeCode () != null)
+      _str (w, "taxDataTypeCode", aTDD.getTaxDataTypeCode ().getValue ());
+    if (aTDD.getDocumentScope () != null)
+      _str (w, "documentScope", aTDD.getDocumentScope ().getValue ());
+    if (aTDD.getReporterRole () != null)
+      _str (w, "reporterRole", aTDD.getReporterRole ().getValue ());
+    if (aTDD.getTaxAuthority () != null)
+    {
+      _str (w, "taxAuthorityID", aTDD.getTaxAuthority ().getIDValue ());
+      _str (w, "taxAuthorityName", aTDD.getTaxAuthority ().getNameValue ());
+    }
+    _str (w, "reportingParty", _getEndpoint (aTDD.getReportingParty ()));
+    _str (w, "receivingParty", _getEndpoint (aTDD.getReceivingParty ()));
+    final PartyType aRepr = aTDD.getReportersRepresentative ();
+    if (aRepr != null && aRepr.hasPartyIdentificationEntries ())
+    {
+      final IDType aID = aRepr.getPartyIdentificationAtIndex (0).getID ();
+      if (aID != null)
+        _str (w, "reportersRepresentative", _getIdentifier (aID.getSchemeID (), aID.getValue ()));
+    }
+
+    if (aTDD.hasReportedTransactionEntries ())
+    {
+      w.name ("reportedDocuments");
+      w.beginArray ();
+      for (final ReportedTransactionType aRT : aTDD.getReportedTransaction ())
+        if (aRT.getReportedDocument () != null)
+          _writeReportedDocument (aRT.getReportedDocument (), w);
+      w.endArray ();
+    }
+    w.endObject ();
+    w.flush ();
+  }
+
+  private static void _writeReportedDocument (@NonNull final ReportedDocumentType aDoc, @NonNull final IWriter w)
+                                                                                                                throws IOException
+  {
+    w.beginObject ();
+    _str (w, "customizationID", aDoc.getCustomizationIDValue ());
+    _str (w, "profileID", aDoc.getProfileIDValue ());
+    _str (w, "id", aDoc.getIDValue ());
+    _str (w, "uuid", aDoc.getUUIDValue ());
+    _str (w, "issueDate", _getDate (aDoc.getIssueDateValue ()));
+    _str (w, "documentTypeCode", aDoc.getDocumentTypeCode ());
+    _str (w, "taxPointDate", _getDate (aDoc.getTaxPointDateValue ()));
+    _str (w, "documentCurrencyCode", aDoc.getDocumentCurrencyCodeValue ());
+    _str (w, "taxCurrencyCode", aDoc.getTaxCurrencyCodeValue ());
+    if (aDoc.getAccountingSupplierParty () != null)
+    {
+      final PartyType aParty = aDoc.getAccountingSupplierParty ().getParty ();
+      _str (w, "sellerTaxID", _getTaxID (aParty));
+      _str (w, "sellerTaxSchemeID", _getTaxSchemeID (aParty));
+      _str (w, "sellerCountry", _getCountry (aParty));
+    }
+    if (aDoc.getAccountingCustomerParty () != null)
+    {
+      final PartyType aParty = aDoc.getAccountingCustomerParty ().getParty ();
+      _str (w, "buyerTaxID", _getTaxID (aParty));
+      _str (w, "buyerTaxSchemeID", _getTaxSchemeID (aParty));
+      _str (w, "buyerCountry", _getCountry (aParty));
+    }
+
+    final MonetaryTotalType aMT = aDoc.getMonetaryTotal ();
+    if (aMT != null)
+    {
+      w.name ("totals");
+      w.beginObject ();
+      _dec (w, "lineExtensionAmount", aMT.getLineExtensionAmountValue ());
+      _dec (w, "taxExclusiveAmount", aMT.getTaxExclusiveAmountValue ());
+      _dec (w, "taxInclusiveAmount", aMT.getTaxInclusiveAmountValue ());
+      _dec (w, "allowanceTotalAmount", aMT.getAllowanceTotalAmountValue ());
+      _dec (w, "chargeTotalAmount", aMT.getChargeTotalAmountValue ());
+      _dec (w, "prepaidAmount", aMT.getPrepaidAmountValue ());
+      _dec (w, "payableRoundingAmount", aMT.getPayableRoundingAmountValue ());
+      _dec (w, "payableAmount", aMT.getPayableAmountValue ());
+      w.endObject ();
+    }
+
+    if (aDoc.hasTaxTotalEntries ())
+    {
+      w.name ("taxTotals");
+      w.beginArray ();
+      for (final TaxTotalType aTT : aDoc.getTaxTotal ())
+      {
+        w.beginObject ();
+        if (aTT.getTaxAmount () != null)
+        {
+          _dec (w, "taxAmount", aTT.getTaxAmount ().getValue ());
+          _str (w, "currency", aTT.getTaxAmount ().getCurrencyID ());
+        }
+        if (aTT.hasTaxSubtotalEntries ())
+        {
+          w.name ("subtotals");
+          w.beginArray ();
+          for (final TaxSubtotalType aTST : aTT.getTaxSubtotal ())
+          {
+            w.beginObject ();
+            _dec (w, "taxableAmount", aTST.getTaxableAmountValue ());
+            _dec (w, "taxAmount", aTST.getTaxAmountValue ());
+            if (aTST.getTaxCategory () != null)
+            {
+              _str (w, "categoryID", aTST.getTaxCategory ().getIDValue ());
+              _dec (w, "percent", aTST.getTaxCategory ().getPercentValue ());
+            }
+            w.endObject ();
+          }
+          w.endArray ();
+        }
+        w.endObject ();
+      }
+      w.endArray ();
+    }
+
+    if (aDoc.hasDocumentLineEntries ())
+    {
+      w.name ("documentLines");
+      w.beginArray ();
+      for (final DocumentLineType aLine : aDoc.getDocumentLine ())
+      {
+        w.beginObject ();
+        _str (w, "id", aLine.getIDValue ());
+        _str (w, "note", aLine.getNoteValue ());
+        final InvoicedQuantityType aQty = aLine.getInvoicedQuantity ();
+        if (aQty != null)
+        {
+          _dec (w, "quantity", aQty.getValue ());
+          _str (w, "unitCode", aQty.getUnitCode ());
+        }
+        _dec (w, "lineExtensionAmount", aLine.getLineExtensionAmountValue ());
+        final ItemType aItem = aLine.getItem ();
+        if (aItem != null)
+        {
+          _str (w, "itemName", aItem.getNameValue ());
+          if (aItem.hasClassifiedTaxCategoryEntries ())
+          {
+            final TaxCategoryType aTC = aItem.getClassifiedTaxCategoryAtIndex (0);
+            _str (w, "taxCategoryID", aTC.getIDValue ());
+            _dec (w, "taxPercent", aTC.getPercentValue ());
+          }
+        }
+        w.endObject ();
+      }
+      w.endArray ();
+    }
+    w.endObject ();
+  }
+
+  /**
+   * Read the projection of a TDD.
+   *
+   * @param r
+   *        The reader to read from. May not be <code>null</code>.
+   * @return The TDD containing only the projected fields. Never <code>null</code>.
+   * @throws IOException
+   *         on read error or if the data is malformed
+   */
+  @NonNull
+  static TaxDataType read (@NonNull final IReader r) throws IOException
+  {
+    final TaxDataType ret = new TaxDataType ();
+    TaxAuthorityType aTaxAuthority = null;
+    r.beginObject ();
+    while (r.hasNext ())
+    {
+      final String sName = r.nextName ();
+      if (r.peek () == EToken.NULL)
+      {
+        r.skipValue ();
+        continue;
+      }
+      switch (sName)
+      {
+        case "customizationID":
+          ret.setCustomizationID (new CustomizationIDType (r.nextString ()));
+          break;
+        case "profileID":
+          ret.setProfileID (new ProfileIDType (r.nextString ()));
+          break;
+        case "id":
+          ret.setID (new IDType (r.nextString ()));
+          break;
+        case "uuid":
+          ret.setUUID (new UUIDType (r.nextString ()));
+          break;
+        case "issueDate":
+          ret.setIssueDate (new IssueDateType (_parseDate (r.nextString ())));
+          break;
+        case "issueTime":
+          ret.setIssueTime (new IssueTimeType (_parseTime (r.nextString ())));
+          break;
+        case "taxDataTypeCode":
+        {
+          final ReferencedDocumentTypeCodeType a = new ReferencedDocumentTypeCodeType ();
+          a.setValue (r.nextString ());
+          ret.setTaxDataTypeCode (a);
+          break;
+        }
+        case "documentScope":
+        {
+          final TaxDataDocumentScopeType a = new TaxDataDocumentScopeType ();
+          a.setValue (r.nextString ());
+          ret.setDocumentScope (a);
+          break;
+        }
+        case "reporterRole":
+        {
+          final TaxDataDocumentReporterRoleType a = new TaxDataDocumentReporterRoleType ();
+          a.setValue (r.nextString ());
+          ret.setReporterRole (a);
+          break;
+        }
+        case "taxAuthorityID":
+          if (aTaxAuthority == null)
+            aTaxAuthority = new TaxAuthorityType ();
+          aTaxAuthority.setID (new IDType (r.nextString ()));
+          break;
+        case "taxAuthorityName":
+          if (aTaxAuthority == null)
+            aTaxAuthority = new TaxAuthorityType ();
+          aTaxAuthority.setName (new NameType (r.nextString ()));
+          break;
+        case "reportingParty":
+          ret.setReportingParty (_parseEndpoint (r.nextString ()));
+          break;
+        case "receivingParty":
+          ret.setReceivingParty (_parseEndpoint (r.nextString ()));
+          break;
+        case "reportersRepresentative":
+        {
+          final String s = r.nextString ();
+          final PartyIdentificationType aPID = new PartyIdentificationType ();
+          aPID.setID (_getIdentifierValue (s)).setSchemeID (_getIdentifierScheme (s));
+          final PartyType aParty = new PartyType ();
+          aParty.addPartyIdentification (aPID);
+          ret.setReportersRepresentative (aParty);
+          break;
+        }
+        case "reportedDocuments":
+          r.beginArray ();
+          while (r.hasNext ())
+          {
+            final ReportedTransactionType aRT = new ReportedTransactionType ();
+            aRT.setReportedDocument (_readReportedDocument (r));
+            ret.addReportedTransaction (aRT);
+          }
+          r.endArray ();
+          break;
+        default:
+          r.skipValue ();
+          break;
+      }
+    }
+    r.endObject ();
+    if (aTaxAuthority != null)
+      ret.setTaxAuthority (aTaxAuthority);
+    return ret;
+  }
+
+  @NonNull
+  private static ReportedDocumentType _readReportedDocument (@NonNull final IReader r) throws IOException
+  {
+    final ReportedDocumentType ret = new ReportedDocumentType ();
+    PartyType aSeller = null;
+    PartyType aBuyer = null;
+    r.beginObject ();
+    while (r.hasNext ())
+    {
+      final String sName = r.nextName ();
+      if (r.peek () == EToken.NULL)
+      {
+        r.skipValue ();
+        continue;
+      }
+      switch (sName)
+      {
+        case "customizationID":
+          ret.setCustomizationID (new CustomizationIDType (r.nextString ()));
+          break;
+        case "profileID":
+          ret.setProfileID (new ProfileIDType (r.nextString ()));
+          break;
+        case "id":
+          ret.setID (new IDType (r.nextString ()));
+          break;
+        case "uuid":
+          ret.setUUID (new UUIDType (r.nextString ()));
+          break;
+        case "issueDate":
+          ret.setIssueDate (new IssueDateType (_parseDate (r.nextString ())));
+          break;
+        case "documentTypeCode":
+          ret.setDocumentTypeCode (r.nextString ());
+          break;
+        case "taxPointDate":
+          ret.setTaxPointDate (new TaxPointDateType (_parseDate (r.nextString ())));
+          break;
+        case "documentCurrencyCode":
+          ret.setDocumentCurrencyCode (new DocumentCurrencyCodeType (r.nextString ()));
+          break;
+        case "taxCurrencyCode":
+          ret.setTaxCurrencyCode (new TaxCurrencyCodeType (r.nextString ()));
+          break;
+        case "sellerTaxID":
+          if (aSeller == null)
+            aSeller = new PartyType ();
+          _setTaxID (aSeller, r.nextString ());
+          break;
+        case "sellerTaxSchemeID":
+          if (aSeller == null)
+            aSeller = new PartyType ();
+          _setTaxSchemeID (aSeller, r.nextString ());
+          break;
+        case "sellerCountry":
+          if (aSeller == null)
+            aSeller = new PartyType ();
+          _setCountry (aSeller, r.nextString ());
+          break;
+        case "buyerTaxID":
+          if (aBuyer == null)
+            aBuyer = new PartyType ();
+          _setTaxID (aBuyer, r.nextString ());
+          break;
+        case "buyerTaxSchemeID":
+          if (aBuyer == null)
+            aBuyer = new PartyType ();
+          _setTaxSchemeID (aBuyer, r.nextString ());
+          break;
+        case "buyerCountry":
+          if (aBuyer == null)
+            aBuyer = new PartyType ();
+          _setCountry (aBuyer, r.nextString ());
+          break;
+        case "totals":
+          ret.setMonetaryTotal (_readTotals (r));
+          break;
+        case "taxTotals":
+          r.beginArray ();
+          while (r.hasNext ())
+            ret.addTaxTotal (_readTaxTotal (r));
+          r.endArray ();
+          break;
+        case "documentLines":
+          r.beginArray ();
+          while (r.hasNext ())
+            ret.addDocumentLine (_readDocumentLine (r));
+          r.endArray ();
+          break;
+        default:
+          r.skipValue ();
+          break;
+      }
+    }
+    r.endObject ();
+
+    if (aSeller != null)
+    {
+      final SupplierPartyType a = new SupplierPartyType ();
+      a.setParty (aSeller);
+      ret.setAccountingSupplierParty (a);
+    }
+    if (aBuyer != null)
+    {
+      final CustomerPartyType a = new CustomerPartyType ();
+      a.setParty (aBuyer);
+      ret.setAccountingCustomerParty (a);
+    }
+
+    // Amounts are in document currency
+    final String sCurrency = ret.getDocumentCurrencyCodeValue ();
+    if (sCurrency != null)
+    {
+      final MonetaryTotalType aMT = ret.getMonetaryTotal ();
+      if (aMT != null)
+      {
+        if (aMT.getLineExtensionAmount () != null)
+          aMT.getLineExtensionAmount ().setCurrencyID (sCurrency);
+        if (aMT.getTaxExclusiveAmount () != null)
+          aMT.getTaxExclusiveAmount ().setCurrencyID (sCurrency);
+        if (aMT.getTaxInclusiveAmount () != null)
+          aMT.getTaxInclusiveAmount ().setCurrencyID (sCurrency);
+        if (aMT.getAllowanceTotalAmount () != null)
+          aMT.getAllowanceTotalAmount ().setCurrencyID (sCurrency);
+        if (aMT.getChargeTotalAmount () != null)
+          aMT.getChargeTotalAmount ().setCurrencyID (sCurrency);
+        if (aMT.getPrepaidAmount () != null)
+          aMT.getPrepaidAmount ().setCurrencyID (sCurrency);
+        if (aMT.getPayableRoundingAmount () != null)
+          aMT.getPayableRoundingAmount ().setCurrencyID (sCurrency);
+        if (aMT.getPayableAmount () != null)
+          aMT.getPayableAmount ().setCurrencyID (sCurrency);
+      }
+      for (final DocumentLineType aLine : ret.getDocumentLine ())
+        if (aLine.getLineExtensionAmount () != null)
+          aLine.getLineExtensionAmount ().setCurrencyID (sCurrency);
+    }
+    return ret;
+  }
+
+  @NonNull
+  private static MonetaryTotalType _readTotals (@NonNull final IReader r) throws IOException
+  {
+    final MonetaryTotalType ret = new MonetaryTotalType ();
+    r.beginObject ();
+    while (r.hasNext ())
+    {
+      final String sName = r.nextName ();
+      if (r.peek () == EToken.NULL)
+      {
+        r.skipValue ();
+        continue;
+      }
+      switch (sName)
+      {
+        case "lineExtensionAmount":
+          ret.setLineExtensionAmount (r.nextDecimal ());
+          break;
+        case "taxExclusiveAmount":
+          ret.setTaxExclusiveAmount (r.nextDecimal ());
+          break;
+        case "taxInclusiveAmount":
+          ret.setTaxInclusiveAmount (r.nextDecimal ());
+          break;
+        case "allowanceTotalAmount":
+          ret.setAllowanceTotalAmount (r.nextDecimal ());
+          break;
+        case "chargeTotalAmount":
+          ret.setChargeTotalAmount (r.nextDecimal ());
+          break;
+        case "prepaidAmount":
+          ret.setPrepaidAmount (r.nextDecimal ());
+          break;
+        case "payableRoundingAmount":
+          ret.setPayableRoundingAmount (r.nextDecimal ());
+          break;
+        case "payableAmount":
+          ret.setPayableAmount (r.nextDecimal ());
+          break;
+        default:
+          r.skipValue ();
+          break;
+      }
+    }
+    r.endObject ();
+    return ret;
+  }
+
+  @NonNull
+  private static TaxTotalType _readTaxTotal (@NonNull final IReader r) throws IOException
+  {
+    final TaxTotalType ret = new TaxTotalType ();
+    BigDecimal aTaxAmount = null;
+    String sCurrency = null;
+    r.beginObject ();
+    while (r.hasNext ())
+    {
+      final String sName = r.nextName ();
+      if (r.peek () == EToken.NULL)
+      {
+        r.skipValue ();
+        continue;
+      }
+      switch (sName)
+      {
+        case "taxAmount":
+          aTaxAmount = r.nextDecimal ();
+          break;
+        case "currency":
+          sCurrency = r.nextString ();
+          break;
+        case "subtotals":
+          r.beginArray ();
+          while (r.hasNext ())
+          {
+            final TaxSubtotalType aTST = new TaxSubtotalType ();
+            TaxCategoryType aTC = null;
+            r.beginObject ();
+            while (r.hasNext ())
+            {
+              final String sSubName = r.nextName ();
+              if (r.peek () == EToken.NULL)
+              {
+                r.skipValue ();
+                continue;
+              }
+              switch (sSubName)
+              {
+                case "taxableAmount":
+                  aTST.setTaxableAmount (r.nextDecimal ());
+                  break;
+                case "taxAmount":
+                  aTST.setTaxAmount (r.nextDecimal ());
+                  break;
+                case "categoryID":
+                  if (aTC == null)
+                    aTC = new TaxCategoryType ();
+                  aTC.setID (r.nextString ());
+                  break;
+                case "percent":
+                  if (aTC == null)
+                    aTC = new TaxCategoryType ();
+                  aTC.setPercent (r.nextDecimal ());
+                  break;
+                default:
+                  r.skipValue ();
+                  break;
+              }
+            }
+            r.endObject ();
+            if (aTC != null)
+              aTST.setTaxCategory (aTC);
+            ret.addTaxSubtotal (aTST);
+          }
+          r.endArray ();
+          break;
+        default:
+          r.skipValue ();
+          break;
+      }
+    }
+    r.endObject ();
+
+    if (aTaxAmount != null)
+      ret.setTaxAmount (aTaxAmount).setCurrencyID (sCurrency);
+    if (sCurrency != null)
+      for (final TaxSubtotalType aTST : ret.getTaxSubtotal ())
+      {
+        if (aTST.getTaxableAmount () != null)
+          aTST.getTaxableAmount ().setCurrencyID (sCurrency);
+        if (aTST.getTaxAmount () != null)
+          aTST.getTaxAmount ().setCurrencyID (sCurrency);
+      }
+    return ret;
+  }
+
+  @NonNull
+  private static DocumentLineType _readDocumentLine (@NonNull final IReader r) throws IOException
+  {
+    final DocumentLineType ret = new DocumentLineType ();
+    BigDecimal aQuantity = null;
+    String sUnitCode = null;
+    ItemType aItem = null;
+    TaxCategoryType aTC = null;
+    r.beginObject ();
+    while (r.hasNext ())
+    {
+      final String sName = r.nextName ();
+      if (r.peek () == EToken.NULL)
+      {
+        r.skipValue ();
+        continue;
+      }
+      switch (sName)
+      {
+        case "id":
+          ret.setID (new IDType (r.nextString ()));
+          break;
+        case "note":
+          ret.setNote (new NoteType (r.nextString ()));
+          break;
+        case "quantity":
+          aQuantity = r.nextDecimal ();
+          break;
+        case "unitCode":
+          sUnitCode = r.nextString ();
+          break;
+        case "lineExtensionAmount":
+          ret.setLineExtensionAmount (r.nextDecimal ());
+          break;
+        case "itemName":
+          if (aItem == null)
+            aItem = new ItemType ();
+          aItem.setName (r.nextString ());
+          break;
+        case "taxCategoryID":
+          if (aTC == null)
+            aTC = new TaxCategoryType ();
+          aTC.setID (r.nextString ());
+          break;
+        case "taxPercent":
+          if (aTC == null)
+            aTC = new TaxCategoryType ();
+          aTC.setPercent (r.nextDecimal ());
+          break;
+        default:
+          r.skipValue ();
+          break;
+      }
+    }
+    r.endObject ();
+
+    if (aQuantity != null)
+    {
+      final InvoicedQuantityType a = new InvoicedQuantityType ();
+      a.setValue (aQuantity);
+      a.setUnitCode (sUnitCode);
+      ret.setInvoicedQuantity (a);
+    }
+    if (aTC != null)
+    {
+      if (aItem == null)
+        aItem = new ItemType ();
+      aItem.addClassifiedTaxCategory (aTC);
+    }
+    if (aItem != null)
+      ret.setItem (aItem);
+    return ret;
+  }
+}
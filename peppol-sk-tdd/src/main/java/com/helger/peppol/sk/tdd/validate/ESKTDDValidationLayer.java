@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonempty;
+import com.helger.base.id.IHasID;
+import com.helger.base.lang.EnumHelper;
+
+/**
+ * The validation layers of Peppol SK TDD documents, in the order of validation. A subset of them
+ * can be selected with {@link PeppolSKTDDValidator#getVesID(java.util.Set)}.
+ *
+ * @author Philip Helger
+ */
+public enum ESKTDDValidationLayer implements IHasID <String>
+{
+  /**
+   * The XML Schema validation. Can be skipped for TDDs created with the builder.
+   */
+  XSD ("xsd"),
+  /**
+   * The CEN EN 16931 UBL Schematron. Can be skipped if the source invoice was already validated
+   * against EN 16931.
+   */
+  CEN ("cen"),
+  /**
+   * The Peppol BIS Billing Schematron. Can be skipped if the source invoice was already validated
+   * against Peppol BIS Billing.
+   */
+  PEPPOL ("peppol"),
+  /**
+   * The SK TDD specific Schematron.
+   */
+  SK ("sk");
+
+  private final String m_sID;
+
+  ESKTDDValidationLayer (@NonNull @Nonempty final String sID)
+  {
+    m_sID = sID;
+  }
+
+  @NonNull
+  @Nonempty
+  public String getID ()
+  {
+    return m_sID;
+  }
+
+  @Nullable
+  public static ESKTDDValidationLayer getFromIDOrNull (@Nullable final String sID)
+  {
+    return EnumHelper.getFromIDOrNull (ESKTDDValidationLayer.class, sID);
+  }
+}
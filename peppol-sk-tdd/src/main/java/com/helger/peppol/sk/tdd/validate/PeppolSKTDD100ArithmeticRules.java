@@ -0,0 +1,365 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+
+import javax.xml.namespace.QName;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.diagnostics.error.SingleError;
+import com.helger.diagnostics.error.level.EErrorLevel;
+import com.helger.diagnostics.error.list.ErrorList;
+import com.helger.peppol.sk.tdd.v2026_04_14.DocumentLineType;
+import com.helger.peppol.sk.tdd.v2026_04_14.MonetaryTotalType;
+import com.helger.peppol.sk.tdd.v2026_04_14.ReportedDocumentType;
+import com.helger.peppol.sk.tdd.v2026_04_14.ReportedTransactionType;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.AllowanceChargeType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxCategoryType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxSubtotalType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxTotalType;
+
+/**
+ * Native Java implementation of the arithmetic rules <code>BR-CO-10</code> to <code>BR-CO-17</code>
+ * of the CEN EN 16931 Schematron (see {@link PeppolSKTDDValidator#XSLT_CEN_TDD_100}). All totals of
+ * a TDD are checked in a single pass over the JAXB model with exact decimal arithmetic, and the
+ * same rule IDs, error levels and locations as the XSLT based implementation are reported. The
+ * rounding is the one of the XPath <code>round</code> function, which rounds half values towards
+ * positive infinity.<br>
+ * This can be used as a cheap precheck before the CEN Schematron layer is evaluated, or instead of
+ * it, if only the totals are of interest. The VAT breakdown rules of the CEN Schematron (e.g.
+ * <code>BR-S-08</code>) use contexts relative to the document root element and therefore never
+ * apply to a TDD, so they are not part of this class.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class PeppolSKTDD100ArithmeticRules
+{
+  private static final String NS_CAC = PeppolSKTDD100NativeRules.NS_CAC;
+  private static final String NS_PXS = PeppolSKTDD100NativeRules.NS_PXS;
+
+  private static final QName QN_REPORTED_TRANSACTION = new QName (NS_PXS, "ReportedTransaction");
+  private static final QName QN_REPORTED_DOCUMENT = new QName (NS_PXS, "ReportedDocument");
+  private static final QName QN_TAX_TOTAL = new QName (NS_CAC, "TaxTotal");
+  private static final QName QN_TAX_SUBTOTAL = new QName (NS_CAC, "TaxSubtotal");
+  private static final QName QN_MONETARY_TOTAL = new QName (NS_PXS, "MonetaryTotal");
+
+  private static final BigDecimal HALF = new BigDecimal ("0.5");
+
+  private PeppolSKTDD100ArithmeticRules ()
+  {}
+
+  /**
+   * XPath <code>round</code>
+   */
+  @NonNull
+  private static BigDecimal _round (@NonNull final BigDecimal a)
+  {
+    return a.add (HALF).setScale (0, RoundingMode.FLOOR);
+  }
+
+  /**
+   * XPath <code>round(x * 10 * 10) div 100</code> as used by the Schematron
+   */
+  @NonNull
+  private static BigDecimal _round2 (@NonNull final BigDecimal a)
+  {
+    return _round (a.movePointRight (2)).movePointLeft (2);
+  }
+
+  /**
+   * XPath general comparison <code>=</code> - <code>false</code> if one side is empty
+   */
+  private static boolean _eq (@Nullable final BigDecimal a, @Nullable final BigDecimal b)
+  {
+    return a != null && b != null && a.compareTo (b) == 0;
+  }
+
+  private static boolean _isZero (@Nullable final BigDecimal a)
+  {
+    return a != null && a.signum () == 0;
+  }
+
+  private static void _add (@NonNull final ErrorList aErrorList,
+                            @NonNull final String sID,
+                            @NonNull final String sLocation,
+                            @NonNull final String sText)
+  {
+    aErrorList.add (SingleError.builder ()
+                               .errorLevel (EErrorLevel.FATAL_ERROR)
+                               .errorID (sID)
+                               .errorFieldName (sLocation)
+                               .errorText (sText)
+                               .build ());
+  }
+
+  @NonNull
+  private static BigDecimal _getAllowanceChargeSum (@NonNull final ReportedDocumentType aRD, final boolean bCharge)
+  {
+    BigDecimal ret = BigDecimal.ZERO;
+    for (final AllowanceChargeType aAC : aRD.getAllowanceCharge ())
+      if (aAC.getChargeIndicator () != null && aAC.getChargeIndicator ().isValue () == bCharge)
+      {
+        final BigDecimal aAmount = aAC.getAmountValue ();
+        if (aAmount != null)
+          ret = ret.add (aAmount);
+      }
+    return ret;
+  }
+
+  private static boolean _hasAllowanceCharge (@NonNull final ReportedDocumentType aRD, final boolean bCharge)
+  {
+    for (final AllowanceChargeType aAC : aRD.getAllowanceCharge ())
+      if (aAC.getChargeIndicator () != null && aAC.getChargeIndicator ().isValue () == bCharge)
+        return true;
+    return false;
+  }
+
+  private static void _validateReportedDocument (@NonNull final ReportedDocumentType aRD,
+                                                 @NonNull final String sLocation,
+                                                 @NonNull final ErrorList aErrorList)
+  {
+    final MonetaryTotalType aMT = aRD.getMonetaryTotal ();
+
+    // BR-CO-15 (context cac:ReportedDocument)
+    final String sCurrency = aRD.getDocumentCurrencyCodeValue ();
+    if (sCurrency != null)
+    {
+      BigDecimal aTaxAmount = null;
+      int nTaxAmounts = 0;
+      for (final TaxTotalType aTT : aRD.getTaxTotal ())
+        if (aTT.getTaxAmount () != null && sCurrency.equals (aTT.getTaxAmount ().getCurrencyID ()))
+        {
+          aTaxAmount = aTT.getTaxAmountValue ();
+          nTaxAmounts++;
+        }
+      // More than one matching tax amount is a dynamic error in the XSLT and is reported as failure
+      if (nTaxAmounts > 0)
+        if (nTaxAmounts > 1 ||
+            aMT == null ||
+            aMT.getTaxExclusiveAmountValue () == null ||
+            aTaxAmount == null ||
+            !_eq (aMT.getTaxInclusiveAmountValue (),
+                  _round2 (aMT.getTaxExclusiveAmountValue ().add (aTaxAmount))))
+          _add (aErrorList,
+                "BR-CO-15",
+                sLocation,
+                "[BR-CO-15] - Invoice total amount with VAT (BT-112) = Invoice total amount without VAT (BT-109) + Invoice total VAT amount (BT-110), if VAT amount is provided.");
+    }
+
+    // Document order: TaxTotal before MonetaryTotal
+    int nTTIndex = 0;
+    for (final TaxTotalType aTT : aRD.getTaxTotal ())
+    {
+      ++nTTIndex;
+      final String sTTLocation = sLocation + PeppolSKTDD100NativeRules.getLocationStep (QN_TAX_TOTAL, nTTIndex);
+
+      // BR-CO-14 (context cac:TaxTotal)
+      final BigDecimal aTaxAmount = aTT.getTaxAmountValue ();
+      boolean bAllSubtotalsHaveAmount = true;
+      BigDecimal aSubtotalSum = BigDecimal.ZERO;
+      for (final TaxSubtotalType aTS : aTT.getTaxSubtotal ())
+        if (aTS.getTaxAmountValue () != null)
+          aSubtotalSum = aSubtotalSum.add (aTS.getTaxAmountValue ());
+        else
+          bAllSubtotalsHaveAmount = false;
+      if (aTaxAmount != null &&
+          aTT.hasTaxSubtotalEntries () &&
+          bAllSubtotalsHaveAmount &&
+          !_eq (aTaxAmount, _round2 (aSubtotalSum)))
+        _add (aErrorList,
+              "BR-CO-14",
+              sTTLocation,
+              "[BR-CO-14] - Invoice total VAT amount (BT-110) must equal the sum of VAT category tax amounts (BT-117), if the amounts are provided.");
+
+      // BR-CO-17 (context cac:TaxSubtotal)
+      int nTSIndex = 0;
+      for (final TaxSubtotalType aTS : aTT.getTaxSubtotal ())
+      {
+        ++nTSIndex;
+        final BigDecimal aSubtotalTaxAmount = aTS.getTaxAmountValue ();
+        if (aSubtotalTaxAmount != null)
+        {
+          final TaxCategoryType aTC = aTS.getTaxCategory ();
+          final boolean bIsVAT = aTC != null &&
+                                 aTC.getTaxScheme () != null &&
+                                 aTC.getTaxScheme ().getIDValue () != null &&
+                                 "VAT".equals (aTC.getTaxScheme ()
+                                                  .getIDValue ()
+                                                  .toUpperCase (Locale.ROOT)
+                                                  .strip ()
+                                                  .replaceAll ("\\s+", " "));
+          final BigDecimal aPercent = bIsVAT ? aTC.getPercentValue () : null;
+          final boolean bValid;
+          if (aPercent == null)
+            bValid = _isZero (_round (aSubtotalTaxAmount));
+          else
+            if (_isZero (_round (aPercent)))
+              bValid = _isZero (_round (aSubtotalTaxAmount));
+            else
+            {
+              final BigDecimal aTaxableAmount = aTS.getTaxableAmountValue ();
+              if (aTaxableAmount == null)
+                bValid = false;
+              else
+              {
+                final BigDecimal aExpected = _round2 (aTaxableAmount.abs ().multiply (aPercent.movePointLeft (2)));
+                final BigDecimal aAbs = aSubtotalTaxAmount.abs ();
+                bValid = aAbs.subtract (BigDecimal.ONE).compareTo (aExpected) < 0 &&
+                         aAbs.add (BigDecimal.ONE).compareTo (aExpected) > 0;
+              }
+            }
+          if (!bValid)
+            _add (aErrorList,
+                  "BR-CO-17",
+                  sTTLocation + PeppolSKTDD100NativeRules.getLocationStep (QN_TAX_SUBTOTAL, nTSIndex),
+                  "[BR-CO-17] - VAT category tax amount (BT-117) = VAT category taxable amount (BT-116) × (VAT category rate (BT-119) / 100), rounded to two decimals, if BT-117 is provided.");
+        }
+      }
+    }
+  }
+
+  private static void _validateMonetaryTotal (@NonNull final ReportedDocumentType aRD,
+                                              @NonNull final MonetaryTotalType aMT,
+                                              @NonNull final BigDecimal aAllLinesSum,
+                                              @NonNull final String sLocation,
+                                              @NonNull final ErrorList aErrorList)
+  {
+    final BigDecimal aLineExtension = aMT.getLineExtensionAmountValue ();
+    final BigDecimal aAllowanceTotal = aMT.getAllowanceTotalAmountValue ();
+    final BigDecimal aChargeTotal = aMT.getChargeTotalAmountValue ();
+    final BigDecimal aTaxExclusive = aMT.getTaxExclusiveAmountValue ();
+    final BigDecimal aTaxInclusive = aMT.getTaxInclusiveAmountValue ();
+    final BigDecimal aPrepaid = aMT.getPrepaidAmountValue ();
+    final BigDecimal aRounding = aMT.getPayableRoundingAmountValue ();
+    final BigDecimal aPayable = aMT.getPayableAmountValue ();
+
+    // BR-CO-10
+    if (!_eq (aLineExtension, _round2 (aAllLinesSum)))
+      _add (aErrorList,
+            "BR-CO-10",
+            sLocation,
+            "[BR-CO-10]-Sum of Invoice line net amount (BT-106) = Σ Invoice line net amount (BT-131).");
+
+    // BR-CO-11
+    if (!_eq (aAllowanceTotal, _round2 (_getAllowanceChargeSum (aRD, false))) &&
+        (aAllowanceTotal != null || _hasAllowanceCharge (aRD, false)))
+      _add (aErrorList,
+            "BR-CO-11",
+            sLocation,
+            "[BR-CO-11]-Sum of allowances on document level (BT-107) = Σ Document level allowance amount (BT-92).");
+
+    // BR-CO-12
+    if (!_eq (aChargeTotal, _round2 (_getAllowanceChargeSum (aRD, true))) &&
+        (aChargeTotal != null || _hasAllowanceCharge (aRD, true)))
+      _add (aErrorList,
+            "BR-CO-12",
+            sLocation,
+            "[BR-CO-12]-Sum of charges on document level (BT-108) = Σ Document level charge amount (BT-99).");
+
+    // BR-CO-13
+    final boolean bValid13;
+    if (aLineExtension == null)
+      bValid13 = false;
+    else
+      if (aAllowanceTotal == null && aChargeTotal == null)
+        bValid13 = _eq (aTaxExclusive, aLineExtension);
+      else
+      {
+        BigDecimal aExpected = aLineExtension;
+        if (aChargeTotal != null)
+          aExpected = aExpected.add (aChargeTotal);
+        if (aAllowanceTotal != null)
+          aExpected = aExpected.subtract (aAllowanceTotal);
+        bValid13 = _eq (aTaxExclusive, _round2 (aExpected));
+      }
+    if (!bValid13)
+      _add (aErrorList,
+            "BR-CO-13",
+            sLocation,
+            "[BR-CO-13]-Invoice total amount without VAT (BT-109) = Σ Invoice line net amount (BT-131) - Sum of allowances on document level (BT-107) + Sum of charges on document level (BT-108).");
+
+    // BR-CO-16
+    if (aTaxInclusive != null)
+    {
+      final BigDecimal aExpected = aPrepaid != null ? _round2 (aTaxInclusive.subtract (aPrepaid)) : aTaxInclusive;
+      final BigDecimal aActual = aRounding != null && aPayable != null ? _round2 (aPayable.subtract (aRounding))
+                                                                      : aRounding != null ? null : aPayable;
+      if (!_eq (aActual, aExpected))
+        _add (aErrorList,
+              "BR-CO-16",
+              sLocation,
+              "[BR-CO-16] - Amount due for payment (BT-115) = Invoice total amount with VAT (BT-112) - Paid amount (BT-113) + Rounding amount (BT-114), if BT-112 is provided.");
+    }
+  }
+
+  /**
+   * Validate the totals of all reported documents of the provided TDD.
+   *
+   * @param aTDD
+   *        The TDD to validate. May not be <code>null</code>.
+   * @return The list of all failed assertions in document order. Never <code>null</code> but maybe
+   *         empty.
+   */
+  @NonNull
+  public static ErrorList validate (@NonNull final TaxDataType aTDD)
+  {
+    ValueEnforcer.notNull (aTDD, "TDD");
+
+    // BR-CO-10 uses "//pxs:DocumentLine" so the lines of all documents are summed up
+    BigDecimal aAllLinesSum = BigDecimal.ZERO;
+    for (final ReportedTransactionType aRT : aTDD.getReportedTransaction ())
+      if (aRT.getReportedDocument () != null)
+        for (final DocumentLineType aLine : aRT.getReportedDocument ().getDocumentLine ())
+          if (aLine.getLineExtensionAmountValue () != null)
+            aAllLinesSum = aAllLinesSum.add (aLine.getLineExtensionAmountValue ());
+
+    final ErrorList ret = new ErrorList ();
+    final String sRootLocation = PeppolSKTDD100NativeRules.getRootLocation ();
+    int nRTIndex = 0;
+    for (final ReportedTransactionType aRT : aTDD.getReportedTransaction ())
+    {
+      ++nRTIndex;
+      final ReportedDocumentType aRD = aRT.getReportedDocument ();
+      if (aRD != null)
+      {
+        final String sRDLocation = sRootLocation +
+                                   PeppolSKTDD100NativeRules.getLocationStep (QN_REPORTED_TRANSACTION, nRTIndex) +
+                                   PeppolSKTDD100NativeRules.getLocationStep (QN_REPORTED_DOCUMENT, 1);
+        _validateReportedDocument (aRD, sRDLocation, ret);
+
+        final MonetaryTotalType aMT = aRD.getMonetaryTotal ();
+        if (aMT != null)
+          _validateMonetaryTotal (aRD,
+                                  aMT,
+                                  aAllLinesSum,
+                                  sRDLocation + PeppolSKTDD100NativeRules.getLocationStep (QN_MONETARY_TOTAL, 1),
+                                  ret);
+      }
+    }
+    return ret;
+  }
+}
@@ -0,0 +1,398 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.namespace.QName;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.w3c.dom.Element;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.CommonsLinkedHashSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsOrderedMap;
+import com.helger.collection.commons.ICommonsOrderedSet;
+
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.annotation.XmlAttribute;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlElementRef;
+import jakarta.xml.bind.annotation.XmlNsForm;
+import jakarta.xml.bind.annotation.XmlSchema;
+import jakarta.xml.bind.annotation.XmlType;
+import jakarta.xml.bind.annotation.XmlValue;
+import jakarta.xml.bind.annotation.adapters.XmlAdapter;
+import jakarta.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+
+/**
+ * Internal helper to navigate the JAXB generated model like an XML tree. The child elements,
+ * attributes and text values are determined from the JAXB annotations, so that rules formulated
+ * on the XML representation can be evaluated directly on the JAXB objects. The reflection
+ * information is cached per class.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+final class PeppolSKTDD100ModelNavigator
+{
+  private static final String DEFAULT_NAME = "##default";
+
+  /**
+   * A single child element of a JAXB object.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  static final class ModelElement
+  {
+    private final QName m_aName;
+    private final Object m_aValue;
+    private final int m_nIndex;
+
+    ModelElement (@NonNull final QName aName, @NonNull final Object aValue, @Nonnegative final int nIndex)
+    {
+      m_aName = aName;
+      m_aValue = aValue;
+      m_nIndex = nIndex;
+    }
+
+    /**
+     * @return The qualified element name. Never <code>null</code>.
+     */
+    @NonNull
+    QName getName ()
+    {
+      return m_aName;
+    }
+
+    /**
+     * @return The JAXB object (or DOM element for wildcard content) representing the element. Never
+     *         <code>null</code>.
+     */
+    @NonNull
+    Object getValue ()
+    {
+      return m_aValue;
+    }
+
+    /**
+     * @return The 1-based index of the element among its siblings with the same name.
+     */
+    @Nonnegative
+    int getIndex ()
+    {
+      return m_nIndex;
+    }
+  }
+
+  private static final class ClassInfo
+  {
+    private final ICommonsList <Field> m_aElementFields = new CommonsArrayList <> ();
+    private final ICommonsOrderedMap <Field, QName> m_aElementNames = new CommonsLinkedHashMap <> ();
+    private final ICommonsOrderedMap <String, Field> m_aAttributeFields = new CommonsLinkedHashMap <> ();
+    private Field m_aValueField;
+  }
+
+  private static final Map <Class <?>, ClassInfo> CLASS_INFOS = new ConcurrentHashMap <> ();
+  private static final Map <Class <?>, XmlAdapter <?, ?>> ADAPTERS = new ConcurrentHashMap <> ();
+
+  private PeppolSKTDD100ModelNavigator ()
+  {}
+
+  @NonNull
+  private static String _getNamespaceURI (@NonNull final Field aField, @NonNull final String sNamespaceURI)
+  {
+    if (!DEFAULT_NAME.equals (sNamespaceURI))
+      return sNamespaceURI;
+    final XmlSchema aSchema = aField.getDeclaringClass ().getPackage ().getAnnotation (XmlSchema.class);
+    return aSchema != null && aSchema.elementFormDefault () == XmlNsForm.QUALIFIED ? aSchema.namespace () : "";
+  }
+
+  private static void _addClass (@NonNull final Class <?> aClass, @NonNull final ClassInfo aInfo)
+  {
+    final Class <?> aSuperClass = aClass.getSuperclass ();
+    if (aSuperClass != null && aSuperClass != Object.class)
+      _addClass (aSuperClass, aInfo);
+
+    // Use the element order as defined in the schema
+    final ICommonsList <Field> aFields = new CommonsArrayList <> ();
+    final XmlType aType = aClass.getAnnotation (XmlType.class);
+    if (aType != null)
+      for (final String sPropName : aType.propOrder ())
+        if (sPropName.length () > 0)
+          try
+          {
+            aFields.add (aClass.getDeclaredField (sPropName));
+          }
+          catch (final NoSuchFieldException ex)
+          {
+            // Ignore
+          }
+    for (final Field aField : aClass.getDeclaredFields ())
+      if (!aFields.contains (aField))
+        aFields.add (aField);
+
+    for (final Field aField : aFields)
+    {
+      final XmlElement aElement = aField.getAnnotation (XmlElement.class);
+      if (aElement != null)
+      {
+        aField.setAccessible (true);
+        aInfo.m_aElementFields.add (aField);
+        aInfo.m_aElementNames.put (aField,
+                                   new QName (_getNamespaceURI (aField, aElement.namespace ()),
+                                              DEFAULT_NAME.equals (aElement.name ()) ? aField.getName ()
+                                                                                     : aElement.name ()));
+        continue;
+      }
+      if (aField.isAnnotationPresent (XmlElementRef.class))
+      {
+        // The name is taken from the JAXBElement
+        aField.setAccessible (true);
+        aInfo.m_aElementFields.add (aField);
+        continue;
+      }
+      final XmlAttribute aAttribute = aField.getAnnotation (XmlAttribute.class);
+      if (aAttribute != null)
+      {
+        aField.setAccessible (true);
+        aInfo.m_aAttributeFields.put (DEFAULT_NAME.equals (aAttribute.name ()) ? aField.getName () : aAttribute.name (),
+                                      aField);
+        continue;
+      }
+      if (aField.isAnnotationPresent (XmlValue.class))
+      {
+        aField.setAccessible (true);
+        aInfo.m_aValueField = aField;
+      }
+    }
+  }
+
+  @NonNull
+  private static ClassInfo _getClassInfo (@NonNull final Class <?> aClass)
+  {
+    return CLASS_INFOS.computeIfAbsent (aClass, k -> {
+      final ClassInfo ret = new ClassInfo ();
+      _addClass (k, ret);
+      return ret;
+    });
+  }
+
+  @Nullable
+  private static Object _getFieldValue (@NonNull final Field aField, @NonNull final Object aObj)
+  {
+    try
+    {
+      return aField.get (aObj);
+    }
+    catch (final IllegalAccessException ex)
+    {
+      throw new IllegalStateException ("Failed to access field " + aField, ex);
+    }
+  }
+
+  private static void _addChild (@NonNull final ICommonsList <ModelElement> aTarget,
+                                 @Nullable final QName aFieldName,
+                                 @NonNull final Object aValue,
+                                 @Nonnegative final int nIndex)
+  {
+    if (aValue instanceof final JAXBElement <?> aJAXBElement)
+    {
+      if (aJAXBElement.getValue () != null)
+        aTarget.add (new ModelElement (aJAXBElement.getName (), aJAXBElement.getValue (), nIndex));
+    }
+    else
+      if (aValue instanceof final Element aElement)
+        aTarget.add (new ModelElement (new QName (aElement.getNamespaceURI (), aElement.getLocalName ()),
+                                       aElement,
+                                       nIndex));
+      else
+        if (aFieldName != null)
+          aTarget.add (new ModelElement (aFieldName, aValue, nIndex));
+  }
+
+  /**
+   * Get all child elements of the provided JAXB object in document order.
+   *
+   * @param aObj
+   *        The JAXB object to query. May not be <code>null</code>.
+   * @return A list with all present child elements. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  static ICommonsList <ModelElement> getAllChildElements (@NonNull final Object aObj)
+  {
+    final ICommonsList <ModelElement> ret = new CommonsArrayList <> ();
+    if (aObj instanceof Element)
+      return ret;
+
+    final ClassInfo aInfo = _getClassInfo (aObj.getClass ());
+    for (final Field aField : aInfo.m_aElementFields)
+    {
+      final QName aName = aInfo.m_aElementNames.get (aField);
+      final Object aValue = _getFieldValue (aField, aObj);
+      if (aValue instanceof final List <?> aList)
+      {
+        int nIndex = 1;
+        for (final Object aItem : aList)
+          if (aItem != null)
+            _addChild (ret, aName, aItem, nIndex++);
+      }
+      else
+        if (aValue != null)
+          _addChild (ret, aName, aValue, 1);
+    }
+    return ret;
+  }
+
+  /**
+   * Get all child elements with the provided name.
+   *
+   * @param aObj
+   *        The JAXB object to query. May not be <code>null</code>.
+   * @param aName
+   *        The element name to search. May not be <code>null</code>.
+   * @return A list with the values of all matching child elements. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  static ICommonsList <Object> getAllChildElements (@NonNull final Object aObj, @NonNull final QName aName)
+  {
+    final ICommonsList <Object> ret = new CommonsArrayList <> ();
+    for (final ModelElement aChild : getAllChildElements (aObj))
+      if (aChild.getName ().equals (aName))
+        ret.add (aChild.getValue ());
+    return ret;
+  }
+
+  @NonNull
+  private static XmlAdapter <?, ?> _createAdapter (@NonNull final Class <?> aAdapterClass)
+  {
+    try
+    {
+      return (XmlAdapter <?, ?>) aAdapterClass.getDeclaredConstructor ().newInstance ();
+    }
+    catch (final ReflectiveOperationException ex)
+    {
+      throw new IllegalStateException ("Failed to create XML adapter " + aAdapterClass.getName (), ex);
+    }
+  }
+
+  @SuppressWarnings ("unchecked")
+  @Nullable
+  private static String _getLexical (@NonNull final Field aField, @Nullable final Object aValue)
+  {
+    if (aValue == null)
+      return null;
+    final XmlJavaTypeAdapter aAdapterAnnotation = aField.getAnnotation (XmlJavaTypeAdapter.class);
+    if (aAdapterAnnotation != null)
+    {
+      // Use the same conversion as the marshaller
+      final XmlAdapter <Object, Object> aAdapter = (XmlAdapter <Object, Object>) ADAPTERS.computeIfAbsent (aAdapterAnnotation.value (),
+                                                                                                           PeppolSKTDD100ModelNavigator::_createAdapter);
+      try
+      {
+        final Object ret = aAdapter.marshal (aValue);
+        return ret == null ? null : ret.toString ();
+      }
+      catch (final Exception ex)
+      {
+        throw new IllegalStateException ("Failed to convert value of " + aField, ex);
+      }
+    }
+    if (aValue instanceof final BigDecimal aBD)
+      return aBD.toPlainString ();
+    return aValue.toString ();
+  }
+
+  /**
+   * Get the names of all attributes present on the provided JAXB object.
+   *
+   * @param aObj
+   *        The JAXB object to query. May not be <code>null</code>.
+   * @return The local names of all attributes with a value. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  static ICommonsOrderedSet <String> getAllAttributeNames (@NonNull final Object aObj)
+  {
+    final ICommonsOrderedSet <String> ret = new CommonsLinkedHashSet <> ();
+    if (aObj instanceof final Element aElement)
+    {
+      for (int i = 0; i < aElement.getAttributes ().getLength (); ++i)
+        ret.add (aElement.getAttributes ().item (i).getLocalName ());
+    }
+    else
+      for (final Map.Entry <String, Field> aEntry : _getClassInfo (aObj.getClass ()).m_aAttributeFields.entrySet ())
+        if (_getFieldValue (aEntry.getValue (), aObj) != null)
+          ret.add (aEntry.getKey ());
+    return ret;
+  }
+
+  /**
+   * Get the lexical value of an attribute.
+   *
+   * @param aObj
+   *        The JAXB object to query. May not be <code>null</code>.
+   * @param sLocalName
+   *        The local name of the attribute. May not be <code>null</code>.
+   * @return <code>null</code> if the attribute is not present.
+   */
+  @Nullable
+  static String getAttributeValue (@NonNull final Object aObj, @NonNull final String sLocalName)
+  {
+    if (aObj instanceof final Element aElement)
+      return aElement.hasAttribute (sLocalName) ? aElement.getAttribute (sLocalName) : null;
+
+    final Field aField = _getClassInfo (aObj.getClass ()).m_aAttributeFields.get (sLocalName);
+    return aField == null ? null : _getLexical (aField, _getFieldValue (aField, aObj));
+  }
+
+  /**
+   * Get the lexical text value of an element with simple content, as it would be serialized to
+   * XML.
+   *
+   * @param aObj
+   *        The JAXB object to query. May not be <code>null</code>.
+   * @return The text value and never <code>null</code>. For elements without simple content the
+   *         empty string is returned.
+   */
+  @NonNull
+  static String getTextValue (@NonNull final Object aObj)
+  {
+    if (aObj instanceof final Element aElement)
+      return aElement.getTextContent ();
+
+    final Field aField = _getClassInfo (aObj.getClass ()).m_aValueField;
+    if (aField == null)
+      return "";
+    final String ret = _getLexical (aField, _getFieldValue (aField, aObj));
+    return ret == null ? "" : ret;
+  }
+}
@@ -0,0 +1,897 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import javax.xml.namespace.QName;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsSet;
+import com.helger.diagnostics.error.IErrorLevel;
+import com.helger.diagnostics.error.SingleError;
+import com.helger.diagnostics.error.level.EErrorLevel;
+import com.helger.diagnostics.error.list.ErrorList;
+import com.helger.peppol.sk.tdd.jaxb.CPeppolSKTDD;
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100StaxReader;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+
+/**
+ * Native Java implementation of the Peppol SK TDD 1.0.0 specific Schematron rules
+ * <code>ibr-tdd-00</code> to <code>ibr-tdd-87</code> (see
+ * {@link PeppolSKTDDValidator#XSLT_SK_TDD_100}). The rules are evaluated directly on the JAXB
+ * model and emit the same rule IDs, error levels and locations as the XSLT based implementation,
+ * at a fraction of the cost. The rule contexts and tests are kept as close as possible to the
+ * original Schematron, so that updates of the Schematron can easily be applied here as well.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class PeppolSKTDD100NativeRules
+{
+  public static final String NS_CBC = "urn:oasis:names:specification:ubl:schema:xsd:CommonBasicComponents-2";
+  public static final String NS_CAC = "urn:oasis:names:specification:ubl:schema:xsd:CommonAggregateComponents-2";
+  public static final String NS_PXS = CPeppolSKTDD.TDD_XSD_1_0_0_NS;
+
+  private static final QName ROOT_ELEMENT = PeppolSKTDD100StaxReader.ROOT_ELEMENT;
+
+  private static final ICommonsSet <String> CL_DTC = new CommonsHashSet <> ("S", "R", "D");
+  private static final ICommonsSet <String> CL_DS = new CommonsHashSet <> ("D", "IC", "INTL");
+  private static final ICommonsSet <String> CL_RR = new CommonsHashSet <> ("C2", "C3");
+  private static final Pattern REGEX_PIDSCHEME = Pattern.compile ("[0-9]{4}");
+  private static final Pattern REGEX_ISSUE_TIME = Pattern.compile ("(?:([01]\\d|2[0-3]):[0-5]\\d:[0-5]\\d|24:00:00)(\\.\\d+)?(?:Z|[+-]\\d{2}:\\d{2})?");
+
+  /**
+   * A single Schematron assertion.
+   */
+  private static final class Assertion
+  {
+    private final String m_sID;
+    private final IErrorLevel m_aErrorLevel;
+    private final Predicate <Object> m_aTest;
+    private final Function <Object, String> m_aTextProvider;
+
+    Assertion (@NonNull final String sID,
+               @NonNull final IErrorLevel aErrorLevel,
+               @NonNull final Predicate <Object> aTest,
+               @NonNull final Function <Object, String> aTextProvider)
+    {
+      m_sID = sID;
+      m_aErrorLevel = aErrorLevel;
+      m_aTest = aTest;
+      m_aTextProvider = aTextProvider;
+    }
+  }
+
+  // Context path to assertions
+  private static final ICommonsMap <String, ICommonsList <Assertion>> RULES = new CommonsHashMap <> ();
+
+  private PeppolSKTDD100NativeRules ()
+  {}
+
+  @NonNull
+  private static QName _q (@NonNull final String sPrefixedName)
+  {
+    final int nIdx = sPrefixedName.indexOf (':');
+    final String sPrefix = sPrefixedName.substring (0, nIdx);
+    final String sLocalName = sPrefixedName.substring (nIdx + 1);
+    return switch (sPrefix)
+    {
+      case "cbc" -> new QName (NS_CBC, sLocalName);
+      case "cac" -> new QName (NS_CAC, sLocalName);
+      case "pxs" -> new QName (NS_PXS, sLocalName);
+      default -> throw new IllegalArgumentException ("Unsupported prefix in '" + sPrefixedName + "'");
+    };
+  }
+
+  @NonNull
+  private static String _getPrefixedName (@NonNull final QName aName)
+  {
+    return switch (aName.getNamespaceURI ())
+    {
+      case NS_CBC -> "cbc:" + aName.getLocalPart ();
+      case NS_CAC -> "cac:" + aName.getLocalPart ();
+      case NS_PXS -> "pxs:" + aName.getLocalPart ();
+      default -> aName.toString ();
+    };
+  }
+
+  /**
+   * XPath <code>normalize-space</code>
+   */
+  @NonNull
+  private static String _normalizeSpace (@NonNull final String s)
+  {
+    return s.trim ().replaceAll ("[ \\t\\r\\n]+", " ");
+  }
+
+  /**
+   * @return All nodes found when following the provided path of child element names from the
+   *         context.
+   */
+  @NonNull
+  private static ICommonsList <Object> _nodes (@NonNull final Object aCtx, @NonNull final QName... aPath)
+  {
+    ICommonsList <Object> ret = new CommonsArrayList <> (aCtx);
+    for (final QName aStep : aPath)
+    {
+      final ICommonsList <Object> aNext = new CommonsArrayList <> ();
+      for (final Object aNode : ret)
+        aNext.addAll (PeppolSKTDD100ModelNavigator.getAllChildElements (aNode, aStep));
+      ret = aNext;
+    }
+    return ret;
+  }
+
+  private static boolean _exists (@NonNull final Object aCtx, @NonNull final QName... aPath)
+  {
+    return _nodes (aCtx, aPath).isNotEmpty ();
+  }
+
+  /**
+   * XPath <code>normalize-space(path)</code> for paths matching at most one element
+   */
+  @NonNull
+  private static String _normalizedValue (@NonNull final Object aCtx, @NonNull final QName... aPath)
+  {
+    final Object aNode = _nodes (aCtx, aPath).getFirstOrNull ();
+    return aNode == null ? "" : _normalizeSpace (PeppolSKTDD100ModelNavigator.getTextValue (aNode));
+  }
+
+  /**
+   * @return The values of the provided attribute of all nodes matching the path
+   */
+  @NonNull
+  private static ICommonsList <String> _attributeValues (@NonNull final Object aCtx,
+                                                         @NonNull final String sAttrName,
+                                                         @NonNull final QName... aPath)
+  {
+    final ICommonsList <String> ret = new CommonsArrayList <> ();
+    for (final Object aNode : _nodes (aCtx, aPath))
+    {
+      final String sValue = PeppolSKTDD100ModelNavigator.getAttributeValue (aNode, sAttrName);
+      if (sValue != null)
+        ret.add (sValue);
+    }
+    return ret;
+  }
+
+  private static void _add (@NonNull final String sContext, @NonNull final Assertion aAssertion)
+  {
+    RULES.computeIfAbsent (sContext, k -> new CommonsArrayList <> ()).add (aAssertion);
+  }
+
+  /**
+   * Add a fatal assertion with a static text.
+   */
+  private static void _assert (@NonNull final String sContext,
+                               @NonNull final String sID,
+                               @NonNull final Predicate <Object> aTest,
+                               @NonNull final String sText)
+  {
+    _add (sContext, new Assertion (sID, EErrorLevel.FATAL_ERROR, aTest, x -> sText));
+  }
+
+  /**
+   * Add a fatal assertion of the form <code>count(*[not(self::a or self::b)]) = 0</code>.
+   */
+  private static void _assertOnlyChildren (@NonNull final String sContext,
+                                           @NonNull final String sID,
+                                           @NonNull final IErrorLevel aErrorLevel,
+                                           @NonNull final String sText,
+                                           @NonNull final String... aAllowedNames)
+  {
+    final ICommonsSet <QName> aAllowed = new CommonsHashSet <> (aAllowedNames, PeppolSKTDD100NativeRules::_q);
+    _add (sContext,
+          new Assertion (sID,
+                         aErrorLevel,
+                         x -> PeppolSKTDD100ModelNavigator.getAllChildElements (x)
+                                                          .containsNone (y -> !aAllowed.contains (y.getName ())),
+                         y -> sText));
+  }
+
+  private static void _assertOnlyChildren (@NonNull final String sContext,
+                                           @NonNull final String sID,
+                                           @NonNull final String sText,
+                                           @NonNull final String... aAllowedNames)
+  {
+    _assertOnlyChildren (sContext, sID, EErrorLevel.FATAL_ERROR, sText, aAllowedNames);
+  }
+
+  /**
+   * Add a fatal assertion of the form <code>count(a/@*[not(local-name() = 'x')]) = 0</code>. If
+   * no child element names are provided, the attributes of the context element are checked.
+   */
+  private static void _assertOnlyAttribute (@NonNull final String sContext,
+                                            @NonNull final String sID,
+                                            @NonNull final String sText,
+                                            @NonNull final String sAllowedAttrName,
+                                            @NonNull final String... aChildNames)
+  {
+    final ICommonsSet <QName> aChildren = new CommonsHashSet <> (aChildNames, PeppolSKTDD100NativeRules::_q);
+    _add (sContext, new Assertion (sID, EErrorLevel.FATAL_ERROR, x -> {
+      final ICommonsList <Object> aNodes = new CommonsArrayList <> ();
+      if (aChildren.isEmpty ())
+        aNodes.add (x);
+      else
+        for (final PeppolSKTDD100ModelNavigator.ModelElement aChild : PeppolSKTDD100ModelNavigator.getAllChildElements (x))
+          if (aChildren.contains (aChild.getName ()))
+            aNodes.add (aChild.getValue ());
+      for (final Object aNode : aNodes)
+        for (final String sAttrName : PeppolSKTDD100ModelNavigator.getAllAttributeNames (aNode))
+          if (!sAttrName.equals (sAllowedAttrName))
+            return false;
+      return true;
+    }, y -> sText));
+  }
+
+  static
+  {
+    final QName CUSTOMIZATION_ID = _q ("cbc:CustomizationID");
+    final QName PROFILE_ID = _q ("cbc:ProfileID");
+    final QName UUID = _q ("cbc:UUID");
+    final QName ISSUE_DATE = _q ("cbc:IssueDate");
+    final QName ISSUE_TIME = _q ("cbc:IssueTime");
+    final QName ID = _q ("cbc:ID");
+    final QName ENDPOINT_ID = _q ("cbc:EndpointID");
+    final QName PARTY_IDENTIFICATION = _q ("cac:PartyIdentification");
+    final QName PARTY = _q ("cac:Party");
+    final QName TAX_SCHEME = _q ("cac:TaxScheme");
+
+    // Schematron rule contexts
+    final String TD = "/pxs:TaxData";
+    final String RD = TD + "/pxs:ReportedTransaction/pxs:ReportedDocument";
+    final String SUPPLIER = RD + "/cac:AccountingSupplierParty";
+    final String CUSTOMER = RD + "/cac:AccountingCustomerParty";
+    final String TAX_REP = RD + "/cac:TaxRepresentativeParty";
+    final String PAYMENT_MEANS = RD + "/cac:PaymentMeans";
+    final String LINE = RD + "/pxs:DocumentLine";
+
+    _assertOnlyChildren (TD,
+                         "ibr-tdd-00",
+                         "[ibr-tdd-00] – The pxs:TaxData element MUST NOT contain elements other than cbc:CustomizationID (TDT-001), cbc:ProfileID (TDT-002), cbc:UUID (TDT-003), cbc:IssueDate (TDT-004), cbc:IssueTime (TDT-005), pxs:TaxDataTypeCode (TDT-007), pxs:DocumentScope (TDT-006), pxs:TaxAuthority (TDT-TDG-04), pxs:ReporterRole (TDT-012), pxs:ReportingParty (TDG-05), pxs:ReceivingParty (TDG-06), pxs:ReportersRepresentative (TDG-07), pxs:ReportedTransaction (TDG-01), and pxs:ReportedDocument (TDG-02).",
+                         "cbc:CustomizationID",
+                         "cbc:ProfileID",
+                         "cbc:UUID",
+                         "cbc:IssueDate",
+                         "cbc:IssueTime",
+                         "pxs:TaxDataTypeCode",
+                         "pxs:DocumentScope",
+                         "pxs:TaxAuthority",
+                         "pxs:ReporterRole",
+                         "pxs:ReportingParty",
+                         "pxs:ReceivingParty",
+                         "pxs:ReportersRepresentative",
+                         "pxs:ReportedTransaction",
+                         "pxs:ReportedDocument");
+    _assert (TD,
+             "ibr-tdd-01",
+             x -> _normalizedValue (x, CUSTOMIZATION_ID).equals ("urn:peppol:taxdata:sk-1"),
+             "[ibr-tdd-01] – The cbc:CustomizationID (TDT-001) element MUST have the value 'urn:peppol:taxdata:sk-1'.");
+    _assert (TD,
+             "ibr-tdd-02",
+             x -> _normalizedValue (x, PROFILE_ID).equals ("urn:peppol:taxreporting"),
+             "[ibr-tdd-02] – The cbc:ProfileID (TDT-002) element MUST have the value 'urn:peppol:taxreporting'.");
+    _assert (TD, "ibr-tdd-03", x -> _exists (x, UUID), "[ibr-tdd-03] – The cbc:UUID (TDT-003) element MUST be present.");
+    _assert (TD,
+             "ibr-tdd-04",
+             x -> {
+               final String sIssueDate = _normalizedValue (x, ISSUE_DATE);
+               return sIssueDate.codePointCount (0, sIssueDate.length ()) == 10;
+             },
+             "[ibr-tdd-04] – The cbc:IssueDate (TDT-004) element MUST NOT contain timezone information.");
+    _assert (TD,
+             "ibr-tdd-05",
+             x -> REGEX_ISSUE_TIME.matcher (_normalizedValue (x, ISSUE_TIME)).matches (),
+             "[ibr-tdd-05] – The cbc:IssueTime (TDT-005) element MUST contain timezone information.");
+    _assert (TD,
+             "ibr-tdd-06",
+             x -> CL_DTC.contains (_normalizedValue (x, _q ("pxs:TaxDataTypeCode"))),
+             "[ibr-tdd-06] – The pxs:TaxDataTypeCode (TDT-007) element MUST be coded according to the applicable code list.");
+    _assert (TD,
+             "ibr-tdd-08",
+             x -> CL_DS.contains (_normalizedValue (x, _q ("pxs:DocumentScope"))),
+             "[ibr-tdd-08] – The pxs:DocumentScope (TDT-006) element MUST be coded according to the applicable code list.");
+    _assert (TD,
+             "ibr-tdd-09",
+             x -> CL_RR.contains (_normalizedValue (x, _q ("pxs:ReporterRole"))),
+             "[ibr-tdd-09] – The pxs:ReporterRole (TDT-012) element MUST be coded according to the applicable code list.");
+    _assert (TD,
+             "ibr-tdd-10",
+             x -> _exists (x, _q ("pxs:TaxAuthority")),
+             "[ibr-tdd-10] – The pxs:TaxData element MUST contain a pxs:TaxAuthority (TDG-04) element.");
+    _assert (TD,
+             "ibr-tdd-11",
+             x -> _nodes (x, _q ("pxs:ReportedTransaction")).size () == 1,
+             "[ibr-tdd-11] – Exactly one pxs:ReportedTransaction (TDG-01) element MUST be present.");
+
+    // This assertion has no flag in the Schematron
+    _assertOnlyChildren (TD + "/pxs:TaxAuthority",
+                         "ibr-tdd-12",
+                         EErrorLevel.ERROR,
+                         "[ibr-tdd-12] – The pxs:TaxAuthority (TDG-04) element MUST NOT contain elements other than cbc:ID (TDT-010) and cbc:Name (TDT-011).",
+                         "cbc:ID",
+                         "cbc:Name");
+    _assert (TD + "/pxs:TaxAuthority",
+             "ibr-tdd-13",
+             x -> _exists (x, ID),
+             "[ibr-tdd-13] – The pxs:TaxAuthority (TDG-04) element MUST contain the cbc:ID (TDT-010) element.");
+
+    _assertOnlyChildren (TD + "/pxs:ReportingParty",
+                         "ibr-tdd-14",
+                         "[ibr-tdd-14] – The pxs:ReportingParty (TDG-05) element MUST NOT contain elements other than cbc:EndpointID (TDT-013).",
+                         "cbc:EndpointID");
+    _assert (TD + "/pxs:ReportingParty",
+             "ibr-tdd-15",
+             x -> _exists (x, ENDPOINT_ID),
+             "[ibr-tdd-15] – The cbc:EndpointID (TDT-013) element of pxs:ReportingParty (TDG-05) MUST be present.");
+    _assert (TD + "/pxs:ReportingParty",
+             "ibr-tdd-16",
+             x -> _attributeValues (x, "schemeID", ENDPOINT_ID).isNotEmpty (),
+             "[ibr-tdd-16] – The scheme identifier (TDT-013-1) attribute of cbc:EndpointID (TDT-013) MUST be present.");
+    _assert (TD + "/pxs:ReportingParty", "ibr-tdd-17", x -> {
+      final ICommonsList <String> aSchemes = _attributeValues (x, "schemeID", ENDPOINT_ID);
+      return aSchemes.isEmpty () || REGEX_PIDSCHEME.matcher (aSchemes.getFirstOrNull ()).matches ();
+    },
+             "[ibr-tdd-17] – The scheme identifier (TDT-013-1) attribute of cbc:EndpointID (TDT-013) MUST be a Peppol Participant Identifier Scheme.");
+
+    _assertOnlyChildren (TD + "/pxs:ReceivingParty",
+                         "ibr-tdd-18",
+                         "[ibr-tdd-18] – The pxs:ReceivingParty (TDG-06) element MUST NOT contain elements other than cbc:EndpointID (TDT-014).",
+                         "cbc:EndpointID");
+    _assert (TD + "/pxs:ReceivingParty",
+             "ibr-tdd-19",
+             x -> _exists (x, ENDPOINT_ID),
+             "[ibr-tdd-19] – The cbc:EndpointID (TDT-014) element of pxs:ReceivingParty (TDG-06) MUST be present.");
+    _assert (TD + "/pxs:ReceivingParty",
+             "ibr-tdd-20",
+             x -> _attributeValues (x, "schemeID", ENDPOINT_ID).contains ("0242"),
+             "[ibr-tdd-20] The scheme identifier (TDT-014-1) attribute of Receiving party (TDG-06) endpoint ID (TDT-014) MUST be present and MUST refer to an SPID ('0242').");
+
+    _assertOnlyChildren (TD + "/pxs:ReportersRepresentative",
+                         "ibr-tdd-21",
+                         "[ibr-tdd-21] – The cac:ReportersRepresentative (TDG-07) element MUST NOT contain elements other than cac:PartyIdentification (TDG-08).",
+                         "cac:PartyIdentification");
+    _add (TD + "/pxs:ReportersRepresentative",
+          new Assertion ("ibr-tdd-22",
+                         EErrorLevel.FATAL_ERROR,
+                         x -> _nodes (x, PARTY_IDENTIFICATION, ID).size () == 1,
+                         x -> "[ibr-tdd-22] – Exactly one cbc:ID (TDT-015) element MUST be present within cac:PartyIdentification (TDG-08) " +
+                              _nodes (x, PARTY_IDENTIFICATION, ID).size () +
+                              " instead"));
+    _assert (TD + "/pxs:ReportersRepresentative",
+             "ibr-tdd-23",
+             x -> _attributeValues (x, "schemeID", PARTY_IDENTIFICATION, ID).contains ("0242"),
+             "[ibr-tdd-23] – The scheme identifier(TDT-015-1) attribute of Reporter's Representative party (TDG-08) ID MUST be present and MUST refer to an SPID ('0242').");
+
+    _assert (TD + "/pxs:ReportedTransaction",
+             "ibr-tdd-24",
+             x -> _exists (x, _q ("pxs:ReportedDocument")),
+             "[ibr-tdd-24] – The cac:ReportedDocument (TDG-02) element MUST be present.");
+
+    _assertOnlyChildren (RD,
+                         "ibr-tdd-25",
+                         "[ibr-tdd-25] – The cac:ReportedDocument element MUST NOT contain elements other than cbc:CustomizationID (BT-024), cbc:ProfileID (BT-023), cbc:ID (BT-001), cbc:UUID (TDT-017), cbc:IssueDate (BT-002), cbc:IssueTime, pxs:DocumentTypeCode (BT-003), cbc:Note (BT-022), cbc:TaxPointDate (BT-007), cbc:DocumentCurrencyCode (BT-005), cbc:TaxCurrencyCode (BT-006), cac:InvoicePeriod (BG-14), cac:BillingReference (BG-03), cac:AccountingSupplierParty (BG-04), cac:AccountingCustomerParty (BG-07), cac:TaxRepresentativeParty (BG-11), cac:Delivery (BG-13), cac:PaymentMeans (BG-16), cac:AllowanceCharge (BG-20, BG-21), cac:TaxTotal (BT-110, BG-37), pxs:MonetaryTotal (BG-22), and pxs:DocumentLine (BG-25).",
+                         "cbc:CustomizationID",
+                         "cbc:ProfileID",
+                         "cbc:ID",
+                         "cbc:UUID",
+                         "cbc:IssueDate",
+                         "cbc:IssueTime",
+                         "pxs:DocumentTypeCode",
+                         "cbc:Note",
+                         "cbc:TaxPointDate",
+                         "cbc:DocumentCurrencyCode",
+                         "cbc:TaxCurrencyCode",
+                         "cac:InvoicePeriod",
+                         "cac:BillingReference",
+                         "cac:AccountingSupplierParty",
+                         "cac:AccountingCustomerParty",
+                         "cac:TaxRepresentativeParty",
+                         "cac:Delivery",
+                         "cac:PaymentMeans",
+                         "cac:AllowanceCharge",
+                         "cac:TaxTotal",
+                         "pxs:MonetaryTotal",
+                         "pxs:DocumentLine");
+    _assert (RD, "ibr-tdd-87", x -> _exists (x, UUID), "[ibr-tdd-87] - The UUID (TDT-017) MUST be present.");
+
+    _assertOnlyChildren (RD + "/cac:InvoicePeriod",
+                         "ibr-tdd-26",
+                         "[ibr-tdd-26] – The cac:InvoicePeriod (BG-14) element MUST NOT contain elements other than cbc:StartDate (BT-073), cbc:EndDate (BT-074), and cbc:DescriptionCode (BT-008).",
+                         "cbc:StartDate",
+                         "cbc:EndDate",
+                         "cbc:DescriptionCode");
+    _assertOnlyChildren (LINE + "/cac:InvoicePeriod",
+                         "ibr-tdd-27",
+                         "[ibr-tdd-27] – The cac:InvoicePeriod (BG-14) element at line level, MUST NOT contain elements other than cbc:StartDate (BT-073) and cbc:EndDate (BT-074).",
+                         "cbc:StartDate",
+                         "cbc:EndDate");
+    _assertOnlyChildren (RD + "/cac:BillingReference/cac:InvoiceDocumentReference",
+                         "ibr-tdd-28",
+                         "[ibr-tdd-28] – The cac:InvoiceDocumentReference element MUST NOT contain elements other than cbc:ID (BT-025) and cbc:IssueDate (BT-026).",
+                         "cbc:ID",
+                         "cbc:IssueDate");
+
+    // Seller
+    _assert (SUPPLIER, "ibr-tdd-29", x -> _exists (x, PARTY), "[ibr-tdd-29] – The SELLER (BG-04) MUST be present.");
+    _assertOnlyChildren (SUPPLIER + "/cac:Party",
+                         "ibr-tdd-30",
+                         "[ibr-tdd-30] – The cac:Party element MUST NOT contain elements other than cac:PostalAddress (BG-05) and optionally cac:PartyTaxScheme.",
+                         "cac:PostalAddress",
+                         "cac:PartyTaxScheme");
+    _assertOnlyChildren (SUPPLIER + "/cac:Party/cac:PostalAddress",
+                         "ibr-tdd-31",
+                         "[ibr-tdd-31] – The cac:PostalAddress (BG-05) element MUST NOT contain elements other than cac:Country.",
+                         "cac:Country");
+    _assertOnlyChildren (SUPPLIER + "/cac:Party/cac:PostalAddress/cac:Country",
+                         "ibr-tdd-32",
+                         "[ibr-tdd-32] – The cac:Country element MUST NOT contain elements other than cbc:IdentificationCode (BT-040).",
+                         "cbc:IdentificationCode");
+    _assert (SUPPLIER + "/cac:Party/cac:PartyTaxScheme",
+             "ibr-tdd-33",
+             x -> _nodes (x, TAX_SCHEME, ID).containsAny (y -> PeppolSKTDD100ModelNavigator.getTextValue (y).equals ("VAT")),
+             "[ibr-tdd-33] – The value of cac:PartyTaxScheme/cac:TaxScheme/cbc:ID MUST be VAT.");
+    _assertOnlyChildren (SUPPLIER + "/cac:Party/cac:PartyTaxScheme",
+                         "ibr-tdd-34",
+                         "[ibr-tdd-34] – The cac:PartyTaxScheme element MUST NOT contain elements other than cbc:CompanyID (BT-031) and cac:TaxScheme.",
+                         "cbc:CompanyID",
+                         "cac:TaxScheme");
+    _assertOnlyChildren (SUPPLIER + "/cac:Party/cac:PartyTaxScheme/cac:TaxScheme",
+                         "ibr-tdd-35",
+                         "[ibr-tdd-35] – The cac:TaxScheme element MUST NOT contain elements other than cbc:ID.",
+                         "cbc:ID");
+
+    // Buyer
+    _assert (CUSTOMER, "ibr-tdd-36", x -> _exists (x, PARTY), "[ibr-tdd-36] – The BUYER (BG-07) MUST be present.");
+    _assertOnlyChildren (CUSTOMER,
+                         "ibr-tdd-37",
+                         "[ibr-tdd-37] – The cac:AccountingCustomerParty (BG-07) element MUST NOT contain elements other than cac:Party.",
+                         "cac:Party");
+    _assertOnlyChildren (CUSTOMER + "/cac:Party",
+                         "ibr-tdd-38",
+                         "[ibr-tdd-38] – The cac:Party element MUST NOT contain elements other than cac:PostalAddress (BG-08), cac:PartyLegalEntity, and optionally cac:PartyTaxScheme.",
+                         "cac:PostalAddress",
+                         "cac:PartyTaxScheme",
+                         "cac:PartyLegalEntity");
+    _assertOnlyChildren (CUSTOMER + "/cac:Party/cac:PostalAddress",
+                         "ibr-tdd-39",
+                         "[ibr-tdd-39] – The cac:PostalAddress (BG-08) element MUST NOT contain elements other than cac:Country.",
+                         "cac:Country");
+    _assertOnlyChildren (CUSTOMER + "/cac:Party/cac:PostalAddress/cac:Country",
+                         "ibr-tdd-40",
+                         "[ibr-tdd-40] – The cac:Country element MUST NOT contain elements other than cbc:IdentificationCode (BT-055).",
+                         "cbc:IdentificationCode");
+    _assert (CUSTOMER + "/cac:Party/cac:PartyTaxScheme",
+             "ibr-tdd-41",
+             x -> _nodes (x, TAX_SCHEME, ID).containsAny (y -> PeppolSKTDD100ModelNavigator.getTextValue (y).equals ("VAT")),
+             "[ibr-tdd-41] – The value of cac:PartyTaxScheme/cac:TaxScheme/cbc:ID MUST be 'VAT'.");
+    _assertOnlyChildren (CUSTOMER + "/cac:Party/cac:PartyTaxScheme",
+                         "ibr-tdd-42",
+                         "[ibr-tdd-42] – The cac:PartyTaxScheme element MUST NOT contain elements other than cbc:CompanyID (BT-048) and cac:TaxScheme.",
+                         "cbc:CompanyID",
+                         "cac:TaxScheme");
+    _assertOnlyChildren (CUSTOMER + "/cac:Party/cac:PartyTaxScheme/cac:TaxScheme",
+                         "ibr-tdd-43",
+                         "[ibr-tdd-43] – The cac:TaxScheme element MUST NOT contain elements other than cbc:ID.",
+                         "cbc:ID");
+    _assertOnlyChildren (CUSTOMER + "/cac:Party/cac:PartyLegalEntity",
+                         "ibr-tdd-86",
+                         "[ibr-tdd-86] – The cac:PartyLegalEntity element MUST NOT contain elements other than cbc:RegistrationName (BT-044).",
+                         "cbc:RegistrationName");
+
+    // Seller tax representative - the context of ibr-tdd-44 is taken over verbatim from the
+    // Schematron, even though it cannot match a schema valid document
+    _assertOnlyChildren (CUSTOMER + "/cac:TaxRepresentativeParty",
+                         "ibr-tdd-44",
+                         "[ibr-tdd-44] – The cac:TaxRepresentativeParty (BG-11) element MUST NOT contain elements other than cac:PostalAddress (BG-12) and optionally cac:PartyTaxScheme.",
+                         "cac:PostalAddress",
+                         "cac:PartyTaxScheme");
+    _assertOnlyChildren (TAX_REP + "/cac:PostalAddress",
+                         "ibr-tdd-45",
+                         "[ibr-tdd-45] – The cac:PostalAddress (BG-12) element MUST NOT contain elements other than cac:Country.",
+                         "cac:Country");
+    _assertOnlyChildren (TAX_REP + "/cac:PostalAddress/cac:Country",
+                         "ibr-tdd-46",
+                         "[ibr-tdd-46] – The cac:Country element MUST NOT contain elements other than cbc:IdentificationCode (BT-069).",
+                         "cbc:IdentificationCode");
+    _assertOnlyChildren (RD + "/cac:Delivery",
+                         "ibr-tdd-85",
+                         "[ibr-tdd-85] – The cac:Delivery (BG-13) element MUST NOT contain elements other than cbc:ActualDeliveryDate (BT-072).",
+                         "cbc:ActualDeliveryDate");
+    _assert (TAX_REP + "/cac:PartyTaxScheme",
+             "ibr-tdd-47",
+             x -> _nodes (x, TAX_SCHEME, ID).containsAny (y -> PeppolSKTDD100ModelNavigator.getTextValue (y).equals ("VAT")),
+             "[ibr-tdd-47] – The value of cac:PartyTaxScheme/cac:TaxScheme/cbc:ID MUST be 'VAT'.");
+    _assertOnlyChildren (TAX_REP + "/cac:PartyTaxScheme",
+                         "ibr-tdd-48",
+                         "[ibr-tdd-48] – The cac:PartyTaxScheme element MUST NOT contain elements other than cbc:CompanyID (BT-063) and cac:TaxScheme.",
+                         "cbc:CompanyID",
+                         "cac:TaxScheme");
+    _assertOnlyChildren (TAX_REP + "/cac:PartyTaxScheme/cac:TaxScheme",
+                         "ibr-tdd-49",
+                         "[ibr-tdd-49] – The cac:TaxScheme element MUST NOT contain elements other than cbc:ID.",
+                         "cbc:ID");
+
+    // Payment means
+    _assertOnlyChildren (PAYMENT_MEANS,
+                         "ibr-tdd-50",
+                         "[ibr-tdd-50] – The cac:PaymentMeans (BG-16) element MUST NOT contain elements other than cbc:PaymentMeansCode (BT-081), cbc:PaymentID (BT-083), cac:CardAccount (BG-18), cac:PayeeFinancialAccount (BG-17), and cac:PaymentMandate (BG-19).",
+                         "cbc:PaymentMeansCode",
+                         "cbc:PaymentID",
+                         "cac:CardAccount",
+                         "cac:PayeeFinancialAccount",
+                         "cac:PaymentMandate");
+    _assertOnlyAttribute (PAYMENT_MEANS + "/cbc:PaymentMeansCode",
+                          "ibr-tdd-51",
+                          "[ibr-tdd-51] – The cbc:PaymentMeansCode (BT-081) element MUST NOT have attributes other than 'name' (BT-082).",
+                          "name");
+    _assertOnlyChildren (PAYMENT_MEANS + "/cac:CardAccount",
+                         "ibr-tdd-52",
+                         "[ibr-tdd-52] – The cac:CardAccount (BG-18) element MUST NOT contain elements other than cbc:PrimaryAccountNumberID (BT-087), cbc:NetworkID, and cbc:HolderName (BT-088).",
+                         "cbc:PrimaryAccountNumberID",
+                         "cbc:NetworkID",
+                         "cbc:HolderName");
+    _assertOnlyChildren (PAYMENT_MEANS + "/cac:PayeeFinancialAccount",
+                         "ibr-tdd-53",
+                         "[ibr-tdd-53] – The cac:PayeeFinancialAccount (BG-17) element MUST NOT contain elements other than cbc:ID (BT-084) and cac:FinancialInstitutionBranch.",
+                         "cbc:ID",
+                         "cac:FinancialInstitutionBranch");
+    _assertOnlyChildren (PAYMENT_MEANS + "/cac:PayeeFinancialAccount/cac:FinancialInstitutionBranch",
+                         "ibr-tdd-54",
+                         "[ibr-tdd-54] – The cac:FinancialInstitutionBranch element MUST NOT contain elements other than cbc:ID (BT-086).",
+                         "cbc:ID");
+    _assertOnlyChildren (PAYMENT_MEANS + "/cac:PaymentMandate",
+                         "ibr-tdd-55",
+                         "[ibr-tdd-55] – The cac:PaymentMandate (BG-19) element MUST NOT contain elements other than cbc:ID (BT-089) and cac:PayerFinancialAccount.",
+                         "cbc:ID",
+                         "cac:PayerFinancialAccount");
+    _assertOnlyChildren (PAYMENT_MEANS + "/cac:PaymentMandate/cac:PayerFinancialAccount",
+                         "ibr-tdd-56",
+                         "[ibr-tdd-56] – The cac:PayerFinancialAccount element MUST NOT contain elements other than cbc:ID (BT-091).",
+                         "cbc:ID");
+
+    // Allowances and charges
+    _assertOnlyChildren (RD + "/cac:AllowanceCharge",
+                         "ibr-tdd-57",
+                         "[ibr-tdd-57] – The cac:AllowanceCharge (Document level: BG-20, BG-21) element MUST NOT contain elements other than cbc:ChargeIndicator, cbc:AllowanceChargeReasonCode (BT-098, BT-105), cbc:AllowanceChargeReason (BT-097, BT-104), cbc:MultiplierFactorNumeric (BT-094, BT-101), cbc:Amount (BT-092, BT-099), cbc:BaseAmount (BT-093, BT-100), and cac:TaxCategory.",
+                         "cbc:ChargeIndicator",
+                         "cbc:AllowanceChargeReasonCode",
+                         "cbc:AllowanceChargeReason",
+                         "cbc:MultiplierFactorNumeric",
+                         "cbc:Amount",
+                         "cbc:BaseAmount",
+                         "cac:TaxCategory");
+    _assertOnlyAttribute (RD + "/cac:AllowanceCharge",
+                          "ibr-tdd-58",
+                          "[ibr-tdd-58] – The cbc:Amount (BT-092, BT-099) element MUST have the attribute 'currencyID'.",
+                          "currencyID",
+                          "cbc:Amount");
+    _assertOnlyAttribute (RD + "/cac:AllowanceCharge",
+                          "ibr-tdd-59",
+                          "[ibr-tdd-59] – The cbc:BaseAmount (BT-093, BT-100) element MUST have the attribute 'currencyID'.",
+                          "currencyID",
+                          "cbc:BaseAmount");
+    _assertOnlyChildren (LINE + "/cac:AllowanceCharge",
+                         "ibr-tdd-60",
+                         "[ibr-tdd-60] – The cac:AllowanceCharge (Document line level: BG-27, BG-28) element MUST NOT contain elements other than cbc:ChargeIndicator, cbc:AllowanceChargeReasonCode (BT-140, BT-145), cbc:AllowanceChargeReason (BT-139, BT-144), cbc:MultiplierFactorNumeric (BT-138, BT-143), cbc:Amount (BT-136, BT-141), and cbc:BaseAmount (BT-137, BT-142).",
+                         "cbc:ChargeIndicator",
+                         "cbc:AllowanceChargeReasonCode",
+                         "cbc:AllowanceChargeReason",
+                         "cbc:MultiplierFactorNumeric",
+                         "cbc:Amount",
+                         "cbc:BaseAmount");
+    _assertOnlyAttribute (LINE + "/cac:AllowanceCharge",
+                          "ibr-tdd-61",
+                          "[ibr-tdd-61] – The cbc:Amount (BT-136, BT-141) element MUST have the attribute 'currencyID'.",
+                          "currencyID",
+                          "cbc:Amount");
+    _assertOnlyAttribute (LINE + "/cac:AllowanceCharge",
+                          "ibr-tdd-62",
+                          "[ibr-tdd-62] – The cbc:BaseAmount (BT-137, BT-142) element MUST have the attribute 'currencyID'.",
+                          "currencyID",
+                          "cbc:BaseAmount");
+    _assertOnlyChildren (RD + "/cac:AllowanceCharge/cac:TaxCategory",
+                         "ibr-tdd-63",
+                         "[ibr-tdd-63] – The cac:TaxCategory element MUST NOT contain elements other than cbc:ID (BT-095, BT-102), cbc:Percent (BT-096, BT-103), and cac:TaxScheme.",
+                         "cbc:ID",
+                         "cbc:Percent",
+                         "cac:TaxScheme");
+    _assertOnlyChildren (RD + "/cac:AllowanceCharge/cac:TaxCategory/cac:TaxScheme",
+                         "ibr-tdd-64",
+                         "[ibr-tdd-64] – The cac:TaxScheme element MUST NOT contain elements other than cbc:ID.",
+                         "cbc:ID");
+
+    // Tax totals
+    _assertOnlyChildren (RD + "/cac:TaxTotal",
+                         "ibr-tdd-65",
+                         "[ibr-tdd-65] – The cac:TaxTotal element MUST NOT contain elements other than cbc:TaxAmount (BT-110, BT-111) and cac:TaxSubtotal (BG-23).",
+                         "cbc:TaxAmount",
+                         "cac:TaxSubtotal");
+    _assertOnlyAttribute (RD + "/cac:TaxTotal",
+                          "ibr-tdd-66",
+                          "[ibr-tdd-66] – The cbc:TaxAmount (BT-110, BT-111) element MUST have the attribute 'currencyID'.",
+                          "currencyID",
+                          "cbc:TaxAmount");
+    _assertOnlyChildren (RD + "/cac:TaxTotal/cac:TaxSubtotal",
+                         "ibr-tdd-67",
+                         "[ibr-tdd-67] – The cac:TaxSubtotal (BG-23) element MUST NOT contain elements other than cbc:TaxableAmount (BT-116), cbc:TaxAmount (BT-117), and cac:TaxCategory.",
+                         "cbc:TaxableAmount",
+                         "cbc:TaxAmount",
+                         "cac:TaxCategory");
+    _assertOnlyAttribute (RD + "/cac:TaxTotal/cac:TaxSubtotal",
+                          "ibr-tdd-68",
+                          "[ibr-tdd-68] – The cbc:TaxableAmount (BT-116) element MUST have the attribute 'currencyID'.",
+                          "currencyID",
+                          "cbc:TaxableAmount");
+    _assertOnlyAttribute (RD + "/cac:TaxTotal/cac:TaxSubtotal",
+                          "ibr-tdd-69",
+                          "[ibr-tdd-69] – The cbc:TaxAmount (BT-117) element MUST have the attribute 'currencyID'.",
+                          "currencyID",
+                          "cbc:TaxAmount");
+    _assertOnlyChildren (RD + "/cac:TaxTotal/cac:TaxSubtotal/cac:TaxCategory",
+                         "ibr-tdd-70",
+                         "[ibr-tdd-70] – The cac:TaxCategory element MUST NOT contain elements other than cbc:ID (BT-118), cbc:Percent (BT-119), cbc:TaxExemptionReasonCode (BT-121), cbc:TaxExemptionReason (BT-120), and cac:TaxScheme.",
+                         "cbc:ID",
+                         "cbc:Percent",
+                         "cbc:TaxExemptionReasonCode",
+                         "cbc:TaxExemptionReason",
+                         "cac:TaxScheme");
+    _assertOnlyChildren (RD + "/cac:TaxTotal/cac:TaxSubtotal/cac:TaxCategory/cac:TaxScheme",
+                         "ibr-tdd-71",
+                         "[ibr-tdd-71] – The cac:TaxScheme element MUST NOT contain elements other than cbc:ID.",
+                         "cbc:ID");
+
+    // Monetary total
+    _assertOnlyChildren (RD + "/pxs:MonetaryTotal",
+                         "ibr-tdd-72",
+                         "[ibr-tdd-72] – The pxs:MonetaryTotal (BG-22) element MUST NOT contain elements other than cbc:LineExtensionAmount (BT-106), cbc:TaxExclusiveAmount (BT-109), cbc:TaxInclusiveAmount (BT-112), cbc:AllowanceTotalAmount (BT-107), cbc:ChargeTotalAmount (BT-108), cbc:PrepaidAmount (BT-113), cbc:PayableRoundingAmount (BT-114), and cbc:PayableAmount (BT-115).",
+                         "cbc:LineExtensionAmount",
+                         "cbc:TaxExclusiveAmount",
+                         "cbc:TaxInclusiveAmount",
+                         "cbc:AllowanceTotalAmount",
+                         "cbc:ChargeTotalAmount",
+                         "cbc:PrepaidAmount",
+                         "cbc:PayableRoundingAmount",
+                         "cbc:PayableAmount");
+    // PayableRoundingAmount is not part of the Schematron test
+    _assertOnlyAttribute (RD + "/pxs:MonetaryTotal",
+                          "ibr-tdd-73",
+                          "[ibr-tdd-73] – All amount (BT-106, BT-109, BT-112, BT-107, BT-108, BT-113, BT-114, BT-115) elements within pxs:MonetaryTotal (BG-22) MUST have the attribute 'currencyID'.",
+                          "currencyID",
+                          "cbc:LineExtensionAmount",
+                          "cbc:TaxExclusiveAmount",
+                          "cbc:TaxInclusiveAmount",
+                          "cbc:AllowanceTotalAmount",
+                          "cbc:ChargeTotalAmount",
+                          "cbc:PrepaidAmount",
+                          "cbc:PayableAmount");
+
+    // Document lines
+    _assertOnlyChildren (LINE,
+                         "ibr-tdd-74",
+                         "[ibr-tdd-74] – The pxs:DocumentLine (BG-25) element MUST NOT contain elements other than cbc:ID (BT-126), cbc:Note (BT-127), cbc:InvoicedQuantity (BT-129), cbc:LineExtensionAmount (BT-131), cac:InvoicePeriod (BG-26), cac:AllowanceCharge (BG-27, BG-28), cac:Item (BG-31), and cac:Price (BG-29).",
+                         "cbc:ID",
+                         "cbc:Note",
+                         "cbc:InvoicedQuantity",
+                         "cbc:LineExtensionAmount",
+                         "cac:InvoicePeriod",
+                         "cac:AllowanceCharge",
+                         "cac:Item",
+                         "cac:Price");
+    _assertOnlyAttribute (LINE,
+                          "ibr-tdd-75",
+                          "[ibr-tdd-75] – The cbc:InvoicedQuantity (BT-129) element MUST have the attribute 'unitCode' (BT-130).",
+                          "unitCode",
+                          "cbc:InvoicedQuantity");
+    _assertOnlyAttribute (LINE,
+                          "ibr-tdd-76",
+                          "[ibr-tdd-76] – The cbc:LineExtensionAmount (BT-131) element MUST have the attribute 'currencyID'.",
+                          "currencyID",
+                          "cbc:LineExtensionAmount");
+    _assertOnlyChildren (LINE + "/cac:Item",
+                         "ibr-tdd-77",
+                         "[ibr-tdd-77] – The cac:Item (BG-31) element MUST NOT contain elements other than cbc:Description (BT-154), cbc:Name (BT-153), cac:CommodityClassification, and cac:ClassifiedTaxCategory (BG-30).",
+                         "cbc:Description",
+                         "cbc:Name",
+                         "cac:CommodityClassification",
+                         "cac:ClassifiedTaxCategory");
+    _assertOnlyChildren (LINE + "/cac:Item/cac:CommodityClassification",
+                         "ibr-tdd-78",
+                         "[ibr-tdd-78] – The cac:CommodityClassification element MUST NOT contain elements other than cbc:ItemClassificationCode (BT-158).",
+                         "cbc:ItemClassificationCode");
+    _assertOnlyAttribute (LINE + "/cac:Item/cac:CommodityClassification",
+                          "ibr-tdd-79",
+                          "[ibr-tdd-79] – The cbc:ItemClassificationCode (BT-158) element MUST have the attribute 'listID' (BT-158-1).",
+                          "listID",
+                          "cbc:ItemClassificationCode");
+    _assertOnlyChildren (LINE + "/cac:Item/cac:ClassifiedTaxCategory",
+                         "ibr-tdd-80",
+                         "[ibr-tdd-80] – The cac:ClassifiedTaxCategory (BG-30) element MUST NOT contain elements other than cbc:ID (BT-151), cbc:Percent (BT-152), and cac:TaxScheme.",
+                         "cbc:ID",
+                         "cbc:Percent",
+                         "cac:TaxScheme");
+    _assertOnlyChildren (LINE + "/cac:Item/cac:ClassifiedTaxCategory/cac:TaxScheme",
+                         "ibr-tdd-81",
+                         "[ibr-tdd-81] – The cac:TaxScheme element MUST NOT contain elements other than cbc:ID.",
+                         "cbc:ID");
+    // The Schematron test also allows cbc:BaseQuantity
+    _assertOnlyChildren (LINE + "/cac:Price",
+                         "ibr-tdd-82",
+                         "[ibr-tdd-82] – The cac:Price (BG-29) element MUST NOT contain elements other than cbc:PriceAmount (BT-146).",
+                         "cbc:PriceAmount",
+                         "cbc:BaseQuantity");
+    _assertOnlyAttribute (LINE + "/cac:Price",
+                          "ibr-tdd-83",
+                          "[ibr-tdd-83] – The cbc:PriceAmount (BT-146) element MUST have the attribute 'currencyID'.",
+                          "currencyID",
+                          "cbc:PriceAmount");
+    _assertOnlyChildren (RD + "/cac:BillingReference",
+                         "ibr-tdd-84",
+                         "[ibr-tdd-84] – The cac:BillingReference (BG-03) element MUST NOT contain elements other than cac:InvoiceDocumentReference.",
+                         "cac:InvoiceDocumentReference");
+  }
+
+  @NonNull
+  static String getLocationStep (@NonNull final QName aName, final int nIndex)
+  {
+    // Same format as the "schematron-get-full-path" mode of the XSLT
+    if (aName.getNamespaceURI ().isEmpty ())
+      return "/" + aName.getLocalPart () + "[" + nIndex + "]";
+    return "/*:" + aName.getLocalPart () + "[namespace-uri()='" + aName.getNamespaceURI () + "'][" + nIndex + "]";
+  }
+
+  /**
+   * Evaluate the assertions of the rule context matching the provided node, without descending.
+   */
+  static void validateNode (@NonNull final Object aNode,
+                            @NonNull final String sContext,
+                            @NonNull final String sLocation,
+                            @NonNull final ErrorList aErrorList,
+                            @Nullable final Consumer <String> aContextConsumer)
+  {
+    // Each node matches at most one rule
+    final ICommonsList <Assertion> aAssertions = RULES.get (sContext);
+    if (aAssertions != null)
+    {
+      if (aContextConsumer != null)
+        aContextConsumer.accept (sContext);
+      for (final Assertion aAssertion : aAssertions)
+        if (!aAssertion.m_aTest.test (aNode))
+          aErrorList.add (SingleError.builder ()
+                                     .errorLevel (aAssertion.m_aErrorLevel)
+                                     .errorID (aAssertion.m_sID)
+                                     .errorFieldName (sLocation)
+                                     .errorText (aAssertion.m_aTextProvider.apply (aNode))
+                                     .build ());
+    }
+  }
+
+  /**
+   * Evaluate the assertions of the provided node and all its descendants in document order.
+   */
+  static void validateSubtree (@NonNull final Object aNode,
+                               @NonNull final String sContext,
+                               @NonNull final String sLocation,
+                               @NonNull final ErrorList aErrorList,
+                               @Nullable final Consumer <String> aContextConsumer)
+  {
+    validateNode (aNode, sContext, sLocation, aErrorList, aContextConsumer);
+
+    // Descend in document order
+    for (final PeppolSKTDD100ModelNavigator.ModelElement aChild : PeppolSKTDD100ModelNavigator.getAllChildElements (aNode))
+      validateSubtree (aChild.getValue (),
+                       getChildContext (sContext, aChild),
+                       getChildLocation (sLocation, aChild),
+                       aErrorList,
+                       aContextConsumer);
+  }
+
+  @NonNull
+  static String getRootContext ()
+  {
+    return "/" + _getPrefixedName (ROOT_ELEMENT);
+  }
+
+  @NonNull
+  static String getRootLocation ()
+  {
+    return getLocationStep (ROOT_ELEMENT, 1);
+  }
+
+  @NonNull
+  static String getChildContext (@NonNull final String sContext,
+                                 final PeppolSKTDD100ModelNavigator.ModelElement aChild)
+  {
+    return sContext + "/" + _getPrefixedName (aChild.getName ());
+  }
+
+  @NonNull
+  static String getChildLocation (@NonNull final String sLocation,
+                                  final PeppolSKTDD100ModelNavigator.ModelElement aChild)
+  {
+    return sLocation + getLocationStep (aChild.getName (), aChild.getIndex ());
+  }
+
+  /**
+   * Validate the provided TDD against the SK TDD 1.0.0 specific rules.
+   *
+   * @param aTDD
+   *        The TDD to validate. May not be <code>null</code>.
+   * @return The list of all failed assertions in document order. Never <code>null</code> but maybe
+   *         empty.
+   */
+  @NonNull
+  public static ErrorList validate (@NonNull final TaxDataType aTDD)
+  {
+    return validate (aTDD, null);
+  }
+
+  /**
+   * Validate the provided TDD against the SK TDD 1.0.0 specific rules and report every matched rule
+   * context.
+   *
+   * @param aTDD
+   *        The TDD to validate. May not be <code>null</code>.
+   * @param aContextConsumer
+   *        The consumer that is invoked with the rule context (as contained in
+   *        {@link #getAllRuleContexts()}) every time a node matches a rule context. May be
+   *        <code>null</code>.
+   * @return The list of all failed assertions in document order. Never <code>null</code> but maybe
+   *         empty.
+   */
+  @NonNull
+  public static ErrorList validate (@NonNull final TaxDataType aTDD, @Nullable final Consumer <String> aContextConsumer)
+  {
+    ValueEnforcer.notNull (aTDD, "TDD");
+    final ErrorList ret = new ErrorList ();
+    validateSubtree (aTDD, getRootContext (), getRootLocation (), ret, aContextConsumer);
+    return ret;
+  }
+
+  /**
+   * @return The number of context rules contained. Always &gt; 0.
+   */
+  static int getRuleCount ()
+  {
+    return RULES.size ();
+  }
+
+  /**
+   * @return A copy of all rule contexts in the form of absolute paths with prefixed names (e.g.
+   *         <code>/pxs:TaxData/pxs:TaxAuthority</code>). Never <code>null</code> nor empty.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsSet <String> getAllRuleContexts ()
+  {
+    return RULES.copyOfKeySet ();
+  }
+}
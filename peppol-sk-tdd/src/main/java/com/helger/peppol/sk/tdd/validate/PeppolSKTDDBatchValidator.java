@@ -0,0 +1,429 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
+import com.helger.io.resource.IReadableResource;
+import com.helger.io.resource.inmemory.ReadableResourceByteArray;
+import com.helger.phive.api.result.ValidationResult;
+import com.helger.phive.api.result.ValidationResultList;
+
+/**
+ * Validate a large number of TDDs on a worker pool. The number of documents that are submitted but
+ * not yet delivered to the callback is bounded, so that the input is only consumed as fast as it
+ * can be validated (backpressure) and memory consumption stays constant, independent of the number
+ * of documents. All validations reuse the compiled validation executors of
+ * {@link PeppolSKTDDValidator}. The callback is always invoked in the calling thread, so it does
+ * not need to be thread-safe.
+ *
+ * @author Philip Helger
+ */
+@NotThreadSafe
+public class PeppolSKTDDBatchValidator
+{
+  public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (PeppolSKTDDBatchValidator.class);
+
+  /**
+   * Callback interface for single validation results.
+   *
+   * @author Philip Helger
+   */
+  @FunctionalInterface
+  public interface IBatchCallback
+  {
+    /**
+     * Called for every validated document.
+     *
+     * @param nIndex
+     *        The 0-based index of the document in the input.
+     * @param aRes
+     *        The validated document. Never <code>null</code>.
+     * @param aVRL
+     *        The validation results. Never <code>null</code>.
+     */
+    void onResult (@Nonnegative long nIndex, @NonNull IReadableResource aRes, @NonNull ValidationResultList aVRL);
+  }
+
+  /**
+   * Statistics of a single batch.
+   *
+   * @author Philip Helger
+   */
+  @NotThreadSafe
+  public static final class BatchStatistics
+  {
+    private long m_nDocumentCount;
+    private long m_nInvalidCount;
+    private Duration m_aDuration = Duration.ZERO;
+    private final ICommonsOrderedMap <String, long []> m_aLayers = new CommonsLinkedHashMap <> ();
+
+    void addResult (@NonNull final ValidationResultList aVRL)
+    {
+      m_nDocumentCount++;
+      if (aVRL.getOverallValidity ().isInvalid ())
+        m_nInvalidCount++;
+      for (final ValidationResult aResult : aVRL)
+        if (!aResult.isIgnored ())
+        {
+          // Count and total duration per layer
+          final long [] aData = m_aLayers.computeIfAbsent (aResult.getValidationArtefact ()
+                                                                  .getRuleResource ()
+                                                                  .getPath (), k -> new long [2]);
+          aData[0]++;
+          aData[1] += aResult.getDurationMS ();
+        }
+    }
+
+    void setDuration (@NonNull final Duration aDuration)
+    {
+      m_aDuration = aDuration;
+    }
+
+    /**
+     * @return The number of validated documents.
+     */
+    @Nonnegative
+    public long getDocumentCount ()
+    {
+      return m_nDocumentCount;
+    }
+
+    /**
+     * @return The number of documents with at least one error.
+     */
+    @Nonnegative
+    public long getInvalidCount ()
+    {
+      return m_nInvalidCount;
+    }
+
+    /**
+     * @return The wall clock duration of the batch. Never <code>null</code>.
+     */
+    @NonNull
+    public Duration getDuration ()
+    {
+      return m_aDuration;
+    }
+
+    /**
+     * @return The throughput in documents per second. 0 if nothing was validated.
+     */
+    public double getDocumentsPerSecond ()
+    {
+      final long nNanos = m_aDuration.toNanos ();
+      return nNanos == 0 ? 0 : m_nDocumentCount * 1_000_000_000d / nNanos;
+    }
+
+    /**
+     * @return A map from the rule resource path of each validation layer to its average duration
+     *         in milliseconds, in the order of validation. Never <code>null</code>.
+     */
+    @NonNull
+    @ReturnsMutableCopy
+    public ICommonsOrderedMap <String, Double> getAverageLayerDurationMS ()
+    {
+      final ICommonsOrderedMap <String, Double> ret = new CommonsLinkedHashMap <> ();
+      for (final var aEntry : m_aLayers.entrySet ())
+        ret.put (aEntry.getKey (), Double.valueOf ((double) aEntry.getValue ()[1] / aEntry.getValue ()[0]));
+      return ret;
+    }
+
+    @Override
+    public String toString ()
+    {
+      return m_nDocumentCount +
+             " document(s) (" +
+             m_nInvalidCount +
+             " invalid) in " +
+             m_aDuration.toMillis () +
+             " ms = " +
+             Math.round (getDocumentsPerSecond ()) +
+             " documents/s; average layer durations [ms]: " +
+             getAverageLayerDurationMS ();
+    }
+  }
+
+  private final ExecutorService m_aExecutor;
+  private final int m_nMaxInFlight;
+  private final PeppolSKTDDValidationSettings m_aSettings;
+
+  /**
+   * Constructor using {@link #DEFAULT_MAX_IN_FLIGHT}.
+   *
+   * @param aExecutor
+   *        The worker pool to validate on. May not be <code>null</code>. It is not shut down by
+   *        this class.
+   * @param aSettings
+   *        The validation settings to use for all documents. May not be <code>null</code> and
+   *        must not be modified while a batch is running.
+   * @throws IllegalArgumentException
+   *         if the settings evaluate the Schematron layers concurrently on the worker pool
+   * @see #PeppolSKTDDBatchValidator(ExecutorService, int, PeppolSKTDDValidationSettings)
+   */
+  public PeppolSKTDDBatchValidator (@NonNull final ExecutorService aExecutor,
+                                    @NonNull final PeppolSKTDDValidationSettings aSettings)
+  {
+    this (aExecutor, DEFAULT_MAX_IN_FLIGHT, aSettings);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aExecutor
+   *        The worker pool to validate on. May not be <code>null</code>. It is not shut down by
+   *        this class.
+   * @param nMaxInFlight
+   *        The maximum number of documents that are submitted but not yet delivered. Must be &gt;
+   *        0. Should be at least the number of worker threads.
+   * @param aSettings
+   *        The validation settings to use for all documents. May not be <code>null</code> and
+   *        must not be modified while a batch is running. The concurrent evaluation of the
+   *        Schematron layers should usually be disabled, as the documents are already validated
+   *        concurrently. It must not use the worker pool, because the workers would wait for
+   *        layers queued behind them on the same pool.
+   * @throws IllegalArgumentException
+   *         if the settings evaluate the Schematron layers concurrently on the worker pool
+   */
+  public PeppolSKTDDBatchValidator (@NonNull final ExecutorService aExecutor,
+                                    @Nonnegative final int nMaxInFlight,
+                                    @NonNull final PeppolSKTDDValidationSettings aSettings)
+  {
+    ValueEnforcer.notNull (aExecutor, "Executor");
+    ValueEnforcer.isGT0 (nMaxInFlight, "MaxInFlight");
+    ValueEnforcer.notNull (aSettings, "Settings");
+    ValueEnforcer.isFalse ( () -> aSettings.isParallelSchematron () && aSettings.getEffectiveExecutor () == aExecutor,
+                           "The Schematron layers must not be evaluated concurrently on the worker pool");
+    m_aExecutor = aExecutor;
+    m_nMaxInFlight = nMaxInFlight;
+    m_aSettings = aSettings;
+  }
+
+  /**
+   * @return The maximum number of documents that are submitted but not yet delivered.
+   */
+  @Nonnegative
+  public final int getMaxInFlight ()
+  {
+    return m_nMaxInFlight;
+  }
+
+  /**
+   * A submitted document.
+   */
+  @Immutable
+  private static final class Submitted
+  {
+    private final long m_nIndex;
+    private final IReadableResource m_aRes;
+    private final Future <ValidationResultList> m_aFuture;
+
+    Submitted (final long nIndex,
+               @NonNull final IReadableResource aRes,
+               @NonNull final Future <ValidationResultList> aFuture)
+    {
+      m_nIndex = nIndex;
+      m_aRes = aRes;
+      m_aFuture = aFuture;
+    }
+  }
+
+  @NonNull
+  private static ValidationResultList _get (@NonNull final Future <ValidationResultList> aFuture)
+  {
+    try
+    {
+      return aFuture.get ();
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+      throw new IllegalStateException ("Interrupted while waiting for the validation result", ex);
+    }
+    catch (final ExecutionException ex)
+    {
+      if (ex.getCause () instanceof RuntimeException)
+        throw (RuntimeException) ex.getCause ();
+      throw new IllegalStateException ("Failed to execute validation", ex.getCause ());
+    }
+  }
+
+  private static void _deliver (@NonNull final Submitted aSubmitted,
+                                @NonNull final IBatchCallback aCallback,
+                                @NonNull final BatchStatistics aStats)
+  {
+    final ValidationResultList aVRL = _get (aSubmitted.m_aFuture);
+    aStats.addResult (aVRL);
+    aCallback.onResult (aSubmitted.m_nIndex, aSubmitted.m_aRes, aVRL);
+  }
+
+  /**
+   * Validate all provided documents.
+   *
+   * @param aDocuments
+   *        The documents to validate. May not be <code>null</code>. It is consumed only as fast as
+   *        documents can be validated. Use {@link java.util.stream.Stream#iterator()} for streams.
+   * @param bOrdered
+   *        <code>true</code> to deliver the results in input order, <code>false</code> to deliver
+   *        them as they complete. Unordered delivery achieves a higher throughput if the
+   *        validation times differ a lot.
+   * @param aCallback
+   *        The callback to be invoked for every validated document. May not be <code>null</code>.
+   * @return The statistics of this batch. Never <code>null</code>.
+   */
+  @NonNull
+  public BatchStatistics validateAll (@NonNull final Iterator <? extends IReadableResource> aDocuments,
+                                      final boolean bOrdered,
+                                      @NonNull final IBatchCallback aCallback)
+  {
+    ValueEnforcer.notNull (aDocuments, "Documents");
+    ValueEnforcer.notNull (aCallback, "Callback");
+
+    final BatchStatistics ret = new BatchStatistics ();
+    final long nStart = System.nanoTime ();
+    // Submitted in input order
+    final Deque <Submitted> aPending = new ArrayDeque <> ();
+    final CompletionService <ValidationResultList> aCS = bOrdered ? null
+                                                                  : new ExecutorCompletionService <> (m_aExecutor);
+    final ICommonsOrderedMap <Future <ValidationResultList>, Submitted> aUnordered = new CommonsLinkedHashMap <> ();
+    try
+    {
+      long nIndex = 0;
+      while (aDocuments.hasNext ())
+      {
+        // Backpressure - wait for a result before submitting more
+        if (bOrdered)
+        {
+          if (aPending.size () >= m_nMaxInFlight)
+            _deliver (aPending.removeFirst (), aCallback, ret);
+        }
+        else
+          if (aUnordered.size () >= m_nMaxInFlight)
+            _deliver (aUnordered.remove (_take (aCS)), aCallback, ret);
+
+        final IReadableResource aRes = aDocuments.next ();
+        ValueEnforcer.notNull (aRes, "Document");
+        if (bOrdered)
+          aPending.addLast (new Submitted (nIndex,
+                                           aRes,
+                                           m_aExecutor.submit ( () -> PeppolSKTDDValidator.validateSK_TDD_100 (aRes,
+                                                                                                              m_aSettings))));
+        else
+        {
+          final Future <ValidationResultList> aFuture = aCS.submit ( () -> PeppolSKTDDValidator.validateSK_TDD_100 (aRes,
+                                                                                                                   m_aSettings));
+          aUnordered.put (aFuture, new Submitted (nIndex, aRes, aFuture));
+        }
+        nIndex++;
+      }
+
+      // Deliver the rest
+      while (!aPending.isEmpty ())
+        _deliver (aPending.removeFirst (), aCallback, ret);
+      while (!aUnordered.isEmpty ())
+        _deliver (aUnordered.remove (_take (aCS)), aCallback, ret);
+    }
+    finally
+    {
+      // In case of an error
+      for (final Submitted aSubmitted : aPending)
+        aSubmitted.m_aFuture.cancel (true);
+      for (final Submitted aSubmitted : aUnordered.values ())
+        aSubmitted.m_aFuture.cancel (true);
+      ret.setDuration (Duration.ofNanos (System.nanoTime () - nStart));
+    }
+
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("Batch validation finished: " + ret);
+    return ret;
+  }
+
+  @NonNull
+  private static Future <ValidationResultList> _take (@NonNull final CompletionService <ValidationResultList> aCS)
+  {
+    try
+    {
+      return aCS.take ();
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+      throw new IllegalStateException ("Interrupted while waiting for the validation result", ex);
+    }
+  }
+
+  /**
+   * Validate all provided documents given as byte arrays. The documents are named
+   * <code>batch-</code> followed by their 0-based index.
+   *
+   * @param aDocuments
+   *        The documents to validate. May not be <code>null</code>.
+   * @param bOrdered
+   *        <code>true</code> to deliver the results in input order, <code>false</code> to deliver
+   *        them as they complete.
+   * @param aCallback
+   *        The callback to be invoked for every validated document. May not be <code>null</code>.
+   * @return The statistics of this batch. Never <code>null</code>.
+   * @see #validateAll(Iterator, boolean, IBatchCallback)
+   */
+  @NonNull
+  public BatchStatistics validateAllBytes (@NonNull final Iterator <byte []> aDocuments,
+                                           final boolean bOrdered,
+                                           @NonNull final IBatchCallback aCallback)
+  {
+    ValueEnforcer.notNull (aDocuments, "Documents");
+    final Iterator <IReadableResource> aResources = new Iterator <> ()
+    {
+      private long m_nIndex = 0;
+
+      @Override
+      public boolean hasNext ()
+      {
+        return aDocuments.hasNext ();
+      }
+
+      @Override
+      public IReadableResource next ()
+      {
+        return new ReadableResourceByteArray ("batch-" + m_nIndex++, aDocuments.next ());
+      }
+    };
+    return validateAll (aResources, bOrdered, aCallback);
+  }
+}
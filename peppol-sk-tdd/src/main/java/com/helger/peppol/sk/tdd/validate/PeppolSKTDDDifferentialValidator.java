@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsOrderedSet;
+import com.helger.diagnostics.error.IError;
+import com.helger.diagnostics.error.list.ErrorList;
+import com.helger.diagnostics.error.list.IErrorList;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+import com.helger.phive.api.result.ValidationResult;
+import com.helger.phive.api.result.ValidationResultList;
+
+/**
+ * Differential re-validation of the SK specific rules, meant for TDDs that are resubmitted (see
+ * {@link com.helger.peppol.sk.tdd.codelist.ESKTDDTaxDataTypeCode#RESUBMIT}) with only a few changes
+ * compared to a previously validated TDD. The previous and the new TDD are compared element by
+ * element:
+ * <ul>
+ * <li>The errors of unchanged subtrees are taken over from the previous result.</li>
+ * <li>Elements with changed content, attributes or child elements are re-evaluated including all
+ * their descendants.</li>
+ * <li>Elements with only changed descendants are re-evaluated themselves, because their assertions
+ * may depend on the descendants.</li>
+ * </ul>
+ * This works because the assertions of {@link PeppolSKTDD100NativeRules} only depend on the context
+ * element and its descendants. The result is the same as the one of
+ * {@link PeppolSKTDD100NativeRules#validate(TaxDataType)} on the new TDD. The XSD, CEN and Peppol
+ * layers are not covered and need to be evaluated separately if needed.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class PeppolSKTDDDifferentialValidator
+{
+  private PeppolSKTDDDifferentialValidator ()
+  {}
+
+  private static boolean _isSameElement (@NonNull final Object aPrev, @NonNull final Object aNew)
+  {
+    // Compares everything except the descendants
+    if (!PeppolSKTDD100ModelNavigator.getTextValue (aPrev).equals (PeppolSKTDD100ModelNavigator.getTextValue (aNew)))
+      return false;
+
+    final ICommonsOrderedSet <String> aPrevAttrs = PeppolSKTDD100ModelNavigator.getAllAttributeNames (aPrev);
+    if (!aPrevAttrs.equals (PeppolSKTDD100ModelNavigator.getAllAttributeNames (aNew)))
+      return false;
+    for (final String sAttr : aPrevAttrs)
+      if (!Objects.equals (PeppolSKTDD100ModelNavigator.getAttributeValue (aPrev, sAttr),
+                           PeppolSKTDD100ModelNavigator.getAttributeValue (aNew, sAttr)))
+        return false;
+
+    final ICommonsList <PeppolSKTDD100ModelNavigator.ModelElement> aPrevChildren = PeppolSKTDD100ModelNavigator.getAllChildElements (aPrev);
+    final ICommonsList <PeppolSKTDD100ModelNavigator.ModelElement> aNewChildren = PeppolSKTDD100ModelNavigator.getAllChildElements (aNew);
+    if (aPrevChildren.size () != aNewChildren.size ())
+      return false;
+    for (int i = 0; i < aPrevChildren.size (); ++i)
+      if (!aPrevChildren.get (i).getName ().equals (aNewChildren.get (i).getName ()))
+        return false;
+    return true;
+  }
+
+  private static void _copyErrors (@NonNull final IErrorList aPrevErrors,
+                                   @NonNull final String sLocation,
+                                   @NonNull final ErrorList aTarget)
+  {
+    // The previous errors are in document order, so the ones of a subtree are contiguous
+    final String sPrefix = sLocation + "/";
+    for (final IError aError : aPrevErrors)
+    {
+      final String sFieldName = aError.getErrorFieldName ();
+      if (sFieldName != null && (sFieldName.equals (sLocation) || sFieldName.startsWith (sPrefix)))
+        aTarget.add (aError);
+    }
+  }
+
+  private static void _validate (@NonNull final Object aPrev,
+                                 @NonNull final Object aNew,
+                                 @NonNull final String sContext,
+                                 @NonNull final String sLocation,
+                                 @NonNull final IErrorList aPrevErrors,
+                                 @NonNull final ErrorList aTarget,
+                                 @Nullable final Consumer <String> aContextConsumer)
+  {
+    if (Objects.equals (aPrev, aNew))
+    {
+      // Unchanged subtree
+      _copyErrors (aPrevErrors, sLocation, aTarget);
+    }
+    else
+      if (!_isSameElement (aPrev, aNew))
+      {
+        // Changed element
+        PeppolSKTDD100NativeRules.validateSubtree (aNew, sContext, sLocation, aTarget, aContextConsumer);
+      }
+      else
+      {
+        // Only descendants changed
+        PeppolSKTDD100NativeRules.validateNode (aNew, sContext, sLocation, aTarget, aContextConsumer);
+        final ICommonsList <PeppolSKTDD100ModelNavigator.ModelElement> aPrevChildren = PeppolSKTDD100ModelNavigator.getAllChildElements (aPrev);
+        final ICommonsList <PeppolSKTDD100ModelNavigator.ModelElement> aNewChildren = PeppolSKTDD100ModelNavigator.getAllChildElements (aNew);
+        for (int i = 0; i < aNewChildren.size (); ++i)
+        {
+          final PeppolSKTDD100ModelNavigator.ModelElement aNewChild = aNewChildren.get (i);
+          _validate (aPrevChildren.get (i).getValue (),
+                     aNewChild.getValue (),
+                     PeppolSKTDD100NativeRules.getChildContext (sContext, aNewChild),
+                     PeppolSKTDD100NativeRules.getChildLocation (sLocation, aNewChild),
+                     aPrevErrors,
+                     aTarget,
+                     aContextConsumer);
+        }
+      }
+  }
+
+  /**
+   * Validate a changed TDD against the SK TDD 1.0.0 specific rules, re-evaluating only the rule
+   * contexts that may be affected by the changes.
+   *
+   * @param aPrevTDD
+   *        The previously validated TDD. May not be <code>null</code>. It must not have been modified
+   *        since the validation.
+   * @param aPrevErrors
+   *        The SK specific errors of the previous TDD, as created by
+   *        {@link PeppolSKTDD100NativeRules#validate(TaxDataType)} or the SK Schematron layer. May not
+   *        be <code>null</code>.
+   * @param aNewTDD
+   *        The new TDD to validate. May not be <code>null</code>.
+   * @return The list of all failed assertions of the new TDD in document order. Never
+   *         <code>null</code> but maybe empty.
+   */
+  @NonNull
+  public static ErrorList validate (@NonNull final TaxDataType aPrevTDD,
+                                    @NonNull final IErrorList aPrevErrors,
+                                    @NonNull final TaxDataType aNewTDD)
+  {
+    return validate (aPrevTDD, aPrevErrors, aNewTDD, null);
+  }
+
+  /**
+   * Validate a changed TDD against the SK TDD 1.0.0 specific rules, re-evaluating only the rule
+   * contexts that may be affected by the changes.
+   *
+   * @param aPrevTDD
+   *        The previously validated TDD. May not be <code>null</code>. It must not have been modified
+   *        since the validation.
+   * @param aPrevErrors
+   *        The SK specific errors of the previous TDD. May not be <code>null</code>.
+   * @param aNewTDD
+   *        The new TDD to validate. May not be <code>null</code>.
+   * @param aContextConsumer
+   *        The consumer that is invoked with every rule context that was re-evaluated. May be
+   *        <code>null</code>.
+   * @return The list of all failed assertions of the new TDD in document order. Never
+   *         <code>null</code> but maybe empty.
+   */
+  @NonNull
+  public static ErrorList validate (@NonNull final TaxDataType aPrevTDD,
+                                    @NonNull final IErrorList aPrevErrors,
+                                    @NonNull final TaxDataType aNewTDD,
+                                    @Nullable final Consumer <String> aContextConsumer)
+  {
+    ValueEnforcer.notNull (aPrevTDD, "PrevTDD");
+    ValueEnforcer.notNull (aPrevErrors, "PrevErrors");
+    ValueEnforcer.notNull (aNewTDD, "NewTDD");
+
+    final ErrorList ret = new ErrorList ();
+    _validate (aPrevTDD,
+               aNewTDD,
+               PeppolSKTDD100NativeRules.getRootContext (),
+               PeppolSKTDD100NativeRules.getRootLocation (),
+               aPrevErrors,
+               ret,
+               aContextConsumer);
+    return ret;
+  }
+
+  /**
+   * Validate a changed TDD against the SK TDD 1.0.0 specific rules, based on the result of a
+   * previous validation.
+   *
+   * @param aPrevTDD
+   *        The previously validated TDD. May not be <code>null</code>.
+   * @param aPrevVRL
+   *        The previous validation results. Must contain a non-ignored result of the SK layer. May
+   *        not be <code>null</code>.
+   * @param aNewTDD
+   *        The new TDD to validate. May not be <code>null</code>.
+   * @return A validation result list that only contains the result of the SK layer. Never
+   *         <code>null</code>.
+   * @throws IllegalArgumentException
+   *         if the previous results do not contain a result of the SK layer
+   */
+  @NonNull
+  public static ValidationResultList validateSK_TDD_100 (@NonNull final TaxDataType aPrevTDD,
+                                                         @NonNull final ValidationResultList aPrevVRL,
+                                                         @NonNull final TaxDataType aNewTDD)
+  {
+    ValueEnforcer.notNull (aPrevVRL, "PrevVRL");
+    final ValidationResult aPrevResult = aPrevVRL.findFirst (x -> !x.isIgnored () &&
+                                                                  PeppolSKTDDValidator.XSLT_SK_TDD_100.equals (x.getValidationArtefact ()
+                                                                                                                .getRuleResource ()));
+    if (aPrevResult == null)
+      throw new IllegalArgumentException ("The previous validation results contain no result of the SK layer");
+
+    final long nStart = System.nanoTime ();
+    final ErrorList aErrorList = validate (aPrevTDD, aPrevResult.getErrorList (), aNewTDD);
+    final ValidationResultList ret = new ValidationResultList ();
+    ret.add (new ValidationResult (aPrevResult.getValidationArtefact (),
+                                   aErrorList,
+                                   Duration.ofNanos (System.nanoTime () - nStart).toMillis ()));
+    return ret;
+  }
+}
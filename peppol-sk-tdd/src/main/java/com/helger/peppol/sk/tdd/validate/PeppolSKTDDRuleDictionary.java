@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.ReturnsImmutableObject;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.io.resource.ClassPathResource;
+
+/**
+ * Dictionary of all rule IDs of the Peppol SK TDD 1.0.0 Schematron layers, used to encode rule IDs
+ * as small integers. Together with each rule ID the validation layer, the error level and the
+ * static text of its first assertion are kept.<br>
+ * The dictionaries shipped with this library are frozen: once released, a dictionary file is never
+ * changed, so the index of a rule ID within a version never changes, even if the Schematron XSLTs
+ * are updated. New rule IDs are added by shipping a new version next to the existing ones, which is
+ * then returned by {@link #getInstance()}. Every dictionary has a fingerprint, that should be stored
+ * together with encoded indices, so that they can be resolved with
+ * {@link #getOfFingerprint(int)}. Version 1 was extracted from the Schematron XSLTs of 2026-04-14
+ * with the same extraction that is used by the {@link PeppolSKTDDSchematronProfiler}.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class PeppolSKTDDRuleDictionary
+{
+  /**
+   * The class path prefix of the shipped dictionaries. The version number starting at 1 and the
+   * suffix ".txt" are appended.
+   */
+  public static final String SHIPPED_DICTIONARY_PATH_PREFIX = "validate/tdd-100-rules-";
+
+  private static final class ShippedHolder
+  {
+    static final List <PeppolSKTDDRuleDictionary> ALL = _loadAllShipped ();
+    static final PeppolSKTDDRuleDictionary LATEST = ALL.get (ALL.size () - 1);
+  }
+
+  private final int m_nVersion;
+  private final ICommonsList <String> m_aRuleIDs = new CommonsArrayList <> ();
+  private final ICommonsList <String> m_aFlags = new CommonsArrayList <> ();
+  private final ICommonsList <String> m_aTexts = new CommonsArrayList <> ();
+  private final ICommonsList <ESKTDDValidationLayer> m_aLayers = new CommonsArrayList <> ();
+  private final ICommonsMap <String, Integer> m_aIndex = new CommonsHashMap <> ();
+  private final int m_nFingerprint;
+
+  private PeppolSKTDDRuleDictionary (@Nonnegative final int nVersion, @NonNull final String sPath, @NonNull final String sContent)
+  {
+    m_nVersion = nVersion;
+    final CRC32 aCRC = new CRC32 ();
+    for (final String sLine : sContent.split ("\n"))
+    {
+      if (sLine.isEmpty () || sLine.charAt (0) == '#')
+        continue;
+      // Keep trailing empty fields
+      final String [] aFields = sLine.split ("\t", -1);
+      final ESKTDDValidationLayer eLayer = aFields.length == 4 ? ESKTDDValidationLayer.getFromIDOrNull (aFields[0]) : null;
+      if (eLayer == null || aFields[1].isEmpty () || m_aIndex.containsKey (aFields[1]))
+        throw new IllegalStateException ("Invalid line '" + sLine + "' in rule dictionary " + sPath);
+
+      m_aIndex.put (aFields[1], Integer.valueOf (m_aRuleIDs.size ()));
+      m_aRuleIDs.add (aFields[1]);
+      m_aFlags.add (aFields[2].isEmpty () ? null : aFields[2]);
+      m_aTexts.add (aFields[3].isEmpty () ? null : _unescape (aFields[3]));
+      m_aLayers.add (eLayer);
+
+      aCRC.update (sLine.getBytes (StandardCharsets.UTF_8));
+      aCRC.update ('\n');
+    }
+    if (m_aRuleIDs.isEmpty ())
+      throw new IllegalStateException ("Found no rules in rule dictionary " + sPath);
+    m_nFingerprint = (int) aCRC.getValue ();
+  }
+
+  @NonNull
+  private static String _unescape (@NonNull final String s)
+  {
+    if (s.indexOf ('\\') < 0)
+      return s;
+    final StringBuilder aSB = new StringBuilder (s.length ());
+    for (int i = 0; i < s.length (); ++i)
+    {
+      final char c = s.charAt (i);
+      if (c == '\\' && i + 1 < s.length ())
+      {
+        final char cNext = s.charAt (++i);
+        switch (cNext)
+        {
+          case 't':
+            aSB.append ('\t');
+            break;
+          case 'n':
+            aSB.append ('\n');
+            break;
+          case 'r':
+            aSB.append ('\r');
+            break;
+          default:
+            aSB.append (cNext);
+            break;
+        }
+      }
+      else
+        aSB.append (c);
+    }
+    return aSB.toString ();
+  }
+
+  @NonNull
+  private static List <PeppolSKTDDRuleDictionary> _loadAllShipped ()
+  {
+    final List <PeppolSKTDDRuleDictionary> ret = new ArrayList <> ();
+    final Set <Integer> aFingerprints = new HashSet <> ();
+    while (true)
+    {
+      final int nVersion = ret.size () + 1;
+      final String sPath = SHIPPED_DICTIONARY_PATH_PREFIX + nVersion + ".txt";
+      final ClassPathResource aRes = new ClassPathResource (sPath, PeppolSKTDDRuleDictionary.class.getClassLoader ());
+      if (!aRes.exists ())
+        break;
+      try (final InputStream aIS = aRes.getInputStream ())
+      {
+        if (aIS == null)
+          throw new IllegalStateException ("Failed to open rule dictionary " + sPath);
+        final PeppolSKTDDRuleDictionary aDict = new PeppolSKTDDRuleDictionary (nVersion,
+                                                                               sPath,
+                                                                               new String (aIS.readAllBytes (),
+                                                                                           StandardCharsets.UTF_8));
+        if (!aFingerprints.add (Integer.valueOf (aDict.getFingerprint ())))
+          throw new IllegalStateException ("Rule dictionary " + sPath + " has the fingerprint of an older version");
+        ret.add (aDict);
+      }
+      catch (final IOException ex)
+      {
+        throw new IllegalStateException ("Failed to read rule dictionary " + sPath, ex);
+      }
+    }
+    if (ret.isEmpty ())
+      throw new IllegalStateException ("Found no rule dictionary at " + SHIPPED_DICTIONARY_PATH_PREFIX + "1.txt");
+    return Collections.unmodifiableList (ret);
+  }
+
+  /**
+   * @return The latest dictionary shipped with this library, used for encoding. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public static PeppolSKTDDRuleDictionary getInstance ()
+  {
+    return ShippedHolder.LATEST;
+  }
+
+  /**
+   * @return All dictionaries shipped with this library, ordered by version. Never
+   *         <code>null</code> nor empty.
+   */
+  @NonNull
+  @Nonempty
+  @ReturnsImmutableObject
+  public static List <PeppolSKTDDRuleDictionary> getAllShipped ()
+  {
+    return ShippedHolder.ALL;
+  }
+
+  /**
+   * Find the shipped dictionary with the provided fingerprint.
+   *
+   * @param nFingerprint
+   *        The fingerprint as returned by {@link #getFingerprint()}.
+   * @return <code>null</code> if no shipped dictionary has this fingerprint.
+   */
+  @Nullable
+  public static PeppolSKTDDRuleDictionary getOfFingerprint (final int nFingerprint)
+  {
+    for (final PeppolSKTDDRuleDictionary aDict : ShippedHolder.ALL)
+      if (aDict.m_nFingerprint == nFingerprint)
+        return aDict;
+    return null;
+  }
+
+  /**
+   * @return The version of this dictionary, starting at 1.
+   */
+  @Nonnegative
+  public int getVersion ()
+  {
+    return m_nVersion;
+  }
+
+  /**
+   * @return The CRC-32 checksum of all entries of this dictionary in index order. Unique among
+   *         the shipped dictionaries.
+   */
+  public int getFingerprint ()
+  {
+    return m_nFingerprint;
+  }
+
+  /**
+   * @return The number of contained rule IDs. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getRuleCount ()
+  {
+    return m_aRuleIDs.size ();
+  }
+
+  /**
+   * Get the index of the provided rule ID.
+   *
+   * @param sRuleID
+   *        The rule ID to search. May be <code>null</code>.
+   * @return -1 if the rule ID is unknown.
+   */
+  public int getIndex (@Nullable final String sRuleID)
+  {
+    final Integer aIndex = sRuleID == null ? null : m_aIndex.get (sRuleID);
+    return aIndex == null ? -1 : aIndex.intValue ();
+  }
+
+  /**
+   * @param nIndex
+   *        The index to query. Must be &ge; 0 and &lt; {@link #getRuleCount()}.
+   * @return The rule ID at the provided index. Never <code>null</code>.
+   */
+  @NonNull
+  public String getRuleID (@Nonnegative final int nIndex)
+  {
+    return m_aRuleIDs.get (nIndex);
+  }
+
+  /**
+   * @param nIndex
+   *        The index to query. Must be &ge; 0 and &lt; {@link #getRuleCount()}.
+   * @return The Schematron flag (e.g. <code>fatal</code> or <code>warning</code>) of the first
+   *         assertion with the rule ID at the provided index. May be <code>null</code>.
+   */
+  @Nullable
+  public String getFlag (@Nonnegative final int nIndex)
+  {
+    return m_aFlags.get (nIndex);
+  }
+
+  /**
+   * @param nIndex
+   *        The index to query. Must be &ge; 0 and &lt; {@link #getRuleCount()}.
+   * @return The text of the first assertion with the rule ID at the provided index.
+   *         <code>null</code> if the text contains parts that are evaluated at runtime.
+   */
+  @Nullable
+  public String getText (@Nonnegative final int nIndex)
+  {
+    return m_aTexts.get (nIndex);
+  }
+
+  /**
+   * @param nIndex
+   *        The index to query. Must be &ge; 0 and &lt; {@link #getRuleCount()}.
+   * @return The validation layer that defines the rule ID at the provided index. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public ESKTDDValidationLayer getLayer (@Nonnegative final int nIndex)
+  {
+    return m_aLayers.get (nIndex);
+  }
+
+  /**
+   * @return A copy of all rule IDs in index order. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <String> getAllRuleIDs ()
+  {
+    return m_aRuleIDs.getClone ();
+  }
+}
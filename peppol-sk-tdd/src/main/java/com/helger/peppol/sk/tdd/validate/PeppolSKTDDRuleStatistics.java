@@ -0,0 +1,355 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsOrderedMap;
+import com.helger.diagnostics.error.IError;
+import com.helger.diagnostics.error.level.EErrorLevel;
+import com.helger.io.resource.IReadableResource;
+import com.helger.phive.api.result.ValidationResult;
+import com.helger.phive.api.result.ValidationResultList;
+
+/**
+ * Statistics about the firing of the Schematron assertions of the TDD validation, meant to be
+ * collected on production traffic. For every assertion ID the number of errors and warnings is
+ * counted. Additionally the number of matches of every rule context is counted per Schematron
+ * layer, as reported by <code>svrl:fired-rule/@context</code> or by the native SK rules (see
+ * {@link PeppolSKTDDValidationSettings#nativeSKRules(boolean)}). The contexts of the SK layer are
+ * made absolute, so that both evaluations of the SK rules are counted alike. All counters are
+ * {@link LongAdder} instances, so that recording does not become a contention point when
+ * validating concurrently.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public class PeppolSKTDDRuleStatistics
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (PeppolSKTDDRuleStatistics.class);
+
+  /**
+   * The number of firings of a single assertion.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  public static final class AssertionStatistics
+  {
+    private final String m_sID;
+    private final long m_nErrorCount;
+    private final long m_nWarningCount;
+
+    AssertionStatistics (@NonNull @Nonempty final String sID, final long nErrorCount, final long nWarningCount)
+    {
+      m_sID = sID;
+      m_nErrorCount = nErrorCount;
+      m_nWarningCount = nWarningCount;
+    }
+
+    /**
+     * @return The assertion ID (e.g. <code>ibr-tdd-01</code>). Neither <code>null</code> nor empty.
+     */
+    @NonNull
+    @Nonempty
+    public String getID ()
+    {
+      return m_sID;
+    }
+
+    /**
+     * @return The number of firings with an error level of error or fatal error.
+     */
+    @Nonnegative
+    public long getErrorCount ()
+    {
+      return m_nErrorCount;
+    }
+
+    /**
+     * @return The number of firings with an error level lower than error.
+     */
+    @Nonnegative
+    public long getWarningCount ()
+    {
+      return m_nWarningCount;
+    }
+
+    /**
+     * @return The total number of firings.
+     */
+    @Nonnegative
+    public long getTotalCount ()
+    {
+      return m_nErrorCount + m_nWarningCount;
+    }
+  }
+
+  /**
+   * The counters of a single assertion.
+   */
+  private static final class AssertionCounter
+  {
+    private final LongAdder m_aErrors = new LongAdder ();
+    private final LongAdder m_aWarnings = new LongAdder ();
+  }
+
+  private final LongAdder m_aValidations = new LongAdder ();
+  private final Map <String, AssertionCounter> m_aAssertions = new ConcurrentHashMap <> ();
+  // The inner maps of all Schematron layers are created upfront
+  private final Map <ESKTDDValidationLayer, Map <String, LongAdder>> m_aContextMatches = new EnumMap <> (ESKTDDValidationLayer.class);
+
+  public PeppolSKTDDRuleStatistics ()
+  {
+    // Make the contexts that are never matched visible
+    for (final ESKTDDValidationLayer eLayer : ESKTDDValidationLayer.values ())
+    {
+      final IReadableResource aXSLT = PeppolSKTDDValidator.getSchematronXSLT (eLayer);
+      if (aXSLT != null)
+      {
+        final Map <String, LongAdder> aMatches = new ConcurrentHashMap <> ();
+        for (final String sContext : PeppolSKTDDSchematronXSLT.getMetadata (aXSLT).getAllFiredRuleContexts ())
+          aMatches.put (getNormalizedContext (eLayer, sContext), new LongAdder ());
+        m_aContextMatches.put (eLayer, aMatches);
+      }
+    }
+    final Map <String, LongAdder> aSKMatches = m_aContextMatches.get (ESKTDDValidationLayer.SK);
+    for (final String sContext : PeppolSKTDD100NativeRules.getAllRuleContexts ())
+      aSKMatches.computeIfAbsent (sContext, k -> new LongAdder ());
+  }
+
+  /**
+   * Get the rule context as it is counted. The SK XSLT contains relative rule contexts, whereas
+   * the native SK rules only use absolute ones. As the root element is always
+   * <code>pxs:TaxData</code>, both are equivalent.
+   *
+   * @param eLayer
+   *        The layer of the rule context. May not be <code>null</code>.
+   * @param sContext
+   *        The rule context to normalize. May not be <code>null</code>.
+   * @return The normalized rule context. Never <code>null</code>.
+   */
+  @NonNull
+  public static String getNormalizedContext (@NonNull final ESKTDDValidationLayer eLayer, @NonNull final String sContext)
+  {
+    if (eLayer == ESKTDDValidationLayer.SK && !sContext.startsWith ("/"))
+      return "/" + sContext;
+    return sContext;
+  }
+
+  /**
+   * Record all assertions that fired in the provided validation results. XSD errors and ignored
+   * layers are not considered.
+   *
+   * @param aVRL
+   *        The validation results of one document. May not be <code>null</code>.
+   */
+  public void onValidationResults (@NonNull final ValidationResultList aVRL)
+  {
+    ValueEnforcer.notNull (aVRL, "VRL");
+    m_aValidations.increment ();
+    for (final ValidationResult aResult : aVRL)
+      if (!aResult.isIgnored ())
+        for (final IError aError : aResult.getErrorList ())
+          if (aError.hasErrorID ())
+          {
+            AssertionCounter aCounter = m_aAssertions.get (aError.getErrorID ());
+            if (aCounter == null)
+              aCounter = m_aAssertions.computeIfAbsent (aError.getErrorID (), k -> new AssertionCounter ());
+            if (aError.getErrorLevel ().isGE (EErrorLevel.ERROR))
+              aCounter.m_aErrors.increment ();
+            else
+              aCounter.m_aWarnings.increment ();
+          }
+  }
+
+  /**
+   * Record that a node matched the provided rule context.
+   *
+   * @param eLayer
+   *        The Schematron layer of the rule context. May not be <code>null</code>.
+   * @param sContext
+   *        The matched rule context. May not be <code>null</code>.
+   * @throws IllegalArgumentException
+   *         if the layer is not a Schematron layer
+   */
+  public void onContextMatch (@NonNull final ESKTDDValidationLayer eLayer, @NonNull final String sContext)
+  {
+    ValueEnforcer.notNull (eLayer, "Layer");
+    ValueEnforcer.notNull (sContext, "Context");
+    final Map <String, LongAdder> aMatches = m_aContextMatches.get (eLayer);
+    if (aMatches == null)
+      throw new IllegalArgumentException ("Layer " + eLayer + " has no rule contexts");
+    final String sRealContext = getNormalizedContext (eLayer, sContext);
+    LongAdder aCounter = aMatches.get (sRealContext);
+    if (aCounter == null)
+      aCounter = aMatches.computeIfAbsent (sRealContext, k -> new LongAdder ());
+    aCounter.increment ();
+  }
+
+  /**
+   * @return The number of validations recorded.
+   */
+  @Nonnegative
+  public long getValidationCount ()
+  {
+    return m_aValidations.sum ();
+  }
+
+  /**
+   * @return A snapshot of all assertions that fired at least once, most frequently fired first.
+   *         Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <AssertionStatistics> getAllAssertionStatistics ()
+  {
+    final ICommonsList <AssertionStatistics> ret = new CommonsArrayList <> ();
+    for (final Map.Entry <String, AssertionCounter> aEntry : m_aAssertions.entrySet ())
+      ret.add (new AssertionStatistics (aEntry.getKey (),
+                                        aEntry.getValue ().m_aErrors.sum (),
+                                        aEntry.getValue ().m_aWarnings.sum ()));
+    ret.sort (Comparator.comparingLong (AssertionStatistics::getTotalCount)
+                        .reversed ()
+                        .thenComparing (AssertionStatistics::getID));
+    return ret;
+  }
+
+  /**
+   * Get the number of matches per rule context of a single layer.
+   *
+   * @param eLayer
+   *        The layer to use. May not be <code>null</code>.
+   * @return A snapshot of the number of matches per rule context of the layer, most frequently
+   *         matched first. Rule contexts that were never matched are contained with a count of 0.
+   *         Empty for the XSD layer. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <String, Long> getAllContextMatchCounts (@NonNull final ESKTDDValidationLayer eLayer)
+  {
+    ValueEnforcer.notNull (eLayer, "Layer");
+    final ICommonsList <Map.Entry <String, Long>> aEntries = new CommonsArrayList <> ();
+    for (final Map.Entry <String, LongAdder> aEntry : m_aContextMatches.getOrDefault (eLayer, Map.of ()).entrySet ())
+      aEntries.add (Map.entry (aEntry.getKey (), Long.valueOf (aEntry.getValue ().sum ())));
+    aEntries.sort (Comparator.comparing ((final Map.Entry <String, Long> x) -> x.getValue ())
+                             .reversed ()
+                             .thenComparing (Map.Entry::getKey));
+    final ICommonsOrderedMap <String, Long> ret = new CommonsLinkedHashMap <> ();
+    for (final Map.Entry <String, Long> aEntry : aEntries)
+      ret.put (aEntry.getKey (), aEntry.getValue ());
+    return ret;
+  }
+
+  /**
+   * @return A human readable dump of the current statistics. Never <code>null</code>.
+   */
+  @NonNull
+  public String getDump ()
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    aSB.append ("Rule statistics of ").append (getValidationCount ()).append (" validation(s)\n");
+    aSB.append ("Fired assertions (errors/warnings):\n");
+    for (final AssertionStatistics aStats : getAllAssertionStatistics ())
+      aSB.append (String.format ("%9d %9d  %s%n",
+                                 Long.valueOf (aStats.getErrorCount ()),
+                                 Long.valueOf (aStats.getWarningCount ()),
+                                 aStats.getID ()));
+    for (final ESKTDDValidationLayer eLayer : m_aContextMatches.keySet ())
+    {
+      aSB.append (eLayer.getID ().toUpperCase (Locale.ROOT)).append (" rule context matches:\n");
+      for (final Map.Entry <String, Long> aEntry : getAllContextMatchCounts (eLayer).entrySet ())
+        aSB.append (String.format ("%9d  %s%n", aEntry.getValue (), aEntry.getKey ()));
+    }
+    return aSB.toString ();
+  }
+
+  /**
+   * Periodically log the dump of the statistics on info level.
+   *
+   * @param aScheduler
+   *        The scheduler to use. May not be <code>null</code>. It is not shut down by this class.
+   * @param aPeriod
+   *        The period between two dumps. May not be <code>null</code> and must be positive.
+   * @return The scheduled future that can be used to stop the dumping. Never <code>null</code>.
+   */
+  @NonNull
+  public ScheduledFuture <?> scheduleDump (@NonNull final ScheduledExecutorService aScheduler,
+                                          @NonNull final Duration aPeriod)
+  {
+    return scheduleDump (aScheduler, aPeriod, LOGGER::info);
+  }
+
+  /**
+   * Periodically pass the dump of the statistics to the provided consumer.
+   *
+   * @param aScheduler
+   *        The scheduler to use. May not be <code>null</code>. It is not shut down by this class.
+   * @param aPeriod
+   *        The period between two dumps. May not be <code>null</code> and must be positive.
+   * @param aDumpConsumer
+   *        The consumer of the dump. May not be <code>null</code>.
+   * @return The scheduled future that can be used to stop the dumping. Never <code>null</code>.
+   */
+  @NonNull
+  public ScheduledFuture <?> scheduleDump (@NonNull final ScheduledExecutorService aScheduler,
+                                          @NonNull final Duration aPeriod,
+                                          @NonNull final Consumer <String> aDumpConsumer)
+  {
+    ValueEnforcer.notNull (aScheduler, "Scheduler");
+    ValueEnforcer.notNull (aPeriod, "Period");
+    ValueEnforcer.isTrue ( () -> !aPeriod.isNegative () && !aPeriod.isZero (), "Period must be positive");
+    ValueEnforcer.notNull (aDumpConsumer, "DumpConsumer");
+    final long nNanos = aPeriod.toNanos ();
+    return aScheduler.scheduleAtFixedRate ( () -> aDumpConsumer.accept (getDump ()), nNanos, nNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Reset all counters to 0.
+   */
+  public void reset ()
+  {
+    m_aValidations.reset ();
+    m_aAssertions.clear ();
+    for (final Map <String, LongAdder> aMatches : m_aContextMatches.values ())
+      for (final LongAdder aCounter : aMatches.values ())
+        aCounter.reset ();
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+
+/**
+ * The sampling policy of a single producer for {@link PeppolSKTDDSamplingValidator}. The first
+ * documents of a producer and a configurable share of all further documents are fully validated.
+ * All other documents only undergo the lightweight validation with the native SK rules. After a
+ * failed validation all documents of the producer are fully validated, until a fully validated
+ * document passes again.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class PeppolSKTDDSamplingPolicy
+{
+  /** Fully validate every document */
+  public static final PeppolSKTDDSamplingPolicy ALWAYS_FULL = new PeppolSKTDDSamplingPolicy (1, 0);
+  public static final double DEFAULT_SAMPLE_RATE = 0.1;
+  public static final int DEFAULT_INITIAL_FULL_COUNT = 100;
+
+  private final double m_dSampleRate;
+  private final int m_nInitialFullCount;
+
+  /**
+   * Constructor
+   *
+   * @param dSampleRate
+   *        The share of documents that is fully validated, between 0 (none) and 1 (all).
+   * @param nInitialFullCount
+   *        The number of initial documents of a producer that are always fully validated. Must be
+   *        &ge; 0.
+   */
+  public PeppolSKTDDSamplingPolicy (final double dSampleRate, @Nonnegative final int nInitialFullCount)
+  {
+    ValueEnforcer.isBetweenInclusive (dSampleRate, "SampleRate", 0, 1);
+    ValueEnforcer.isGE0 (nInitialFullCount, "InitialFullCount");
+    m_dSampleRate = dSampleRate;
+    m_nInitialFullCount = nInitialFullCount;
+  }
+
+  /**
+   * @return The share of documents that is fully validated, between 0 and 1.
+   */
+  public double getSampleRate ()
+  {
+    return m_dSampleRate;
+  }
+
+  /**
+   * @return The number of initial documents of a producer that are always fully validated.
+   */
+  @Nonnegative
+  public int getInitialFullCount ()
+  {
+    return m_nInitialFullCount;
+  }
+
+  /**
+   * @return The default policy with a sample rate of {@link #DEFAULT_SAMPLE_RATE} and
+   *         {@link #DEFAULT_INITIAL_FULL_COUNT} initial documents. Never <code>null</code>.
+   */
+  @NonNull
+  public static PeppolSKTDDSamplingPolicy createDefault ()
+  {
+    return new PeppolSKTDDSamplingPolicy (DEFAULT_SAMPLE_RATE, DEFAULT_INITIAL_FULL_COUNT);
+  }
+}
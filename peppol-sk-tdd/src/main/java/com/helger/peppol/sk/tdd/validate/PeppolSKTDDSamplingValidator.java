@@ -0,0 +1,341 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.diagnostics.error.list.ErrorList;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+import com.helger.phive.api.artefact.IValidationArtefact;
+import com.helger.phive.api.executor.IValidationExecutor;
+import com.helger.phive.api.result.ValidationResult;
+import com.helger.phive.api.result.ValidationResultList;
+import com.helger.phive.xml.source.IValidationSourceXML;
+
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PartyType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.EndpointIDType;
+
+/**
+ * Validator for high volume producers that are trusted, e.g. because they create their TDDs with
+ * {@link com.helger.peppol.sk.tdd.v100.PeppolSKTDD100Builder}. Instead of validating every document
+ * with all layers, only a sample of the documents is fully validated and all others are only
+ * checked with the native SK rules. The producer of a document must be identified by the caller
+ * based on the authenticated sender (e.g. the client certificate), and not based on the content of
+ * the document, which is not trustworthy before it was fully validated. A different
+ * {@link PeppolSKTDDSamplingPolicy} can be configured per producer. The state of at most {@link #DEFAULT_MAX_PRODUCERS} (or the configured number of)
+ * producers is kept - if more producers are seen, the least recently seen producer is forgotten and
+ * starts over with its initial fully validated documents.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public class PeppolSKTDDSamplingValidator
+{
+  public static final int DEFAULT_MAX_PRODUCERS = 10_000;
+
+  /**
+   * The state of a single producer.
+   */
+  private static final class ProducerState
+  {
+    private final AtomicLong m_aDocumentCount = new AtomicLong ();
+    // Set after a failure, until a fully validated document passes
+    private volatile boolean m_bForceFull = false;
+  }
+
+  private final PeppolSKTDDSamplingPolicy m_aDefaultPolicy;
+  private final PeppolSKTDDValidationSettings m_aFullSettings;
+  private final Map <String, PeppolSKTDDSamplingPolicy> m_aPolicies = new ConcurrentHashMap <> ();
+  private final int m_nMaxProducers;
+  private final Object m_aLock = new Object ();
+  @GuardedBy ("m_aLock")
+  private final Map <String, ProducerState> m_aProducers;
+  private final LongAdder m_aSampledCount = new LongAdder ();
+  private final LongAdder m_aForcedCount = new LongAdder ();
+  private final LongAdder m_aSkippedCount = new LongAdder ();
+  private final LongAdder m_aFailureCount = new LongAdder ();
+
+  /**
+   * Constructor using the default policy and the default validation settings.
+   */
+  public PeppolSKTDDSamplingValidator ()
+  {
+    this (PeppolSKTDDSamplingPolicy.createDefault (), new PeppolSKTDDValidationSettings ());
+  }
+
+  /**
+   * Constructor using {@link #DEFAULT_MAX_PRODUCERS}.
+   *
+   * @param aDefaultPolicy
+   *        The policy for all producers without a specific policy. May not be <code>null</code>.
+   * @param aFullSettings
+   *        The validation settings for the full validation. May not be <code>null</code>. It should
+   *        not be modified afterwards.
+   */
+  public PeppolSKTDDSamplingValidator (@NonNull final PeppolSKTDDSamplingPolicy aDefaultPolicy,
+                                       @NonNull final PeppolSKTDDValidationSettings aFullSettings)
+  {
+    this (aDefaultPolicy, aFullSettings, DEFAULT_MAX_PRODUCERS);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aDefaultPolicy
+   *        The policy for all producers without a specific policy. May not be <code>null</code>.
+   * @param aFullSettings
+   *        The validation settings for the full validation. May not be <code>null</code>. It should
+   *        not be modified afterwards.
+   * @param nMaxProducers
+   *        The maximum number of producers whose state is kept. Must be &gt; 0.
+   */
+  public PeppolSKTDDSamplingValidator (@NonNull final PeppolSKTDDSamplingPolicy aDefaultPolicy,
+                                       @NonNull final PeppolSKTDDValidationSettings aFullSettings,
+                                       @Nonnegative final int nMaxProducers)
+  {
+    ValueEnforcer.notNull (aDefaultPolicy, "DefaultPolicy");
+    ValueEnforcer.notNull (aFullSettings, "FullSettings");
+    ValueEnforcer.isGT0 (nMaxProducers, "MaxProducers");
+    m_aDefaultPolicy = aDefaultPolicy;
+    m_aFullSettings = aFullSettings;
+    m_nMaxProducers = nMaxProducers;
+    // Access order for LRU eviction
+    m_aProducers = new LinkedHashMap <> (16, 0.75f, true)
+    {
+      @Override
+      protected boolean removeEldestEntry (final Map.Entry <String, ProducerState> aEldest)
+      {
+        return size () > m_nMaxProducers;
+      }
+    };
+  }
+
+  /**
+   * Set the policy of a single producer.
+   *
+   * @param sProducerID
+   *        The producer ID as passed to {@link #validate(String, TaxDataType)}. May not be
+   *        <code>null</code>.
+   * @param aPolicy
+   *        The policy to use. May be <code>null</code> to use the default policy.
+   * @return this for chaining
+   */
+  @NonNull
+  public final PeppolSKTDDSamplingValidator policy (@NonNull final String sProducerID,
+                                                    @Nullable final PeppolSKTDDSamplingPolicy aPolicy)
+  {
+    ValueEnforcer.notNull (sProducerID, "ProducerID");
+    if (aPolicy == null)
+      m_aPolicies.remove (sProducerID);
+    else
+      m_aPolicies.put (sProducerID, aPolicy);
+    return this;
+  }
+
+  /**
+   * Get the effective policy of a producer.
+   *
+   * @param sProducerID
+   *        The producer ID. May not be <code>null</code>.
+   * @return The policy of the producer or the default policy. Never <code>null</code>.
+   */
+  @NonNull
+  public final PeppolSKTDDSamplingPolicy getPolicy (@NonNull final String sProducerID)
+  {
+    return m_aPolicies.getOrDefault (sProducerID, m_aDefaultPolicy);
+  }
+
+  /**
+   * Get the endpoint ID of the reporting party of the provided TDD as a producer ID. This is only a
+   * helper for callers that received the TDD from an internal, trusted source. For TDDs received
+   * from outside, the producer ID must be derived from the authenticated sender instead.
+   *
+   * @param aTDD
+   *        The TDD to use. May not be <code>null</code>.
+   * @return The endpoint ID of the reporting party in the form <code>schemeID:value</code>, only
+   *         the value if the endpoint ID has no scheme, or an empty string if the TDD has no
+   *         reporting party. Never <code>null</code>.
+   */
+  @NonNull
+  public static String getProducerID (@NonNull final TaxDataType aTDD)
+  {
+    final PartyType aParty = aTDD.getReportingParty ();
+    if (aParty == null)
+      return "";
+    final EndpointIDType aEID = aParty.getEndpointID ();
+    if (aEID == null || aEID.getValue () == null)
+      return "";
+    final String sSchemeID = aEID.getSchemeID ();
+    return sSchemeID == null ? aEID.getValue () : sSchemeID + ":" + aEID.getValue ();
+  }
+
+  @NonNull
+  private ProducerState _getProducerState (@NonNull final String sProducerID)
+  {
+    synchronized (m_aLock)
+    {
+      return m_aProducers.computeIfAbsent (sProducerID, k -> new ProducerState ());
+    }
+  }
+
+  @NonNull
+  private static ValidationResult _validateLightweight (@NonNull final TaxDataType aTDD)
+  {
+    // Report the result for the artefact of the SK layer, as the regular validation would
+    final ICommonsList <IValidationExecutor <IValidationSourceXML>> aVEs = new CommonsArrayList <> (PeppolSKTDDValidator.getValidationExecutorSet (EnumSet.of (ESKTDDValidationLayer.SK)));
+    final IValidationArtefact aArtefact = aVEs.getFirstOrNull ().getValidationArtefact ();
+    final long nStart = System.nanoTime ();
+    final ErrorList aErrorList = PeppolSKTDD100NativeRules.validate (aTDD);
+    return new ValidationResult (aArtefact, aErrorList, Duration.ofNanos (System.nanoTime () - nStart).toMillis ());
+  }
+
+  /**
+   * Validate the provided TDD according to the policy of its producer. Fully validated documents
+   * return the results of all layers of the full validation settings. Documents that are not
+   * sampled return only the result of the SK layer, evaluated with the native SK rules directly on
+   * the provided object, and are therefore traceable via the validation artefact of the SK layer.
+   *
+   * @param sProducerID
+   *        The ID of the producer as authenticated by the caller. May not be <code>null</code>. It
+   *        is intentionally not taken from the TDD, as otherwise any producer could claim to be a
+   *        trusted one.
+   * @param aTDD
+   *        The TDD to validate. May not be <code>null</code>.
+   * @return The validation result list. Never <code>null</code>.
+   */
+  @NonNull
+  public ValidationResultList validate (@NonNull final String sProducerID, @NonNull final TaxDataType aTDD)
+  {
+    ValueEnforcer.notNull (sProducerID, "ProducerID");
+    ValueEnforcer.notNull (aTDD, "TDD");
+    final PeppolSKTDDSamplingPolicy aPolicy = getPolicy (sProducerID);
+    final ProducerState aState = _getProducerState (sProducerID);
+    final long nIndex = aState.m_aDocumentCount.getAndIncrement ();
+
+    final boolean bFull;
+    if (aState.m_bForceFull || nIndex < aPolicy.getInitialFullCount ())
+    {
+      bFull = true;
+      m_aForcedCount.increment ();
+    }
+    else
+      if (ThreadLocalRandom.current ().nextDouble () < aPolicy.getSampleRate ())
+      {
+        bFull = true;
+        m_aSampledCount.increment ();
+      }
+      else
+      {
+        bFull = false;
+        m_aSkippedCount.increment ();
+      }
+
+    final ValidationResultList ret;
+    if (bFull)
+      ret = PeppolSKTDDValidator.validateSK_TDD_100 (aTDD, m_aFullSettings);
+    else
+    {
+      // The native rules work directly on the object, so no conversion to XML is needed
+      ret = new ValidationResultList ();
+      ret.add (_validateLightweight (aTDD));
+    }
+
+    if (ret.getOverallValidity ().isInvalid ())
+    {
+      m_aFailureCount.increment ();
+      aState.m_bForceFull = true;
+    }
+    else
+      if (bFull)
+        aState.m_bForceFull = false;
+    return ret;
+  }
+
+  /**
+   * @return The maximum number of producers whose state is kept. Always &gt; 0.
+   */
+  @Nonnegative
+  public final int getMaxProducers ()
+  {
+    return m_nMaxProducers;
+  }
+
+  /**
+   * @return The number of producers whose state is currently kept.
+   */
+  @Nonnegative
+  public int getProducerCount ()
+  {
+    synchronized (m_aLock)
+    {
+      return m_aProducers.size ();
+    }
+  }
+
+  /**
+   * @return The number of documents that were fully validated because they were randomly sampled.
+   */
+  @Nonnegative
+  public long getSampledCount ()
+  {
+    return m_aSampledCount.sum ();
+  }
+
+  /**
+   * @return The number of documents that were fully validated because they were among the initial
+   *         documents of their producer or because of a previous failure.
+   */
+  @Nonnegative
+  public long getForcedCount ()
+  {
+    return m_aForcedCount.sum ();
+  }
+
+  /**
+   * @return The number of documents that only underwent the lightweight validation.
+   */
+  @Nonnegative
+  public long getSkippedCount ()
+  {
+    return m_aSkippedCount.sum ();
+  }
+
+  /**
+   * @return The number of documents that failed the full or the lightweight validation.
+   */
+  @Nonnegative
+  public long getFailureCount ()
+  {
+    return m_aFailureCount.sum ();
+  }
+}
@@ -0,0 +1,445 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.w3c.dom.Node;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.io.resource.IReadableResource;
+
+import net.sf.saxon.Controller;
+import net.sf.saxon.expr.XPathContext;
+import net.sf.saxon.lib.Logger;
+import net.sf.saxon.lib.TraceListener;
+import net.sf.saxon.om.Item;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XdmDestination;
+import net.sf.saxon.s9api.XdmNode;
+import net.sf.saxon.s9api.Xslt30Transformer;
+import net.sf.saxon.s9api.XsltExecutable;
+import net.sf.saxon.trace.Traceable;
+import net.sf.saxon.trans.SimpleMode;
+
+/**
+ * Profiler for the Schematron XSLTs used by {@link PeppolSKTDDValidator}. Each profiled document is
+ * transformed with a separately compiled XSLT that contains trace hooks, and the time spent in
+ * every rule context (excluding nested rule contexts) and in every assertion is recorded. The
+ * statistics are aggregated over all profiled documents until {@link #reset()} is called, so that
+ * a representative set of documents can be profiled to decide which rules are worth optimizing.
+ * <br>
+ * Rule contexts and assertions are identified by the line numbers of the generated XSLT, as
+ * extracted by the same code that creates the {@link PeppolSKTDDRuleDictionary}, so this only works
+ * with XSLTs created by the ISO Schematron skeleton, as contained in this library. The traced XSLTs
+ * are compiled with the Saxon processor shared with the other Saxon based validators.
+ * Profiling slows down validation considerably and should not be used in production.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public class PeppolSKTDDSchematronProfiler
+{
+  /**
+   * Statistics of a single rule context or assertion.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  public static final class ProfileEntry
+  {
+    private final String m_sLayer;
+    private final String m_sKey;
+    private final long m_nCount;
+    private final long m_nNanos;
+
+    ProfileEntry (@NonNull final String sLayer, @NonNull final String sKey, final long nCount, final long nNanos)
+    {
+      m_sLayer = sLayer;
+      m_sKey = sKey;
+      m_nCount = nCount;
+      m_nNanos = nNanos;
+    }
+
+    /**
+     * @return The file name of the XSLT. Never <code>null</code>.
+     */
+    @NonNull
+    public String getLayer ()
+    {
+      return m_sLayer;
+    }
+
+    /**
+     * @return The rule context or the assertion ID. Never <code>null</code>.
+     */
+    @NonNull
+    public String getKey ()
+    {
+      return m_sKey;
+    }
+
+    /**
+     * @return The number of evaluations.
+     */
+    @Nonnegative
+    public long getCount ()
+    {
+      return m_nCount;
+    }
+
+    /**
+     * @return The total wall time of all evaluations in nanoseconds.
+     */
+    @Nonnegative
+    public long getTotalNanos ()
+    {
+      return m_nNanos;
+    }
+
+    @Override
+    public String toString ()
+    {
+      return String.format ("%10.3f ms %9d x  %s  %s", Double.valueOf (m_nNanos / 1_000_000d), Long.valueOf (m_nCount), m_sLayer, m_sKey);
+    }
+  }
+
+  /**
+   * The aggregated counters of one rule context or assertion.
+   */
+  private static final class Counter
+  {
+    private final LongAdder m_aCount = new LongAdder ();
+    private final LongAdder m_aNanos = new LongAdder ();
+
+    void add (final long nNanos)
+    {
+      m_aCount.increment ();
+      m_aNanos.add (nNanos);
+    }
+  }
+
+  /**
+   * A traced XSLT with the mapping of XSLT line numbers to rule contexts and assertions.
+   */
+  @Immutable
+  private static final class TracedXSLT
+  {
+    private final String m_sLayer;
+    private final XsltExecutable m_aExecutable;
+    private final Map <Integer, String> m_aContexts;
+    private final Map <Integer, String> m_aAssertions;
+
+    TracedXSLT (@NonNull final String sLayer,
+                @NonNull final XsltExecutable aExecutable,
+                @NonNull final Map <Integer, String> aContexts,
+                @NonNull final Map <Integer, String> aAssertions)
+    {
+      m_sLayer = sLayer;
+      m_aExecutable = aExecutable;
+      m_aContexts = aContexts;
+      m_aAssertions = aAssertions;
+    }
+  }
+
+  /**
+   * A single active trace frame.
+   */
+  private static final class Frame
+  {
+    private final Counter m_aCounter;
+    private final boolean m_bContext;
+    private final long m_nStart;
+    private long m_nNestedContextNanos;
+
+    Frame (@Nullable final Counter aCounter, final boolean bContext, final long nStart)
+    {
+      m_aCounter = aCounter;
+      m_bContext = bContext;
+      m_nStart = nStart;
+    }
+  }
+
+  /**
+   * The trace listener for a single transformation.
+   */
+  @NotThreadSafe
+  private final class ProfilingTraceListener implements TraceListener
+  {
+    private final TracedXSLT m_aXSLT;
+    private final Deque <Frame> m_aStack = new ArrayDeque <> ();
+
+    ProfilingTraceListener (@NonNull final TracedXSLT aXSLT)
+    {
+      m_aXSLT = aXSLT;
+    }
+
+    @Override
+    public void setOutputDestination (final Logger aLogger)
+    {}
+
+    @Override
+    public void open (final Controller aController)
+    {}
+
+    @Override
+    public void close ()
+    {}
+
+    @Override
+    public void enter (final Traceable aInfo, final Map <String, Object> aProperties, final XPathContext aContext)
+    {
+      final Integer aLine = Integer.valueOf (aInfo.getLocation ().getLineNumber ());
+      final String sContext = m_aXSLT.m_aContexts.get (aLine);
+      if (sContext != null)
+        m_aStack.push (new Frame (_getCounter (m_aContexts, m_aXSLT.m_sLayer, sContext), true, System.nanoTime ()));
+      else
+      {
+        final String sAssertion = m_aXSLT.m_aAssertions.get (aLine);
+        m_aStack.push (new Frame (sAssertion == null ? null : _getCounter (m_aAssertions,
+                                                                           m_aXSLT.m_sLayer,
+                                                                           sAssertion), false, System.nanoTime ()));
+      }
+    }
+
+    @Override
+    public void leave (final Traceable aInfo)
+    {
+      final Frame aFrame = m_aStack.poll ();
+      if (aFrame == null)
+        return;
+      final long nNanos = System.nanoTime () - aFrame.m_nStart;
+      if (aFrame.m_aCounter != null)
+        aFrame.m_aCounter.add (aFrame.m_bContext ? nNanos - aFrame.m_nNestedContextNanos : nNanos);
+
+      // Rule contexts are nested because of the recursive xsl:apply-templates
+      final Frame aParent = m_aStack.peek ();
+      if (aParent != null)
+        aParent.m_nNestedContextNanos += aFrame.m_bContext ? nNanos : aFrame.m_nNestedContextNanos;
+    }
+
+    @Override
+    public void startCurrentItem (final Item aItem)
+    {}
+
+    @Override
+    public void endCurrentItem (final Item aItem)
+    {}
+
+    public void startRuleSearch ()
+    {}
+
+    public void endRuleSearch (final Object aRule, final SimpleMode aMode, final Item aItem)
+    {}
+  }
+
+  private final Map <String, TracedXSLT> m_aXSLTs = new ConcurrentHashMap <> ();
+  private final Map <String, Counter> m_aContexts = new ConcurrentHashMap <> ();
+  private final Map <String, Counter> m_aAssertions = new ConcurrentHashMap <> ();
+  private final LongAdder m_aDocuments = new LongAdder ();
+
+  public PeppolSKTDDSchematronProfiler ()
+  {}
+
+  @NonNull
+  private static Counter _getCounter (@NonNull final Map <String, Counter> aMap,
+                                      @NonNull final String sLayer,
+                                      @NonNull final String sKey)
+  {
+    // Tab is not part of layer names
+    return aMap.computeIfAbsent (sLayer + '\t' + sKey, k -> new Counter ());
+  }
+
+  @NonNull
+  private static TracedXSLT _compile (@NonNull final IReadableResource aXSLT)
+  {
+    final PeppolSKTDDSchematronXSLT.Metadata aMetadata = PeppolSKTDDSchematronXSLT.getMetadata (aXSLT);
+    final Map <Integer, String> aAssertions = new HashMap <> ();
+    for (final PeppolSKTDDSchematronXSLT.Assertion aAssertion : aMetadata.getAllAssertions ())
+      aAssertions.put (Integer.valueOf (aAssertion.getLine ()), aAssertion.getID ());
+
+    final XsltExecutable aExecutable = PeppolSKTDDSchematronXSLT.compile (aXSLT, true);
+    final String sPath = aXSLT.getPath ();
+    return new TracedXSLT (sPath.substring (sPath.lastIndexOf ('/') + 1),
+                           aExecutable,
+                           aMetadata.getAllContexts (),
+                           aAssertions);
+  }
+
+  /**
+   * Profile the provided Schematron XSLT on the provided document.
+   *
+   * @param aXSLT
+   *        The Schematron XSLT to use. Usually one of the constants of {@link PeppolSKTDDValidator}.
+   *        May not be <code>null</code>.
+   * @param aNode
+   *        The document to profile. May not be <code>null</code>. It is only read.
+   * @throws IllegalStateException
+   *         if the XSLT cannot be compiled or the transformation fails
+   */
+  public void profile (@NonNull final IReadableResource aXSLT, @NonNull final Node aNode)
+  {
+    ValueEnforcer.notNull (aXSLT, "XSLT");
+    ValueEnforcer.notNull (aNode, "Node");
+    _profile (aXSLT, new DOMSource (aNode));
+  }
+
+  /**
+   * Profile the provided Schematron XSLT on a tree built by
+   * {@link PeppolSKTDDSchematronXSLT#buildTree(Node, String)}, so that all layers of a document can
+   * be profiled without converting the document each time.
+   *
+   * @param aXSLT
+   *        The Schematron XSLT to use. May not be <code>null</code>.
+   * @param aTree
+   *        The document to profile. May not be <code>null</code>.
+   */
+  void profile (@NonNull final IReadableResource aXSLT, @NonNull final XdmNode aTree)
+  {
+    _profile (aXSLT, aTree.asSource ());
+  }
+
+  private void _profile (@NonNull final IReadableResource aXSLT, @NonNull final Source aSource)
+  {
+    final TracedXSLT aTraced = m_aXSLTs.computeIfAbsent (aXSLT.getPath (), k -> _compile (aXSLT));
+    final Xslt30Transformer aTransformer = aTraced.m_aExecutable.load30 ();
+    aTransformer.setTraceListener (new ProfilingTraceListener (aTraced));
+    try
+    {
+      aTransformer.transform (aSource, new XdmDestination ());
+    }
+    catch (final SaxonApiException ex)
+    {
+      throw new IllegalStateException ("Failed to profile XSLT " + aXSLT.getPath (), ex);
+    }
+  }
+
+  /**
+   * Called by the validator after a document was profiled with all layers.
+   */
+  void onDocumentProfiled ()
+  {
+    m_aDocuments.increment ();
+  }
+
+  /**
+   * @return The number of documents profiled so far.
+   */
+  @Nonnegative
+  public long getDocumentCount ()
+  {
+    return m_aDocuments.sum ();
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  private static ICommonsList <ProfileEntry> _getSorted (@NonNull final Map <String, Counter> aMap)
+  {
+    final ICommonsList <ProfileEntry> ret = new CommonsArrayList <> ();
+    for (final Map.Entry <String, Counter> aEntry : aMap.entrySet ())
+    {
+      final String sKey = aEntry.getKey ();
+      final int nIdx = sKey.indexOf ('\t');
+      ret.add (new ProfileEntry (sKey.substring (0, nIdx),
+                                 sKey.substring (nIdx + 1),
+                                 aEntry.getValue ().m_aCount.sum (),
+                                 aEntry.getValue ().m_aNanos.sum ()));
+    }
+    // Most expensive first
+    ret.sort (Comparator.comparingLong (ProfileEntry::getTotalNanos).reversed ());
+    return ret;
+  }
+
+  /**
+   * @return The statistics of all rule contexts, most expensive first. The time excludes nested
+   *         rule contexts. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <ProfileEntry> getAllContextEntries ()
+  {
+    return _getSorted (m_aContexts);
+  }
+
+  /**
+   * @return The statistics of all assertions and reports, most expensive first. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <ProfileEntry> getAllAssertionEntries ()
+  {
+    return _getSorted (m_aAssertions);
+  }
+
+  private static void _appendTop (@NonNull final StringBuilder aSB,
+                                  @NonNull final ICommonsList <ProfileEntry> aEntries,
+                                  final int nMaxEntries)
+  {
+    final int nCount = Math.min (aEntries.size (), nMaxEntries);
+    for (int i = 0; i < nCount; ++i)
+      aSB.append (aEntries.get (i)).append ('\n');
+  }
+
+  /**
+   * Create a human readable report of the most expensive rule contexts and assertions.
+   *
+   * @param nMaxEntries
+   *        The maximum number of rule contexts and assertions each. Must be &gt; 0.
+   * @return The report. Never <code>null</code>.
+   */
+  @NonNull
+  public String getReport (@Nonnegative final int nMaxEntries)
+  {
+    ValueEnforcer.isGT0 (nMaxEntries, "MaxEntries");
+    final StringBuilder aSB = new StringBuilder ();
+    aSB.append ("Schematron profile of ").append (getDocumentCount ()).append (" document(s)\n");
+    aSB.append ("Top rule contexts:\n");
+    _appendTop (aSB, getAllContextEntries (), nMaxEntries);
+    aSB.append ("Top assertions:\n");
+    _appendTop (aSB, getAllAssertionEntries (), nMaxEntries);
+    return aSB.toString ();
+  }
+
+  /**
+   * Remove all collected statistics. The compiled XSLTs are kept.
+   */
+  public void reset ()
+  {
+    m_aContexts.clear ();
+    m_aAssertions.clear ();
+    m_aDocuments.reset ();
+  }
+}
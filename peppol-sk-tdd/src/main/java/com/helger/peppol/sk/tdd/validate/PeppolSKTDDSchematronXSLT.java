@@ -0,0 +1,622 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stream.StreamSource;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.DTDHandler;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.DefaultHandler2;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.CommonsLinkedHashSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsOrderedSet;
+import com.helger.io.resource.IReadableResource;
+import com.helger.schematron.xslt.SchematronProviderXSLTPrebuild;
+import com.helger.schematron.xslt.SchematronResourceXSLT;
+
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.SAXDestination;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XdmNode;
+import net.sf.saxon.s9api.XsltCompiler;
+import net.sf.saxon.s9api.XsltExecutable;
+
+/**
+ * Internal helper for the Saxon based evaluation of the Schematron XSLTs of
+ * {@link PeppolSKTDDValidator}. It provides the compiled XSLTs from the shared ph-schematron XSLT
+ * cache, owns the Saxon processor that builds the immutable trees that are shared by concurrently
+ * evaluated XSLTs and extracts the rule contexts and assertions of an XSLT with a SAX parser.<br>
+ * The extraction relies on the <code>RULE</code>, <code>ASSERT</code> and <code>REPORT</code>
+ * comments emitted by the ISO Schematron skeleton, as used for the contained XSLTs.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+final class PeppolSKTDDSchematronXSLT
+{
+  static final String XSL_NS = "http://www.w3.org/1999/XSL/Transform";
+  static final String SVRL_NS = PeppolSKTDDStreamingSVRLValidator.SVRL_NS;
+
+  /**
+   * A single assertion or report of a Schematron XSLT.
+   */
+  @Immutable
+  static final class Assertion
+  {
+    private final int m_nLine;
+    private final String m_sID;
+    private final String m_sFlag;
+    private final String m_sText;
+
+    Assertion (final int nLine, @NonNull final String sID, @Nullable final String sFlag, @Nullable final String sText)
+    {
+      m_nLine = nLine;
+      m_sID = sID;
+      m_sFlag = sFlag;
+      m_sText = sText;
+    }
+
+    /**
+     * @return The XSLT line number of the instruction evaluating the test.
+     */
+    int getLine ()
+    {
+      return m_nLine;
+    }
+
+    /**
+     * @return The rule ID. Never <code>null</code>.
+     */
+    @NonNull
+    String getID ()
+    {
+      return m_sID;
+    }
+
+    /**
+     * @return The Schematron flag. May be <code>null</code>.
+     */
+    @Nullable
+    String getFlag ()
+    {
+      return m_sFlag;
+    }
+
+    /**
+     * @return The static text. <code>null</code> if the text contains dynamic parts.
+     */
+    @Nullable
+    String getText ()
+    {
+      return m_sText;
+    }
+  }
+
+  /**
+   * The rule contexts and assertions of a single Schematron XSLT.
+   */
+  @Immutable
+  static final class Metadata
+  {
+    private final ICommonsMap <Integer, String> m_aContexts;
+    private final ICommonsOrderedSet <String> m_aFiredRuleContexts;
+    private final ICommonsList <Assertion> m_aAssertions;
+
+    Metadata (@NonNull final ICommonsMap <Integer, String> aContexts,
+              @NonNull final ICommonsOrderedSet <String> aFiredRuleContexts,
+              @NonNull final ICommonsList <Assertion> aAssertions)
+    {
+      m_aContexts = aContexts;
+      m_aFiredRuleContexts = aFiredRuleContexts;
+      m_aAssertions = aAssertions;
+    }
+
+    /**
+     * @return The rule contexts by the XSLT line number of their template. Never
+     *         <code>null</code>.
+     */
+    @NonNull
+    @ReturnsMutableCopy
+    ICommonsMap <Integer, String> getAllContexts ()
+    {
+      return m_aContexts.getClone ();
+    }
+
+    /**
+     * @return All distinct rule contexts as reported in <code>svrl:fired-rule/@context</code>, in
+     *         document order. Never <code>null</code>.
+     */
+    @NonNull
+    @ReturnsMutableCopy
+    ICommonsOrderedSet <String> getAllFiredRuleContexts ()
+    {
+      return m_aFiredRuleContexts.getClone ();
+    }
+
+    /**
+     * @return All assertions with a rule ID in document order. Never <code>null</code>.
+     */
+    @NonNull
+    @ReturnsMutableCopy
+    ICommonsList <Assertion> getAllAssertions ()
+    {
+      return m_aAssertions.getClone ();
+    }
+  }
+
+  /**
+   * Extracts the rule contexts and assertions. Saxon reports the line number of the end of a start
+   * tag, and so does the SAX locator.
+   */
+  @NotThreadSafe
+  private static final class MetadataHandler extends DefaultHandler2
+  {
+    private final ICommonsMap <Integer, String> m_aContexts = new CommonsHashMap <> ();
+    private final ICommonsOrderedSet <String> m_aFiredRuleContexts = new CommonsLinkedHashSet <> ();
+    private final ICommonsList <Assertion> m_aAssertions = new CommonsArrayList <> ();
+    private Locator m_aLocator;
+    private boolean m_bAfterRuleComment = false;
+    private boolean m_bAfterAssertComment = false;
+    private int m_nAssertionLine = -1;
+    private boolean m_bInAssertion = false;
+    private String m_sID;
+    private String m_sFlag;
+    private String m_sText;
+    // Only set while inside xsl:attribute for id or flag
+    private String m_sAttrName;
+    private StringBuilder m_aAttrValue;
+    // Only set while inside svrl:text
+    private StringBuilder m_aText;
+    private boolean m_bDynamicText = false;
+
+    @Override
+    public void setDocumentLocator (final Locator aLocator)
+    {
+      m_aLocator = aLocator;
+    }
+
+    @Override
+    public void comment (final char [] aChars, final int nStart, final int nLength)
+    {
+      final String sComment = new String (aChars, nStart, nLength).trim ();
+      if ("RULE".equals (sComment))
+        m_bAfterRuleComment = true;
+      else
+        if ("ASSERT".equals (sComment) || "REPORT".equals (sComment))
+          m_bAfterAssertComment = true;
+    }
+
+    @Override
+    public void startElement (final String sUri, final String sLocalName, final String sQName, final Attributes aAttrs)
+    {
+      if (m_aText != null)
+      {
+        // Everything except literal text is evaluated at runtime
+        if (!(XSL_NS.equals (sUri) && "text".equals (sLocalName)))
+          m_bDynamicText = true;
+        return;
+      }
+
+      if (XSL_NS.equals (sUri))
+      {
+        if ("template".equals (sLocalName) && m_bAfterRuleComment)
+        {
+          final String sMatch = aAttrs.getValue ("", "match");
+          if (sMatch != null)
+            m_aContexts.put (Integer.valueOf (m_aLocator.getLineNumber ()), sMatch);
+          m_bAfterRuleComment = false;
+        }
+        else
+          if (("choose".equals (sLocalName) || "if".equals (sLocalName)) && m_bAfterAssertComment)
+          {
+            // The instruction evaluating the test
+            m_nAssertionLine = m_aLocator.getLineNumber ();
+            m_bAfterAssertComment = false;
+          }
+          else
+            if ("attribute".equals (sLocalName) && m_bInAssertion)
+            {
+              final String sName = aAttrs.getValue ("", "name");
+              if ("id".equals (sName) || "flag".equals (sName))
+              {
+                m_sAttrName = sName;
+                m_aAttrValue = new StringBuilder ();
+              }
+            }
+      }
+      else
+        if (SVRL_NS.equals (sUri))
+        {
+          if (("failed-assert".equals (sLocalName) || "successful-report".equals (sLocalName)) && m_nAssertionLine > 0)
+          {
+            m_bInAssertion = true;
+            m_sID = null;
+            m_sFlag = null;
+            m_sText = null;
+          }
+          else
+            if ("text".equals (sLocalName) && m_bInAssertion)
+            {
+              m_aText = new StringBuilder ();
+              m_bDynamicText = false;
+            }
+            else
+              if ("fired-rule".equals (sLocalName))
+              {
+                final String sContext = aAttrs.getValue ("", "context");
+                if (sContext != null)
+                  m_aFiredRuleContexts.add (sContext);
+              }
+        }
+    }
+
+    @Override
+    public void characters (final char [] aChars, final int nStart, final int nLength)
+    {
+      if (m_aAttrValue != null)
+        m_aAttrValue.append (aChars, nStart, nLength);
+      else
+        if (m_aText != null)
+          m_aText.append (aChars, nStart, nLength);
+    }
+
+    @Override
+    public void endElement (final String sUri, final String sLocalName, final String sQName)
+    {
+      if (XSL_NS.equals (sUri) && "attribute".equals (sLocalName) && m_aAttrValue != null)
+      {
+        if ("id".equals (m_sAttrName))
+          m_sID = m_aAttrValue.toString ();
+        else
+          m_sFlag = m_aAttrValue.toString ();
+        m_sAttrName = null;
+        m_aAttrValue = null;
+      }
+      else
+        if (SVRL_NS.equals (sUri))
+        {
+          if ("text".equals (sLocalName) && m_aText != null)
+          {
+            m_sText = m_bDynamicText ? null : m_aText.toString ();
+            m_aText = null;
+          }
+          else
+            if (("failed-assert".equals (sLocalName) || "successful-report".equals (sLocalName)) && m_bInAssertion)
+            {
+              // Assertions without ID cannot be referenced
+              if (m_sID != null)
+                m_aAssertions.add (new Assertion (m_nAssertionLine, m_sID, m_sFlag, m_sText));
+              m_bInAssertion = false;
+              m_nAssertionLine = -1;
+            }
+        }
+    }
+  }
+
+  /**
+   * Replays an immutable tree as SAX events. This allows to use a tree built with the shared
+   * processor as the source of transformers that were created by another Saxon configuration.
+   */
+  @NotThreadSafe
+  private static final class TreeReader implements XMLReader
+  {
+    private static final String FEATURE_NAMESPACES = "http://xml.org/sax/features/namespaces";
+    private static final String FEATURE_NAMESPACE_PREFIXES = "http://xml.org/sax/features/namespace-prefixes";
+
+    private final XdmNode m_aTree;
+    private ContentHandler m_aContentHandler;
+    private DTDHandler m_aDTDHandler;
+    private EntityResolver m_aEntityResolver;
+    private ErrorHandler m_aErrorHandler;
+
+    TreeReader (@NonNull final XdmNode aTree)
+    {
+      m_aTree = aTree;
+    }
+
+    @Override
+    public boolean getFeature (final String sName) throws SAXNotRecognizedException
+    {
+      // Namespace aware, without xmlns attributes
+      return switch (sName)
+      {
+        case FEATURE_NAMESPACES -> true;
+        case FEATURE_NAMESPACE_PREFIXES -> false;
+        default -> throw new SAXNotRecognizedException (sName);
+      };
+    }
+
+    @Override
+    public void setFeature (final String sName, final boolean bValue) throws SAXNotRecognizedException,
+                                                                         SAXNotSupportedException
+    {
+      if (getFeature (sName) != bValue)
+        throw new SAXNotSupportedException (sName + " cannot be set to " + bValue);
+    }
+
+    @Override
+    public Object getProperty (final String sName) throws SAXNotRecognizedException
+    {
+      throw new SAXNotRecognizedException (sName);
+    }
+
+    @Override
+    public void setProperty (final String sName, final Object aValue) throws SAXNotRecognizedException
+    {
+      // E.g. the lexical handler - comments are not needed for validation
+      throw new SAXNotRecognizedException (sName);
+    }
+
+    @Override
+    public void setEntityResolver (final EntityResolver aEntityResolver)
+    {
+      m_aEntityResolver = aEntityResolver;
+    }
+
+    @Override
+    public EntityResolver getEntityResolver ()
+    {
+      return m_aEntityResolver;
+    }
+
+    @Override
+    public void setDTDHandler (final DTDHandler aDTDHandler)
+    {
+      m_aDTDHandler = aDTDHandler;
+    }
+
+    @Override
+    public DTDHandler getDTDHandler ()
+    {
+      return m_aDTDHandler;
+    }
+
+    @Override
+    public void setContentHandler (final ContentHandler aContentHandler)
+    {
+      m_aContentHandler = aContentHandler;
+    }
+
+    @Override
+    public ContentHandler getContentHandler ()
+    {
+      return m_aContentHandler;
+    }
+
+    @Override
+    public void setErrorHandler (final ErrorHandler aErrorHandler)
+    {
+      m_aErrorHandler = aErrorHandler;
+    }
+
+    @Override
+    public ErrorHandler getErrorHandler ()
+    {
+      return m_aErrorHandler;
+    }
+
+    @Override
+    public void parse (final InputSource aInput) throws SAXException
+    {
+      if (m_aContentHandler == null)
+        throw new SAXException ("No content handler was set");
+      try
+      {
+        PROCESSOR.writeXdmValue (m_aTree, new SAXDestination (m_aContentHandler));
+      }
+      catch (final SaxonApiException ex)
+      {
+        throw new SAXException ("Failed to replay the Saxon tree", ex);
+      }
+    }
+
+    @Override
+    public void parse (final String sSystemID) throws SAXException
+    {
+      parse (new InputSource (sSystemID));
+    }
+  }
+
+  private static final Processor PROCESSOR = new Processor (false);
+  private static final Map <String, SchematronProviderXSLTPrebuild> PROVIDERS = new ConcurrentHashMap <> ();
+  private static final Map <String, Metadata> METADATA = new ConcurrentHashMap <> ();
+
+  private PeppolSKTDDSchematronXSLT ()
+  {}
+
+  /**
+   * @return The Saxon processor shared by the trees and the instrumented XSLTs of this package.
+   *         Never <code>null</code>.
+   */
+  @NonNull
+  static Processor getProcessor ()
+  {
+    return PROCESSOR;
+  }
+
+  /**
+   * Compile the provided XSLT with the shared processor. This is only meant for instrumented
+   * evaluations - the validation uses {@link #getXSLTProvider(IReadableResource)}.
+   *
+   * @param aXSLT
+   *        The XSLT to compile. May not be <code>null</code>.
+   * @param bWithTracing
+   *        <code>true</code> to compile with trace hooks.
+   * @return The compiled XSLT. Never <code>null</code>.
+   * @throws IllegalStateException
+   *         if the XSLT cannot be compiled
+   */
+  @NonNull
+  static XsltExecutable compile (@NonNull final IReadableResource aXSLT, final boolean bWithTracing)
+  {
+    try (final InputStream aIS = aXSLT.getInputStream ())
+    {
+      if (aIS == null)
+        throw new IllegalStateException ("Failed to open XSLT " + aXSLT.getPath ());
+      final XsltCompiler aCompiler = PROCESSOR.newXsltCompiler ();
+      aCompiler.setCompileWithTracing (bWithTracing);
+      return aCompiler.compile (new StreamSource (aIS, aXSLT.getAsURL ().toExternalForm ()));
+    }
+    catch (final IOException | SaxonApiException ex)
+    {
+      throw new IllegalStateException ("Failed to compile Schematron XSLT " + aXSLT.getPath (), ex);
+    }
+  }
+
+  /**
+   * Get the compiled XSLT from the shared ph-schematron XSLT cache, compiling it on first use. The
+   * Schematron validation executors of {@link PeppolSKTDDValidator#VES_REGISTRY} use the same
+   * cache, so each XSLT is compiled only once for all kinds of evaluation.
+   *
+   * @param aXSLT
+   *        The XSLT to use. May not be <code>null</code>.
+   * @return The XSLT provider. Never <code>null</code>. Each transformer created from it may only be
+   *         used by a single thread.
+   * @throws IllegalStateException
+   *         if the XSLT cannot be compiled
+   */
+  @NonNull
+  static SchematronProviderXSLTPrebuild getXSLTProvider (@NonNull final IReadableResource aXSLT)
+  {
+    return PROVIDERS.computeIfAbsent (aXSLT.getPath (), k -> {
+      final SchematronProviderXSLTPrebuild aProvider = new SchematronResourceXSLT (aXSLT).getXSLTProvider ();
+      if (aProvider == null || !aProvider.isValidSchematron ())
+        throw new IllegalStateException ("Failed to compile Schematron XSLT " + aXSLT.getPath ());
+      return aProvider;
+    });
+  }
+
+  /**
+   * @return The number of XSLTs compiled via {@link #getXSLTProvider(IReadableResource)}.
+   */
+  @Nonnegative
+  static int getCachedProviderCount ()
+  {
+    return PROVIDERS.size ();
+  }
+
+  /**
+   * Build an immutable tree of the provided document with the shared processor. The tree can be
+   * read from any number of threads concurrently and can be used with all compiled XSLTs of this
+   * class.
+   *
+   * @param aNode
+   *        The document to copy. May not be <code>null</code>. It is only read.
+   * @param sSystemID
+   *        The system ID of the document. May be <code>null</code>.
+   * @return The tree. Never <code>null</code>.
+   * @throws IllegalStateException
+   *         if the tree cannot be built
+   */
+  @NonNull
+  static XdmNode buildTree (@NonNull final Node aNode, @Nullable final String sSystemID)
+  {
+    try
+    {
+      return PROCESSOR.newDocumentBuilder ().build (new DOMSource (aNode, sSystemID));
+    }
+    catch (final SaxonApiException ex)
+    {
+      throw new IllegalStateException ("Failed to build the Saxon tree of " + sSystemID, ex);
+    }
+  }
+
+  /**
+   * Get a source that replays the provided tree as SAX events, so that the tree can be used with
+   * the XSLTs of {@link #getXSLTProvider(IReadableResource)}. Any number of sources of the same
+   * tree can be used concurrently.
+   *
+   * @param aTree
+   *        The tree as built by {@link #buildTree(Node, String)}. May not be <code>null</code>.
+   * @param sSystemID
+   *        The system ID of the document. May be <code>null</code>.
+   * @return A new source. Never <code>null</code>. It can only be used by a single thread.
+   */
+  @NonNull
+  static Source getAsSource (@NonNull final XdmNode aTree, @Nullable final String sSystemID)
+  {
+    return new SAXSource (new TreeReader (aTree), new InputSource (sSystemID));
+  }
+
+  @NonNull
+  private static Metadata _readMetadata (@NonNull final IReadableResource aXSLT)
+  {
+    try (final InputStream aIS = aXSLT.getInputStream ())
+    {
+      if (aIS == null)
+        throw new IllegalStateException ("Failed to open XSLT " + aXSLT.getPath ());
+      final SAXParserFactory aFactory = SAXParserFactory.newInstance ();
+      aFactory.setNamespaceAware (true);
+      final SAXParser aParser = aFactory.newSAXParser ();
+      final MetadataHandler aHandler = new MetadataHandler ();
+      aParser.setProperty ("http://xml.org/sax/properties/lexical-handler", aHandler);
+      aParser.parse (new InputSource (aIS), aHandler);
+      return new Metadata (aHandler.m_aContexts, aHandler.m_aFiredRuleContexts, aHandler.m_aAssertions);
+    }
+    catch (final IOException | ParserConfigurationException | SAXException ex)
+    {
+      throw new IllegalStateException ("Failed to read XSLT " + aXSLT.getPath (), ex);
+    }
+  }
+
+  /**
+   * Get the rule contexts and assertions of the provided XSLT, reading them on first use.
+   *
+   * @param aXSLT
+   *        The XSLT to use. May not be <code>null</code>.
+   * @return The metadata. Never <code>null</code>.
+   * @throws IllegalStateException
+   *         if the XSLT cannot be read
+   */
+  @NonNull
+  static Metadata getMetadata (@NonNull final IReadableResource aXSLT)
+  {
+    return METADATA.computeIfAbsent (aXSLT.getPath (), k -> _readMetadata (aXSLT));
+  }
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXResult;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.location.SimpleLocation;
+import com.helger.diagnostics.error.IErrorLevel;
+import com.helger.diagnostics.error.SingleError;
+import com.helger.diagnostics.error.level.EErrorLevel;
+import com.helger.diagnostics.error.list.ErrorList;
+import com.helger.io.resource.IReadableResource;
+import com.helger.phive.api.artefact.IValidationArtefact;
+import com.helger.phive.api.result.ValidationResult;
+
+import net.sf.saxon.s9api.XdmNode;
+
+/**
+ * Evaluates the Schematron XSLTs used by {@link PeppolSKTDDValidator} without building SVRL
+ * documents. The XSLT output is consumed as a SAX event stream, and every
+ * <code>svrl:failed-assert</code> and <code>svrl:successful-report</code> is converted into an
+ * error as soon as it ends. The context of every <code>svrl:fired-rule</code> can optionally be
+ * passed to a consumer, and all other SVRL elements are skipped, so the memory needed for the
+ * result only depends on the number of errors. This pays off for documents that trigger many
+ * warnings.<br>
+ * The errors have the same rule IDs, error levels, texts and locations as the ones created by the
+ * regular Schematron executors. The compiled XSLTs are taken from the shared ph-schematron XSLT
+ * cache that is also used by the regular Schematron executors, so each XSLT is compiled only once.
+ * {@link PeppolSKTDDValidator#warmUp(IReadableResource)} compiles them ahead of time.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public final class PeppolSKTDDStreamingSVRLValidator
+{
+  public static final String SVRL_NS = "http://purl.oclc.org/dsdl/svrl";
+
+  /**
+   * Converts the SVRL events into errors
+   */
+  @NotThreadSafe
+  private static final class SVRLHandler extends DefaultHandler
+  {
+    private final ErrorList m_aErrorList;
+    private final String m_sSystemID;
+    private final Consumer <String> m_aFiredRuleConsumer;
+    private String m_sID;
+    private String m_sFlag;
+    private String m_sLocation;
+    // Only set while inside an assertion
+    private StringBuilder m_aText;
+    private boolean m_bInText = false;
+
+    SVRLHandler (@NonNull final ErrorList aErrorList,
+                 @Nullable final String sSystemID,
+                 @Nullable final Consumer <String> aFiredRuleConsumer)
+    {
+      m_aErrorList = aErrorList;
+      m_sSystemID = sSystemID;
+      m_aFiredRuleConsumer = aFiredRuleConsumer;
+    }
+
+    @Override
+    public void startElement (final String sUri, final String sLocalName, final String sQName, final Attributes aAttrs)
+    {
+      if (SVRL_NS.equals (sUri))
+        switch (sLocalName)
+        {
+          case "failed-assert":
+          case "successful-report":
+            m_sID = aAttrs.getValue ("", "id");
+            m_sFlag = aAttrs.getValue ("", "flag");
+            m_sLocation = aAttrs.getValue ("", "location");
+            m_aText = new StringBuilder ();
+            break;
+          case "text":
+            m_bInText = m_aText != null;
+            break;
+          case "fired-rule":
+            if (m_aFiredRuleConsumer != null)
+            {
+              final String sContext = aAttrs.getValue ("", "context");
+              if (sContext != null)
+                m_aFiredRuleConsumer.accept (sContext);
+            }
+            break;
+          default:
+            break;
+        }
+    }
+
+    @Override
+    public void characters (final char [] aChars, final int nStart, final int nLength)
+    {
+      if (m_bInText)
+        m_aText.append (aChars, nStart, nLength);
+    }
+
+    @Override
+    public void endElement (final String sUri, final String sLocalName, final String sQName)
+    {
+      if (SVRL_NS.equals (sUri))
+        switch (sLocalName)
+        {
+          case "failed-assert":
+          case "successful-report":
+            if (m_aText != null)
+            {
+              m_aErrorList.add (SingleError.builder ()
+                                           .errorLevel (getErrorLevel (m_sFlag))
+                                           .errorID (m_sID)
+                                           .errorFieldName (m_sLocation)
+                                           .errorLocation (new SimpleLocation (m_sSystemID))
+                                           .errorText (m_aText.toString ().strip ())
+                                           .build ());
+              m_aText = null;
+            }
+            break;
+          case "text":
+            m_bInText = false;
+            break;
+          default:
+            break;
+        }
+    }
+  }
+
+  private PeppolSKTDDStreamingSVRLValidator ()
+  {}
+
+  /**
+   * Get the error level of a Schematron flag.
+   *
+   * @param sFlag
+   *        The flag of the assertion. May be <code>null</code>.
+   * @return {@link EErrorLevel#ERROR} if the flag is <code>null</code> or unknown.
+   */
+  @NonNull
+  public static IErrorLevel getErrorLevel (@Nullable final String sFlag)
+  {
+    if (sFlag != null)
+      switch (sFlag)
+      {
+        case "fatal":
+          return EErrorLevel.FATAL_ERROR;
+        case "warning":
+        case "warn":
+          return EErrorLevel.WARN;
+        case "info":
+        case "information":
+          return EErrorLevel.INFO;
+        default:
+          break;
+      }
+    return EErrorLevel.ERROR;
+  }
+
+  /**
+   * @return The number of compiled XSLTs that were taken from the shared XSLT cache.
+   */
+  @Nonnegative
+  public static int getCachedXSLTCount ()
+  {
+    return PeppolSKTDDSchematronXSLT.getCachedProviderCount ();
+  }
+
+  /**
+   * Evaluate the provided Schematron XSLT on the provided document.
+   *
+   * @param aXSLT
+   *        The Schematron XSLT to use. Usually one of the constants of {@link PeppolSKTDDValidator}.
+   *        May not be <code>null</code>.
+   * @param aNode
+   *        The document to validate. May not be <code>null</code>. It is only read.
+   * @param sSystemID
+   *        The system ID of the document. May be <code>null</code>.
+   * @return All failed assertions and successful reports in document order. Never
+   *         <code>null</code>.
+   * @throws IllegalStateException
+   *         if the XSLT cannot be compiled or the transformation fails
+   */
+  @NonNull
+  public static ErrorList validate (@NonNull final IReadableResource aXSLT,
+                                    @NonNull final Node aNode,
+                                    @Nullable final String sSystemID)
+  {
+    return validate (aXSLT, aNode, sSystemID, null);
+  }
+
+  /**
+   * Evaluate the provided Schematron XSLT on the provided document and report the fired rules.
+   *
+   * @param aXSLT
+   *        The Schematron XSLT to use. Usually one of the constants of {@link PeppolSKTDDValidator}.
+   *        May not be <code>null</code>.
+   * @param aNode
+   *        The document to validate. May not be <code>null</code>. It is only read.
+   * @param sSystemID
+   *        The system ID of the document. May be <code>null</code>.
+   * @param aFiredRuleConsumer
+   *        The consumer to be invoked with the rule context of every
+   *        <code>svrl:fired-rule</code>, exactly as written in the XSLT. May be <code>null</code>.
+   * @return All failed assertions and successful reports in document order. Never
+   *         <code>null</code>.
+   * @throws IllegalStateException
+   *         if the XSLT cannot be compiled or the transformation fails
+   */
+  @NonNull
+  public static ErrorList validate (@NonNull final IReadableResource aXSLT,
+                                    @NonNull final Node aNode,
+                                    @Nullable final String sSystemID,
+                                    @Nullable final Consumer <String> aFiredRuleConsumer)
+  {
+    ValueEnforcer.notNull (aXSLT, "XSLT");
+    ValueEnforcer.notNull (aNode, "Node");
+    return _validate (aXSLT, new DOMSource (aNode, sSystemID), sSystemID, aFiredRuleConsumer);
+  }
+
+  /**
+   * Evaluate the provided Schematron XSLT on a tree built by
+   * {@link PeppolSKTDDSchematronXSLT#buildTree(Node, String)}. The tree can be shared by any number
+   * of concurrent evaluations.
+   *
+   * @param aXSLT
+   *        The Schematron XSLT to use. May not be <code>null</code>.
+   * @param aTree
+   *        The document to validate. May not be <code>null</code>.
+   * @param sSystemID
+   *        The system ID of the document. May be <code>null</code>.
+   * @return All failed assertions and successful reports in document order. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  static ErrorList validate (@NonNull final IReadableResource aXSLT,
+                             @NonNull final XdmNode aTree,
+                             @Nullable final String sSystemID)
+  {
+    return _validate (aXSLT, PeppolSKTDDSchematronXSLT.getAsSource (aTree, sSystemID), sSystemID, null);
+  }
+
+  @NonNull
+  private static ErrorList _validate (@NonNull final IReadableResource aXSLT,
+                                      @NonNull final Source aSource,
+                                      @Nullable final String sSystemID,
+                                      @Nullable final Consumer <String> aFiredRuleConsumer)
+  {
+    final Transformer aTransformer = PeppolSKTDDSchematronXSLT.getXSLTProvider (aXSLT).getXSLTTransformer ();
+    if (aTransformer == null)
+      throw new IllegalStateException ("Failed to create a transformer for Schematron XSLT " + aXSLT.getPath ());
+    final ErrorList ret = new ErrorList ();
+    try
+    {
+      aTransformer.transform (aSource, new SAXResult (new SVRLHandler (ret, sSystemID, aFiredRuleConsumer)));
+    }
+    catch (final TransformerException ex)
+    {
+      throw new IllegalStateException ("Failed to apply Schematron XSLT " + aXSLT.getPath (), ex);
+    }
+    return ret;
+  }
+
+  /**
+   * Evaluate the Schematron XSLT of the provided artefact on the provided document.
+   *
+   * @param aArtefact
+   *        The validation artefact of a Schematron layer. May not be <code>null</code>.
+   * @param aNode
+   *        The document to validate. May not be <code>null</code>. It is only read.
+   * @param sSystemID
+   *        The system ID of the document. May be <code>null</code>.
+   * @return The validation result for the artefact. Never <code>null</code>.
+   * @throws IllegalStateException
+   *         if the XSLT cannot be compiled or the transformation fails
+   */
+  @NonNull
+  public static ValidationResult validate (@NonNull final IValidationArtefact aArtefact,
+                                           @NonNull final Node aNode,
+                                           @Nullable final String sSystemID)
+  {
+    return validate (aArtefact, aNode, sSystemID, null);
+  }
+
+  /**
+   * Evaluate the Schematron XSLT of the provided artefact on the provided document and report the
+   * fired rules.
+   *
+   * @param aArtefact
+   *        The validation artefact of a Schematron layer. May not be <code>null</code>.
+   * @param aNode
+   *        The document to validate. May not be <code>null</code>. It is only read.
+   * @param sSystemID
+   *        The system ID of the document. May be <code>null</code>.
+   * @param aFiredRuleConsumer
+   *        The consumer to be invoked with the rule context of every
+   *        <code>svrl:fired-rule</code>, exactly as written in the XSLT. May be <code>null</code>.
+   * @return The validation result for the artefact. Never <code>null</code>.
+   * @throws IllegalStateException
+   *         if the XSLT cannot be compiled or the transformation fails
+   */
+  @NonNull
+  public static ValidationResult validate (@NonNull final IValidationArtefact aArtefact,
+                                           @NonNull final Node aNode,
+                                           @Nullable final String sSystemID,
+                                           @Nullable final Consumer <String> aFiredRuleConsumer)
+  {
+    ValueEnforcer.notNull (aArtefact, "Artefact");
+    final long nStart = System.nanoTime ();
+    final ErrorList aErrorList = validate (aArtefact.getRuleResource (), aNode, sSystemID, aFiredRuleConsumer);
+    return new ValidationResult (aArtefact, aErrorList, Duration.ofNanos (System.nanoTime () - nStart).toMillis ());
+  }
+
+  /**
+   * Evaluate the Schematron XSLT of the provided artefact on a shared tree.
+   *
+   * @param aArtefact
+   *        The validation artefact of a Schematron layer. May not be <code>null</code>.
+   * @param aTree
+   *        The document to validate, as built by
+   *        {@link PeppolSKTDDSchematronXSLT#buildTree(Node, String)}. May not be <code>null</code>.
+   * @param sSystemID
+   *        The system ID of the document. May be <code>null</code>.
+   * @return The validation result for the artefact. Never <code>null</code>.
+   */
+  @NonNull
+  static ValidationResult validate (@NonNull final IValidationArtefact aArtefact,
+                                    @NonNull final XdmNode aTree,
+                                    @Nullable final String sSystemID)
+  {
+    final long nStart = System.nanoTime ();
+    final ErrorList aErrorList = validate (aArtefact.getRuleResource (), aTree, sSystemID);
+    return new ValidationResult (aArtefact, aErrorList, Duration.ofNanos (System.nanoTime () - nStart).toMillis ());
+  }
+}
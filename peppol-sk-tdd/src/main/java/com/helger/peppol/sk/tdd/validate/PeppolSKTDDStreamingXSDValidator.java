@@ -0,0 +1,369 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.w3c.dom.Document;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.diagnostics.error.SingleError;
+import com.helger.diagnostics.error.level.EErrorLevel;
+import com.helger.diagnostics.error.list.ErrorList;
+import com.helger.io.resource.IReadableResource;
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
+import com.helger.xml.sax.AbstractSAXErrorHandler;
+import com.helger.xml.schema.XMLSchemaCache;
+
+/**
+ * Streaming XML Schema validation of Peppol SK TDD documents. The document is parsed with SAX and
+ * the events are validated with a {@link ValidatorHandler} while they are read. At the same time
+ * the events are forwarded to a DOM builder, which is detached as soon as the first schema error
+ * occurs. So a document that fails the XSD validation never gets a full tree built, and a valid
+ * document is parsed only once for all validation layers.<br>
+ * The reported errors are the same as the ones of the XSD layer of {@link PeppolSKTDDValidator}.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class PeppolSKTDDStreamingXSDValidator
+{
+  /**
+   * The result of a streaming XSD validation.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  public static final class StreamingResult
+  {
+    private final ErrorList m_aErrorList;
+    private final Document m_aDocument;
+
+    StreamingResult (@NonNull final ErrorList aErrorList, @Nullable final Document aDocument)
+    {
+      m_aErrorList = aErrorList;
+      m_aDocument = aDocument;
+    }
+
+    /**
+     * @return All warnings and errors of the XSD validation, including parse errors. Never
+     *         <code>null</code> but maybe empty.
+     */
+    @NonNull
+    public ErrorList getErrorList ()
+    {
+      return m_aErrorList;
+    }
+
+    /**
+     * @return The parsed document or <code>null</code> if the document was not well-formed or not
+     *         schema valid.
+     */
+    @Nullable
+    public Document getDocument ()
+    {
+      return m_aDocument;
+    }
+
+    /**
+     * @return <code>true</code> if the document is well-formed and schema valid.
+     */
+    public boolean isValid ()
+    {
+      return m_aDocument != null;
+    }
+  }
+
+  /**
+   * Forwards all SAX events to the DOM builder, until the tree building is stopped.
+   */
+  @NotThreadSafe
+  private static final class TeeContentHandler implements ContentHandler
+  {
+    private ContentHandler m_aTarget;
+
+    TeeContentHandler (@NonNull final ContentHandler aTarget)
+    {
+      m_aTarget = aTarget;
+    }
+
+    void stop ()
+    {
+      // Release the partial tree
+      m_aTarget = null;
+    }
+
+    boolean isStopped ()
+    {
+      return m_aTarget == null;
+    }
+
+    @Override
+    public void setDocumentLocator (final Locator aLocator)
+    {
+      if (m_aTarget != null)
+        m_aTarget.setDocumentLocator (aLocator);
+    }
+
+    @Override
+    public void startDocument () throws SAXException
+    {
+      if (m_aTarget != null)
+        m_aTarget.startDocument ();
+    }
+
+    @Override
+    public void endDocument () throws SAXException
+    {
+      if (m_aTarget != null)
+        m_aTarget.endDocument ();
+    }
+
+    @Override
+    public void startPrefixMapping (final String sPrefix, final String sUri) throws SAXException
+    {
+      if (m_aTarget != null)
+        m_aTarget.startPrefixMapping (sPrefix, sUri);
+    }
+
+    @Override
+    public void endPrefixMapping (final String sPrefix) throws SAXException
+    {
+      if (m_aTarget != null)
+        m_aTarget.endPrefixMapping (sPrefix);
+    }
+
+    @Override
+    public void startElement (final String sUri, final String sLocalName, final String sQName, final Attributes aAttrs)
+                                                                                                                       throws SAXException
+    {
+      if (m_aTarget != null)
+        m_aTarget.startElement (sUri, sLocalName, sQName, aAttrs);
+    }
+
+    @Override
+    public void endElement (final String sUri, final String sLocalName, final String sQName) throws SAXException
+    {
+      if (m_aTarget != null)
+        m_aTarget.endElement (sUri, sLocalName, sQName);
+    }
+
+    @Override
+    public void characters (final char [] aChars, final int nStart, final int nLength) throws SAXException
+    {
+      if (m_aTarget != null)
+        m_aTarget.characters (aChars, nStart, nLength);
+    }
+
+    @Override
+    public void ignorableWhitespace (final char [] aChars, final int nStart, final int nLength) throws SAXException
+    {
+      if (m_aTarget != null)
+        m_aTarget.ignorableWhitespace (aChars, nStart, nLength);
+    }
+
+    @Override
+    public void processingInstruction (final String sTarget, final String sData) throws SAXException
+    {
+      if (m_aTarget != null)
+        m_aTarget.processingInstruction (sTarget, sData);
+    }
+
+    @Override
+    public void skippedEntity (final String sName) throws SAXException
+    {
+      if (m_aTarget != null)
+        m_aTarget.skippedEntity (sName);
+    }
+  }
+
+  /**
+   * Collects all parse and validation errors and stops the tree building on the first error.
+   */
+  @NotThreadSafe
+  private static final class StreamingErrorHandler implements ErrorHandler
+  {
+    private final ErrorList m_aErrorList;
+    private final TeeContentHandler m_aTee;
+
+    StreamingErrorHandler (@NonNull final ErrorList aErrorList, @NonNull final TeeContentHandler aTee)
+    {
+      m_aErrorList = aErrorList;
+      m_aTee = aTee;
+    }
+
+    @Override
+    public void warning (@NonNull final SAXParseException ex)
+    {
+      m_aErrorList.add (AbstractSAXErrorHandler.getSaxParseError (EErrorLevel.WARN, ex));
+    }
+
+    @Override
+    public void error (@NonNull final SAXParseException ex)
+    {
+      m_aErrorList.add (AbstractSAXErrorHandler.getSaxParseError (EErrorLevel.ERROR, ex));
+      m_aTee.stop ();
+    }
+
+    @Override
+    public void fatalError (@NonNull final SAXParseException ex) throws SAXException
+    {
+      m_aErrorList.add (AbstractSAXErrorHandler.getSaxParseError (EErrorLevel.FATAL_ERROR, ex));
+      m_aTee.stop ();
+      // Not recoverable
+      throw ex;
+    }
+  }
+
+  private PeppolSKTDDStreamingXSDValidator ()
+  {}
+
+  /**
+   * @return The compiled XML Schema of the Peppol SK TDD 1.0.0 from the shared cache. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public static Schema getSchema ()
+  {
+    return XMLSchemaCache.getInstance ().getSchema (PeppolSKTDD100Marshaller.getAllXSDs ());
+  }
+
+  @NonNull
+  private static XMLReader _createXMLReader () throws ParserConfigurationException, SAXException
+  {
+    final SAXParserFactory aSPF = SAXParserFactory.newDefaultInstance ();
+    aSPF.setNamespaceAware (true);
+    aSPF.setFeature (XMLConstants.FEATURE_SECURE_PROCESSING, true);
+    // TDDs never contain a DOCTYPE
+    aSPF.setFeature ("http://apache.org/xml/features/disallow-doctype-decl", true);
+    return aSPF.newSAXParser ().getXMLReader ();
+  }
+
+  /**
+   * Validate the provided XML resource against the XML Schema while parsing it.
+   *
+   * @param aXmlRes
+   *        The XML resource to validate. May not be <code>null</code>.
+   * @return The validation result. Never <code>null</code>.
+   */
+  @NonNull
+  public static StreamingResult validate (@NonNull final IReadableResource aXmlRes)
+  {
+    ValueEnforcer.notNull (aXmlRes, "XmlRes");
+    try (final InputStream aIS = aXmlRes.getInputStream ())
+    {
+      if (aIS == null)
+      {
+        final ErrorList aErrorList = new ErrorList ();
+        aErrorList.add (SingleError.builder ()
+                                   .errorLevel (EErrorLevel.ERROR)
+                                   .errorFieldName (aXmlRes.getPath ())
+                                   .errorText ("Failed to open the XML resource")
+                                   .build ());
+        return new StreamingResult (aErrorList, null);
+      }
+      final InputSource aInputSource = new InputSource (aIS);
+      aInputSource.setSystemId (aXmlRes.getPath ());
+      return validate (aInputSource);
+    }
+    catch (final IOException ex)
+    {
+      final ErrorList aErrorList = new ErrorList ();
+      aErrorList.add (SingleError.builder ()
+                                 .errorLevel (EErrorLevel.ERROR)
+                                 .errorFieldName (aXmlRes.getPath ())
+                                 .errorText ("Failed to read the XML resource")
+                                 .linkedException (ex)
+                                 .build ());
+      return new StreamingResult (aErrorList, null);
+    }
+  }
+
+  /**
+   * Validate the provided SAX input source against the XML Schema while parsing it.
+   *
+   * @param aInputSource
+   *        The input source to validate. May not be <code>null</code>. It is not closed.
+   * @return The validation result. Never <code>null</code>.
+   */
+  @NonNull
+  public static StreamingResult validate (@NonNull final InputSource aInputSource)
+  {
+    ValueEnforcer.notNull (aInputSource, "InputSource");
+
+    final ErrorList aErrorList = new ErrorList ();
+    final DOMResult aDOMResult = new DOMResult ();
+    TeeContentHandler aTee = null;
+    try
+    {
+      // The JDK identity transformer is sufficient to build the tree
+      final TransformerHandler aTreeBuilder = ((SAXTransformerFactory) TransformerFactory.newDefaultInstance ()).newTransformerHandler ();
+      aTreeBuilder.setResult (aDOMResult);
+      aTee = new TeeContentHandler (aTreeBuilder);
+      final StreamingErrorHandler aErrorHandler = new StreamingErrorHandler (aErrorList, aTee);
+
+      final ValidatorHandler aValidatorHandler = getSchema ().newValidatorHandler ();
+      aValidatorHandler.setErrorHandler (aErrorHandler);
+      aValidatorHandler.setContentHandler (aTee);
+
+      final XMLReader aReader = _createXMLReader ();
+      aReader.setErrorHandler (aErrorHandler);
+      aReader.setContentHandler (aValidatorHandler);
+      aReader.parse (aInputSource);
+    }
+    catch (final SAXParseException ex)
+    {
+      // Already reported via the error handler
+    }
+    catch (final SAXException | IOException | ParserConfigurationException | TransformerConfigurationException ex)
+    {
+      aErrorList.add (SingleError.builder ()
+                                 .errorLevel (EErrorLevel.FATAL_ERROR)
+                                 .errorFieldName (aInputSource.getSystemId ())
+                                 .errorText ("Failed to validate the XML input")
+                                 .linkedException (ex)
+                                 .build ());
+    }
+
+    final boolean bValid = aTee != null && !aTee.isStopped () && !aErrorList.containsAtLeastOneError ();
+    return new StreamingResult (aErrorList, bValid ? (Document) aDOMResult.getNode () : null);
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.diagnostics.error.list.ErrorList;
+import com.helger.io.resource.IReadableResource;
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+import com.helger.phive.api.executor.IValidationExecutor;
+import com.helger.phive.api.result.ValidationResult;
+import com.helger.phive.api.result.ValidationResultList;
+import com.helger.phive.xml.source.IValidationSourceXML;
+
+/**
+ * Tiered validation of Peppol SK TDD documents. The validation layers are evaluated from the
+ * cheapest to the most expensive one, and the validation stops after the first tier that reports
+ * an error:
+ * <ol>
+ * <li>The SK specific rules, evaluated with {@link PeppolSKTDD100NativeRules} on the JAXB model.
+ * They cover the required fields, code lists and identifier schemes. If they pass, the totals are
+ * checked with {@link PeppolSKTDD100ArithmeticRules}, and the failures are reported as part of the
+ * CEN layer.</li>
+ * <li>The XML Schema validation.</li>
+ * <li>The CEN and Peppol Schematron layers.</li>
+ * </ol>
+ * Most rejected documents fail on simple issues and therefore never reach the XSLT evaluation. The
+ * result has the same format as the one of {@link PeppolSKTDDValidator#validateSK_TDD_100(Node)}:
+ * one result per layer in the original order, and the layers that were not evaluated are reported
+ * as ignored.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class PeppolSKTDDTieredValidator
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (PeppolSKTDDTieredValidator.class);
+
+  private PeppolSKTDDTieredValidator ()
+  {}
+
+  /**
+   * Validate the provided XML resource in tiers.
+   *
+   * @param aXmlRes
+   *        The XML resource to use. May not be <code>null</code>.
+   * @return The Validation result list. Never <code>null</code>.
+   */
+  @NonNull
+  public static ValidationResultList validateSK_TDD_100 (@NonNull final IReadableResource aXmlRes)
+  {
+    ValueEnforcer.notNull (aXmlRes, "XmlRes");
+    final PeppolSKTDDValidationSourceXML aSource = new PeppolSKTDDValidationSourceXML (aXmlRes);
+    final Node aNode = aSource.getParsedNode ();
+    if (aNode == null)
+    {
+      // Let the regular validation report the kept parse errors
+      return PeppolSKTDDValidator.validateSK_TDD_100 (aSource);
+    }
+    return validateSK_TDD_100 (aNode);
+  }
+
+  /**
+   * Validate an already parsed document in tiers.
+   *
+   * @param aNode
+   *        The DOM node to validate. Usually a {@link Document}. May not be <code>null</code>.
+   * @return The Validation result list. Never <code>null</code>.
+   */
+  @NonNull
+  public static ValidationResultList validateSK_TDD_100 (@NonNull final Node aNode)
+  {
+    ValueEnforcer.notNull (aNode, "Node");
+    // The XSD layer is evaluated later and reports schema errors the regular way
+    final TaxDataType aTDD = new PeppolSKTDD100Marshaller ().setUseSchema (false).read (aNode);
+    return _validate (aNode, aTDD);
+  }
+
+  /**
+   * Validate an in-memory TDD in tiers. The first tier works directly on the provided object.
+   *
+   * @param aTDD
+   *        The TDD to validate. May not be <code>null</code>.
+   * @return The Validation result list. Never <code>null</code>.
+   */
+  @NonNull
+  public static ValidationResultList validateSK_TDD_100 (@NonNull final TaxDataType aTDD)
+  {
+    ValueEnforcer.notNull (aTDD, "TDD");
+    final Document aDoc = new PeppolSKTDD100Marshaller ().setUseSchema (false).getAsDocument (aTDD);
+    if (aDoc == null)
+      throw new IllegalStateException ("Failed to convert the TDD to a DOM document");
+    return _validate (aDoc, aTDD);
+  }
+
+  private static void _addAll (@NonNull final Map <ESKTDDValidationLayer, ValidationResult> aResults,
+                               @NonNull final ValidationResultList aVRL,
+                               @NonNull final ESKTDDValidationLayer... aLayers)
+  {
+    // The results are in the order of the layers
+    for (int i = 0; i < aLayers.length; ++i)
+      aResults.put (aLayers[i], aVRL.get (i));
+  }
+
+  @NonNull
+  private static ValidationResultList _validate (@NonNull final Node aNode, @Nullable final TaxDataType aTDD)
+  {
+    final Map <ESKTDDValidationLayer, ValidationResult> aResults = new EnumMap <> (ESKTDDValidationLayer.class);
+    // One executor per layer in the order of the layers
+    final ICommonsList <IValidationExecutor <IValidationSourceXML>> aVEs = new CommonsArrayList <> (PeppolSKTDDValidator.getValidationExecutorSet (EnumSet.allOf (ESKTDDValidationLayer.class)));
+
+    String sFailedTier = null;
+    if (aTDD != null)
+    {
+      // Tier 1: the native SK rules
+      final long nStart = System.nanoTime ();
+      final ErrorList aErrorList = PeppolSKTDD100NativeRules.validate (aTDD);
+      aResults.put (ESKTDDValidationLayer.SK,
+                    new ValidationResult (aVEs.get (ESKTDDValidationLayer.SK.ordinal ()).getValidationArtefact (),
+                                          aErrorList,
+                                          Duration.ofNanos (System.nanoTime () - nStart).toMillis ()));
+      if (aErrorList.containsAtLeastOneError ())
+        sFailedTier = "SK rules";
+      else
+      {
+        // The totals are checked natively as well - they are reported as part of the CEN layer
+        final long nStart2 = System.nanoTime ();
+        final ErrorList aArithmeticErrorList = PeppolSKTDD100ArithmeticRules.validate (aTDD);
+        if (aArithmeticErrorList.containsAtLeastOneError ())
+        {
+          aResults.put (ESKTDDValidationLayer.CEN,
+                        new ValidationResult (aVEs.get (ESKTDDValidationLayer.CEN.ordinal ()).getValidationArtefact (),
+                                              aArithmeticErrorList,
+                                              Duration.ofNanos (System.nanoTime () - nStart2).toMillis ()));
+          sFailedTier = "arithmetic rules";
+        }
+      }
+    }
+
+    if (sFailedTier == null)
+    {
+      // Tier 2: XML Schema
+      final ValidationResultList aVRL = PeppolSKTDDValidator.validateSK_TDD_100 (aNode,
+                                                                                 new PeppolSKTDDValidationSettings ().validationLayers (ESKTDDValidationLayer.XSD));
+      _addAll (aResults, aVRL, ESKTDDValidationLayer.XSD);
+      if (aVRL.getAllErrors ().containsAtLeastOneError ())
+        sFailedTier = "XSD";
+    }
+
+    if (sFailedTier == null)
+    {
+      // Tier 3: the remaining Schematron layers
+      // The SK layer is only missing, if a schema valid document could not be read
+      final ESKTDDValidationLayer [] aLayers = aTDD != null ? new ESKTDDValidationLayer [] { ESKTDDValidationLayer.CEN,
+                                                                                            ESKTDDValidationLayer.PEPPOL }
+                                                            : new ESKTDDValidationLayer [] { ESKTDDValidationLayer.CEN,
+                                                                                            ESKTDDValidationLayer.PEPPOL,
+                                                                                            ESKTDDValidationLayer.SK };
+      final ValidationResultList aVRL = PeppolSKTDDValidator.validateSK_TDD_100 (aNode,
+                                                                                 new PeppolSKTDDValidationSettings ().validationLayers (aLayers));
+      _addAll (aResults, aVRL, aLayers);
+    }
+    else
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Tiered validation stopped after the " + sFailedTier + " tier");
+
+    // Same order as the regular validation
+    final ValidationResultList ret = new ValidationResultList ();
+    for (final ESKTDDValidationLayer eLayer : ESKTDDValidationLayer.values ())
+    {
+      final ValidationResult aResult = aResults.get (eLayer);
+      ret.add (aResult != null ? aResult
+                               : ValidationResult.createIgnoredResult (aVEs.get (eLayer.ordinal ()).getValidationArtefact ()));
+    }
+    return ret;
+  }
+}
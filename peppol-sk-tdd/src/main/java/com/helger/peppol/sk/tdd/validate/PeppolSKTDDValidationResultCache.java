@@ -0,0 +1,425 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.location.ILocation;
+import com.helger.base.location.SimpleLocation;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.diagnostics.error.IError;
+import com.helger.diagnostics.error.SingleError;
+import com.helger.diagnostics.error.list.ErrorList;
+import com.helger.io.resource.IReadableResource;
+import com.helger.io.resource.inmemory.ReadableResourceByteArray;
+import com.helger.phive.api.result.ValidationResult;
+import com.helger.phive.api.result.ValidationResultList;
+
+/**
+ * A size bounded cache in front of
+ * {@link PeppolSKTDDValidator#validateSK_TDD_100(IReadableResource, PeppolSKTDDValidationSettings)}.
+ * The cache key is the SHA-256 hash of the input bytes, combined with the ID of the used validation
+ * executor set and all settings that influence the result (fail fast, native SK rules, streaming
+ * XSD and streaming SVRL). Byte-identical documents, e.g. from retries or replays, are therefore
+ * only validated once within the time to live. The least recently used entry is evicted if the
+ * cache is full.<br>
+ * The system ID is not part of the key. Error locations that reference the system ID of the cached
+ * validation are rebased on the system ID of the current call, so the results name the resource
+ * the caller provided. The concurrent evaluation and the executor don't change the results and are
+ * not part of the key. The profiler and the rule statistics of the settings are only notified for
+ * actual validations, not for cache hits.<br>
+ * The cached results are never handed out directly - every call returns a new result list with
+ * copies of the cached results, so callers can freely modify them. An instance of this class can be
+ * shared between threads.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public class PeppolSKTDDValidationResultCache
+{
+  public static final int DEFAULT_MAX_ENTRIES = 1_000;
+  public static final Duration DEFAULT_TTL = Duration.ofHours (1);
+
+  private static final String HASH_ALGORITHM = "SHA-256";
+
+  /**
+   * A single cached validation.
+   */
+  @Immutable
+  private static final class CacheEntry
+  {
+    private final String m_sSystemID;
+    private final ICommonsList <ValidationResult> m_aResults;
+    private final long m_nExpirationNanos;
+
+    CacheEntry (@Nullable final String sSystemID,
+                @NonNull final ICommonsList <ValidationResult> aResults,
+                final long nExpirationNanos)
+    {
+      m_sSystemID = sSystemID;
+      m_aResults = aResults;
+      m_nExpirationNanos = nExpirationNanos;
+    }
+  }
+
+  private final int m_nMaxEntries;
+  private final Duration m_aTTL;
+  private final Object m_aLock = new Object ();
+  @GuardedBy ("m_aLock")
+  private final Map <String, CacheEntry> m_aMap;
+  private final LongAdder m_aHits = new LongAdder ();
+  private final LongAdder m_aMisses = new LongAdder ();
+  private final LongAdder m_aEvictions = new LongAdder ();
+  private final LongAdder m_aExpirations = new LongAdder ();
+
+  /**
+   * Constructor using {@link #DEFAULT_MAX_ENTRIES} and {@link #DEFAULT_TTL}.
+   */
+  public PeppolSKTDDValidationResultCache ()
+  {
+    this (DEFAULT_MAX_ENTRIES, DEFAULT_TTL);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxEntries
+   *        The maximum number of cached validations. Must be &gt; 0.
+   * @param aTTL
+   *        The time to live of a cached validation. May not be <code>null</code> and must be
+   *        positive.
+   */
+  public PeppolSKTDDValidationResultCache (@Nonnegative final int nMaxEntries, @NonNull final Duration aTTL)
+  {
+    ValueEnforcer.isGT0 (nMaxEntries, "MaxEntries");
+    ValueEnforcer.notNull (aTTL, "TTL");
+    ValueEnforcer.isTrue ( () -> !aTTL.isNegative () && !aTTL.isZero (), "TTL must be positive");
+    m_nMaxEntries = nMaxEntries;
+    m_aTTL = aTTL;
+    // Access order for LRU eviction
+    m_aMap = new LinkedHashMap <> (16, 0.75f, true)
+    {
+      @Override
+      protected boolean removeEldestEntry (final Map.Entry <String, CacheEntry> aEldest)
+      {
+        if (size () > m_nMaxEntries)
+        {
+          m_aEvictions.increment ();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * @return The maximum number of cached validations. Always &gt; 0.
+   */
+  @Nonnegative
+  public final int getMaxEntries ()
+  {
+    return m_nMaxEntries;
+  }
+
+  /**
+   * @return The time to live of a cached validation. Never <code>null</code>.
+   */
+  @NonNull
+  public final Duration getTTL ()
+  {
+    return m_aTTL;
+  }
+
+  @NonNull
+  private static String _getHash (final byte @NonNull [] aBytes)
+  {
+    try
+    {
+      return HexFormat.of ().formatHex (MessageDigest.getInstance (HASH_ALGORITHM).digest (aBytes));
+    }
+    catch (final NoSuchAlgorithmException ex)
+    {
+      // Every Java platform must support SHA-256
+      throw new IllegalStateException (HASH_ALGORITHM + " is not supported", ex);
+    }
+  }
+
+  @NonNull
+  private static String _getCacheKey (final byte @NonNull [] aBytes,
+                                      @NonNull final PeppolSKTDDValidationSettings aSettings)
+  {
+    // The concurrent evaluation doesn't change the results
+    return _getHash (aBytes) +
+           '@' +
+           PeppolSKTDDValidator.getVesID (aSettings.getAllValidationLayers ()).getAsSingleID () +
+           (aSettings.isFailFast () ? "#failfast" : "") +
+           (aSettings.isNativeSKRules () ? "#native" : "") +
+           (aSettings.isStreamingXSD () ? "#streamingxsd" : "") +
+           (aSettings.isStreamingSVRL () ? "#streamingsvrl" : "");
+  }
+
+  @NonNull
+  private static ValidationResult _getCopy (@NonNull final ValidationResult aResult)
+  {
+    if (aResult.isIgnored ())
+      return ValidationResult.createIgnoredResult (aResult.getValidationArtefact ());
+    return new ValidationResult (aResult.getValidationArtefact (),
+                                 aResult.getErrorList ().getClone (),
+                                 aResult.getDurationMS ());
+  }
+
+  @NonNull
+  private static IError _getRebased (@NonNull final IError aError,
+                                     @Nullable final String sCachedSystemID,
+                                     @Nullable final String sSystemID)
+  {
+    final ILocation aLocation = aError.getErrorLocation ();
+    if (aLocation == null || !Objects.equals (aLocation.getResourceID (), sCachedSystemID))
+      return aError;
+    return SingleError.builder (aError)
+                      .errorLocation (new SimpleLocation (sSystemID,
+                                                          aLocation.getLineNumber (),
+                                                          aLocation.getColumnNumber ()))
+                      .build ();
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  private static ValidationResultList _getCopy (@NonNull final CacheEntry aEntry, @Nullable final String sSystemID)
+  {
+    final boolean bRebase = !Objects.equals (aEntry.m_sSystemID, sSystemID);
+    final ValidationResultList ret = new ValidationResultList ();
+    for (final ValidationResult aResult : aEntry.m_aResults)
+      if (bRebase && !aResult.isIgnored ())
+      {
+        final ErrorList aErrorList = new ErrorList ();
+        for (final IError aError : aResult.getErrorList ())
+          aErrorList.add (_getRebased (aError, aEntry.m_sSystemID, sSystemID));
+        ret.add (new ValidationResult (aResult.getValidationArtefact (), aErrorList, aResult.getDurationMS ()));
+      }
+      else
+        ret.add (_getCopy (aResult));
+    return ret;
+  }
+
+  /**
+   * Validate the provided bytes with the default settings or return the cached result.
+   *
+   * @param aBytes
+   *        The bytes of the TDD to validate. May not be <code>null</code>.
+   * @return A new validation result list. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ValidationResultList validateSK_TDD_100 (final byte @NonNull [] aBytes)
+  {
+    return validateSK_TDD_100 (null, aBytes, new PeppolSKTDDValidationSettings ());
+  }
+
+  /**
+   * Validate the provided bytes or return the cached result.
+   *
+   * @param sSystemID
+   *        The system ID of the document. May be <code>null</code>. It is not part of the cache
+   *        key, but the error locations of cached results are rebased on it.
+   * @param aBytes
+   *        The bytes of the TDD to validate. May not be <code>null</code>.
+   * @param aSettings
+   *        The validation settings to use. May not be <code>null</code>.
+   * @return A new validation result list. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ValidationResultList validateSK_TDD_100 (@Nullable final String sSystemID,
+                                                  final byte @NonNull [] aBytes,
+                                                  @NonNull final PeppolSKTDDValidationSettings aSettings)
+  {
+    ValueEnforcer.notNull (aBytes, "Bytes");
+    ValueEnforcer.notNull (aSettings, "Settings");
+
+    final String sKey = _getCacheKey (aBytes, aSettings);
+    final long nNow = System.nanoTime ();
+    synchronized (m_aLock)
+    {
+      final CacheEntry aEntry = m_aMap.get (sKey);
+      if (aEntry != null)
+      {
+        if (nNow - aEntry.m_nExpirationNanos < 0)
+        {
+          m_aHits.increment ();
+          return _getCopy (aEntry, sSystemID);
+        }
+        m_aMap.remove (sKey);
+        m_aExpirations.increment ();
+      }
+    }
+    m_aMisses.increment ();
+
+    // Validate outside of the lock - concurrent validations of the same document may happen
+    final ValidationResultList aResults = PeppolSKTDDValidator.validateSK_TDD_100 (new ReadableResourceByteArray (sSystemID,
+                                                                                                                  aBytes),
+                                                                                 aSettings);
+    final ICommonsList <ValidationResult> aCached = new CommonsArrayList <> (aResults.size ());
+    for (final ValidationResult aResult : aResults)
+      aCached.add (_getCopy (aResult));
+    final CacheEntry aNewEntry = new CacheEntry (sSystemID, aCached, System.nanoTime () + m_aTTL.toNanos ());
+    synchronized (m_aLock)
+    {
+      m_aMap.put (sKey, aNewEntry);
+    }
+    return aResults;
+  }
+
+  /**
+   * Validate the provided resource with the default settings or return the cached result.
+   *
+   * @param aXmlRes
+   *        The XML resource to use. May not be <code>null</code>.
+   * @return A new validation result list. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ValidationResultList validateSK_TDD_100 (@NonNull final IReadableResource aXmlRes)
+  {
+    return validateSK_TDD_100 (aXmlRes, new PeppolSKTDDValidationSettings ());
+  }
+
+  /**
+   * Validate the provided resource or return the cached result. The resource is read completely to
+   * determine the cache key.
+   *
+   * @param aXmlRes
+   *        The XML resource to use. May not be <code>null</code>.
+   * @param aSettings
+   *        The validation settings to use. May not be <code>null</code>.
+   * @return A new validation result list. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ValidationResultList validateSK_TDD_100 (@NonNull final IReadableResource aXmlRes,
+                                                  @NonNull final PeppolSKTDDValidationSettings aSettings)
+  {
+    ValueEnforcer.notNull (aXmlRes, "XmlRes");
+
+    final byte [] aBytes;
+    try (final InputStream aIS = aXmlRes.getInputStream ())
+    {
+      aBytes = aIS == null ? null : aIS.readAllBytes ();
+    }
+    catch (final IOException ex)
+    {
+      // Let the validator report the error
+      return PeppolSKTDDValidator.validateSK_TDD_100 (aXmlRes, aSettings);
+    }
+    if (aBytes == null)
+    {
+      // Not cacheable
+      return PeppolSKTDDValidator.validateSK_TDD_100 (aXmlRes, aSettings);
+    }
+    return validateSK_TDD_100 (aXmlRes.getPath (), aBytes, aSettings);
+  }
+
+  /**
+   * @return The number of currently cached validations, including expired ones that were not yet
+   *         removed.
+   */
+  @Nonnegative
+  public int size ()
+  {
+    synchronized (m_aLock)
+    {
+      return m_aMap.size ();
+    }
+  }
+
+  /**
+   * Remove all cached validations. The statistics are not reset.
+   */
+  public void clear ()
+  {
+    synchronized (m_aLock)
+    {
+      m_aMap.clear ();
+    }
+  }
+
+  /**
+   * @return The number of validations answered from the cache.
+   */
+  @Nonnegative
+  public long getHitCount ()
+  {
+    return m_aHits.sum ();
+  }
+
+  /**
+   * @return The number of validations that were not in the cache (including expired ones).
+   */
+  @Nonnegative
+  public long getMissCount ()
+  {
+    return m_aMisses.sum ();
+  }
+
+  /**
+   * @return The number of validations that were removed because the cache was full.
+   */
+  @Nonnegative
+  public long getEvictionCount ()
+  {
+    return m_aEvictions.sum ();
+  }
+
+  /**
+   * @return The number of validations that were removed because they expired.
+   */
+  @Nonnegative
+  public long getExpirationCount ()
+  {
+    return m_aExpirations.sum ();
+  }
+
+  /**
+   * @return The ratio of hits to all requests in the range 0 to 1. Is 0 if nothing was requested
+   *         yet.
+   */
+  public double getHitRate ()
+  {
+    final long nHits = getHitCount ();
+    final long nTotal = nHits + getMissCount ();
+    return nTotal == 0 ? 0 : (double) nHits / nTotal;
+  }
+}
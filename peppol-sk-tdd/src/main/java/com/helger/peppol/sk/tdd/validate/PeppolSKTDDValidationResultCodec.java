@@ -0,0 +1,674 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.location.ILocation;
+import com.helger.base.location.SimpleLocation;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.CommonsLinkedHashSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsOrderedSet;
+import com.helger.diagnostics.error.IError;
+import com.helger.diagnostics.error.IErrorLevel;
+import com.helger.diagnostics.error.SingleError;
+import com.helger.diagnostics.error.level.EErrorLevel;
+import com.helger.diagnostics.error.list.ErrorList;
+import com.helger.phive.api.artefact.IValidationArtefact;
+import com.helger.phive.api.executor.IValidationExecutor;
+import com.helger.phive.api.result.ValidationResult;
+import com.helger.phive.api.result.ValidationResultList;
+import com.helger.phive.xml.source.IValidationSourceXML;
+
+/**
+ * Compact binary encoding of the validation results of Peppol SK TDD documents, e.g. for audit
+ * storage. Rule IDs are encoded as indices into the {@link PeppolSKTDDRuleDictionary}, error texts
+ * are omitted if they equal the text of the rule in the dictionary, and locations in the format of
+ * the Schematron XSLTs are encoded as a list of element name references and positions. All other
+ * strings are stored once in a string table. The header contains a bit set of the fired rules per
+ * layer, so that {@link #containsRuleID(byte[], String)} can be answered without decoding the
+ * errors.<br>
+ * Encoding layout (all numbers are unsigned variable length integers, except the magic bytes and
+ * the dictionary fingerprint):
+ * <ul>
+ * <li>Header: the 4 bytes {@link #MAGIC}, 1 byte {@link #FORMAT_VERSION}, 4 bytes dictionary
+ * fingerprint</li>
+ * <li>Per result: the layer ordinal, the flags ({@link #FLAG_IGNORED}), the duration in
+ * milliseconds and the bit set of fired rule indices as byte length and bytes</li>
+ * <li>The string table: the number of strings and the UTF-8 bytes of each string as length and
+ * bytes</li>
+ * <li>Per result: the number of errors, and per error the error level, the rule ID, the location,
+ * the text and the error location - each introduced by a tag</li>
+ * </ul>
+ * Linked exceptions are not encoded. The latest shipped rule dictionary is used for encoding, and
+ * decoding resolves the dictionary by the fingerprint from the header, so encoded results stay
+ * readable after new dictionary versions were shipped. All counts and lengths are checked against
+ * the remaining input before anything is allocated.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class PeppolSKTDDValidationResultCodec
+{
+  public static final byte [] MAGIC = { 'S', 'K', 'V', 'R' };
+  public static final int FORMAT_VERSION = 1;
+  public static final int FLAG_IGNORED = 0x01;
+
+  private static final int TAG_NONE = 0;
+  private static final int TAG_DICTIONARY = 1;
+  private static final int TAG_STRING = 2;
+  private static final int TAG_STEPS = 3;
+
+  private static final Pattern LOCATION_STEP = Pattern.compile ("/\\*:([^\\[/]+)\\[namespace-uri\\(\\)='([^']*)'\\]\\[(\\d+)\\]");
+
+  private PeppolSKTDDValidationResultCodec ()
+  {}
+
+  /**
+   * Collects the strings of the string table
+   */
+  @NotThreadSafe
+  private static final class StringTable
+  {
+    private final ICommonsList <String> m_aStrings = new CommonsArrayList <> ();
+    private final ICommonsMap <String, Integer> m_aIndex = new CommonsHashMap <> ();
+
+    int getIndex (@NonNull final String s)
+    {
+      final Integer aIndex = m_aIndex.get (s);
+      if (aIndex != null)
+        return aIndex.intValue ();
+      final int ret = m_aStrings.size ();
+      m_aStrings.add (s);
+      m_aIndex.put (s, Integer.valueOf (ret));
+      return ret;
+    }
+  }
+
+  private static void _writeVarInt (@NonNull final DataOutputStream aDOS, @Nonnegative final long nValue) throws IOException
+  {
+    long n = nValue;
+    while ((n & ~0x7fL) != 0)
+    {
+      aDOS.writeByte ((int) ((n & 0x7f) | 0x80));
+      n >>>= 7;
+    }
+    aDOS.writeByte ((int) n);
+  }
+
+  @Nonnegative
+  private static long _readVarLong (@NonNull final DataInputStream aDIS) throws IOException
+  {
+    long ret = 0;
+    int nShift = 0;
+    while (true)
+    {
+      final int b = aDIS.readUnsignedByte ();
+      ret |= (long) (b & 0x7f) << nShift;
+      if ((b & 0x80) == 0)
+        return ret;
+      nShift += 7;
+      if (nShift > 63)
+        throw new IOException ("Variable length integer is too long");
+    }
+  }
+
+  @Nonnegative
+  private static int _readVarInt (@NonNull final DataInputStream aDIS) throws IOException
+  {
+    final long ret = _readVarLong (aDIS);
+    if (ret > Integer.MAX_VALUE)
+      throw new IOException ("Value " + ret + " is out of range");
+    return (int) ret;
+  }
+
+  /**
+   * Read a count or a length and check that the remaining input is large enough for it.
+   *
+   * @param nMinBytesPerEntry
+   *        The minimum number of encoded bytes of each entry.
+   */
+  @Nonnegative
+  private static int _readCount (@NonNull final DataInputStream aDIS, @Nonnegative final int nMinBytesPerEntry) throws IOException
+  {
+    final int ret = _readVarInt (aDIS);
+    if ((long) ret * nMinBytesPerEntry > aDIS.available ())
+      throw new IOException ("Count " + ret + " exceeds the remaining input");
+    return ret;
+  }
+
+  @NonNull
+  private static ESKTDDValidationLayer _getLayer (@NonNull final IValidationArtefact aArtefact)
+  {
+    if (PeppolSKTDDValidator.XSLT_CEN_TDD_100.equals (aArtefact.getRuleResource ()))
+      return ESKTDDValidationLayer.CEN;
+    if (PeppolSKTDDValidator.XSLT_BILLING_TDD_100.equals (aArtefact.getRuleResource ()))
+      return ESKTDDValidationLayer.PEPPOL;
+    if (PeppolSKTDDValidator.XSLT_SK_TDD_100.equals (aArtefact.getRuleResource ()))
+      return ESKTDDValidationLayer.SK;
+    return ESKTDDValidationLayer.XSD;
+  }
+
+  @NonNull
+  private static IValidationArtefact _getArtefact (@NonNull final ESKTDDValidationLayer eLayer)
+  {
+    for (final IValidationExecutor <IValidationSourceXML> aVE : PeppolSKTDDValidator.getValidationExecutorSet (EnumSet.of (eLayer)))
+      return aVE.getValidationArtefact ();
+    throw new IllegalStateException ("Found no validation executor for layer " + eLayer);
+  }
+
+  @NonNull
+  private static String _getLocationStep (@NonNull final String sName)
+  {
+    // Stored as "{namespace}localName"
+    final int nIdx = sName.indexOf ('}');
+    return "/*:" + sName.substring (nIdx + 1) + "[namespace-uri()='" + sName.substring (1, nIdx) + "']";
+  }
+
+  /**
+   * Split a location into the element names and positions, if the location can be reproduced
+   * exactly.
+   */
+  @Nullable
+  private static ICommonsList <String> _splitLocation (@NonNull final String sLocation)
+  {
+    final ICommonsList <String> ret = new CommonsArrayList <> ();
+    final Matcher aMatcher = LOCATION_STEP.matcher (sLocation);
+    int nEnd = 0;
+    while (aMatcher.find ())
+    {
+      if (aMatcher.start () != nEnd)
+        return null;
+      ret.add ("{" + aMatcher.group (2) + "}" + aMatcher.group (1));
+      ret.add (aMatcher.group (3));
+      nEnd = aMatcher.end ();
+    }
+    if (nEnd != sLocation.length () || ret.isEmpty ())
+      return null;
+    // Leading zeros would get lost
+    for (int i = 1; i < ret.size (); i += 2)
+      if (ret.get (i).length () > 1 && ret.get (i).charAt (0) == '0')
+        return null;
+    return ret;
+  }
+
+  private static int _getLevelOrdinal (@NonNull final IErrorLevel aLevel)
+  {
+    for (final EErrorLevel e : EErrorLevel.values ())
+      if (e.getNumericLevel () == aLevel.getNumericLevel ())
+        return e.ordinal ();
+    return EErrorLevel.ERROR.ordinal ();
+  }
+
+  private static void _writeString (@NonNull final DataOutputStream aDOS,
+                                    @NonNull final StringTable aStrings,
+                                    @Nullable final String s) throws IOException
+  {
+    if (s == null)
+      _writeVarInt (aDOS, TAG_NONE);
+    else
+    {
+      _writeVarInt (aDOS, TAG_STRING);
+      _writeVarInt (aDOS, aStrings.getIndex (s));
+    }
+  }
+
+  private static void _writeError (@NonNull final DataOutputStream aDOS,
+                                   @NonNull final StringTable aStrings,
+                                   @NonNull final PeppolSKTDDRuleDictionary aDict,
+                                   @NonNull final IError aError) throws IOException
+  {
+    _writeVarInt (aDOS, _getLevelOrdinal (aError.getErrorLevel ()));
+
+    // Rule ID
+    final String sRuleID = aError.getErrorID ();
+    final int nRuleIndex = aDict.getIndex (sRuleID);
+    if (nRuleIndex >= 0)
+    {
+      _writeVarInt (aDOS, TAG_DICTIONARY);
+      _writeVarInt (aDOS, nRuleIndex);
+    }
+    else
+      _writeString (aDOS, aStrings, sRuleID);
+
+    // Location
+    final String sLocation = aError.getErrorFieldName ();
+    final ICommonsList <String> aSteps = sLocation == null ? null : _splitLocation (sLocation);
+    if (aSteps != null)
+    {
+      _writeVarInt (aDOS, TAG_STEPS);
+      _writeVarInt (aDOS, aSteps.size () / 2);
+      for (int i = 0; i < aSteps.size (); i += 2)
+      {
+        _writeVarInt (aDOS, aStrings.getIndex (aSteps.get (i)));
+        _writeVarInt (aDOS, Long.parseLong (aSteps.get (i + 1)));
+      }
+    }
+    else
+      _writeString (aDOS, aStrings, sLocation);
+
+    // Text
+    final String sText = aError.getErrorText (Locale.US);
+    if (nRuleIndex >= 0 && sText != null && sText.equals (aDict.getText (nRuleIndex)))
+      _writeVarInt (aDOS, TAG_DICTIONARY);
+    else
+      _writeString (aDOS, aStrings, sText);
+
+    // Error location (e.g. XSD errors)
+    final ILocation aLocation = aError.getErrorLocation ();
+    if (aLocation == null || !aLocation.isAnyInformationPresent ())
+      _writeVarInt (aDOS, TAG_NONE);
+    else
+    {
+      // Followed by the tagged resource ID
+      _writeVarInt (aDOS, TAG_STRING);
+      _writeString (aDOS, aStrings, aLocation.getResourceID ());
+      // Unknown values are negative
+      _writeVarInt (aDOS, Math.max (aLocation.getLineNumber (), -1) + 1L);
+      _writeVarInt (aDOS, Math.max (aLocation.getColumnNumber (), -1) + 1L);
+    }
+  }
+
+  /**
+   * Encode the provided validation results.
+   *
+   * @param aVRL
+   *        The validation results as created by {@link PeppolSKTDDValidator}. May not be
+   *        <code>null</code>.
+   * @return The encoded bytes. Never <code>null</code>.
+   */
+  public static byte @NonNull [] encode (@NonNull final ValidationResultList aVRL)
+  {
+    ValueEnforcer.notNull (aVRL, "VRL");
+    final PeppolSKTDDRuleDictionary aDict = PeppolSKTDDRuleDictionary.getInstance ();
+
+    try
+    {
+      // Errors first, to fill the string table
+      final StringTable aStrings = new StringTable ();
+      final ByteArrayOutputStream aErrorBytes = new ByteArrayOutputStream ();
+      final DataOutputStream aErrorDOS = new DataOutputStream (aErrorBytes);
+      for (final ValidationResult aResult : aVRL)
+      {
+        final ErrorList aErrorList = aResult.getErrorList ();
+        _writeVarInt (aErrorDOS, aErrorList.size ());
+        for (final IError aError : aErrorList)
+          _writeError (aErrorDOS, aStrings, aDict, aError);
+      }
+      aErrorDOS.flush ();
+
+      final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream (aErrorBytes.size () + 64);
+      final DataOutputStream aDOS = new DataOutputStream (aBAOS);
+      aDOS.write (MAGIC);
+      aDOS.writeByte (FORMAT_VERSION);
+      aDOS.writeInt (aDict.getFingerprint ());
+
+      _writeVarInt (aDOS, aVRL.size ());
+      for (final ValidationResult aResult : aVRL)
+      {
+        _writeVarInt (aDOS, _getLayer (aResult.getValidationArtefact ()).ordinal ());
+        _writeVarInt (aDOS, aResult.isIgnored () ? FLAG_IGNORED : 0);
+        _writeVarInt (aDOS, Math.max (aResult.getDurationMS (), 0));
+
+        final BitSet aFired = new BitSet (aDict.getRuleCount ());
+        for (final IError aError : aResult.getErrorList ())
+        {
+          final int nRuleIndex = aDict.getIndex (aError.getErrorID ());
+          if (nRuleIndex >= 0)
+            aFired.set (nRuleIndex);
+        }
+        final byte [] aFiredBytes = aFired.toByteArray ();
+        _writeVarInt (aDOS, aFiredBytes.length);
+        aDOS.write (aFiredBytes);
+      }
+
+      _writeVarInt (aDOS, aStrings.m_aStrings.size ());
+      for (final String s : aStrings.m_aStrings)
+      {
+        final byte [] aBytes = s.getBytes (StandardCharsets.UTF_8);
+        _writeVarInt (aDOS, aBytes.length);
+        aDOS.write (aBytes);
+      }
+
+      aErrorBytes.writeTo (aDOS);
+      aDOS.flush ();
+      return aBAOS.toByteArray ();
+    }
+    catch (final IOException ex)
+    {
+      // Cannot happen with in-memory streams
+      throw new IllegalStateException ("Failed to encode validation results", ex);
+    }
+  }
+
+  @NonNull
+  private static DataInputStream _open (final byte @NonNull [] aEncoded) throws IOException
+  {
+    ValueEnforcer.notNull (aEncoded, "Encoded");
+    final DataInputStream aDIS = new DataInputStream (new ByteArrayInputStream (aEncoded));
+    final byte [] aMagic = new byte [MAGIC.length];
+    aDIS.readFully (aMagic);
+    for (int i = 0; i < aMagic.length; ++i)
+      if (aMagic[i] != MAGIC[i])
+        throw new IOException ("Not an encoded validation result");
+    final int nVersion = aDIS.readUnsignedByte ();
+    if (nVersion != FORMAT_VERSION)
+      throw new IOException ("Unsupported validation result format version " + nVersion);
+    return aDIS;
+  }
+
+  @NonNull
+  private static PeppolSKTDDRuleDictionary _readDictionary (@NonNull final DataInputStream aDIS) throws IOException
+  {
+    final int nFingerprint = aDIS.readInt ();
+    final PeppolSKTDDRuleDictionary ret = PeppolSKTDDRuleDictionary.getOfFingerprint (nFingerprint);
+    if (ret == null)
+      throw new IOException ("The validation result was encoded with the unknown rule dictionary 0x" +
+                             Integer.toHexString (nFingerprint));
+    return ret;
+  }
+
+  /**
+   * Get the rule dictionary that was used to encode the provided bytes.
+   *
+   * @param aEncoded
+   *        The encoded validation results. May not be <code>null</code>.
+   * @return The shipped rule dictionary with the fingerprint from the header. Never
+   *         <code>null</code>.
+   * @throws IOException
+   *         if the encoding is invalid or was created with an unknown dictionary
+   */
+  @NonNull
+  public static PeppolSKTDDRuleDictionary getRuleDictionary (final byte @NonNull [] aEncoded) throws IOException
+  {
+    return _readDictionary (_open (aEncoded));
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  private static ICommonsList <BitSet> _readAllFiredRules (@NonNull final DataInputStream aDIS) throws IOException
+  {
+    // Layer, flags, duration and length of the bit set
+    final int nResults = _readCount (aDIS, 4);
+    final ICommonsList <BitSet> ret = new CommonsArrayList <> (nResults);
+    for (int i = 0; i < nResults; ++i)
+    {
+      _readVarInt (aDIS);
+      _readVarInt (aDIS);
+      _readVarLong (aDIS);
+      final byte [] aFiredBytes = new byte [_readCount (aDIS, 1)];
+      aDIS.readFully (aFiredBytes);
+      ret.add (BitSet.valueOf (aFiredBytes));
+    }
+    return ret;
+  }
+
+  /**
+   * Get the bit sets of the fired rules per result, without decoding the errors. The bit indices
+   * are the indices of the rule dictionary used for encoding, as returned by
+   * {@link #getRuleDictionary(byte[])}.
+   *
+   * @param aEncoded
+   *        The encoded validation results. May not be <code>null</code>.
+   * @return One bit set per validation result in the original order. Never <code>null</code>.
+   * @throws IOException
+   *         if the encoding is invalid or was created with an unknown dictionary
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsList <BitSet> getAllFiredRules (final byte @NonNull [] aEncoded) throws IOException
+  {
+    final DataInputStream aDIS = _open (aEncoded);
+    _readDictionary (aDIS);
+    return _readAllFiredRules (aDIS);
+  }
+
+  @NonNull
+  private static BitSet _getAllFiredRulesCombined (@NonNull final DataInputStream aDIS) throws IOException
+  {
+    final BitSet ret = new BitSet ();
+    for (final BitSet aFired : _readAllFiredRules (aDIS))
+      ret.or (aFired);
+    return ret;
+  }
+
+  /**
+   * Get the IDs of all rules that fired, without decoding the errors.
+   *
+   * @param aEncoded
+   *        The encoded validation results. May not be <code>null</code>.
+   * @return The rule IDs in dictionary order. Never <code>null</code>. Rule IDs that are not part
+   *         of the dictionary are not contained.
+   * @throws IOException
+   *         if the encoding is invalid or was created with an unknown dictionary
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsOrderedSet <String> getAllFiredRuleIDs (final byte @NonNull [] aEncoded) throws IOException
+  {
+    final DataInputStream aDIS = _open (aEncoded);
+    final PeppolSKTDDRuleDictionary aDict = _readDictionary (aDIS);
+    final BitSet aAll = _getAllFiredRulesCombined (aDIS);
+
+    final ICommonsOrderedSet <String> ret = new CommonsLinkedHashSet <> ();
+    for (int i = aAll.nextSetBit (0); i >= 0; i = aAll.nextSetBit (i + 1))
+    {
+      if (i >= aDict.getRuleCount ())
+        throw new IOException ("Invalid rule index " + i);
+      ret.add (aDict.getRuleID (i));
+    }
+    return ret;
+  }
+
+  /**
+   * Check if the provided rule fired, without decoding the errors.
+   *
+   * @param aEncoded
+   *        The encoded validation results. May not be <code>null</code>.
+   * @param sRuleID
+   *        The rule ID to check. May not be <code>null</code>.
+   * @return <code>true</code> if at least one error with the provided rule ID is contained,
+   *         <code>false</code> if not or if the rule ID is not part of the dictionary.
+   * @throws IOException
+   *         if the encoding is invalid or was created with an unknown dictionary
+   */
+  public static boolean containsRuleID (final byte @NonNull [] aEncoded, @NonNull final String sRuleID) throws IOException
+  {
+    ValueEnforcer.notNull (sRuleID, "RuleID");
+    final DataInputStream aDIS = _open (aEncoded);
+    final int nRuleIndex = _readDictionary (aDIS).getIndex (sRuleID);
+    if (nRuleIndex < 0)
+      return false;
+    return _getAllFiredRulesCombined (aDIS).get (nRuleIndex);
+  }
+
+  @Nullable
+  private static String _readString (@NonNull final DataInputStream aDIS,
+                                     @NonNull final ICommonsList <String> aStrings,
+                                     final int nTag) throws IOException
+  {
+    switch (nTag)
+    {
+      case TAG_NONE:
+        return null;
+      case TAG_STRING:
+      {
+        final int nIndex = _readVarInt (aDIS);
+        if (nIndex >= aStrings.size ())
+          throw new IOException ("Invalid string table index " + nIndex);
+        return aStrings.get (nIndex);
+      }
+      default:
+        throw new IOException ("Invalid tag " + nTag);
+    }
+  }
+
+  @NonNull
+  private static IError _readError (@NonNull final DataInputStream aDIS,
+                                    @NonNull final ICommonsList <String> aStrings,
+                                    @NonNull final PeppolSKTDDRuleDictionary aDict) throws IOException
+  {
+    final int nLevel = _readVarInt (aDIS);
+    if (nLevel >= EErrorLevel.values ().length)
+      throw new IOException ("Invalid error level " + nLevel);
+
+    // Rule ID
+    int nRuleIndex = -1;
+    final String sRuleID;
+    final int nRuleTag = _readVarInt (aDIS);
+    if (nRuleTag == TAG_DICTIONARY)
+    {
+      nRuleIndex = _readVarInt (aDIS);
+      if (nRuleIndex >= aDict.getRuleCount ())
+        throw new IOException ("Invalid rule index " + nRuleIndex);
+      sRuleID = aDict.getRuleID (nRuleIndex);
+    }
+    else
+      sRuleID = _readString (aDIS, aStrings, nRuleTag);
+
+    // Location
+    final String sLocation;
+    final int nLocationTag = _readVarInt (aDIS);
+    if (nLocationTag == TAG_STEPS)
+    {
+      // Name and position
+      final int nSteps = _readCount (aDIS, 2);
+      final StringBuilder aSB = new StringBuilder ();
+      for (int i = 0; i < nSteps; ++i)
+      {
+        final String sName = _readString (aDIS, aStrings, TAG_STRING);
+        aSB.append (_getLocationStep (sName)).append ('[').append (_readVarLong (aDIS)).append (']');
+      }
+      sLocation = aSB.toString ();
+    }
+    else
+      sLocation = _readString (aDIS, aStrings, nLocationTag);
+
+    // Text
+    final String sText;
+    final int nTextTag = _readVarInt (aDIS);
+    if (nTextTag == TAG_DICTIONARY)
+    {
+      if (nRuleIndex < 0)
+        throw new IOException ("Dictionary text without dictionary rule");
+      sText = aDict.getText (nRuleIndex);
+      if (sText == null)
+        throw new IOException ("Dictionary rule " + sRuleID + " has no static text");
+    }
+    else
+      sText = _readString (aDIS, aStrings, nTextTag);
+
+    // Error location
+    ILocation aLocation = null;
+    final int nErrorLocationTag = _readVarInt (aDIS);
+    if (nErrorLocationTag != TAG_NONE)
+    {
+      final String sResourceID = _readString (aDIS, aStrings, _readVarInt (aDIS));
+      final int nLine = _readVarInt (aDIS) - 1;
+      final int nColumn = _readVarInt (aDIS) - 1;
+      aLocation = new SimpleLocation (sResourceID, nLine, nColumn);
+    }
+
+    return SingleError.builder ()
+                      .errorLevel (EErrorLevel.values ()[nLevel])
+                      .errorID (sRuleID)
+                      .errorFieldName (sLocation)
+                      .errorText (sText)
+                      .errorLocation (aLocation)
+                      .build ();
+  }
+
+  /**
+   * Decode the provided bytes back into the full validation results.
+   *
+   * @param aEncoded
+   *        The bytes created by {@link #encode(ValidationResultList)}. May not be
+   *        <code>null</code>.
+   * @return The decoded validation results with the original artefacts. Never <code>null</code>.
+   * @throws IOException
+   *         if the encoding is invalid or was created with an unknown dictionary
+   */
+  @NonNull
+  public static ValidationResultList decode (final byte @NonNull [] aEncoded) throws IOException
+  {
+    final DataInputStream aDIS = _open (aEncoded);
+    final PeppolSKTDDRuleDictionary aDict = _readDictionary (aDIS);
+
+    // Layer, flags, duration and length of the bit set
+    final int nResults = _readCount (aDIS, 4);
+    final ESKTDDValidationLayer [] aLayers = new ESKTDDValidationLayer [nResults];
+    final boolean [] aIgnored = new boolean [nResults];
+    final long [] aDurations = new long [nResults];
+    for (int i = 0; i < nResults; ++i)
+    {
+      final int nLayer = _readVarInt (aDIS);
+      if (nLayer >= ESKTDDValidationLayer.values ().length)
+        throw new IOException ("Invalid layer " + nLayer);
+      aLayers[i] = ESKTDDValidationLayer.values ()[nLayer];
+      aIgnored[i] = (_readVarInt (aDIS) & FLAG_IGNORED) != 0;
+      aDurations[i] = _readVarLong (aDIS);
+      // The fired rules are derived from the errors
+      aDIS.skipNBytes (_readCount (aDIS, 1));
+    }
+
+    // Length of each string
+    final int nStrings = _readCount (aDIS, 1);
+    final ICommonsList <String> aStrings = new CommonsArrayList <> (nStrings);
+    for (int i = 0; i < nStrings; ++i)
+    {
+      final byte [] aBytes = new byte [_readCount (aDIS, 1)];
+      aDIS.readFully (aBytes);
+      aStrings.add (new String (aBytes, StandardCharsets.UTF_8));
+    }
+
+    final ValidationResultList ret = new ValidationResultList ();
+    for (int i = 0; i < nResults; ++i)
+    {
+      // Level and four tags
+      final int nErrors = _readCount (aDIS, 5);
+      final ErrorList aErrorList = new ErrorList ();
+      for (int j = 0; j < nErrors; ++j)
+        aErrorList.add (_readError (aDIS, aStrings, aDict));
+
+      final IValidationArtefact aArtefact = _getArtefact (aLayers[i]);
+      ret.add (aIgnored[i] ? ValidationResult.createIgnoredResult (aArtefact)
+                           : new ValidationResult (aArtefact, aErrorList, aDurations[i]));
+    }
+    return ret;
+  }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+
+/**
+ * Settings for the validation of Peppol SK TDD documents with
+ * {@link PeppolSKTDDValidator#validateSK_TDD_100(com.helger.io.resource.IReadableResource, PeppolSKTDDValidationSettings)}.
+ *
+ * @author Philip Helger
+ */
+@NotThreadSafe
+public class PeppolSKTDDValidationSettings
+{
+  public static final boolean DEFAULT_PARALLEL_SCHEMATRON = false;
+  public static final boolean DEFAULT_FAIL_FAST = false;
+  public static final boolean DEFAULT_NATIVE_SK_RULES = false;
+  public static final boolean DEFAULT_STREAMING_XSD = false;
+  public static final boolean DEFAULT_STREAMING_SVRL = false;
+  /**
+   * The number of threads of the default executor for the concurrent evaluation. At least one per
+   * Schematron layer.
+   */
+  public static final int DEFAULT_EXECUTOR_THREADS = Math.max (3, Runtime.getRuntime ().availableProcessors ());
+
+  /**
+   * The default executor, created on first use. The Schematron layers block their thread for the
+   * whole XSLT transformation, so a dedicated pool of daemon threads is used instead of the common
+   * fork join pool.
+   */
+  private static final class DefaultExecutorHolder
+  {
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger ();
+    private static final ExecutorService INSTANCE = Executors.newFixedThreadPool (DEFAULT_EXECUTOR_THREADS, r -> {
+      final Thread ret = new Thread (r, "peppol-sk-tdd-schematron-" + THREAD_COUNTER.incrementAndGet ());
+      ret.setDaemon (true);
+      return ret;
+    });
+  }
+
+  private boolean m_bParallelSchematron = DEFAULT_PARALLEL_SCHEMATRON;
+  private boolean m_bFailFast = DEFAULT_FAIL_FAST;
+  private boolean m_bNativeSKRules = DEFAULT_NATIVE_SK_RULES;
+  private boolean m_bStreamingXSD = DEFAULT_STREAMING_XSD;
+  private boolean m_bStreamingSVRL = DEFAULT_STREAMING_SVRL;
+  private final Set <ESKTDDValidationLayer> m_aValidationLayers = EnumSet.allOf (ESKTDDValidationLayer.class);
+  private ExecutorService m_aExecutor;
+  private PeppolSKTDDSchematronProfiler m_aProfiler;
+  private PeppolSKTDDRuleStatistics m_aRuleStatistics;
+
+  public PeppolSKTDDValidationSettings ()
+  {}
+
+  /**
+   * @return <code>true</code> if the Schematron layers are evaluated concurrently after the XSD
+   *         validation passed, <code>false</code> if all layers are evaluated one after the other.
+   */
+  public final boolean isParallelSchematron ()
+  {
+    return m_bParallelSchematron;
+  }
+
+  /**
+   * Enable or disable the concurrent evaluation of the Schematron layers. The document is parsed
+   * only once and the results are returned in the same order as with sequential validation.
+   *
+   * @param b
+   *        <code>true</code> to evaluate concurrently, <code>false</code> to evaluate sequentially.
+   * @return this for chaining
+   */
+  @NonNull
+  public final PeppolSKTDDValidationSettings parallelSchematron (final boolean b)
+  {
+    m_bParallelSchematron = b;
+    return this;
+  }
+
+  /**
+   * @return <code>true</code> if the validation stops at the first failing layer,
+   *         <code>false</code> if all layers are evaluated.
+   */
+  public final boolean isFailFast ()
+  {
+    return m_bFailFast;
+  }
+
+  /**
+   * Enable or disable fail fast validation. If enabled, the validation stops after a failed XSD
+   * validation or after a Schematron layer reported a fatal error (<code>flag="fatal"</code>). The
+   * remaining layers are not evaluated and reported as ignored. This is meant for use cases that
+   * only need to know if a document is valid and the first fatal error.
+   *
+   * @param b
+   *        <code>true</code> to stop early, <code>false</code> to evaluate all layers.
+   * @return this for chaining
+   */
+  @NonNull
+  public final PeppolSKTDDValidationSettings failFast (final boolean b)
+  {
+    m_bFailFast = b;
+    return this;
+  }
+
+  /**
+   * @return <code>true</code> if the SK specific rules are evaluated with
+   *         {@link PeppolSKTDD100NativeRules} instead of the Schematron XSLT, <code>false</code>
+   *         if the XSLT is used.
+   */
+  public final boolean isNativeSKRules ()
+  {
+    return m_bNativeSKRules;
+  }
+
+  /**
+   * Enable or disable the native evaluation of the SK specific rules. If enabled, the SK
+   * Schematron layer is evaluated with {@link PeppolSKTDD100NativeRules} directly on the JAXB
+   * model, which emits the same rule IDs, error levels and locations as the XSLT. The CEN and
+   * Peppol Schematron layers are always evaluated with XSLT.
+   *
+   * @param b
+   *        <code>true</code> to use the native rules, <code>false</code> to use the XSLT.
+   * @return this for chaining
+   */
+  @NonNull
+  public final PeppolSKTDDValidationSettings nativeSKRules (final boolean b)
+  {
+    m_bNativeSKRules = b;
+    return this;
+  }
+
+  /**
+   * @return <code>true</code> if the XSD layer is evaluated on the SAX event stream while parsing,
+   *         <code>false</code> if it is evaluated on the parsed tree.
+   */
+  public final boolean isStreamingXSD ()
+  {
+    return m_bStreamingXSD;
+  }
+
+  /**
+   * Enable or disable the streaming XSD validation. If enabled, an XML resource is validated against
+   * the XML Schema while it is parsed with {@link PeppolSKTDDStreamingXSDValidator}, and the tree
+   * for the Schematron layers is only built as long as no schema error occurred. Documents failing
+   * the XSD validation are therefore rejected without building a full tree. This only applies to
+   * the validation of XML resources, and only if the XSD layer is selected.
+   *
+   * @param b
+   *        <code>true</code> to validate the XSD while parsing, <code>false</code> to validate the
+   *        parsed tree.
+   * @return this for chaining
+   */
+  @NonNull
+  public final PeppolSKTDDValidationSettings streamingXSD (final boolean b)
+  {
+    m_bStreamingXSD = b;
+    return this;
+  }
+
+  /**
+   * @return <code>true</code> if the Schematron layers are evaluated without building SVRL
+   *         documents, <code>false</code> if the regular Schematron executors are used.
+   */
+  public final boolean isStreamingSVRL ()
+  {
+    return m_bStreamingSVRL;
+  }
+
+  /**
+   * Enable or disable the streaming SVRL processing. If enabled, the Schematron XSLTs are evaluated
+   * with {@link PeppolSKTDDStreamingSVRLValidator}, which converts the failed assertions and
+   * successful reports into errors while the XSLT output is produced, instead of building and
+   * reading an SVRL document afterwards. The errors are the same as with the regular executors. The
+   * SK layer is not affected if the native SK rules are enabled.
+   *
+   * @param b
+   *        <code>true</code> to process the XSLT output as a stream, <code>false</code> to build
+   *        SVRL documents.
+   * @return this for chaining
+   */
+  @NonNull
+  public final PeppolSKTDDValidationSettings streamingSVRL (final boolean b)
+  {
+    m_bStreamingSVRL = b;
+    return this;
+  }
+
+  /**
+   * @return A copy of all validation layers to evaluate. Never <code>null</code> nor empty.
+   */
+  @NonNull
+  @Nonempty
+  @ReturnsMutableCopy
+  public final Set <ESKTDDValidationLayer> getAllValidationLayers ()
+  {
+    return EnumSet.copyOf (m_aValidationLayers);
+  }
+
+  /**
+   * @return <code>true</code> if all validation layers are evaluated, <code>false</code> if only a
+   *         subset is evaluated.
+   */
+  public final boolean isAllValidationLayers ()
+  {
+    return m_aValidationLayers.size () == ESKTDDValidationLayer.values ().length;
+  }
+
+  /**
+   * Set the validation layers to evaluate. By default all layers are evaluated. Skipping layers
+   * makes sense, if the source of the TDD was already validated against them (e.g. the CEN and
+   * Peppol layers for a TDD derived from a valid Peppol BIS Billing invoice) or if the TDD was
+   * created with the builder (the XSD layer). The validation results are created with the validation
+   * executor set matching the selected layers, so that they remain traceable.
+   *
+   * @param aLayers
+   *        The layers to evaluate. May neither be <code>null</code> nor empty.
+   * @return this for chaining
+   * @see PeppolSKTDDValidator#getVesID(Set)
+   */
+  @NonNull
+  public final PeppolSKTDDValidationSettings validationLayers (@NonNull @Nonempty final Set <ESKTDDValidationLayer> aLayers)
+  {
+    ValueEnforcer.notEmptyNoNullValue (aLayers, "Layers");
+    m_aValidationLayers.clear ();
+    m_aValidationLayers.addAll (aLayers);
+    return this;
+  }
+
+  /**
+   * Set the validation layers to evaluate.
+   *
+   * @param aLayers
+   *        The layers to evaluate. May neither be <code>null</code> nor empty.
+   * @return this for chaining
+   * @see #validationLayers(Set)
+   */
+  @NonNull
+  public final PeppolSKTDDValidationSettings validationLayers (@NonNull @Nonempty final ESKTDDValidationLayer... aLayers)
+  {
+    ValueEnforcer.notEmptyNoNullValue (aLayers, "Layers");
+    return validationLayers (EnumSet.of (aLayers[0], aLayers));
+  }
+
+  /**
+   * @return The executor service explicitly set for the concurrent evaluation. May be
+   *         <code>null</code>.
+   * @see #getEffectiveExecutor()
+   */
+  @Nullable
+  public final ExecutorService getExecutor ()
+  {
+    return m_aExecutor;
+  }
+
+  /**
+   * @return The executor service to use for the concurrent evaluation. This is either the
+   *         explicitly set one or the shared default executor with
+   *         {@link #DEFAULT_EXECUTOR_THREADS} daemon threads. Never <code>null</code>.
+   */
+  @NonNull
+  public final ExecutorService getEffectiveExecutor ()
+  {
+    final ExecutorService ret = m_aExecutor;
+    return ret != null ? ret : DefaultExecutorHolder.INSTANCE;
+  }
+
+  /**
+   * Set the executor service to use for the concurrent evaluation. The executor is not shut down
+   * by the validator.
+   *
+   * @param a
+   *        The executor service to use. May be <code>null</code> to use the shared default
+   *        executor.
+   * @return this for chaining
+   */
+  @NonNull
+  public final PeppolSKTDDValidationSettings executor (@Nullable final ExecutorService a)
+  {
+    m_aExecutor = a;
+    return this;
+  }
+
+  /**
+   * @return The Schematron profiler to record the evaluation times with. May be <code>null</code>.
+   */
+  @Nullable
+  public final PeppolSKTDDSchematronProfiler getProfiler ()
+  {
+    return m_aProfiler;
+  }
+
+  /**
+   * Set the Schematron profiler to use. If set, each Schematron layer that was evaluated with XSLT
+   * is additionally evaluated with tracing enabled after the validation and the evaluation times
+   * per rule context and assertion are recorded in the profiler. The validation results are not
+   * affected, but the validation takes considerably longer.
+   *
+   * @param a
+   *        The profiler to use. May be <code>null</code> to disable profiling.
+   * @return this for chaining
+   */
+  @NonNull
+  public final PeppolSKTDDValidationSettings profiler (@Nullable final PeppolSKTDDSchematronProfiler a)
+  {
+    m_aProfiler = a;
+    return this;
+  }
+
+  /**
+   * @return The rule statistics to record the fired assertions in. May be <code>null</code>.
+   */
+  @Nullable
+  public final PeppolSKTDDRuleStatistics getRuleStatistics ()
+  {
+    return m_aRuleStatistics;
+  }
+
+  /**
+   * Set the rule statistics to use. If set, the fired assertions and the matched rule contexts of
+   * every validation are recorded in it. As the regular Schematron executors do not expose the
+   * fired rules, the Schematron layers are then evaluated with
+   * {@link PeppolSKTDDStreamingSVRLValidator}, which reports the same errors. The same instance can
+   * be shared by concurrent validations.
+   *
+   * @param a
+   *        The rule statistics to use. May be <code>null</code> to disable recording.
+   * @return this for chaining
+   */
+  @NonNull
+  public final PeppolSKTDDValidationSettings ruleStatistics (@Nullable final PeppolSKTDDRuleStatistics a)
+  {
+    m_aRuleStatistics = a;
+    return this;
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.w3c.dom.Node;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.location.SimpleLocation;
+import com.helger.diagnostics.error.SingleError;
+import com.helger.diagnostics.error.level.EErrorLevel;
+import com.helger.diagnostics.error.list.ErrorList;
+import com.helger.io.resource.IReadableResource;
+import com.helger.phive.xml.source.IValidationSourceXML;
+import com.helger.xml.sax.CollectingSAXErrorHandler;
+import com.helger.xml.serialize.read.DOMReader;
+import com.helger.xml.serialize.read.DOMReaderSettings;
+
+/**
+ * A validation source that parses the XML resource on first access and hands the resulting DOM
+ * to all validation executors (XSD and all Schematron layers). This avoids parsing the XML text
+ * per layer, but it does not avoid the per layer work on the tree: each hand out of the DOM to a
+ * Schematron layer still implies a conversion into the internal tree model of the XSLT engine.
+ * For instrumentation purposes the number of parse operations and the number of times the DOM was
+ * handed out to an executor are counted.<br>
+ * The errors of the single parse operation are kept. If the resource is not well-formed, there is
+ * no tree to hand out and {@link PeppolSKTDDValidator} reports the kept parse errors instead of
+ * running the executors.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public class PeppolSKTDDValidationSourceXML implements IValidationSourceXML
+{
+  private final IReadableResource m_aRes;
+  private final AtomicInteger m_aParseCount = new AtomicInteger (0);
+  private final AtomicInteger m_aTreeAccessCount = new AtomicInteger (0);
+  @GuardedBy ("this")
+  private boolean m_bParsed = false;
+  @GuardedBy ("this")
+  private Node m_aNode;
+  @GuardedBy ("this")
+  private final ErrorList m_aParseErrorList = new ErrorList ();
+
+  /**
+   * Constructor
+   *
+   * @param aRes
+   *        The XML resource to be validated. May not be <code>null</code>.
+   */
+  public PeppolSKTDDValidationSourceXML (@NonNull final IReadableResource aRes)
+  {
+    ValueEnforcer.notNull (aRes, "Resource");
+    m_aRes = aRes;
+  }
+
+  /**
+   * @return The XML resource to be validated. Never <code>null</code>.
+   */
+  @NonNull
+  public final IReadableResource getResource ()
+  {
+    return m_aRes;
+  }
+
+  @Override
+  @Nullable
+  public String getSystemID ()
+  {
+    return m_aRes.getPath ();
+  }
+
+  @Override
+  public boolean isPartialSource ()
+  {
+    return false;
+  }
+
+  /**
+   * Get the parsed tree without counting it as a hand out. Parsing happens only on the first
+   * invocation.
+   *
+   * @return The parsed tree or <code>null</code> if the resource could not be parsed.
+   */
+  @Nullable
+  final synchronized Node getParsedNode ()
+  {
+    if (!m_bParsed)
+    {
+      m_aParseCount.incrementAndGet ();
+      final CollectingSAXErrorHandler aErrorHandler = new CollectingSAXErrorHandler ();
+      m_aNode = DOMReader.readXMLDOM (m_aRes, new DOMReaderSettings ().setErrorHandler (aErrorHandler));
+      m_aParseErrorList.addAll (aErrorHandler.getErrorList ());
+      if (m_aNode == null && !m_aParseErrorList.containsAtLeastOneError ())
+      {
+        // E.g. the resource does not exist
+        m_aParseErrorList.add (SingleError.builder ()
+                                          .errorLevel (EErrorLevel.FATAL_ERROR)
+                                          .errorLocation (new SimpleLocation (getSystemID ()))
+                                          .errorText ("Failed to read the XML resource")
+                                          .build ());
+      }
+      m_bParsed = true;
+    }
+    return m_aNode;
+  }
+
+  /**
+   * @return <code>true</code> if the resource is well-formed XML. Triggers parsing if not yet done.
+   */
+  public final boolean isWellFormed ()
+  {
+    return getParsedNode () != null;
+  }
+
+  /**
+   * @return A copy of all warnings and errors reported while parsing the resource. Triggers
+   *         parsing if not yet done. Contains at least one error if the resource is not
+   *         well-formed. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public final synchronized ErrorList getParseErrorList ()
+  {
+    getParsedNode ();
+    return m_aParseErrorList.getClone ();
+  }
+
+  @Override
+  @Nullable
+  public Node getNode ()
+  {
+    m_aTreeAccessCount.incrementAndGet ();
+    return getParsedNode ();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException
+   *         if the resource is not well-formed. Use {@link #getParseErrorList()} to get the reason.
+   */
+  @Override
+  @NonNull
+  public Source getAsTransformSource ()
+  {
+    m_aTreeAccessCount.incrementAndGet ();
+    final Node aNode = getParsedNode ();
+    if (aNode == null)
+      throw new IllegalStateException ("The XML resource '" + getSystemID () + "' is not well-formed");
+    return new DOMSource (aNode, getSystemID ());
+  }
+
+  /**
+   * @return The number of times the XML resource was parsed. Is at most 1.
+   */
+  @Nonnegative
+  public final int getParseCount ()
+  {
+    return m_aParseCount.get ();
+  }
+
+  /**
+   * @return The number of times the tree was handed out to a validation executor. Accesses by
+   *         {@link PeppolSKTDDValidator} itself are not counted.
+   */
+  @Nonnegative
+  public final int getTreeAccessCount ()
+  {
+    return m_aTreeAccessCount.get ();
+  }
+}
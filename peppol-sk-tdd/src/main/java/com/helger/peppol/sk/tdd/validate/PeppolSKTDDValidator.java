@@ -16,47 +16,90 @@
  */
 package com.helger.peppol.sk.tdd.validate;
 
+import java.time.Duration;
+import java.util.EnumSet;
 import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
 
-import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.version.Version;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsOrderedMap;
+import com.helger.diagnostics.error.level.EErrorLevel;
+import com.helger.diagnostics.error.list.ErrorList;
 import com.helger.diver.api.coord.DVRCoordinate;
 import com.helger.diver.api.version.DVRVersion;
 import com.helger.io.resource.ClassPathResource;
 import com.helger.io.resource.IReadableResource;
 import com.helger.peppol.sk.tdd.jaxb.CPeppolSKTDD;
 import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
 import com.helger.phive.api.execute.ValidationExecutionManager;
+import com.helger.phive.api.executor.IValidationExecutor;
 import com.helger.phive.api.executorset.IValidationExecutorSet;
 import com.helger.phive.api.executorset.ValidationExecutorSetRegistry;
+import com.helger.phive.api.result.ValidationResult;
 import com.helger.phive.api.result.ValidationResultList;
 import com.helger.phive.api.validity.IValidityDeterminator;
 import com.helger.phive.xml.executorset.VesXmlBuilder;
+import com.helger.phive.xml.schematron.ValidationExecutorSchematron;
 import com.helger.phive.xml.schematron.ValidationExecutorSchematronBuilder;
 import com.helger.phive.xml.source.IValidationSourceXML;
 import com.helger.phive.xml.source.ValidationSourceXML;
+import com.helger.phive.xml.xsd.ValidationExecutorXSD;
+import com.helger.xml.XMLFactory;
 import com.helger.xml.namespace.MapBasedNamespaceContext;
 
+import net.sf.saxon.s9api.XdmNode;
+
 /**
  * This class contains the Schematron resources for validating Peppol SK TDD documents.
  *
  * @author Philip Helger
  */
-@Immutable
+@ThreadSafe
 public final class PeppolSKTDDValidator
 {
+  private static final Logger LOGGER = LoggerFactory.getLogger (PeppolSKTDDValidator.class);
+
   @NonNull
   private static ClassLoader _getCL ()
   {
     return CPeppolSKTDD.class.getClassLoader ();
   }
 
+  private static final String GROUP_ID = "org.peppol.taxdata";
+  private static final String ARTIFACT_ID = "sk";
+  private static final DVRVersion VERSION_100 = DVRVersion.of (new Version (1, 0, 0));
+
   // Aligned with phive-rules
-  public static final DVRCoordinate VID_TDD_SK_100 = new DVRCoordinate ("org.peppol.taxdata",
-                                                                        "sk",
-                                                                        DVRVersion.of (new Version (1, 0, 0)));
+  public static final DVRCoordinate VID_TDD_SK_100 = new DVRCoordinate (GROUP_ID, ARTIFACT_ID, VERSION_100);
+  /** Only the SK specific Schematron */
+  public static final DVRCoordinate VID_TDD_SK_100_SK_ONLY = getVesID (EnumSet.of (ESKTDDValidationLayer.SK));
+  /** The XML Schema and the SK specific Schematron */
+  public static final DVRCoordinate VID_TDD_SK_100_XSD_SK = getVesID (EnumSet.of (ESKTDDValidationLayer.XSD,
+                                                                                  ESKTDDValidationLayer.SK));
+
   private static final String PREFIX_100 = "external/schematron/2026-04-14/";
   public static final IReadableResource XSLT_CEN_TDD_100 = new ClassPathResource (PREFIX_100 + "CEN-EN16931-UBL.xslt",
                                                                                   _getCL ());
@@ -67,31 +110,321 @@ public final class PeppolSKTDDValidator
                                                                                  "Peppol-Slovak Republic-TDD.xslt",
                                                                                  _getCL ());
 
-  public static final ValidationExecutorSetRegistry <IValidationSourceXML> VES_REGISTRY = new ValidationExecutorSetRegistry <> ();
-
-  static
+  /**
+   * A registry that registers all validation executor sets before the first read access.
+   */
+  private static final class LazyVESRegistry extends ValidationExecutorSetRegistry <IValidationSourceXML>
   {
-    final MapBasedNamespaceContext aNsCtx = PeppolSKTDD100Marshaller.createNamespaceContext ();
-    VesXmlBuilder.builder ()
-                 .vesID (VID_TDD_SK_100)
-                 .displayName ("Peppol SK TDD 1.0.0")
-                 .notDeprecated ()
-                 .addXSD (PeppolSKTDD100Marshaller.getAllXSDs ())
-                 .addSchematron (ValidationExecutorSchematronBuilder.xslt2 (XSLT_CEN_TDD_100)
-                                                                    .namespaceContext (aNsCtx)
-                                                                    .build ())
-                 .addSchematron (ValidationExecutorSchematronBuilder.xslt2 (XSLT_BILLING_TDD_100)
-                                                                    .namespaceContext (aNsCtx)
-                                                                    .build ())
-                 .addSchematron (ValidationExecutorSchematronBuilder.xslt2 (XSLT_SK_TDD_100)
-                                                                    .namespaceContext (aNsCtx)
-                                                                    .build ())
-                 .registerInto (VES_REGISTRY);
+    private static void _ensureInitialized ()
+    {
+      // Registering from within initialize() must not recurse
+      if (!s_bInitialized && !Thread.holdsLock (INIT_LOCK))
+        initialize ();
+    }
+
+    @Override
+    @NonNull
+    @ReturnsMutableCopy
+    public ICommonsList <IValidationExecutorSet <IValidationSourceXML>> getAll ()
+    {
+      _ensureInitialized ();
+      return super.getAll ();
+    }
+
+    @Override
+    @Nullable
+    public IValidationExecutorSet <IValidationSourceXML> findFirst (@NonNull final Predicate <? super IValidationExecutorSet <IValidationSourceXML>> aFilter)
+    {
+      _ensureInitialized ();
+      return super.findFirst (aFilter);
+    }
+
+    @Override
+    @NonNull
+    @ReturnsMutableCopy
+    public ICommonsList <IValidationExecutorSet <IValidationSourceXML>> findAll (@NonNull final Predicate <? super IValidationExecutorSet <IValidationSourceXML>> aFilter)
+    {
+      _ensureInitialized ();
+      return super.findAll (aFilter);
+    }
+
+    @Override
+    @Nullable
+    public IValidationExecutorSet <IValidationSourceXML> getOfID (@Nullable final DVRCoordinate aID)
+    {
+      _ensureInitialized ();
+      return super.getOfID (aID);
+    }
   }
 
+  private static final Object INIT_LOCK = new Object ();
+  private static volatile boolean s_bInitialized = false;
+  // Set after all Schematron XSLTs were compiled
+  private static volatile boolean s_bWarmedUp = false;
+  @GuardedBy ("INIT_LOCK")
+  private static CompletableFuture <Void> s_aReadyFuture;
+
+  /**
+   * Contains one validation executor set for every non-empty combination of
+   * {@link ESKTDDValidationLayer}s. The one with all layers has the ID {@link #VID_TDD_SK_100}, the
+   * IDs of all others can be determined with {@link #getVesID(Set)}. The executor sets are
+   * registered on the first read access to the registry, on the first validation or by an explicit
+   * call to {@link #initialize()}, whatever comes first. So using only the constants of this class
+   * is cheap.
+   */
+  public static final ValidationExecutorSetRegistry <IValidationSourceXML> VES_REGISTRY = new LazyVESRegistry ();
+
   private PeppolSKTDDValidator ()
   {}
 
+  private static void _registerVES (@NonNull final Set <ESKTDDValidationLayer> aLayers,
+                                    @NonNull final MapBasedNamespaceContext aNsCtx)
+  {
+    final boolean bAll = aLayers.size () == ESKTDDValidationLayer.values ().length;
+    final VesXmlBuilder aBuilder = VesXmlBuilder.builder ()
+                                                .vesID (getVesID (aLayers))
+                                                .displayName ("Peppol SK TDD 1.0.0" +
+                                                              (bAll ? "" : " " + aLayers.toString ()))
+                                                .notDeprecated ();
+    if (aLayers.contains (ESKTDDValidationLayer.XSD))
+      aBuilder.addXSD (PeppolSKTDD100Marshaller.getAllXSDs ());
+    if (aLayers.contains (ESKTDDValidationLayer.CEN))
+      aBuilder.addSchematron (ValidationExecutorSchematronBuilder.xslt2 (XSLT_CEN_TDD_100)
+                                                                 .namespaceContext (aNsCtx)
+                                                                 .build ());
+    if (aLayers.contains (ESKTDDValidationLayer.PEPPOL))
+      aBuilder.addSchematron (ValidationExecutorSchematronBuilder.xslt2 (XSLT_BILLING_TDD_100)
+                                                                 .namespaceContext (aNsCtx)
+                                                                 .build ());
+    if (aLayers.contains (ESKTDDValidationLayer.SK))
+      aBuilder.addSchematron (ValidationExecutorSchematronBuilder.xslt2 (XSLT_SK_TDD_100)
+                                                                 .namespaceContext (aNsCtx)
+                                                                 .build ());
+    aBuilder.registerInto (VES_REGISTRY);
+  }
+
+  /**
+   * Register all validation executor sets into {@link #VES_REGISTRY}. This is done lazily on the
+   * first validation, so that using the constants of this class is cheap. Calling this method more
+   * than once has no effect.
+   */
+  public static void initialize ()
+  {
+    if (!s_bInitialized)
+      synchronized (INIT_LOCK)
+      {
+        if (!s_bInitialized)
+        {
+          final long nStart = System.nanoTime ();
+          final MapBasedNamespaceContext aNsCtx = PeppolSKTDD100Marshaller.createNamespaceContext ();
+          final ESKTDDValidationLayer [] aAllLayers = ESKTDDValidationLayer.values ();
+          for (int nMask = 1; nMask < (1 << aAllLayers.length); ++nMask)
+          {
+            final Set <ESKTDDValidationLayer> aLayers = EnumSet.noneOf (ESKTDDValidationLayer.class);
+            for (final ESKTDDValidationLayer eLayer : aAllLayers)
+              if ((nMask & (1 << eLayer.ordinal ())) != 0)
+                aLayers.add (eLayer);
+            _registerVES (aLayers, aNsCtx);
+          }
+          s_bInitialized = true;
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug ("Registered all validation executor sets in " +
+                          Duration.ofNanos (System.nanoTime () - nStart).toMillis () +
+                          " ms");
+        }
+      }
+  }
+
+  /**
+   * @return <code>true</code> if {@link #initialize()} was already called.
+   */
+  public static boolean isInitialized ()
+  {
+    return s_bInitialized;
+  }
+
+  /**
+   * Initialize the validator and compile all Schematron XSLTs in the background. This is meant to
+   * be called on application startup, so that the application can already do other work (e.g.
+   * create TDDs) while the validation warms up. Validations started before the returned future
+   * completed are not rejected but may need to wait for the XSLT compilation. Calling this method
+   * more than once returns the same future.
+   *
+   * @param aExecutor
+   *        The executor to run the initialization on. May not be <code>null</code>. Only used on
+   *        the first call.
+   * @return The future that completes when the validator is ready. Never <code>null</code>.
+   * @see #initialize()
+   * @see #warmUp(IReadableResource)
+   * @see #isReady()
+   */
+  @NonNull
+  public static CompletableFuture <Void> initializeAsync (@NonNull final Executor aExecutor)
+  {
+    ValueEnforcer.notNull (aExecutor, "Executor");
+    synchronized (INIT_LOCK)
+    {
+      if (s_aReadyFuture == null)
+        s_aReadyFuture = CompletableFuture.runAsync ( () -> warmUp (null), aExecutor);
+      return s_aReadyFuture;
+    }
+  }
+
+  /**
+   * Readiness probe. The validator is ready once {@link #warmUp(IReadableResource)} compiled all
+   * Schematron XSLTs, either called directly or in the background via
+   * {@link #initializeAsync(Executor)}. Registering the validation executor sets alone, e.g. with
+   * {@link #initialize()}, does not make the validator ready, because the XSLTs are still compiled
+   * on first use.
+   *
+   * @return <code>true</code> if the validator is ready, <code>false</code> if the XSLTs were not
+   *         yet compiled successfully.
+   */
+  public static boolean isReady ()
+  {
+    return s_bWarmedUp;
+  }
+
+  /**
+   * Get the ID of the validation executor set that contains exactly the provided validation
+   * layers. The IDs of all subsets differ from {@link #VID_TDD_SK_100} only in the classifier, which
+   * lists the IDs of the contained layers (e.g. <code>xsd-sk</code>), so that validation results
+   * remain traceable.
+   *
+   * @param aLayers
+   *        The layers to use. May neither be <code>null</code> nor empty.
+   * @return {@link #VID_TDD_SK_100} if all layers are contained. Never <code>null</code>.
+   */
+  @NonNull
+  public static DVRCoordinate getVesID (@NonNull @Nonempty final Set <ESKTDDValidationLayer> aLayers)
+  {
+    ValueEnforcer.notEmptyNoNullValue (aLayers, "Layers");
+    if (aLayers.size () == ESKTDDValidationLayer.values ().length)
+      return VID_TDD_SK_100;
+
+    // Always in the order of validation
+    final StringBuilder aClassifier = new StringBuilder ();
+    for (final ESKTDDValidationLayer eLayer : ESKTDDValidationLayer.values ())
+      if (aLayers.contains (eLayer))
+      {
+        if (aClassifier.length () > 0)
+          aClassifier.append ('-');
+        aClassifier.append (eLayer.getID ());
+      }
+    return new DVRCoordinate (GROUP_ID, ARTIFACT_ID, VERSION_100, aClassifier.toString ());
+  }
+
+  /**
+   * Get the validation executor set that contains exactly the provided validation layers.
+   *
+   * @param aLayers
+   *        The layers to use. May neither be <code>null</code> nor empty.
+   * @return The matching validation executor set from {@link #VES_REGISTRY}. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public static IValidationExecutorSet <IValidationSourceXML> getValidationExecutorSet (@NonNull @Nonempty final Set <ESKTDDValidationLayer> aLayers)
+  {
+    final DVRCoordinate aVesID = getVesID (aLayers);
+    initialize ();
+    return VES_REGISTRY.getOfID (aVesID);
+  }
+
+  /**
+   * Get the Schematron XSLT of the provided validation layer.
+   *
+   * @param eLayer
+   *        The layer to use. May not be <code>null</code>.
+   * @return <code>null</code> for the XSD layer.
+   */
+  @Nullable
+  static IReadableResource getSchematronXSLT (@NonNull final ESKTDDValidationLayer eLayer)
+  {
+    return switch (eLayer)
+    {
+      case CEN -> XSLT_CEN_TDD_100;
+      case PEPPOL -> XSLT_BILLING_TDD_100;
+      case SK -> XSLT_SK_TDD_100;
+      default -> null;
+    };
+  }
+
+  @Nullable
+  private static ESKTDDValidationLayer _getSchematronLayer (@NonNull final IValidationExecutor <IValidationSourceXML> aVE)
+  {
+    for (final ESKTDDValidationLayer eLayer : ESKTDDValidationLayer.values ())
+    {
+      final IReadableResource aXSLT = getSchematronXSLT (eLayer);
+      if (aXSLT != null && aXSLT.equals (aVE.getValidationArtefact ().getRuleResource ()))
+        return eLayer;
+    }
+    return null;
+  }
+
+  /**
+   * Explicitly compile all Schematron XSLTs used for validation, so that the first call to
+   * {@link #validateSK_TDD_100(IReadableResource)} does not pay the compilation cost. The compiled
+   * XSLT templates are stored in the shared ph-schematron XSLT cache, which is used by the
+   * validation executors in {@link #VES_REGISTRY} as well as by
+   * {@link PeppolSKTDDStreamingSVRLValidator}, so each XSLT is compiled exactly once. Compiled
+   * templates are thread-safe and each validation creates its own transformer, so they can be
+   * reused from any thread. Calling this method more than once is cheap, because the already
+   * compiled templates are reused. After the first successful call {@link #isReady()} returns
+   * <code>true</code>.
+   *
+   * @param aSampleTDD
+   *        An optional sample TDD that is validated after compilation to also warm up the JIT. May
+   *        be <code>null</code>.
+   * @return A map from the path of each XSLT to the time it took to compile it, in the order of
+   *         validation. Never <code>null</code>.
+   * @throws IllegalStateException
+   *         if one of the XSLTs cannot be compiled
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsOrderedMap <String, Duration> warmUp (@Nullable final IReadableResource aSampleTDD)
+  {
+    initialize ();
+
+    final ICommonsOrderedMap <String, Duration> ret = new CommonsLinkedHashMap <> ();
+    for (final IReadableResource aXSLT : new IReadableResource [] { XSLT_CEN_TDD_100,
+                                                                    XSLT_BILLING_TDD_100,
+                                                                    XSLT_SK_TDD_100 })
+    {
+      final long nStart = System.nanoTime ();
+      // Uses the shared XSLT cache
+      PeppolSKTDDSchematronXSLT.getXSLTProvider (aXSLT);
+      final Duration aDuration = Duration.ofNanos (System.nanoTime () - nStart);
+      ret.put (aXSLT.getPath (), aDuration);
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Compiled Schematron XSLT '" + aXSLT.getPath () + "' in " + aDuration.toMillis () + " ms");
+    }
+    s_bWarmedUp = true;
+
+    if (aSampleTDD != null)
+    {
+      final long nStart = System.nanoTime ();
+      validateSK_TDD_100 (aSampleTDD);
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Validated sample TDD '" +
+                      aSampleTDD.getPath () +
+                      "' in " +
+                      Duration.ofNanos (System.nanoTime () - nStart).toMillis () +
+                      " ms");
+    }
+    return ret;
+  }
+
+  @NonNull
+  private static ValidationResultList _validate (@NonNull final IValidationSourceXML aSource)
+  {
+    final IValidationExecutorSet <IValidationSourceXML> aExecutors = getValidationExecutorSet (EnumSet.allOf (ESKTDDValidationLayer.class));
+    return ValidationExecutionManager.executeValidation (IValidityDeterminator.createDefault (),
+                                                         aExecutors,
+                                                         aSource,
+                                                         Locale.US);
+  }
+
   /**
    * Validate against Schematron SK TDD v1.0.0 rules
    *
@@ -102,11 +435,441 @@ public final class PeppolSKTDDValidator
   @NonNull
   public static ValidationResultList validateSK_TDD_100 (@NonNull final IReadableResource aXmlRes)
   {
-    final IValidationExecutorSet <IValidationSourceXML> aExecutors = VES_REGISTRY.getOfID (VID_TDD_SK_100);
-    final IValidationSourceXML aSource = ValidationSourceXML.create (aXmlRes);
-    return ValidationExecutionManager.executeValidation (IValidityDeterminator.createDefault (),
-                                                         aExecutors,
-                                                         aSource,
-                                                         Locale.US);
+    return validateSK_TDD_100 (new PeppolSKTDDValidationSourceXML (aXmlRes));
+  }
+
+  /**
+   * Validate against Schematron SK TDD v1.0.0 rules. The resource of the provided source is parsed
+   * at most once and the resulting DOM is handed to all layers, where each Schematron layer still
+   * converts it into the tree model of the XSLT engine. If the resource is not well-formed, the
+   * parse errors are reported as the result of the first layer and all other layers are ignored.
+   * After the validation the source can be queried for the number of parse operations and tree
+   * hand outs.
+   *
+   * @param aSource
+   *        The source to validate. May not be <code>null</code>.
+   * @return The Validation result list. Never <code>null</code>.
+   */
+  @NonNull
+  public static ValidationResultList validateSK_TDD_100 (@NonNull final PeppolSKTDDValidationSourceXML aSource)
+  {
+    final ValidationResultList ret = aSource.isWellFormed () ? _validate (aSource)
+                                                             : _getNotWellFormedResult (aSource,
+                                                                                        EnumSet.allOf (ESKTDDValidationLayer.class),
+                                                                                        null);
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("Validation of '" +
+                    aSource.getSystemID () +
+                    "' needed " +
+                    aSource.getParseCount () +
+                    " parse operation(s) and " +
+                    aSource.getTreeAccessCount () +
+                    " tree hand out(s)");
+    return ret;
+  }
+
+  /**
+   * Validate an already parsed document against Schematron SK TDD v1.0.0 rules.
+   *
+   * @param aNode
+   *        The DOM node to validate. Usually a {@link Document}. May not be <code>null</code>.
+   * @return The Validation result list. Never <code>null</code>.
+   */
+  @NonNull
+  public static ValidationResultList validateSK_TDD_100 (@NonNull final Node aNode)
+  {
+    return _validate (ValidationSourceXML.create (null, aNode));
+  }
+
+  @NonNull
+  private static Document _getAsDocument (@NonNull final TaxDataType aTDD)
+  {
+    // XSD validation is part of the validation itself and should report errors the regular way
+    final Document ret = new PeppolSKTDD100Marshaller ().setUseSchema (false).getAsDocument (aTDD);
+    if (ret == null)
+      throw new IllegalStateException ("Failed to convert the TDD to a DOM document");
+    return ret;
+  }
+
+  /**
+   * Validate an in-memory TDD against Schematron SK TDD v1.0.0 rules. The JAXB object is marshalled
+   * directly into a DOM document, without serializing and re-parsing it.
+   *
+   * @param aTDD
+   *        The TDD to validate. May not be <code>null</code>.
+   * @return The Validation result list. Never <code>null</code>.
+   * @throws IllegalStateException
+   *         if the TDD cannot be converted to a DOM document at all
+   */
+  @NonNull
+  public static ValidationResultList validateSK_TDD_100 (@NonNull final TaxDataType aTDD)
+  {
+    return validateSK_TDD_100 (_getAsDocument (aTDD));
+  }
+
+  @NonNull
+  private static ValidationResult _getResult (@NonNull final Future <ValidationResult> aFuture)
+  {
+    try
+    {
+      return aFuture.get ();
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+      throw new IllegalStateException ("Interrupted while waiting for the validation result", ex);
+    }
+    catch (final ExecutionException ex)
+    {
+      if (ex.getCause () instanceof RuntimeException)
+        throw (RuntimeException) ex.getCause ();
+      throw new IllegalStateException ("Failed to execute validation", ex.getCause ());
+    }
+  }
+
+  private static boolean _isStopAfter (@NonNull final IValidationExecutor <IValidationSourceXML> aVE,
+                                       @NonNull final ValidationResult aResult,
+                                       final boolean bFailFast)
+  {
+    if (aVE.isStopValidationOnError () && aResult.getErrorList ().containsAtLeastOneError ())
+      return true;
+    if (bFailFast)
+    {
+      if (aVE instanceof ValidationExecutorSchematron)
+      {
+        // Only fatal Schematron assertions terminate early
+        return aResult.getErrorList ().getMostSevereErrorLevel ().isGE (EErrorLevel.FATAL_ERROR);
+      }
+      // E.g. XSD
+      return aResult.getErrorList ().containsAtLeastOneError ();
+    }
+    return false;
+  }
+
+  private static boolean _isUseSettings (@NonNull final PeppolSKTDDValidationSettings aSettings)
+  {
+    return aSettings.isParallelSchematron () ||
+           aSettings.isFailFast () ||
+           aSettings.isNativeSKRules () ||
+           aSettings.isStreamingXSD () ||
+           aSettings.isStreamingSVRL () ||
+           !aSettings.isAllValidationLayers () ||
+           aSettings.getProfiler () != null ||
+           aSettings.getRuleStatistics () != null;
+  }
+
+  private static boolean _isNativeLayer (@NonNull final IValidationExecutor <IValidationSourceXML> aVE,
+                                         final boolean bNativeSKRules)
+  {
+    return bNativeSKRules && XSLT_SK_TDD_100.equals (aVE.getValidationArtefact ().getRuleResource ());
+  }
+
+  @Nullable
+  private static ValidationResult _validateNative (@NonNull final IValidationExecutor <IValidationSourceXML> aVE,
+                                                   @Nullable final TaxDataType aTDD,
+                                                   @NonNull final Node aNode,
+                                                   @Nullable final PeppolSKTDDRuleStatistics aRuleStatistics)
+  {
+    final long nStart = System.nanoTime ();
+    // The XSD layer was already evaluated, so schema validation is not needed for reading
+    final TaxDataType aRealTDD = aTDD != null ? aTDD : new PeppolSKTDD100Marshaller ().setUseSchema (false)
+                                                                                          .read (aNode);
+    if (aRealTDD == null)
+      return null;
+    final ErrorList aErrorList = PeppolSKTDD100NativeRules.validate (aRealTDD,
+                                                                     aRuleStatistics == null ? null
+                                                                                             : x -> aRuleStatistics.onContextMatch (ESKTDDValidationLayer.SK,
+                                                                                                                                    x));
+    return new ValidationResult (aVE.getValidationArtefact (),
+                                 aErrorList,
+                                 Duration.ofNanos (System.nanoTime () - nStart).toMillis ());
+  }
+
+  /**
+   * Create a deep copy of the provided node, that can be handed to another thread.
+   */
+  @NonNull
+  private static Node _getCopy (@NonNull final Node aNode)
+  {
+    if (aNode instanceof Document)
+      return aNode.cloneNode (true);
+    final Document ret = XMLFactory.newDocument ();
+    ret.appendChild (ret.importNode (aNode, true));
+    return ret;
+  }
+
+  @NonNull
+  private static ValidationResult _applyValidation (@NonNull final IValidationExecutor <IValidationSourceXML> aVE,
+                                                    @Nullable final String sSystemID,
+                                                    @NonNull final Node aNode,
+                                                    final boolean bStreamingSVRL,
+                                                    @Nullable final PeppolSKTDDRuleStatistics aRuleStatistics)
+  {
+    if (aVE instanceof ValidationExecutorSchematron && (bStreamingSVRL || aRuleStatistics != null))
+    {
+      // The regular executors do not expose the fired rules
+      final ESKTDDValidationLayer eLayer = _getSchematronLayer (aVE);
+      final Consumer <String> aFiredRuleConsumer = aRuleStatistics == null ||
+                                                   eLayer == null ? null
+                                                                  : x -> aRuleStatistics.onContextMatch (eLayer, x);
+      return PeppolSKTDDStreamingSVRLValidator.validate (aVE.getValidationArtefact (),
+                                                         aNode,
+                                                         sSystemID,
+                                                         aFiredRuleConsumer);
+    }
+    return aVE.applyValidation (ValidationSourceXML.create (sSystemID, aNode), Locale.US);
+  }
+
+  /**
+   * Validate against Schematron SK TDD v1.0.0 rules using the provided settings. If the concurrent
+   * evaluation of the Schematron layers is enabled, the document is parsed only once, the XSD
+   * validation is performed first and afterwards the Schematron executors of the validation
+   * executor set are applied concurrently on the executor of the settings. DOM implementations are
+   * not thread-safe, not even for reading, so each concurrently evaluated layer works on its own
+   * copy of the parsed document, which is created before the layer is started. If fail fast is
+   * enabled, the validation stops after a failed XSD validation or after a Schematron layer
+   * reported a fatal error, and all remaining layers are reported as ignored. The results are
+   * returned in the same order as with sequential validation. If the native SK rules are enabled,
+   * the SK specific layer is evaluated with {@link PeppolSKTDD100NativeRules} on the JAXB model
+   * instead of the XSLT. If the streaming XSD validation is enabled, the XSD layer is evaluated
+   * while parsing with {@link PeppolSKTDDStreamingXSDValidator}, and the tree is only built for
+   * schema valid documents.
+   *
+   * @param aXmlRes
+   *        The XML resource to use. May not be <code>null</code>.
+   * @param aSettings
+   *        The validation settings to use. May not be <code>null</code>.
+   * @return The Validation result list. Never <code>null</code>.
+   */
+  @NonNull
+  public static ValidationResultList validateSK_TDD_100 (@NonNull final IReadableResource aXmlRes,
+                                                         @NonNull final PeppolSKTDDValidationSettings aSettings)
+  {
+    if (!_isUseSettings (aSettings))
+      return validateSK_TDD_100 (aXmlRes);
+
+    if (aSettings.isStreamingXSD () && aSettings.getAllValidationLayers ().contains (ESKTDDValidationLayer.XSD))
+      return _validateStreaming (aXmlRes, aSettings);
+
+    final PeppolSKTDDValidationSourceXML aSource = new PeppolSKTDDValidationSourceXML (aXmlRes);
+    final Node aNode = aSource.getParsedNode ();
+    if (aNode == null)
+      return _getNotWellFormedResult (aSource, aSettings.getAllValidationLayers (), aSettings.getRuleStatistics ());
+    return _validate (aSource.getSystemID (), aNode, null, aSettings, null);
+  }
+
+  /**
+   * Validate an already parsed document against Schematron SK TDD v1.0.0 rules using the provided
+   * settings.
+   *
+   * @param aNode
+   *        The DOM node to validate. Usually a {@link Document}. May not be <code>null</code>.
+   * @param aSettings
+   *        The validation settings to use. May not be <code>null</code>.
+   * @return The Validation result list. Never <code>null</code>.
+   * @see #validateSK_TDD_100(IReadableResource, PeppolSKTDDValidationSettings)
+   */
+  @NonNull
+  public static ValidationResultList validateSK_TDD_100 (@NonNull final Node aNode,
+                                                         @NonNull final PeppolSKTDDValidationSettings aSettings)
+  {
+    if (!_isUseSettings (aSettings))
+      return validateSK_TDD_100 (aNode);
+    return _validate (null, aNode, null, aSettings, null);
+  }
+
+  /**
+   * Validate an in-memory TDD against Schematron SK TDD v1.0.0 rules using the provided settings.
+   * The JAXB object is marshalled directly into a DOM document, without serializing and re-parsing
+   * it.
+   *
+   * @param aTDD
+   *        The TDD to validate. May not be <code>null</code>.
+   * @param aSettings
+   *        The validation settings to use. May not be <code>null</code>.
+   * @return The Validation result list. Never <code>null</code>.
+   * @throws IllegalStateException
+   *         if the TDD cannot be converted to a DOM document at all
+   * @see #validateSK_TDD_100(IReadableResource, PeppolSKTDDValidationSettings)
+   */
+  @NonNull
+  public static ValidationResultList validateSK_TDD_100 (@NonNull final TaxDataType aTDD,
+                                                         @NonNull final PeppolSKTDDValidationSettings aSettings)
+  {
+    if (!_isUseSettings (aSettings))
+      return validateSK_TDD_100 (aTDD);
+    // The native rules can work on the original object
+    return _validate (null, _getAsDocument (aTDD), aTDD, aSettings, null);
+  }
+
+  @NonNull
+  private static ValidationResultList _validateStreaming (@NonNull final IReadableResource aXmlRes,
+                                                          @NonNull final PeppolSKTDDValidationSettings aSettings)
+  {
+    final IValidationExecutorSet <IValidationSourceXML> aExecutors = getValidationExecutorSet (aSettings.getAllValidationLayers ());
+    final long nStart = System.nanoTime ();
+    final PeppolSKTDDStreamingXSDValidator.StreamingResult aStreamingResult = PeppolSKTDDStreamingXSDValidator.validate (aXmlRes);
+    final long nMillis = Duration.ofNanos (System.nanoTime () - nStart).toMillis ();
+
+    final Document aDoc = aStreamingResult.getDocument ();
+    if (aDoc != null)
+    {
+      ValidationResult aXSDResult = null;
+      for (final IValidationExecutor <IValidationSourceXML> aVE : aExecutors)
+        if (aVE instanceof ValidationExecutorXSD)
+          aXSDResult = new ValidationResult (aVE.getValidationArtefact (), aStreamingResult.getErrorList (), nMillis);
+      if (aXSDResult == null)
+        throw new IllegalStateException ("Found no XSD validation executor");
+      return _validate (aXmlRes.getPath (), aDoc, null, aSettings, aXSDResult);
+    }
+
+    // No tree was built, so all other layers are ignored. The XSD layer is always the first one.
+    return _getFirstLayerOnlyResult (aExecutors, aStreamingResult.getErrorList (), nMillis, aSettings.getRuleStatistics ());
+  }
+
+  /**
+   * Create a result list in which only the first layer was evaluated with the provided errors and
+   * all other layers are ignored.
+   */
+  @NonNull
+  private static ValidationResultList _getFirstLayerOnlyResult (@NonNull final IValidationExecutorSet <IValidationSourceXML> aExecutors,
+                                                                @NonNull final ErrorList aErrorList,
+                                                                final long nMillis,
+                                                                @Nullable final PeppolSKTDDRuleStatistics aRuleStatistics)
+  {
+    final ValidationResultList ret = new ValidationResultList ();
+    for (final IValidationExecutor <IValidationSourceXML> aVE : aExecutors)
+      ret.add (ret.isEmpty () ? new ValidationResult (aVE.getValidationArtefact (), aErrorList, nMillis)
+                              : ValidationResult.createIgnoredResult (aVE.getValidationArtefact ()));
+    if (aRuleStatistics != null)
+      aRuleStatistics.onValidationResults (ret);
+    return ret;
+  }
+
+  /**
+   * The resource of the source could not be parsed. The parse errors of the source are reported as
+   * the result of the first layer, so the resource is not parsed again.
+   */
+  @NonNull
+  private static ValidationResultList _getNotWellFormedResult (@NonNull final PeppolSKTDDValidationSourceXML aSource,
+                                                               @NonNull @Nonempty final Set <ESKTDDValidationLayer> aLayers,
+                                                               @Nullable final PeppolSKTDDRuleStatistics aRuleStatistics)
+  {
+    return _getFirstLayerOnlyResult (getValidationExecutorSet (aLayers), aSource.getParseErrorList (), 0, aRuleStatistics);
+  }
+
+  @NonNull
+  private static ValidationResultList _validate (@Nullable final String sSystemID,
+                                                 @NonNull final Node aNode,
+                                                 @Nullable final TaxDataType aTDD,
+                                                 @NonNull final PeppolSKTDDValidationSettings aSettings,
+                                                 @Nullable final ValidationResult aXSDResult)
+  {
+    final boolean bParallel = aSettings.isParallelSchematron ();
+    final boolean bFailFast = aSettings.isFailFast ();
+    final boolean bNativeSKRules = aSettings.isNativeSKRules ();
+    final boolean bStreamingSVRL = aSettings.isStreamingSVRL ();
+    final PeppolSKTDDRuleStatistics aRuleStatistics = aSettings.getRuleStatistics ();
+    final IValidationExecutorSet <IValidationSourceXML> aExecutors = getValidationExecutorSet (aSettings.getAllValidationLayers ());
+    final ExecutorService aExecutorService = bParallel ? aSettings.getEffectiveExecutor () : null;
+
+    // Only needed for profiling
+    XdmNode aTree = null;
+
+    // Start all layers in the original order
+    final ICommonsList <IValidationExecutor <IValidationSourceXML>> aVEs = new CommonsArrayList <> ();
+    final ICommonsList <Future <ValidationResult>> aFutures = new CommonsArrayList <> ();
+    boolean bStop = false;
+    for (final IValidationExecutor <IValidationSourceXML> aVE : aExecutors)
+    {
+      aVEs.add (aVE);
+      ValidationResult aNativeResult = null;
+      if (!bStop)
+        if (aXSDResult != null && aVE instanceof ValidationExecutorXSD)
+        {
+          // Already evaluated while parsing
+          aNativeResult = aXSDResult;
+        }
+        else
+          if (_isNativeLayer (aVE, bNativeSKRules))
+          {
+            // Cheap enough to be evaluated in this thread
+            aNativeResult = _validateNative (aVE, aTDD, aNode, aRuleStatistics);
+          }
+
+      if (bStop)
+        aFutures.add (null);
+      else
+        if (aNativeResult != null)
+        {
+          aFutures.add (CompletableFuture.completedFuture (aNativeResult));
+          if (_isStopAfter (aVE, aNativeResult, bFailFast))
+            bStop = true;
+        }
+        else
+          if (bParallel && aVE instanceof ValidationExecutorSchematron)
+          {
+            // The copy is made in this thread, so that no DOM is read by more than one thread
+            final Node aCopy = _getCopy (aNode);
+            aFutures.add (aExecutorService.submit ( () -> _applyValidation (aVE,
+                                                                            sSystemID,
+                                                                            aCopy,
+                                                                            bStreamingSVRL,
+                                                                            aRuleStatistics)));
+          }
+          else
+          {
+            // E.g. XSD validation - must pass before the Schematron layers are started
+            final ValidationResult aResult = _applyValidation (aVE, sSystemID, aNode, bStreamingSVRL, aRuleStatistics);
+            aFutures.add (CompletableFuture.completedFuture (aResult));
+            if (_isStopAfter (aVE, aResult, bFailFast))
+              bStop = true;
+          }
+    }
+
+    // Merge in the original order
+    final ValidationResultList ret = new ValidationResultList ();
+    bStop = false;
+    for (int i = 0; i < aVEs.size (); ++i)
+    {
+      final IValidationExecutor <IValidationSourceXML> aVE = aVEs.get (i);
+      final Future <ValidationResult> aFuture = aFutures.get (i);
+      if (bStop || aFuture == null)
+      {
+        if (aFuture != null)
+          aFuture.cancel (bFailFast);
+        ret.add (ValidationResult.createIgnoredResult (aVE.getValidationArtefact ()));
+      }
+      else
+      {
+        final ValidationResult aResult = _getResult (aFuture);
+        ret.add (aResult);
+        if (_isStopAfter (aVE, aResult, bFailFast))
+          bStop = true;
+      }
+    }
+
+    final PeppolSKTDDSchematronProfiler aProfiler = aSettings.getProfiler ();
+    if (aProfiler != null)
+    {
+      // Profile the XSLT layers that were evaluated
+      for (int i = 0; i < aVEs.size (); ++i)
+      {
+        final IValidationExecutor <IValidationSourceXML> aVE = aVEs.get (i);
+        if (aVE instanceof ValidationExecutorSchematron &&
+            !ret.get (i).isIgnored () &&
+            !_isNativeLayer (aVE, bNativeSKRules))
+        {
+          if (aTree == null)
+            aTree = PeppolSKTDDSchematronXSLT.buildTree (aNode, sSystemID);
+          aProfiler.profile (aVE.getValidationArtefact ().getRuleResource (), aTree);
+        }
+      }
+      aProfiler.onDocumentProfiled ();
+    }
+
+    if (aRuleStatistics != null)
+      aRuleStatistics.onValidationResults (ret);
+    return ret;
   }
 }
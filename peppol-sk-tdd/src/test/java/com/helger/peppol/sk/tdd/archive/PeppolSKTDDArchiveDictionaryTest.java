@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.archive;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.helger.io.resource.ClassPathResource;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+
+/**
+ * Test class for class {@link PeppolSKTDDArchiveDictionary}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDDArchiveDictionaryTest
+{
+  static List <byte []> getAllGoodSamples () throws IOException
+  {
+    final List <byte []> ret = new ArrayList <> ();
+    for (final ClassPathResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+      try (final InputStream aIS = aRes.getInputStream ())
+      {
+        ret.add (aIS.readAllBytes ());
+      }
+    return ret;
+  }
+
+  @Test
+  public void testDefault ()
+  {
+    final PeppolSKTDDArchiveDictionary aDict = PeppolSKTDDArchiveDictionary.getDefault ();
+    assertTrue (aDict.getSize () > 0);
+    assertTrue (aDict.getSize () <= PeppolSKTDDArchiveDictionary.DEFAULT_MAX_SIZE);
+    assertEquals (PeppolSKTDDArchiveDictionary.getDictionaryID (aDict.getAllBytes ()), aDict.getID ());
+  }
+
+  @Test
+  public void testShipped ()
+  {
+    final List <PeppolSKTDDArchiveDictionary> aAll = PeppolSKTDDArchiveDictionary.getAllShipped ();
+    assertFalse (aAll.isEmpty ());
+    assertSame (PeppolSKTDDArchiveDictionary.getDefault (), aAll.get (aAll.size () - 1));
+
+    // Shipped dictionaries are frozen - archives reference them by ID
+    assertEquals (6045, aAll.get (0).getSize ());
+    assertEquals (0xca12101b, aAll.get (0).getID ());
+  }
+
+  @Test
+  public void testTrain () throws IOException
+  {
+    final List <byte []> aSamples = getAllGoodSamples ();
+
+    final PeppolSKTDDArchiveDictionary aTrained = PeppolSKTDDArchiveDictionary.train (aSamples);
+    assertTrue (aTrained.getSize () <= PeppolSKTDDArchiveDictionary.DEFAULT_MAX_SIZE);
+
+    // Independent of the order
+    Collections.reverse (aSamples);
+    assertArrayEquals (aTrained.getAllBytes (), PeppolSKTDDArchiveDictionary.train (aSamples).getAllBytes ());
+
+    // Size limit is respected
+    final PeppolSKTDDArchiveDictionary aSmall = PeppolSKTDDArchiveDictionary.train (aSamples, 1024);
+    assertTrue (aSmall.getSize () <= 1024);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testTrainNoCommonContent ()
+  {
+    PeppolSKTDDArchiveDictionary.train (List.of ("<a>".getBytes (), "<b>".getBytes ()));
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.archive;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link PeppolSKTDDArchiveWriter} and {@link PeppolSKTDDArchiveReader}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDDArchiveWriterTest
+{
+  private static byte [] _write (final List <byte []> aSamples,
+                                  final PeppolSKTDDArchiveDictionary aDict) throws IOException
+  {
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    try (final PeppolSKTDDArchiveWriter aWriter = new PeppolSKTDDArchiveWriter (aBAOS,
+                                                                               aDict,
+                                                                               PeppolSKTDDArchiveWriter.DEFAULT_COMPRESSION_LEVEL))
+    {
+      int i = 0;
+      for (final byte [] aSample : aSamples)
+        aWriter.addEntry ("entry" + i++, aSample);
+      assertEquals (aSamples.size (), aWriter.getEntryCount ());
+    }
+    return aBAOS.toByteArray ();
+  }
+
+  @Test
+  public void testRoundtrip () throws IOException
+  {
+    final List <byte []> aSamples = PeppolSKTDDArchiveDictionaryTest.getAllGoodSamples ();
+    final byte [] aWithDict = _write (aSamples, PeppolSKTDDArchiveDictionary.getDefault ());
+    final byte [] aWithoutDict = _write (aSamples, null);
+    assertTrue (aWithDict.length + " vs. " + aWithoutDict.length, aWithDict.length < aWithoutDict.length);
+
+    for (final byte [] aArchive : new byte [] [] { aWithDict, aWithoutDict })
+      try (final PeppolSKTDDArchiveReader aReader = new PeppolSKTDDArchiveReader (new ByteArrayInputStream (aArchive)))
+      {
+        for (int i = 0; i < aSamples.size (); ++i)
+        {
+          final PeppolSKTDDArchiveReader.ArchiveEntry aEntry = aReader.readNextEntry ();
+          assertNotNull (aEntry);
+          assertEquals ("entry" + i, aEntry.getName ());
+          assertEquals (aArchive == aWithDict, aEntry.hasDictionaryID ());
+          assertArrayEquals (aSamples.get (i), aEntry.getData ());
+        }
+        assertNull (aReader.readNextEntry ());
+        assertNull (aReader.readNextEntry ());
+      }
+  }
+
+  @Test
+  public void testUnknownDictionary () throws IOException
+  {
+    final List <byte []> aSamples = PeppolSKTDDArchiveDictionaryTest.getAllGoodSamples ();
+    final PeppolSKTDDArchiveDictionary aCustom = PeppolSKTDDArchiveDictionary.train (aSamples, 2048);
+    final byte [] aArchive = _write (aSamples, aCustom);
+
+    try (final PeppolSKTDDArchiveReader aReader = new PeppolSKTDDArchiveReader (new ByteArrayInputStream (aArchive)))
+    {
+      aReader.readNextEntry ();
+      fail ();
+    }
+    catch (final IOException ex)
+    {
+      // expected
+    }
+
+    try (final PeppolSKTDDArchiveReader aReader = new PeppolSKTDDArchiveReader (new ByteArrayInputStream (aArchive),
+                                                                               List.of (aCustom)))
+    {
+      final PeppolSKTDDArchiveReader.ArchiveEntry aEntry = aReader.readNextEntry ();
+      assertNotNull (aEntry);
+      assertEquals (Integer.valueOf (aCustom.getID ()), aEntry.getDictionaryID ());
+      assertArrayEquals (aSamples.get (0), aEntry.getData ());
+    }
+  }
+
+  @Test
+  public void testCorrupt () throws IOException
+  {
+    final List <byte []> aSamples = PeppolSKTDDArchiveDictionaryTest.getAllGoodSamples ();
+    final byte [] aArchive = _write (aSamples.subList (0, 1), null);
+    // Modify a byte of the compressed data
+    aArchive[aArchive.length - 10] ^= 0x55;
+    try (final PeppolSKTDDArchiveReader aReader = new PeppolSKTDDArchiveReader (new ByteArrayInputStream (aArchive)))
+    {
+      aReader.readNextEntry ();
+      fail ();
+    }
+    catch (final IOException ex)
+    {
+      // expected
+    }
+  }
+
+  @Test (expected = IOException.class)
+  public void testNoArchive () throws IOException
+  {
+    try (final PeppolSKTDDArchiveReader aReader = new PeppolSKTDDArchiveReader (new ByteArrayInputStream (new byte [] { 1,
+                                                                                                                          2,
+                                                                                                                          3,
+                                                                                                                          4,
+                                                                                                                          5 })))
+    {
+      fail ();
+    }
+  }
+
+  @Test
+  public void testNoCompression () throws IOException
+  {
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    try (final PeppolSKTDDArchiveWriter aWriter = new PeppolSKTDDArchiveWriter (aBAOS, null, Deflater.NO_COMPRESSION))
+    {
+      aWriter.addEntry ("a", new byte [0]);
+    }
+    try (final PeppolSKTDDArchiveReader aReader = new PeppolSKTDDArchiveReader (new ByteArrayInputStream (aBAOS.toByteArray ())))
+    {
+      final PeppolSKTDDArchiveReader.ArchiveEntry aEntry = aReader.readNextEntry ();
+      assertNotNull (aEntry);
+      assertEquals (0, aEntry.getData ().length);
+      assertNull (aReader.readNextEntry ());
+    }
+  }
+
+  @Test
+  public void testMaxEntrySize () throws IOException
+  {
+    final List <byte []> aSamples = PeppolSKTDDArchiveDictionaryTest.getAllGoodSamples ();
+    final byte [] aArchive = _write (aSamples.subList (0, 1), PeppolSKTDDArchiveDictionary.getDefault ());
+    try (final PeppolSKTDDArchiveReader aReader = new PeppolSKTDDArchiveReader (new ByteArrayInputStream (aArchive)))
+    {
+      aReader.setMaxEntrySize (aSamples.get (0).length - 1);
+      aReader.readNextEntry ();
+      fail ();
+    }
+    catch (final IOException ex)
+    {
+      // expected
+    }
+  }
+
+  @Test
+  public void testCorruptLengths () throws IOException
+  {
+    // Entry header claiming huge lengths without data
+    for (final int [] aLengths : new int [] [] { { Integer.MAX_VALUE, Integer.MAX_VALUE },
+                                                 { 10, Integer.MAX_VALUE },
+                                                 { 1000, 100 } })
+    {
+      final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+      try (final DataOutputStream aDOS = new DataOutputStream (aBAOS))
+      {
+        aDOS.write (PeppolSKTDDArchiveWriter.MAGIC);
+        aDOS.writeByte (PeppolSKTDDArchiveWriter.FORMAT_VERSION);
+        aDOS.writeByte (PeppolSKTDDArchiveWriter.MARKER_ENTRY);
+        aDOS.writeUTF ("x");
+        aDOS.writeByte (0);
+        aDOS.writeInt (aLengths[0]);
+        aDOS.writeInt (0);
+        aDOS.writeInt (aLengths[1]);
+        aDOS.write (new byte [] { 1, 2, 3 });
+      }
+      try (final PeppolSKTDDArchiveReader aReader = new PeppolSKTDDArchiveReader (new ByteArrayInputStream (aBAOS.toByteArray ())))
+      {
+        aReader.readNextEntry ();
+        fail ();
+      }
+      catch (final IOException ex)
+      {
+        // expected
+      }
+    }
+  }
+}
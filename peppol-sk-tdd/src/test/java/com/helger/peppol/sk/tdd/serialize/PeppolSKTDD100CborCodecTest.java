@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.serialize;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.helger.io.resource.ClassPathResource;
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+
+/**
+ * Test class for class {@link PeppolSKTDD100CborCodec}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDD100CborCodecTest
+{
+  @Test
+  public void testRoundtrip ()
+  {
+    final PeppolSKTDD100Marshaller m = new PeppolSKTDD100Marshaller ();
+    for (final ClassPathResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final TaxDataType aTDD = m.read (aRes);
+      assertNotNull ("Failed to read " + aRes.getPath (), aTDD);
+
+      final byte [] aBytes = PeppolSKTDD100CborCodec.getAsBytes (aTDD);
+      assertNotNull (aRes.getPath (), aBytes);
+      final byte [] aXML = m.getAsBytes (aTDD);
+      assertNotNull (aXML);
+      assertTrue (aRes.getPath (), aBytes.length < aXML.length);
+
+      // Reading the projection and writing it again results in the same bytes
+      final TaxDataType aProjected = PeppolSKTDD100CborCodec.read (aBytes);
+      assertNotNull (aRes.getPath (), aProjected);
+      assertArrayEquals (aRes.getPath (), aBytes, PeppolSKTDD100CborCodec.getAsBytes (aProjected));
+
+      // Header fields are retained
+      assertEquals (aTDD.getUUIDValue (), aProjected.getUUIDValue ());
+      assertEquals (aTDD.getIssueDateValue (), aProjected.getIssueDateValue ());
+      assertEquals (aTDD.getIssueTimeValue (), aProjected.getIssueTimeValue ());
+      assertEquals (aTDD.getReportedTransactionCount (), aProjected.getReportedTransactionCount ());
+    }
+  }
+
+  @Test
+  public void testReadDefiniteLength ()
+  {
+    // {"uuid": "abc", "x": [1, -2, 1.5 as half float]}
+    final byte [] aBytes = { (byte) 0xa2,
+                             0x64,
+                             'u',
+                             'u',
+                             'i',
+                             'd',
+                             0x63,
+                             'a',
+                             'b',
+                             'c',
+                             0x61,
+                             'x',
+                             (byte) 0x83,
+                             0x01,
+                             0x21,
+                             (byte) 0xf9,
+                             0x3e,
+                             0x00 };
+    final TaxDataType aTDD = PeppolSKTDD100CborCodec.read (aBytes);
+    assertNotNull (aTDD);
+    assertEquals ("abc", aTDD.getUUIDValue ());
+  }
+
+  @Test
+  public void testReadInvalid ()
+  {
+    assertNull (PeppolSKTDD100CborCodec.read (new byte [0]));
+    assertNull (PeppolSKTDD100CborCodec.read (new byte [] { (byte) 0xbf }));
+    assertNull (PeppolSKTDD100CborCodec.read ("{}".getBytes (StandardCharsets.UTF_8)));
+  }
+
+  private static void _assertMalformed (final byte... aBytes)
+  {
+    assertNull (PeppolSKTDD100CborCodec.read (aBytes));
+    // The reader must report an IOException and not a runtime exception
+    final PeppolSKTDD100CborCodec.CborReader aReader = new PeppolSKTDD100CborCodec.CborReader (new ByteArrayInputStream (aBytes));
+    try
+    {
+      aReader.skipValue ();
+      fail ("Expected an IOException");
+    }
+    catch (final IOException ex)
+    {
+      // expected
+    }
+  }
+
+  @Test
+  public void testReadMalformed ()
+  {
+    // Unsigned integer with indefinite length
+    _assertMalformed ((byte) 0x1f);
+    // Negative integer with indefinite length
+    _assertMalformed ((byte) 0x3f);
+    // Half float NaN and infinity
+    _assertMalformed ((byte) 0xf9, 0x7e, 0x00);
+    _assertMalformed ((byte) 0xf9, 0x7c, 0x00);
+    // Single float NaN
+    _assertMalformed ((byte) 0xfa, 0x7f, (byte) 0xc0, 0x00, 0x00);
+    // Double infinity
+    _assertMalformed ((byte) 0xfb, 0x7f, (byte) 0xf0, 0, 0, 0, 0, 0, 0);
+    // Text with a length beyond the data, must not allocate the claimed length
+    _assertMalformed (0x7a, 0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xff, 'a');
+    // Text with a length beyond the int range
+    _assertMalformed (0x7b, 0x00, 0x00, 0x00, 0x01, 0x00, 0x00, 0x00, 0x00);
+    // Bignum with a length beyond the data
+    _assertMalformed ((byte) 0xc2, 0x5a, 0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xff);
+    // Decimal fraction with an exponent beyond the int range
+    _assertMalformed ((byte) 0xc4, (byte) 0x82, 0x1b, 0x00, 0x00, 0x00, 0x01, 0x00, 0x00, 0x00, 0x00, 0x01);
+    // Map with a count that overflows
+    _assertMalformed ((byte) 0xbb, 0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff);
+    // Truncated
+    _assertMalformed ((byte) 0xa1, 0x61);
+  }
+}
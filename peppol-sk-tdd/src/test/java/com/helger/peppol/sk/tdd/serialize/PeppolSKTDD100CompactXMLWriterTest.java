@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.serialize;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.helger.io.resource.ClassPathResource;
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+
+/**
+ * Test class for class {@link PeppolSKTDD100CompactXMLWriter}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDD100CompactXMLWriterTest
+{
+  @Test
+  public void testRoundtrip ()
+  {
+    final PeppolSKTDD100Marshaller m = new PeppolSKTDD100Marshaller ();
+    for (final ClassPathResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final TaxDataType aTDD = m.read (aRes);
+      assertNotNull ("Failed to read " + aRes.getPath (), aTDD);
+
+      final byte [] aCompact = PeppolSKTDD100CompactXMLWriter.getAsBytes (aTDD);
+      assertNotNull (aRes.getPath (), aCompact);
+
+      final String sCompact = new String (aCompact, StandardCharsets.UTF_8);
+      assertTrue (sCompact, sCompact.startsWith ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<pxs:TaxData "));
+
+      // Must be valid according to the XSD and contain the same content
+      final TaxDataType aRead = m.read (aCompact);
+      assertNotNull (sCompact, aRead);
+      assertEquals (aRes.getPath (), aTDD, aRead);
+
+      // Must not be larger than the regular output
+      final byte [] aRegular = m.getAsBytes (aTDD);
+      assertNotNull (aRegular);
+      assertTrue (aRes.getPath () + ": " + aCompact.length + " vs. " + aRegular.length,
+                  aCompact.length <= aRegular.length);
+    }
+  }
+
+  @Test
+  public void testSpecialCharacters ()
+  {
+    final PeppolSKTDD100Marshaller m = new PeppolSKTDD100Marshaller ();
+    final String sID = "a&b<c>\"d\" \u00e4\u20ac \ud83d\ude00";
+    for (final ClassPathResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final TaxDataType aTDD = m.read (aRes);
+      assertNotNull (aTDD);
+      aTDD.getReportedTransaction ().get (0).getReportedDocument ().setID (sID);
+
+      final byte [] aCompact = PeppolSKTDD100CompactXMLWriter.getAsBytes (aTDD);
+      assertNotNull (aCompact);
+      final TaxDataType aRead = m.read (aCompact);
+      assertNotNull (new String (aCompact, StandardCharsets.UTF_8), aRead);
+      assertEquals (sID, aRead.getReportedTransaction ().get (0).getReportedDocument ().getIDValue ());
+      assertEquals (aTDD, aRead);
+    }
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.serialize;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.helger.io.resource.ClassPathResource;
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PartyTaxSchemeType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PartyType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxSchemeType;
+
+/**
+ * Test class for class {@link PeppolSKTDD100JsonCodec}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDD100JsonCodecTest
+{
+  @Test
+  public void testRoundtrip ()
+  {
+    final PeppolSKTDD100Marshaller m = new PeppolSKTDD100Marshaller ();
+    for (final ClassPathResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final TaxDataType aTDD = m.read (aRes);
+      assertNotNull ("Failed to read " + aRes.getPath (), aTDD);
+
+      final byte [] aBytes = PeppolSKTDD100JsonCodec.getAsBytes (aTDD);
+      assertNotNull (aRes.getPath (), aBytes);
+      final byte [] aXML = m.getAsBytes (aTDD);
+      assertNotNull (aXML);
+      assertTrue (aRes.getPath (), aBytes.length < aXML.length);
+
+      // Reading the projection and writing it again results in the same bytes
+      final TaxDataType aProjected = PeppolSKTDD100JsonCodec.read (aBytes);
+      assertNotNull (aRes.getPath (), aProjected);
+      assertArrayEquals (aRes.getPath (), aBytes, PeppolSKTDD100JsonCodec.getAsBytes (aProjected));
+
+      // Header fields are retained
+      assertEquals (aTDD.getUUIDValue (), aProjected.getUUIDValue ());
+      assertEquals (aTDD.getIssueDateValue (), aProjected.getIssueDateValue ());
+      assertEquals (aTDD.getIssueTimeValue (), aProjected.getIssueTimeValue ());
+      assertEquals (aTDD.getReportedTransactionCount (), aProjected.getReportedTransactionCount ());
+    }
+  }
+
+  @Test
+  public void testSameAsCbor ()
+  {
+    final PeppolSKTDD100Marshaller m = new PeppolSKTDD100Marshaller ();
+    for (final ClassPathResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final TaxDataType aTDD = m.read (aRes);
+      assertNotNull (aTDD);
+
+      final TaxDataType aFromJson = PeppolSKTDD100JsonCodec.read (PeppolSKTDD100JsonCodec.getAsBytes (aTDD));
+      final TaxDataType aFromCbor = PeppolSKTDD100CborCodec.read (PeppolSKTDD100CborCodec.getAsBytes (aTDD));
+      assertNotNull (aFromJson);
+      assertEquals (aRes.getPath (), aFromJson, aFromCbor);
+    }
+  }
+
+  @Test
+  public void testReadSpecial ()
+  {
+    // Whitespace, unknown properties and null values
+    final TaxDataType aTDD = PeppolSKTDD100JsonCodec.read (("{ \"uuid\" : \"a\\u0062c\",\n" +
+                                                            "  \"unknown\": [1, {\"x\": [true, false, null]}],\n" +
+                                                            "  \"id\": null,\n" +
+                                                            "  \"issueDate\": \"2026-04-14+02:00\" }").getBytes (StandardCharsets.UTF_8));
+    assertNotNull (aTDD);
+    assertEquals ("abc", aTDD.getUUIDValue ());
+    assertNull (aTDD.getID ());
+    assertNotNull (aTDD.getIssueDateValue ());
+  }
+
+  @Test
+  public void testReadInvalid ()
+  {
+    assertNull (PeppolSKTDD100JsonCodec.read (new byte [0]));
+    assertNull (PeppolSKTDD100JsonCodec.read ("{".getBytes (StandardCharsets.UTF_8)));
+    assertNull (PeppolSKTDD100JsonCodec.read ("{\"uuid\":\"a\"}x".getBytes (StandardCharsets.UTF_8)));
+    assertNull (PeppolSKTDD100JsonCodec.read ("{\"uuid\" \"a\"}".getBytes (StandardCharsets.UTF_8)));
+    assertNull (PeppolSKTDD100JsonCodec.read ("[]".getBytes (StandardCharsets.UTF_8)));
+    assertNull (PeppolSKTDD100JsonCodec.read ("{\"uuid\":\"\\u12\"}".getBytes (StandardCharsets.UTF_8)));
+    assertNull (PeppolSKTDD100JsonCodec.read ("{\"uuid\":\"a".getBytes (StandardCharsets.UTF_8)));
+    assertNull (PeppolSKTDD100JsonCodec.read ("{\"reportedDocuments\":[{\"totals\":{\"payableAmount\":1e}}]}".getBytes (StandardCharsets.UTF_8)));
+    assertNull (PeppolSKTDD100JsonCodec.read ("{\"reportedDocuments\":[{\"totals\":{\"payableAmount\":NaN}}]}".getBytes (StandardCharsets.UTF_8)));
+    assertNull (PeppolSKTDD100JsonCodec.read ("{\"unknown\":[[[[[[[[[[[[[[[[[[[[}".getBytes (StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testIdentifierWithoutScheme ()
+  {
+    final PeppolSKTDD100Marshaller m = new PeppolSKTDD100Marshaller ();
+    final TaxDataType aTDD = m.read (PeppolSKTestFiles.getAllGoodTDD100Files ().getFirstOrNull ());
+    assertNotNull (aTDD);
+    aTDD.getReportingParty ().getEndpointID ().setSchemeID (null);
+    aTDD.getReceivingParty ().getEndpointID ().setSchemeID (null);
+    aTDD.getReceivingParty ().getEndpointID ().setValue ("a:b");
+
+    final byte [] aBytes = PeppolSKTDD100JsonCodec.getAsBytes (aTDD);
+    assertNotNull (aBytes);
+    final String sJson = new String (aBytes, StandardCharsets.UTF_8);
+    assertTrue (sJson, sJson.indexOf ("null:") < 0);
+
+    final TaxDataType aRead = PeppolSKTDD100JsonCodec.read (aBytes);
+    assertNotNull (aRead);
+    assertNull (aRead.getReportingParty ().getEndpointID ().getSchemeID ());
+    assertEquals (aTDD.getReportingParty ().getEndpointIDValue (), aRead.getReportingParty ().getEndpointIDValue ());
+    assertNull (aRead.getReceivingParty ().getEndpointID ().getSchemeID ());
+    assertEquals ("a:b", aRead.getReceivingParty ().getEndpointIDValue ());
+  }
+
+  @Test
+  public void testTaxScheme ()
+  {
+    final PeppolSKTDD100Marshaller m = new PeppolSKTDD100Marshaller ();
+    for (final ClassPathResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final TaxDataType aTDD = m.read (aRes);
+      assertNotNull (aTDD);
+      final PartyType aSeller = aTDD.getReportedTransaction ().get (0).getReportedDocument ().getAccountingSupplierParty ().getParty ();
+      if (aSeller.hasPartyTaxSchemeEntries ())
+      {
+        final PartyTaxSchemeType aPTS = aSeller.getPartyTaxSchemeAtIndex (0);
+        final TaxSchemeType aTS = aPTS.getTaxScheme ();
+
+        // The tax scheme ID is retained
+        TaxDataType aRead = PeppolSKTDD100JsonCodec.read (PeppolSKTDD100JsonCodec.getAsBytes (aTDD));
+        assertNotNull (aRead);
+        PartyTaxSchemeType aReadPTS = aRead.getReportedTransaction ()
+                                           .get (0)
+                                           .getReportedDocument ()
+                                           .getAccountingSupplierParty ()
+                                           .getParty ()
+                                           .getPartyTaxSchemeAtIndex (0);
+        assertEquals (aPTS.getCompanyIDValue (), aReadPTS.getCompanyIDValue ());
+        assertEquals (aTS == null ? null : aTS.getIDValue (),
+                      aReadPTS.getTaxScheme () == null ? null : aReadPTS.getTaxScheme ().getIDValue ());
+
+        // No tax scheme is invented
+        aPTS.setTaxScheme (null);
+        aRead = PeppolSKTDD100JsonCodec.read (PeppolSKTDD100JsonCodec.getAsBytes (aTDD));
+        assertNotNull (aRead);
+        aReadPTS = aRead.getReportedTransaction ()
+                        .get (0)
+                        .getReportedDocument ()
+                        .getAccountingSupplierParty ()
+                        .getParty ()
+                        .getPartyTaxSchemeAtIndex (0);
+        assertNull (aReadPTS.getTaxScheme ());
+      }
+    }
+  }
+}
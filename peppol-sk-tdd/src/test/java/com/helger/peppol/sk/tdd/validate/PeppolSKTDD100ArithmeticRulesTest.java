@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.diagnostics.error.IError;
+import com.helger.diagnostics.error.list.ErrorList;
+import com.helger.io.resource.IReadableResource;
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+
+/**
+ * Test class for class {@link PeppolSKTDD100ArithmeticRules}. Ensures that the native checks and
+ * the CEN Schematron XSLT report the same BR-CO rule IDs, error levels and locations.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDD100ArithmeticRulesTest
+{
+  private static boolean _isArithmeticRule (final IError aError)
+  {
+    return aError.getErrorID () != null && aError.getErrorID ().matches ("BR-CO-1[0-7]");
+  }
+
+  private static void _assertConformant (final String sName, final TaxDataType aTDD)
+  {
+    PeppolSKTDDTestHelper.assertNativeConformant (sName,
+                                                  aTDD,
+                                                  PeppolSKTDDValidator.XSLT_CEN_TDD_100,
+                                                  PeppolSKTDD100ArithmeticRules::validate,
+                                                  PeppolSKTDD100ArithmeticRulesTest::_isArithmeticRule);
+  }
+
+  @Test
+  public void testGood ()
+  {
+    final PeppolSKTDD100Marshaller aMarshaller = new PeppolSKTDD100Marshaller ();
+    for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final TaxDataType aTDD = aMarshaller.read (aRes);
+      assertNotNull (aRes.getPath (), aTDD);
+
+      final ErrorList aErrorList = PeppolSKTDD100ArithmeticRules.validate (aTDD);
+      assertTrue (aRes.getPath () + ": " + aErrorList.getAllMapped (IError::getAsStringLocaleIndepdent),
+                  aErrorList.isEmpty ());
+      _assertConformant (aRes.getPath (), aTDD);
+    }
+  }
+
+  @Test
+  public void testModified ()
+  {
+    PeppolSKTDDTestHelper.forEachModified (PeppolSKTDDTestHelper.getAllTotalsModifiers (),
+                                           PeppolSKTDD100ArithmeticRulesTest::_assertConformant);
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Locale;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.CommonsTreeSet;
+import com.helger.collection.commons.ICommonsSet;
+import com.helger.collection.commons.ICommonsSortedSet;
+import com.helger.diagnostics.error.IError;
+import com.helger.diagnostics.error.list.ErrorList;
+import com.helger.diagnostics.error.list.IErrorList;
+import com.helger.io.resource.IReadableResource;
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+import com.helger.phive.api.result.ValidationResult;
+import com.helger.phive.api.result.ValidationResultList;
+import com.helger.phive.xml.source.ValidationSourceXML;
+import com.helger.xml.serialize.read.DOMReader;
+
+/**
+ * Test class for class {@link PeppolSKTDD100NativeRules}. Ensures that the native rules and the SK
+ * Schematron XSLT report the same rule IDs, error levels and locations, and that every SK rule is
+ * violated at least once.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDD100NativeRulesTest
+{
+  /**
+   * The contexts of these rules may only contain the elements that the XSD allows anyway, so they
+   * cannot be violated in the JAXB model the native rules work on. The context of ibr-tdd-44 does not
+   * exist in UBL at all.
+   */
+  private static final ICommonsSet <String> SCHEMA_CLOSED_RULE_IDS = new CommonsHashSet <> ("ibr-tdd-12",
+                                                                                          "ibr-tdd-25",
+                                                                                          "ibr-tdd-44",
+                                                                                          "ibr-tdd-72",
+                                                                                          "ibr-tdd-74");
+
+  @NonNull
+  private static IErrorList _assertConformant (final String sName, final TaxDataType aTDD)
+  {
+    return PeppolSKTDDTestHelper.assertNativeConformant (sName,
+                                                         aTDD,
+                                                         PeppolSKTDDValidator.XSLT_SK_TDD_100,
+                                                         PeppolSKTDD100NativeRules::validate,
+                                                         x -> true);
+  }
+
+  @NonNull
+  private static ICommonsSortedSet <String> _getAllRuleIDs ()
+  {
+    final ICommonsSortedSet <String> ret = new CommonsTreeSet <> ();
+    for (final PeppolSKTDDSchematronXSLT.Assertion aAssertion : PeppolSKTDDSchematronXSLT.getMetadata (PeppolSKTDDValidator.XSLT_SK_TDD_100)
+                                                                                          .getAllAssertions ())
+      ret.add (aAssertion.getID ());
+    return ret;
+  }
+
+  @Test
+  public void testRuleCount ()
+  {
+    // Number of distinct rule contexts in the Schematron
+    assertEquals (52, PeppolSKTDD100NativeRules.getRuleCount ());
+  }
+
+  @Test
+  public void testGood ()
+  {
+    final PeppolSKTDD100Marshaller aMarshaller = new PeppolSKTDD100Marshaller ();
+    for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final TaxDataType aTDD = aMarshaller.read (aRes);
+      assertNotNull (aRes.getPath (), aTDD);
+
+      final ErrorList aErrorList = PeppolSKTDD100NativeRules.validate (aTDD);
+      assertTrue (aRes.getPath () + ": " + aErrorList.getAllMapped (IError::getAsStringLocaleIndepdent),
+                  aErrorList.isEmpty ());
+      _assertConformant (aRes.getPath (), aTDD);
+    }
+  }
+
+  @Test
+  public void testModified ()
+  {
+    final ICommonsSortedSet <String> aFiredRuleIDs = new CommonsTreeSet <> ();
+    PeppolSKTDDTestHelper.forEachModified (PeppolSKTDDTestHelper.getAllSKModifiers (), (sName, aTDD) -> {
+      for (final IError aError : _assertConformant (sName, aTDD))
+        aFiredRuleIDs.add (aError.getErrorID ());
+    });
+
+    // Every rule that can be violated in the JAXB model must have been violated
+    final ICommonsSortedSet <String> aExpectedRuleIDs = _getAllRuleIDs ();
+    aExpectedRuleIDs.removeAll (SCHEMA_CLOSED_RULE_IDS);
+    assertEquals (aExpectedRuleIDs, aFiredRuleIDs);
+  }
+
+  private static void _assertSchemaClosedRule (@NonNull final String sRuleID,
+                                               @NonNull final String sParentNamespaceURI,
+                                               @NonNull final String sParentLocalName,
+                                               @NonNull final String... aNewElementNames)
+  {
+    final Document aDoc = DOMReader.readXMLDOM (PeppolSKTestFiles.getAllGoodTDD100Files ().getFirstOrNull ());
+    assertNotNull (aDoc);
+
+    // Append the new elements nested into each other
+    Node aParent = aDoc.getElementsByTagNameNS (sParentNamespaceURI, sParentLocalName).item (0);
+    assertNotNull (sParentLocalName, aParent);
+    for (final String sNewElementName : aNewElementNames)
+    {
+      final String sNamespaceURI = sNewElementName.startsWith ("cac:") ? PeppolSKTDD100NativeRules.NS_CAC
+                                                                       : PeppolSKTDD100NativeRules.NS_CBC;
+      aParent = aParent.appendChild (aDoc.createElementNS (sNamespaceURI, sNewElementName));
+    }
+
+    final ValidationResult aResult = PeppolSKTDDTestHelper.getSchematronExecutor (PeppolSKTDDValidator.XSLT_SK_TDD_100)
+                                                          .applyValidation (ValidationSourceXML.create (null, aDoc),
+                                                                            Locale.US);
+    assertTrue (sRuleID, aResult.getErrorList ().containsAny (x -> sRuleID.equals (x.getErrorID ())));
+  }
+
+  @Test
+  public void testSchemaClosedRules ()
+  {
+    // These rules can only be violated on XML level, so only the XSLT can be checked
+    _assertSchemaClosedRule ("ibr-tdd-12", PeppolSKTDD100NativeRules.NS_PXS, "TaxAuthority", "cbc:Note");
+    _assertSchemaClosedRule ("ibr-tdd-25", PeppolSKTDD100NativeRules.NS_PXS, "ReportedDocument", "cbc:AccountingCost");
+    _assertSchemaClosedRule ("ibr-tdd-44",
+                             PeppolSKTDD100NativeRules.NS_CAC,
+                             "AccountingCustomerParty",
+                             "cac:TaxRepresentativeParty",
+                             "cac:PartyName");
+    _assertSchemaClosedRule ("ibr-tdd-72", PeppolSKTDD100NativeRules.NS_PXS, "MonetaryTotal", "cbc:Note");
+    _assertSchemaClosedRule ("ibr-tdd-74", PeppolSKTDD100NativeRules.NS_PXS, "DocumentLine", "cbc:AccountingCost");
+
+    // Together with the modifications every rule is covered
+    assertTrue (_getAllRuleIDs ().containsAll (SCHEMA_CLOSED_RULE_IDS));
+  }
+
+  @Test
+  public void testValidator ()
+  {
+    final PeppolSKTDDValidationSettings aSettings = new PeppolSKTDDValidationSettings ().nativeSKRules (true);
+    for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final ValidationResultList aVRL = PeppolSKTDDValidator.validateSK_TDD_100 (aRes, aSettings);
+      assertTrue (aVRL.getAllErrors ().getAllMapped (IError::getAsStringLocaleIndepdent).toString (),
+                  aVRL.getOverallValidity ().isValid ());
+      assertEquals (4, aVRL.size ());
+    }
+  }
+}
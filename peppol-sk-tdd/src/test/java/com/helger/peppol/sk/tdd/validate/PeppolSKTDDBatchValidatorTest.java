@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.io.resource.ClassPathResource;
+import com.helger.io.resource.IReadableResource;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+
+/**
+ * Test class for class {@link PeppolSKTDDBatchValidator}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDDBatchValidatorTest
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (PeppolSKTDDBatchValidatorTest.class);
+
+  @Test
+  public void testOrdered ()
+  {
+    final ICommonsList <ClassPathResource> aFiles = PeppolSKTestFiles.getAllGoodTDD100Files ();
+    final ExecutorService aES = Executors.newFixedThreadPool (4);
+    try
+    {
+      final PeppolSKTDDBatchValidator aBV = new PeppolSKTDDBatchValidator (aES,
+                                                                           4,
+                                                                           new PeppolSKTDDValidationSettings ());
+      final ICommonsList <Long> aIndices = new CommonsArrayList <> ();
+      final var aStats = aBV.validateAll (aFiles.iterator (), true, (nIndex, aRes, aVRL) -> {
+        assertEquals (aFiles.get ((int) nIndex), aRes);
+        assertTrue (aRes.getPath (), aVRL.getOverallValidity ().isValid ());
+        aIndices.add (Long.valueOf (nIndex));
+      });
+      assertEquals (aFiles.size (), aStats.getDocumentCount ());
+      assertEquals (0, aStats.getInvalidCount ());
+      assertEquals (4, aStats.getAverageLayerDurationMS ().size ());
+      for (int i = 0; i < aIndices.size (); ++i)
+        assertEquals (i, aIndices.get (i).intValue ());
+      LOGGER.info ("Ordered: " + aStats);
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+
+  @Test
+  public void testUnorderedBytes () throws IOException
+  {
+    final ICommonsList <byte []> aBytes = new CommonsArrayList <> ();
+    for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+      try (final InputStream aIS = aRes.getInputStream ())
+      {
+        aBytes.add (aIS.readAllBytes ());
+      }
+
+    final ExecutorService aES = Executors.newFixedThreadPool (3);
+    try
+    {
+      final PeppolSKTDDBatchValidator aBV = new PeppolSKTDDBatchValidator (aES,
+                                                                           2,
+                                                                           new PeppolSKTDDValidationSettings ().validationLayers (ESKTDDValidationLayer.XSD,
+                                                                                                                                  ESKTDDValidationLayer.SK));
+      final boolean [] aSeen = new boolean [aBytes.size ()];
+      final var aStats = aBV.validateAllBytes (aBytes.iterator (), false, (nIndex, aRes, aVRL) -> {
+        assertEquals ("batch-" + nIndex, aRes.getPath ());
+        assertTrue (aVRL.getOverallValidity ().isValid ());
+        aSeen[(int) nIndex] = true;
+      });
+      assertEquals (aBytes.size (), aStats.getDocumentCount ());
+      for (final boolean b : aSeen)
+        assertTrue (b);
+      LOGGER.info ("Unordered: " + aStats);
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+
+  @Test
+  public void testConstructor ()
+  {
+    final ExecutorService aES = Executors.newFixedThreadPool (2);
+    try
+    {
+      assertEquals (PeppolSKTDDBatchValidator.DEFAULT_MAX_IN_FLIGHT,
+                    new PeppolSKTDDBatchValidator (aES, new PeppolSKTDDValidationSettings ()).getMaxInFlight ());
+
+      // Concurrent layers on a separate pool are fine
+      new PeppolSKTDDBatchValidator (aES, new PeppolSKTDDValidationSettings ().parallelSchematron (true));
+
+      // Concurrent layers on the worker pool could deadlock
+      try
+      {
+        new PeppolSKTDDBatchValidator (aES, new PeppolSKTDDValidationSettings ().parallelSchematron (true).executor (aES));
+        fail ();
+      }
+      catch (final IllegalArgumentException ex)
+      {
+        // expected
+      }
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.diagnostics.error.list.ErrorList;
+import com.helger.diagnostics.error.list.IErrorList;
+import com.helger.io.resource.IReadableResource;
+import com.helger.peppol.sk.tdd.codelist.ESKTDDTaxDataTypeCode;
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+import com.helger.phive.api.result.ValidationResultList;
+
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.IDType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.UUIDType;
+
+/**
+ * Test class for class {@link PeppolSKTDDDifferentialValidator}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDDDifferentialValidatorTest
+{
+  private static ICommonsList <String> _getAsComparable (final IErrorList aErrorList)
+  {
+    return aErrorList.getAllMapped (x -> x.getErrorID () + " | " + x.getErrorLevel () + " | " + x.getErrorFieldName ());
+  }
+
+  @Test
+  public void testSameResultAsFullValidation ()
+  {
+    final ICommonsList <Consumer <TaxDataType>> aModifiers = new CommonsArrayList <> ();
+    aModifiers.add (x -> {});
+    aModifiers.add (x -> x.getTaxDataTypeCode ().setValue (ESKTDDTaxDataTypeCode.RESUBMIT.getID ()));
+    aModifiers.add (x -> x.setID ("unexpected"));
+    aModifiers.add (x -> x.setUUID ((UUIDType) null));
+    aModifiers.add (x -> x.getTaxAuthority ().setID ((IDType) null));
+    aModifiers.add (x -> x.getReportingParty ().getEndpointID ().setSchemeID ("ABC"));
+    aModifiers.add (x -> x.getReportedTransaction ().add (x.getReportedTransaction ().get (0).clone ()));
+    aModifiers.add (x -> x.getReportedTransaction ().get (0).getReportedDocument ().setUUID ((UUIDType) null));
+    aModifiers.add (x -> x.getReportedTransaction ().get (0).getReportedDocument ().setAccountingSupplierParty (null));
+
+    final PeppolSKTDD100Marshaller aMarshaller = new PeppolSKTDD100Marshaller ();
+    for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final TaxDataType aPrevTDD = aMarshaller.read (aRes);
+      assertNotNull (aPrevTDD);
+      // Start with an invalid document to check that errors are taken over correctly
+      aPrevTDD.setProfileID ("urn:peppol:other");
+      final ErrorList aPrevErrors = PeppolSKTDD100NativeRules.validate (aPrevTDD);
+
+      int nIndex = 0;
+      for (final Consumer <TaxDataType> aModifier : aModifiers)
+      {
+        final TaxDataType aNewTDD = aPrevTDD.clone ();
+        aModifier.accept (aNewTDD);
+
+        final AtomicInteger aFullCount = new AtomicInteger ();
+        final ErrorList aExpected = PeppolSKTDD100NativeRules.validate (aNewTDD, x -> aFullCount.incrementAndGet ());
+        final AtomicInteger aDiffCount = new AtomicInteger ();
+        final ErrorList aDiff = PeppolSKTDDDifferentialValidator.validate (aPrevTDD,
+                                                                           aPrevErrors,
+                                                                           aNewTDD,
+                                                                           x -> aDiffCount.incrementAndGet ());
+        final String sName = aRes.getPath () + " #" + nIndex;
+        assertEquals (sName, _getAsComparable (aExpected), _getAsComparable (aDiff));
+        // Structural changes of the root element require a full re-validation
+        assertTrue (sName, aDiffCount.get () <= aFullCount.get ());
+        nIndex++;
+      }
+    }
+  }
+
+  @Test
+  public void testSingleChange ()
+  {
+    final TaxDataType aPrevTDD = new PeppolSKTDD100Marshaller ().read (PeppolSKTestFiles.getAllGoodTDD100Files ()
+                                                                                        .getFirstOrNull ());
+    assertNotNull (aPrevTDD);
+    final ErrorList aPrevErrors = PeppolSKTDD100NativeRules.validate (aPrevTDD);
+
+    final TaxDataType aNewTDD = aPrevTDD.clone ();
+    aNewTDD.getTaxDataTypeCode ().setValue (ESKTDDTaxDataTypeCode.RESUBMIT.getID ());
+    final ICommonsList <String> aContexts = new CommonsArrayList <> ();
+    PeppolSKTDDDifferentialValidator.validate (aPrevTDD, aPrevErrors, aNewTDD, aContexts::add);
+    // Only the root element and the changed element itself
+    assertTrue (aContexts.toString (), aContexts.size () <= 2);
+    assertEquals ("/pxs:TaxData", aContexts.getFirstOrNull ());
+  }
+
+  @Test
+  public void testValidationResultList ()
+  {
+    final TaxDataType aPrevTDD = new PeppolSKTDD100Marshaller ().read (PeppolSKTestFiles.getAllGoodTDD100Files ()
+                                                                                        .getFirstOrNull ());
+    assertNotNull (aPrevTDD);
+    final ValidationResultList aPrevVRL = PeppolSKTDDValidator.validateSK_TDD_100 (aPrevTDD);
+
+    final TaxDataType aNewTDD = aPrevTDD.clone ();
+    aNewTDD.getTaxDataTypeCode ().setValue (ESKTDDTaxDataTypeCode.RESUBMIT.getID ());
+    final ValidationResultList aVRL = PeppolSKTDDDifferentialValidator.validateSK_TDD_100 (aPrevTDD, aPrevVRL, aNewTDD);
+    assertEquals (1, aVRL.size ());
+    assertEquals (PeppolSKTDDValidator.XSLT_SK_TDD_100, aVRL.get (0).getValidationArtefact ().getRuleResource ());
+    assertEquals (_getAsComparable (PeppolSKTDD100NativeRules.validate (aNewTDD)),
+                  _getAsComparable (aVRL.get (0).getErrorList ()));
+  }
+}
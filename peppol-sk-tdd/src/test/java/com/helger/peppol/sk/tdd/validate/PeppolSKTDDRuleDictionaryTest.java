@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.helger.io.resource.IReadableResource;
+
+/**
+ * Test class for class {@link PeppolSKTDDRuleDictionary}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDDRuleDictionaryTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final PeppolSKTDDRuleDictionary aDict = PeppolSKTDDRuleDictionary.getInstance ();
+    // Distinct rule IDs of the CEN, Peppol and SK XSLTs
+    assertEquals (936 + 100 + 87, aDict.getRuleCount ());
+    assertEquals (aDict.getRuleCount (), new HashSet <> (aDict.getAllRuleIDs ()).size ());
+
+    for (int i = 0; i < aDict.getRuleCount (); ++i)
+    {
+      final String sRuleID = aDict.getRuleID (i);
+      assertEquals (i, aDict.getIndex (sRuleID));
+      final String sText = aDict.getText (i);
+      assertTrue (sRuleID, sText == null || !sText.isEmpty ());
+    }
+    assertEquals (-1, aDict.getIndex ("unknown"));
+    assertEquals (-1, aDict.getIndex (null));
+
+    final int nIndex = aDict.getIndex ("ibr-tdd-00");
+    assertTrue (nIndex >= 0);
+    assertEquals (ESKTDDValidationLayer.SK, aDict.getLayer (nIndex));
+    assertEquals ("fatal", aDict.getFlag (nIndex));
+    assertTrue (aDict.getText (nIndex).startsWith ("[ibr-tdd-00]"));
+    assertEquals (ESKTDDValidationLayer.CEN, aDict.getLayer (aDict.getIndex ("BR-CO-10")));
+
+    // Texts with runtime values are not static
+    assertNull (aDict.getText (aDict.getIndex ("ibr-tdd-22")));
+  }
+
+  @Test
+  public void testShipped ()
+  {
+    final PeppolSKTDDRuleDictionary aLatest = PeppolSKTDDRuleDictionary.getInstance ();
+    assertFalse (PeppolSKTDDRuleDictionary.getAllShipped ().isEmpty ());
+    assertSame (aLatest, PeppolSKTDDRuleDictionary.getAllShipped ().get (PeppolSKTDDRuleDictionary.getAllShipped ().size () - 1));
+    assertEquals (PeppolSKTDDRuleDictionary.getAllShipped ().size (), aLatest.getVersion ());
+
+    for (final PeppolSKTDDRuleDictionary aDict : PeppolSKTDDRuleDictionary.getAllShipped ())
+      assertSame (aDict, PeppolSKTDDRuleDictionary.getOfFingerprint (aDict.getFingerprint ()));
+    assertNull (PeppolSKTDDRuleDictionary.getOfFingerprint (aLatest.getFingerprint () + 1));
+  }
+
+  @Test
+  public void testLatestMatchesXSLTs ()
+  {
+    // If this fails, the XSLTs were updated and a new dictionary version must be shipped
+    final PeppolSKTDDRuleDictionary aDict = PeppolSKTDDRuleDictionary.getInstance ();
+    final ESKTDDValidationLayer [] aLayers = { ESKTDDValidationLayer.CEN, ESKTDDValidationLayer.PEPPOL, ESKTDDValidationLayer.SK };
+    final IReadableResource [] aXSLTs = { PeppolSKTDDValidator.XSLT_CEN_TDD_100,
+                                          PeppolSKTDDValidator.XSLT_BILLING_TDD_100,
+                                          PeppolSKTDDValidator.XSLT_SK_TDD_100 };
+    final Set <String> aSeen = new HashSet <> ();
+    for (int i = 0; i < aXSLTs.length; ++i)
+      for (final PeppolSKTDDSchematronXSLT.Assertion aAssertion : PeppolSKTDDSchematronXSLT.getMetadata (aXSLTs[i])
+                                                                                            .getAllAssertions ())
+      {
+        final String sRuleID = aAssertion.getID ();
+        final int nIndex = aDict.getIndex (sRuleID);
+        assertTrue (sRuleID, nIndex >= 0);
+        // The first occurrence defines the entry
+        if (aSeen.add (sRuleID))
+        {
+          assertEquals (sRuleID, aLayers[i], aDict.getLayer (nIndex));
+          assertEquals (sRuleID, aAssertion.getFlag (), aDict.getFlag (nIndex));
+          assertEquals (sRuleID, aAssertion.getText (), aDict.getText (nIndex));
+        }
+      }
+    assertEquals (aDict.getRuleCount (), aSeen.size ());
+  }
+}
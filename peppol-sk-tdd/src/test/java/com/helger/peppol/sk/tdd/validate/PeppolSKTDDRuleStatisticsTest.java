@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.ICommonsOrderedMap;
+import com.helger.io.resource.IReadableResource;
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+
+/**
+ * Test class for class {@link PeppolSKTDDRuleStatistics}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDDRuleStatisticsTest
+{
+  @Test
+  public void testGood ()
+  {
+    final PeppolSKTDDRuleStatistics aStats = new PeppolSKTDDRuleStatistics ();
+    // All contexts are known upfront
+    assertTrue (aStats.getAllContextMatchCounts (ESKTDDValidationLayer.XSD).isEmpty ());
+    for (final ESKTDDValidationLayer eLayer : new ESKTDDValidationLayer [] { ESKTDDValidationLayer.CEN,
+                                                                            ESKTDDValidationLayer.PEPPOL,
+                                                                            ESKTDDValidationLayer.SK })
+      assertEquals (PeppolSKTDDSchematronXSLT.getMetadata (PeppolSKTDDValidator.getSchematronXSLT (eLayer))
+                                             .getAllFiredRuleContexts ()
+                                             .size (),
+                    aStats.getAllContextMatchCounts (eLayer).size ());
+    // The SK contexts of both evaluations are the same
+    assertEquals (PeppolSKTDD100NativeRules.getAllRuleContexts (),
+                  aStats.getAllContextMatchCounts (ESKTDDValidationLayer.SK).keySet ());
+
+    final PeppolSKTDDValidationSettings aSettings = new PeppolSKTDDValidationSettings ().ruleStatistics (aStats);
+    for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+      PeppolSKTDDValidator.validateSK_TDD_100 (aRes, aSettings);
+
+    final int nCount = PeppolSKTestFiles.getAllGoodTDD100Files ().size ();
+    assertEquals (nCount, aStats.getValidationCount ());
+    assertTrue (aStats.getAllAssertionStatistics ().isEmpty ());
+    for (final ESKTDDValidationLayer eLayer : new ESKTDDValidationLayer [] { ESKTDDValidationLayer.CEN,
+                                                                            ESKTDDValidationLayer.PEPPOL,
+                                                                            ESKTDDValidationLayer.SK })
+    {
+      final ICommonsOrderedMap <String, Long> aMatches = aStats.getAllContextMatchCounts (eLayer);
+      assertTrue (eLayer.getID (), aMatches.getFirstValue ().longValue () > 0);
+      // Most frequently matched first
+      assertTrue (aMatches.getFirstValue ().longValue () >= aMatches.getLastValue ().longValue ());
+    }
+    final ICommonsOrderedMap <String, Long> aXSLTMatches = aStats.getAllContextMatchCounts (ESKTDDValidationLayer.SK);
+    assertEquals (nCount, aXSLTMatches.get ("/pxs:TaxData").longValue ());
+    assertTrue (aStats.getDump ().contains ("CEN rule context matches"));
+
+    // The native SK rules match the same contexts as the XSLT
+    aStats.reset ();
+    assertEquals (0, aStats.getValidationCount ());
+    assertEquals (0, aStats.getAllContextMatchCounts (ESKTDDValidationLayer.SK).get ("/pxs:TaxData").longValue ());
+    final PeppolSKTDDValidationSettings aNativeSettings = new PeppolSKTDDValidationSettings ().nativeSKRules (true)
+                                                                                              .ruleStatistics (aStats);
+    for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+      PeppolSKTDDValidator.validateSK_TDD_100 (aRes, aNativeSettings);
+    assertEquals (aXSLTMatches, aStats.getAllContextMatchCounts (ESKTDDValidationLayer.SK));
+  }
+
+  @Test
+  public void testNormalizedContext ()
+  {
+    assertEquals ("/pxs:TaxData/pxs:TaxAuthority",
+                  PeppolSKTDDRuleStatistics.getNormalizedContext (ESKTDDValidationLayer.SK, "pxs:TaxData/pxs:TaxAuthority"));
+    assertEquals ("/pxs:TaxData",
+                  PeppolSKTDDRuleStatistics.getNormalizedContext (ESKTDDValidationLayer.SK, "/pxs:TaxData"));
+    // Relative contexts of the other layers are kept
+    assertEquals ("cac:TaxTotal",
+                  PeppolSKTDDRuleStatistics.getNormalizedContext (ESKTDDValidationLayer.CEN, "cac:TaxTotal"));
+  }
+
+  @Test
+  public void testFired ()
+  {
+    final PeppolSKTDDRuleStatistics aStats = new PeppolSKTDDRuleStatistics ();
+    final PeppolSKTDDValidationSettings aSettings = new PeppolSKTDDValidationSettings ().validationLayers (ESKTDDValidationLayer.SK)
+                                                                                        .ruleStatistics (aStats);
+    final TaxDataType aTDD = new PeppolSKTDD100Marshaller ().read (PeppolSKTestFiles.getAllGoodTDD100Files ()
+                                                                                    .getFirstOrNull ());
+    assertNotNull (aTDD);
+    aTDD.setID ("unexpected");
+    PeppolSKTDDValidator.validateSK_TDD_100 (aTDD, aSettings);
+    PeppolSKTDDValidator.validateSK_TDD_100 (aTDD, aSettings);
+
+    assertEquals (2, aStats.getValidationCount ());
+    assertFalse (aStats.getAllAssertionStatistics ().isEmpty ());
+    final PeppolSKTDDRuleStatistics.AssertionStatistics aFirst = aStats.getAllAssertionStatistics ().getFirstOrNull ();
+    assertEquals (2, aFirst.getTotalCount ());
+    assertTrue (aStats.getDump ().contains (aFirst.getID ()));
+  }
+
+  @Test
+  public void testScheduleDump () throws Exception
+  {
+    final PeppolSKTDDRuleStatistics aStats = new PeppolSKTDDRuleStatistics ();
+    final ScheduledExecutorService aScheduler = Executors.newSingleThreadScheduledExecutor ();
+    try
+    {
+      final CountDownLatch aLatch = new CountDownLatch (2);
+      final ScheduledFuture <?> aFuture = aStats.scheduleDump (aScheduler, Duration.ofMillis (10), x -> aLatch.countDown ());
+      assertTrue (aLatch.await (10, TimeUnit.SECONDS));
+      aFuture.cancel (false);
+    }
+    finally
+    {
+      aScheduler.shutdownNow ();
+    }
+  }
+}
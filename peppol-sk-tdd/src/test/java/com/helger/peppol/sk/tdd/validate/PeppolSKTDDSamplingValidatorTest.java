@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+import com.helger.phive.api.result.ValidationResultList;
+
+/**
+ * Test class for class {@link PeppolSKTDDSamplingValidator}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDDSamplingValidatorTest
+{
+  // As authenticated by the caller
+  private static final String PRODUCER_ID = "authenticated-producer";
+
+  @NonNull
+  private static TaxDataType _read ()
+  {
+    final TaxDataType ret = new PeppolSKTDD100Marshaller ().read (PeppolSKTestFiles.getAllGoodTDD100Files ()
+                                                                                   .getFirstOrNull ());
+    assertNotNull (ret);
+    return ret;
+  }
+
+  @Test
+  public void testSampling ()
+  {
+    final PeppolSKTDDSamplingValidator aValidator = new PeppolSKTDDSamplingValidator (new PeppolSKTDDSamplingPolicy (0,
+                                                                                                                      2),
+                                                                                      new PeppolSKTDDValidationSettings ());
+    final TaxDataType aTDD = _read ();
+    for (int i = 0; i < 5; ++i)
+    {
+      final ValidationResultList aVRL = aValidator.validate (PRODUCER_ID, aTDD);
+      assertTrue (aVRL.getOverallValidity ().isValid ());
+      // Full validation for the first 2 documents only
+      assertEquals (i < 2 ? ESKTDDValidationLayer.values ().length : 1, aVRL.size ());
+    }
+    assertEquals (2, aValidator.getForcedCount ());
+    assertEquals (0, aValidator.getSampledCount ());
+    assertEquals (3, aValidator.getSkippedCount ());
+
+    // A failure enforces full validation until a full validation passes
+    final TaxDataType aBadTDD = _read ();
+    aBadTDD.setID ("unexpected");
+    // Detected by the lightweight validation
+    assertFalse (aValidator.validate (PRODUCER_ID, aBadTDD).getOverallValidity ().isValid ());
+    assertEquals (4, aValidator.getSkippedCount ());
+    assertEquals (1, aValidator.getFailureCount ());
+    assertEquals (ESKTDDValidationLayer.values ().length, aValidator.validate (PRODUCER_ID, aTDD).size ());
+    assertEquals (3, aValidator.getForcedCount ());
+    final ValidationResultList aVRL = aValidator.validate (PRODUCER_ID, aTDD);
+    assertEquals (1, aVRL.size ());
+    // Traceable via the SK layer
+    assertEquals (PeppolSKTDDValidator.XSLT_SK_TDD_100, aVRL.get (0).getValidationArtefact ().getRuleResource ());
+  }
+
+  @Test
+  public void testPolicyPerProducer ()
+  {
+    final TaxDataType aTDD = _read ();
+    final PeppolSKTDDSamplingValidator aValidator = new PeppolSKTDDSamplingValidator (new PeppolSKTDDSamplingPolicy (0,
+                                                                                                                      0),
+                                                                                      new PeppolSKTDDValidationSettings ());
+    aValidator.policy (PRODUCER_ID, PeppolSKTDDSamplingPolicy.ALWAYS_FULL);
+    assertEquals (ESKTDDValidationLayer.values ().length, aValidator.validate (PRODUCER_ID, aTDD).size ());
+    assertEquals (1, aValidator.getSampledCount ());
+
+    // The endpoint ID in the document does not select the policy
+    final String sClaimedID = PeppolSKTDDSamplingValidator.getProducerID (aTDD);
+    assertFalse (sClaimedID.isEmpty ());
+    aValidator.policy (sClaimedID, PeppolSKTDDSamplingPolicy.ALWAYS_FULL);
+    aValidator.policy (PRODUCER_ID, null);
+    assertEquals (1, aValidator.validate (PRODUCER_ID, aTDD).size ());
+    assertEquals (1, aValidator.getSkippedCount ());
+  }
+
+  @Test
+  public void testProducerID ()
+  {
+    final TaxDataType aTDD = _read ();
+    final String sValue = aTDD.getReportingParty ().getEndpointID ().getValue ();
+    assertEquals (aTDD.getReportingParty ().getEndpointID ().getSchemeID () + ":" + sValue,
+                  PeppolSKTDDSamplingValidator.getProducerID (aTDD));
+
+    // No "null:" prefix without a scheme
+    aTDD.getReportingParty ().getEndpointID ().setSchemeID (null);
+    assertEquals (sValue, PeppolSKTDDSamplingValidator.getProducerID (aTDD));
+
+    aTDD.getReportingParty ().setEndpointID (null);
+    assertEquals ("", PeppolSKTDDSamplingValidator.getProducerID (aTDD));
+  }
+
+  @Test
+  public void testMaxProducers ()
+  {
+    final PeppolSKTDDSamplingValidator aValidator = new PeppolSKTDDSamplingValidator (new PeppolSKTDDSamplingPolicy (0,
+                                                                                                                      1),
+                                                                                      new PeppolSKTDDValidationSettings (),
+                                                                                      2);
+    assertEquals (2, aValidator.getMaxProducers ());
+    final TaxDataType aTDD = _read ();
+    for (int i = 0; i < 5; ++i)
+    {
+      assertEquals (ESKTDDValidationLayer.values ().length, aValidator.validate ("producer" + i, aTDD).size ());
+      assertTrue (aValidator.getProducerCount () <= 2);
+    }
+    assertEquals (2, aValidator.getProducerCount ());
+
+    // The first producer was forgotten and starts over
+    assertEquals (ESKTDDValidationLayer.values ().length, aValidator.validate ("producer0", aTDD).size ());
+    // The most recent producer is still known
+    assertEquals (1, aValidator.validate ("producer4", aTDD).size ());
+    assertEquals (6, aValidator.getForcedCount ());
+    assertEquals (1, aValidator.getSkippedCount ());
+  }
+}
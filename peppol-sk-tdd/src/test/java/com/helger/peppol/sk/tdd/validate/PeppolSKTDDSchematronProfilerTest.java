@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.io.resource.IReadableResource;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.phive.api.result.ValidationResultList;
+
+/**
+ * Test class for class {@link PeppolSKTDDSchematronProfiler}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDDSchematronProfilerTest
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (PeppolSKTDDSchematronProfilerTest.class);
+
+  @Test
+  public void testProfile ()
+  {
+    final PeppolSKTDDSchematronProfiler aProfiler = new PeppolSKTDDSchematronProfiler ();
+    final PeppolSKTDDValidationSettings aSettings = new PeppolSKTDDValidationSettings ().profiler (aProfiler);
+    for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      // Profiling must not change the results
+      final ValidationResultList aVRL = PeppolSKTDDValidator.validateSK_TDD_100 (aRes, aSettings);
+      assertTrue (aRes.getPath (), aVRL.getOverallValidity ().isValid ());
+    }
+    assertEquals (PeppolSKTestFiles.getAllGoodTDD100Files ().size (), aProfiler.getDocumentCount ());
+    assertFalse (aProfiler.getAllContextEntries ().isEmpty ());
+    assertFalse (aProfiler.getAllAssertionEntries ().isEmpty ());
+    assertTrue (aProfiler.getAllAssertionEntries ().containsAny (x -> "ibr-tdd-01".equals (x.getKey ())));
+
+    final String sReport = aProfiler.getReport (10);
+    LOGGER.info (sReport);
+    assertTrue (sReport.contains ("Top assertions"));
+
+    aProfiler.reset ();
+    assertEquals (0, aProfiler.getDocumentCount ());
+    assertTrue (aProfiler.getAllContextEntries ().isEmpty ());
+  }
+
+  @Test
+  public void testNativeLayerNotProfiled ()
+  {
+    final PeppolSKTDDSchematronProfiler aProfiler = new PeppolSKTDDSchematronProfiler ();
+    PeppolSKTDDValidator.validateSK_TDD_100 (PeppolSKTestFiles.getAllGoodTDD100Files ().getFirstOrNull (),
+                                             new PeppolSKTDDValidationSettings ().validationLayers (ESKTDDValidationLayer.SK)
+                                                                                 .nativeSKRules (true)
+                                                                                 .profiler (aProfiler));
+    assertEquals (1, aProfiler.getDocumentCount ());
+    assertTrue (aProfiler.getAllAssertionEntries ().isEmpty ());
+  }
+}
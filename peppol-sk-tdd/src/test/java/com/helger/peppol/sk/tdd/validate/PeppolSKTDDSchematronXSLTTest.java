@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.ICommonsList;
+import com.helger.schematron.xslt.SchematronProviderXSLTPrebuild;
+import com.helger.schematron.xslt.SchematronResourceXSLT;
+
+/**
+ * Test class for class {@link PeppolSKTDDSchematronXSLT}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDDSchematronXSLTTest
+{
+  @Test
+  public void testMetadata ()
+  {
+    final PeppolSKTDDSchematronXSLT.Metadata aMetadata = PeppolSKTDDSchematronXSLT.getMetadata (PeppolSKTDDValidator.XSLT_SK_TDD_100);
+    assertSame (aMetadata, PeppolSKTDDSchematronXSLT.getMetadata (PeppolSKTDDValidator.XSLT_SK_TDD_100));
+    assertTrue (aMetadata.getAllContexts ().containsValue ("/pxs:TaxData"));
+    // One fired rule per rule context
+    assertEquals (aMetadata.getAllContexts ().size (), aMetadata.getAllFiredRuleContexts ().size ());
+    assertTrue (aMetadata.getAllFiredRuleContexts ().contains ("pxs:TaxData/pxs:TaxAuthority"));
+
+    final ICommonsList <PeppolSKTDDSchematronXSLT.Assertion> aAssertions = aMetadata.getAllAssertions ();
+    final PeppolSKTDDSchematronXSLT.Assertion aFirst = aAssertions.findFirst (x -> "ibr-tdd-01".equals (x.getID ()));
+    assertNotNull (aFirst);
+    assertEquals ("fatal", aFirst.getFlag ());
+    assertEquals ("[ibr-tdd-01] – The cbc:CustomizationID (TDT-001) element MUST have the value 'urn:peppol:taxdata:sk-1'.",
+                  aFirst.getText ());
+    assertTrue (aFirst.getLine () > 0);
+
+    // Contains a runtime value
+    final PeppolSKTDDSchematronXSLT.Assertion aDynamic = aAssertions.findFirst (x -> "ibr-tdd-22".equals (x.getID ()));
+    assertNotNull (aDynamic);
+    assertNull (aDynamic.getText ());
+  }
+
+  @Test
+  public void testXSLTProvider ()
+  {
+    final SchematronProviderXSLTPrebuild aProvider = PeppolSKTDDSchematronXSLT.getXSLTProvider (PeppolSKTDDValidator.XSLT_SK_TDD_100);
+    assertSame (aProvider, PeppolSKTDDSchematronXSLT.getXSLTProvider (PeppolSKTDDValidator.XSLT_SK_TDD_100));
+    // The same compiled XSLT as used by the Schematron validation executors
+    assertSame (aProvider, new SchematronResourceXSLT (PeppolSKTDDValidator.XSLT_SK_TDD_100).getXSLTProvider ());
+    assertTrue (PeppolSKTDDSchematronXSLT.getCachedProviderCount () >= 1);
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.diagnostics.error.IError;
+import com.helger.diagnostics.error.level.EErrorLevel;
+import com.helger.io.resource.IReadableResource;
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+import com.helger.phive.api.executor.IValidationExecutor;
+import com.helger.phive.api.result.ValidationResult;
+import com.helger.phive.api.result.ValidationResultList;
+import com.helger.phive.xml.schematron.ValidationExecutorSchematron;
+import com.helger.phive.xml.source.IValidationSourceXML;
+import com.helger.phive.xml.source.ValidationSourceXML;
+
+import net.sf.saxon.s9api.XdmNode;
+
+/**
+ * Test class for class {@link PeppolSKTDDStreamingSVRLValidator}. Ensures that the streaming
+ * evaluation reports the same errors as the regular Schematron executors.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDDStreamingSVRLValidatorTest
+{
+  private static void _assertConformant (final String sName, final Document aDoc)
+  {
+    final XdmNode aTree = PeppolSKTDDSchematronXSLT.buildTree (aDoc, sName);
+    for (final IValidationExecutor <IValidationSourceXML> aVE : PeppolSKTDDValidator.getValidationExecutorSet (EnumSet.allOf (ESKTDDValidationLayer.class)))
+      if (aVE instanceof ValidationExecutorSchematron)
+      {
+        final ValidationResult aExpected = aVE.applyValidation (ValidationSourceXML.create (sName, aDoc), Locale.US);
+        final ValidationResult aStreaming = PeppolSKTDDStreamingSVRLValidator.validate (aVE.getValidationArtefact (),
+                                                                                          aDoc,
+                                                                                          sName);
+        final ValidationResult aTreeResult = PeppolSKTDDStreamingSVRLValidator.validate (aVE.getValidationArtefact (),
+                                                                                           aTree,
+                                                                                           sName);
+        assertSame (aVE.getValidationArtefact (), aStreaming.getValidationArtefact ());
+        final ICommonsList <String> aExpectedErrors = PeppolSKTDDTestHelper.getAsDetailedComparable (aExpected.getErrorList ());
+        assertEquals (sName + " " + aVE.getValidationArtefact ().getRuleResource ().getPath (),
+                      aExpectedErrors,
+                      PeppolSKTDDTestHelper.getAsDetailedComparable (aStreaming.getErrorList ()));
+        // Same result on the shared tree
+        assertEquals (aExpectedErrors, PeppolSKTDDTestHelper.getAsDetailedComparable (aTreeResult.getErrorList ()));
+      }
+  }
+
+  @Test
+  public void testErrorLevel ()
+  {
+    assertEquals (EErrorLevel.FATAL_ERROR, PeppolSKTDDStreamingSVRLValidator.getErrorLevel ("fatal"));
+    assertEquals (EErrorLevel.WARN, PeppolSKTDDStreamingSVRLValidator.getErrorLevel ("warning"));
+    assertEquals (EErrorLevel.INFO, PeppolSKTDDStreamingSVRLValidator.getErrorLevel ("information"));
+    assertEquals (EErrorLevel.ERROR, PeppolSKTDDStreamingSVRLValidator.getErrorLevel ("error"));
+    assertEquals (EErrorLevel.ERROR, PeppolSKTDDStreamingSVRLValidator.getErrorLevel (null));
+  }
+
+  @Test
+  public void testGood ()
+  {
+    final PeppolSKTDD100Marshaller aMarshaller = new PeppolSKTDD100Marshaller ();
+    for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final Document aDoc = aMarshaller.getAsDocument (aMarshaller.read (aRes));
+      assertNotNull (aRes.getPath (), aDoc);
+      _assertConformant (aRes.getPath (), aDoc);
+    }
+    assertEquals (3, PeppolSKTDDStreamingSVRLValidator.getCachedXSLTCount ());
+  }
+
+  @Test
+  public void testModified ()
+  {
+    final ICommonsList <Consumer <TaxDataType>> aModifiers = new CommonsArrayList <> ();
+    aModifiers.add (x -> PeppolSKTDDTestHelper.rd (x).setID ("unexpected"));
+    aModifiers.add (x -> PeppolSKTDDTestHelper.mt (x)
+                                              .getPayableAmount ()
+                                              .setValue (PeppolSKTDDTestHelper.mt (x).getPayableAmountValue ().add (BigDecimal.ONE)));
+    aModifiers.add (x -> PeppolSKTDDTestHelper.mt (x).setPrepaidAmount (BigDecimal.TEN));
+    aModifiers.add (x -> PeppolSKTDDTestHelper.rd (x).setDocumentCurrencyCode ((String) null));
+
+    PeppolSKTDDTestHelper.forEachModified (aModifiers, (sName, aTDD) -> {
+      // Schema validation is disabled so that invalid modifications can be serialized as well
+      final Document aDoc = new PeppolSKTDD100Marshaller ().setUseSchema (false).getAsDocument (aTDD);
+      assertNotNull (aDoc);
+      _assertConformant (sName, aDoc);
+    });
+  }
+
+  @Test
+  public void testValidator ()
+  {
+    final PeppolSKTDDValidationSettings aSettings = new PeppolSKTDDValidationSettings ().streamingSVRL (true);
+    final PeppolSKTDDValidationSettings aParallelSettings = new PeppolSKTDDValidationSettings ().streamingSVRL (true)
+                                                                                               .parallelSchematron (true);
+    for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final ValidationResultList aVRL = PeppolSKTDDValidator.validateSK_TDD_100 (aRes, aSettings);
+      assertTrue (aVRL.getAllErrors ().getAllMapped (IError::getAsStringLocaleIndepdent).toString (),
+                  aVRL.getOverallValidity ().isValid ());
+      assertEquals (ESKTDDValidationLayer.values ().length, aVRL.size ());
+      assertTrue (aVRL.stream ().noneMatch (x -> x.isIgnored ()));
+
+      final ValidationResultList aParallelVRL = PeppolSKTDDValidator.validateSK_TDD_100 (aRes, aParallelSettings);
+      assertTrue (aParallelVRL.getOverallValidity ().isValid ());
+      assertEquals (ESKTDDValidationLayer.values ().length, aParallelVRL.size ());
+    }
+  }
+}
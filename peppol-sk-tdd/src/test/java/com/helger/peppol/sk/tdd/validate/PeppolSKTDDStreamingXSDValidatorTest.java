@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.helger.diagnostics.error.IError;
+import com.helger.io.resource.IReadableResource;
+import com.helger.io.resource.inmemory.ReadableResourceString;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.phive.api.result.ValidationResultList;
+
+/**
+ * Test class for class {@link PeppolSKTDDStreamingXSDValidator}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDDStreamingXSDValidatorTest
+{
+  @Test
+  public void testGood ()
+  {
+    for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final PeppolSKTDDStreamingXSDValidator.StreamingResult aResult = PeppolSKTDDStreamingXSDValidator.validate (aRes);
+      assertTrue (aRes.getPath () + ": " + aResult.getErrorList ().getAllMapped (IError::getAsStringLocaleIndepdent),
+                  aResult.isValid ());
+      assertNotNull (aResult.getDocument ());
+      assertEquals ("TaxData", aResult.getDocument ().getDocumentElement ().getLocalName ());
+    }
+  }
+
+  @Test
+  public void testSchemaInvalid () throws IOException
+  {
+    final IReadableResource aRes = PeppolSKTestFiles.getAllGoodTDD100Files ().getFirstOrNull ();
+    final String sXML;
+    try (final InputStream aIS = aRes.getInputStream ())
+    {
+      sXML = new String (aIS.readAllBytes (), StandardCharsets.UTF_8);
+    }
+    // Insert an unknown element directly after the root start tag
+    final int nIdx = sXML.indexOf ('>', sXML.indexOf ("TaxData")) + 1;
+    final String sBad = sXML.substring (0, nIdx) + "<Unknown/>" + sXML.substring (nIdx);
+
+    final PeppolSKTDDStreamingXSDValidator.StreamingResult aResult = PeppolSKTDDStreamingXSDValidator.validate (new ReadableResourceString (sBad,
+                                                                                                                                         StandardCharsets.UTF_8));
+    assertFalse (aResult.isValid ());
+    assertNull (aResult.getDocument ());
+    assertTrue (aResult.getErrorList ().containsAtLeastOneError ());
+  }
+
+  @Test
+  public void testNotWellFormed ()
+  {
+    final PeppolSKTDDStreamingXSDValidator.StreamingResult aResult = PeppolSKTDDStreamingXSDValidator.validate (new ReadableResourceString ("<TaxData>",
+                                                                                                                                         StandardCharsets.UTF_8));
+    assertFalse (aResult.isValid ());
+    assertTrue (aResult.getErrorList ().containsAtLeastOneError ());
+  }
+
+  @Test
+  public void testValidator ()
+  {
+    final PeppolSKTDDValidationSettings aSettings = new PeppolSKTDDValidationSettings ().streamingXSD (true);
+    for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final ValidationResultList aVRL = PeppolSKTDDValidator.validateSK_TDD_100 (aRes, aSettings);
+      assertTrue (aVRL.getAllErrors ().getAllMapped (IError::getAsStringLocaleIndepdent).toString (),
+                  aVRL.getOverallValidity ().isValid ());
+      assertEquals (ESKTDDValidationLayer.values ().length, aVRL.size ());
+      assertTrue (aVRL.stream ().noneMatch (x -> x.isIgnored ()));
+    }
+
+    // Schema errors skip all Schematron layers
+    final ValidationResultList aVRL = PeppolSKTDDValidator.validateSK_TDD_100 (new ReadableResourceString ("<TaxData xmlns='" +
+                                                                                                          PeppolSKTDD100NativeRules.NS_PXS +
+                                                                                                          "'/>",
+                                                                                                          StandardCharsets.UTF_8),
+                                                                              aSettings);
+    assertEquals (ESKTDDValidationLayer.values ().length, aVRL.size ());
+    assertTrue (aVRL.get (ESKTDDValidationLayer.XSD.ordinal ()).getErrorList ().containsAtLeastOneError ());
+    assertTrue (aVRL.get (ESKTDDValidationLayer.SK.ordinal ()).isIgnored ());
+  }
+}
@@ -0,0 +1,717 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+
+import com.helger.base.location.ILocation;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.diagnostics.error.IError;
+import com.helger.diagnostics.error.list.IErrorList;
+import com.helger.io.resource.IReadableResource;
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.peppol.sk.tdd.v2026_04_14.DocumentLineType;
+import com.helger.peppol.sk.tdd.v2026_04_14.MonetaryTotalType;
+import com.helger.peppol.sk.tdd.v2026_04_14.ReportedDocumentType;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+import com.helger.phive.api.executor.IValidationExecutor;
+import com.helger.phive.api.result.ValidationResult;
+import com.helger.phive.xml.source.IValidationSourceXML;
+import com.helger.phive.xml.source.ValidationSourceXML;
+
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.AddressType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.AllowanceChargeType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.BillingReferenceType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.BranchType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.CardAccountType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.CommodityClassificationType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.CountryType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.DeliveryType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.DocumentReferenceType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.FinancialAccountType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.ItemType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PartyIdentificationType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PartyLegalEntityType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PartyNameType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PartyTaxSchemeType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PartyType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PaymentMandateType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PaymentMeansType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PeriodType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.PriceType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxCategoryType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxSchemeType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxSubtotalType;
+import oasis.names.specification.ubl.schema.xsd.commonaggregatecomponents_21.TaxTotalType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.DescriptionCodeType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.DescriptionType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.EndpointIDType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.IDType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.InvoicedQuantityType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.IssueDateType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.IssueTimeType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.ItemClassificationCodeType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.LineExtensionAmountType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.PayableAmountType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.TaxInclusiveAmountType;
+import oasis.names.specification.ubl.schema.xsd.commonbasiccomponents_21.UUIDType;
+
+/**
+ * Shared fixture for the tests that compare native or streaming rule evaluations with the
+ * Schematron XSLTs.
+ *
+ * @author Philip Helger
+ */
+final class PeppolSKTDDTestHelper
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (PeppolSKTDDTestHelper.class);
+
+  private PeppolSKTDDTestHelper ()
+  {}
+
+  @NonNull
+  static IValidationExecutor <IValidationSourceXML> getSchematronExecutor (@NonNull final IReadableResource aXSLT)
+  {
+    for (final IValidationExecutor <IValidationSourceXML> aVE : PeppolSKTDDValidator.getValidationExecutorSet (EnumSet.allOf (ESKTDDValidationLayer.class)))
+      if (aXSLT.equals (aVE.getValidationArtefact ().getRuleResource ()))
+        return aVE;
+    throw new IllegalStateException ("Found no Schematron executor for " + aXSLT.getPath ());
+  }
+
+  @NonNull
+  static ReportedDocumentType rd (@NonNull final TaxDataType aTDD)
+  {
+    return aTDD.getReportedTransaction ().get (0).getReportedDocument ();
+  }
+
+  @NonNull
+  static MonetaryTotalType mt (@NonNull final TaxDataType aTDD)
+  {
+    return rd (aTDD).getMonetaryTotal ();
+  }
+
+  @NonNull
+  private static String _getAsString (@Nullable final ILocation aLocation)
+  {
+    if (aLocation == null || !aLocation.isAnyInformationPresent ())
+      return "";
+    return aLocation.getResourceID () + ":" + aLocation.getLineNumber () + ":" + aLocation.getColumnNumber ();
+  }
+
+  /**
+   * @return Rule ID, error level and location of all matching errors.
+   */
+  @NonNull
+  static ICommonsList <String> getAsComparable (@NonNull final IErrorList aErrorList,
+                                               @NonNull final Predicate <? super IError> aFilter)
+  {
+    final ICommonsList <String> ret = new CommonsArrayList <> ();
+    for (final IError x : aErrorList)
+      if (aFilter.test (x))
+        ret.add (x.getErrorID () + " | " + x.getErrorLevel () + " | " + x.getErrorFieldName ());
+    return ret;
+  }
+
+  /**
+   * @return Rule ID, error level, location, text and source location of all errors.
+   */
+  @NonNull
+  static ICommonsList <String> getAsDetailedComparable (@NonNull final IErrorList aErrorList)
+  {
+    final ICommonsList <String> ret = new CommonsArrayList <> ();
+    for (final IError x : aErrorList)
+      ret.add (x.getErrorID () +
+               " | " +
+               x.getErrorLevel () +
+               " | " +
+               x.getErrorFieldName () +
+               " | " +
+               x.getErrorText (Locale.US) +
+               " | " +
+               _getAsString (x.getErrorLocation ()));
+    return ret;
+  }
+
+  /**
+   * Assert that a native evaluation reports the same errors as the provided Schematron XSLT.
+   *
+   * @param sName
+   *        The name of the test case for the assertion message.
+   * @param aTDD
+   *        The TDD to validate.
+   * @param aXSLT
+   *        The Schematron XSLT with the expected results.
+   * @param aNativeValidator
+   *        The native evaluation.
+   * @param aFilter
+   *        The filter for the errors to compare.
+   * @return All errors reported by the Schematron XSLT.
+   */
+  @NonNull
+  static IErrorList assertNativeConformant (@NonNull final String sName,
+                                      @NonNull final TaxDataType aTDD,
+                                      @NonNull final IReadableResource aXSLT,
+                                      @NonNull final Function <TaxDataType, ? extends IErrorList> aNativeValidator,
+                                      @NonNull final Predicate <? super IError> aFilter)
+  {
+    // Schema validation is disabled so that invalid modifications can be serialized as well
+    final Document aDoc = new PeppolSKTDD100Marshaller ().setUseSchema (false).getAsDocument (aTDD);
+    assertNotNull (aDoc);
+
+    final ValidationResult aXsltResult = getSchematronExecutor (aXSLT).applyValidation (ValidationSourceXML.create (null,
+                                                                                                                    aDoc),
+                                                                                        Locale.US);
+    final IErrorList aNativeResult = aNativeValidator.apply (aTDD);
+
+    final ICommonsList <String> aExpected = getAsComparable (aXsltResult.getErrorList (), aFilter);
+    assertEquals (sName, aExpected, getAsComparable (aNativeResult, aFilter));
+    if (aExpected.isNotEmpty ())
+      LOGGER.info (sName + ": " + aExpected);
+    return aXsltResult.getErrorList ();
+  }
+
+  @NonNull
+  private static DocumentLineType _line (@NonNull final TaxDataType aTDD)
+  {
+    return rd (aTDD).getDocumentLine ().get (0);
+  }
+
+  @NonNull
+  private static PartyType _supplier (@NonNull final TaxDataType aTDD)
+  {
+    return rd (aTDD).getAccountingSupplierParty ().getParty ();
+  }
+
+  @NonNull
+  private static PartyType _customer (@NonNull final TaxDataType aTDD)
+  {
+    return rd (aTDD).getAccountingCustomerParty ().getParty ();
+  }
+
+  @NonNull
+  private static PartyNameType _partyName ()
+  {
+    final PartyNameType ret = new PartyNameType ();
+    ret.setName ("Unexpected");
+    return ret;
+  }
+
+  @NonNull
+  private static AddressType _address (final boolean bWithCityName, final boolean bWithCountryName)
+  {
+    final CountryType aCountry = new CountryType ();
+    aCountry.setIdentificationCode ("SK");
+    if (bWithCountryName)
+      aCountry.setName ("Unexpected");
+    final AddressType ret = new AddressType ();
+    if (bWithCityName)
+      ret.setCityName ("Unexpected");
+    ret.setCountry (aCountry);
+    return ret;
+  }
+
+  @NonNull
+  private static TaxSchemeType _taxScheme (@NonNull final String sID, final boolean bWithName)
+  {
+    final TaxSchemeType ret = new TaxSchemeType ();
+    ret.setID (sID);
+    if (bWithName)
+      ret.setName ("Unexpected");
+    return ret;
+  }
+
+  @NonNull
+  private static PartyTaxSchemeType _partyTaxScheme (@NonNull final String sTaxSchemeID,
+                                                     final boolean bWithRegistrationName,
+                                                     final boolean bWithTaxSchemeName)
+  {
+    final PartyTaxSchemeType ret = new PartyTaxSchemeType ();
+    if (bWithRegistrationName)
+      ret.setRegistrationName ("Unexpected");
+    ret.setCompanyID ("SK2020123456");
+    ret.setTaxScheme (_taxScheme (sTaxSchemeID, bWithTaxSchemeName));
+    return ret;
+  }
+
+  @NonNull
+  private static PartyType _taxRepresentative (@NonNull final AddressType aAddress,
+                                               @NonNull final PartyTaxSchemeType aPTS)
+  {
+    final PartyType ret = new PartyType ();
+    ret.setPostalAddress (aAddress);
+    ret.addPartyTaxScheme (aPTS);
+    return ret;
+  }
+
+  @NonNull
+  private static TaxCategoryType _taxCategory (final boolean bWithName, final boolean bWithTaxSchemeName)
+  {
+    final TaxCategoryType ret = new TaxCategoryType ();
+    ret.setID ("S");
+    if (bWithName)
+      ret.setName ("Unexpected");
+    ret.setPercent (new BigDecimal ("20"));
+    ret.setTaxScheme (_taxScheme ("VAT", bWithTaxSchemeName));
+    return ret;
+  }
+
+  @NonNull
+  private static AllowanceChargeType _allowanceCharge ()
+  {
+    final AllowanceChargeType ret = new AllowanceChargeType ();
+    ret.setChargeIndicator (false);
+    ret.setAmount (BigDecimal.ONE).setCurrencyID ("EUR");
+    return ret;
+  }
+
+  @NonNull
+  private static PaymentMeansType _paymentMeans ()
+  {
+    final PaymentMeansType ret = new PaymentMeansType ();
+    ret.setPaymentMeansCode ("30");
+    return ret;
+  }
+
+  @NonNull
+  private static FinancialAccountType _financialAccount (final boolean bWithName)
+  {
+    final FinancialAccountType ret = new FinancialAccountType ();
+    ret.setID ("SK3112000000198742637541");
+    if (bWithName)
+      ret.setName ("Unexpected");
+    return ret;
+  }
+
+  @NonNull
+  private static TaxSubtotalType _taxSubtotal (@NonNull final TaxCategoryType aTaxCategory)
+  {
+    final TaxSubtotalType ret = new TaxSubtotalType ();
+    ret.setTaxableAmount (BigDecimal.TEN).setCurrencyID ("EUR");
+    ret.setTaxAmount (new BigDecimal ("2")).setCurrencyID ("EUR");
+    ret.setTaxCategory (aTaxCategory);
+    return ret;
+  }
+
+  @NonNull
+  private static TaxTotalType _taxTotal (@NonNull final TaxSubtotalType aTaxSubtotal)
+  {
+    final TaxTotalType ret = new TaxTotalType ();
+    ret.setTaxAmount (new BigDecimal ("2")).setCurrencyID ("EUR");
+    ret.addTaxSubtotal (aTaxSubtotal);
+    return ret;
+  }
+
+  @NonNull
+  private static ItemType _item ()
+  {
+    final ItemType ret = new ItemType ();
+    ret.setName ("Item");
+    return ret;
+  }
+
+  @NonNull
+  private static PriceType _price ()
+  {
+    final PriceType ret = new PriceType ();
+    ret.setPriceAmount (BigDecimal.TEN).setCurrencyID ("EUR");
+    return ret;
+  }
+
+  @NonNull
+  private static DocumentReferenceType _documentReference ()
+  {
+    final DocumentReferenceType ret = new DocumentReferenceType ();
+    ret.setID ("INV-1");
+    return ret;
+  }
+
+  /**
+   * @return Modifications of the good test files that violate the SK rules. Together they violate
+   *         every SK rule that can be expressed in the JAXB model.
+   */
+  @NonNull
+  static ICommonsList <Consumer <TaxDataType>> getAllSKModifiers ()
+  {
+    // There are hardly any bad test files, so modify the good ones
+    final ICommonsList <Consumer <TaxDataType>> ret = new CommonsArrayList <> ();
+
+    // pxs:TaxData
+    ret.add (x -> x.setID ("unexpected"));
+    ret.add (x -> x.setCustomizationID ("urn:peppol:taxdata:xx-1"));
+    ret.add (x -> x.setProfileID ("urn:peppol:other"));
+    ret.add (x -> x.setUUID ((UUIDType) null));
+    ret.add (x -> x.setIssueDate ((IssueDateType) null));
+    ret.add (x -> x.setIssueTime ((IssueTimeType) null));
+    ret.add (x -> x.getTaxDataTypeCode ().setValue ("X"));
+    ret.add (x -> x.getDocumentScope ().setValue ("X"));
+    ret.add (x -> x.getReporterRole ().setValue ("X"));
+    ret.add (x -> x.setTaxAuthority (null));
+    ret.add (x -> x.getTaxAuthority ().setID ((IDType) null));
+    ret.add (x -> x.getReportedTransaction ().clear ());
+    ret.add (x -> x.getReportedTransaction ().add (x.getReportedTransaction ().get (0).clone ()));
+
+    // Parties of the TDD
+    ret.add (x -> x.getReportingParty ().addPartyName (_partyName ()));
+    ret.add (x -> x.getReportingParty ().setEndpointID ((EndpointIDType) null));
+    ret.add (x -> x.getReportingParty ().getEndpointID ().setSchemeID ("ABC"));
+    ret.add (x -> x.getReportingParty ().getEndpointID ().setSchemeID (null));
+    ret.add (x -> x.getReceivingParty ().addPartyName (_partyName ()));
+    ret.add (x -> x.getReceivingParty ().setEndpointID ((EndpointIDType) null));
+    ret.add (x -> x.getReceivingParty ().getEndpointID ().setSchemeID ("9925"));
+    ret.add (x -> x.getReportersRepresentative ().addPartyName (_partyName ()));
+    ret.add (x -> {
+      final PartyIdentificationType aPI = new PartyIdentificationType ();
+      aPI.setID ("12345678");
+      x.getReportersRepresentative ().addPartyIdentification (aPI);
+    });
+    ret.add (x -> x.getReportersRepresentative ().getPartyIdentification ().get (0).getID ().setSchemeID ("0088"));
+
+    // pxs:ReportedDocument
+    ret.add (x -> x.getReportedTransaction ().get (0).setReportedDocument (null));
+    ret.add (x -> rd (x).setUUID ((UUIDType) null));
+    ret.add (x -> {
+      final PeriodType aPeriod = new PeriodType ();
+      aPeriod.addDescription (new DescriptionType ("Unexpected"));
+      rd (x).setInvoicePeriod (aPeriod);
+    });
+    ret.add (x -> {
+      final DocumentReferenceType aDR = _documentReference ();
+      aDR.setDocumentTypeCode ("130");
+      final BillingReferenceType aBR = new BillingReferenceType ();
+      aBR.setInvoiceDocumentReference (aDR);
+      rd (x).addBillingReference (aBR);
+    });
+    ret.add (x -> {
+      final BillingReferenceType aBR = new BillingReferenceType ();
+      aBR.setSelfBilledInvoiceDocumentReference (_documentReference ());
+      rd (x).addBillingReference (aBR);
+    });
+    ret.add (x -> {
+      final DeliveryType aDelivery = new DeliveryType ();
+      aDelivery.setID ("Unexpected");
+      rd (x).setDelivery (aDelivery);
+    });
+
+    // cac:AccountingSupplierParty
+    ret.add (x -> rd (x).setAccountingSupplierParty (null));
+    ret.add (x -> rd (x).getAccountingSupplierParty ().setParty (null));
+    ret.add (x -> _supplier (x).addPartyName (_partyName ()));
+    ret.add (x -> _supplier (x).setPostalAddress (_address (true, false)));
+    ret.add (x -> _supplier (x).setPostalAddress (_address (false, true)));
+    ret.add (x -> _supplier (x).addPartyTaxScheme (_partyTaxScheme ("GST", false, false)));
+    ret.add (x -> _supplier (x).addPartyTaxScheme (_partyTaxScheme ("VAT", true, false)));
+    ret.add (x -> _supplier (x).addPartyTaxScheme (_partyTaxScheme ("VAT", false, true)));
+
+    // cac:AccountingCustomerParty
+    ret.add (x -> rd (x).getAccountingCustomerParty ().setParty (null));
+    ret.add (x -> rd (x).getAccountingCustomerParty ().setCustomerAssignedAccountID ("Unexpected"));
+    ret.add (x -> _customer (x).addPartyName (_partyName ()));
+    ret.add (x -> _customer (x).setPostalAddress (_address (true, false)));
+    ret.add (x -> _customer (x).setPostalAddress (_address (false, true)));
+    ret.add (x -> _customer (x).addPartyTaxScheme (_partyTaxScheme ("GST", false, false)));
+    ret.add (x -> _customer (x).addPartyTaxScheme (_partyTaxScheme ("VAT", true, false)));
+    ret.add (x -> _customer (x).addPartyTaxScheme (_partyTaxScheme ("VAT", false, true)));
+    ret.add (x -> {
+      final PartyLegalEntityType aPLE = new PartyLegalEntityType ();
+      aPLE.setRegistrationName ("Buyer");
+      aPLE.setCompanyID ("Unexpected");
+      _customer (x).addPartyLegalEntity (aPLE);
+    });
+
+    // cac:TaxRepresentativeParty
+    ret.add (x -> rd (x).setTaxRepresentativeParty (_taxRepresentative (_address (true, false),
+                                                                         _partyTaxScheme ("VAT", false, false))));
+    ret.add (x -> rd (x).setTaxRepresentativeParty (_taxRepresentative (_address (false, true),
+                                                                         _partyTaxScheme ("VAT", false, false))));
+    ret.add (x -> rd (x).setTaxRepresentativeParty (_taxRepresentative (_address (false, false),
+                                                                         _partyTaxScheme ("GST", false, false))));
+    ret.add (x -> rd (x).setTaxRepresentativeParty (_taxRepresentative (_address (false, false),
+                                                                         _partyTaxScheme ("VAT", true, false))));
+    ret.add (x -> rd (x).setTaxRepresentativeParty (_taxRepresentative (_address (false, false),
+                                                                         _partyTaxScheme ("VAT", false, true))));
+
+    // cac:PaymentMeans
+    ret.add (x -> {
+      final PaymentMeansType aPM = _paymentMeans ();
+      aPM.setInstructionID ("Unexpected");
+      rd (x).addPaymentMeans (aPM);
+    });
+    ret.add (x -> {
+      final PaymentMeansType aPM = _paymentMeans ();
+      aPM.getPaymentMeansCode ().setListID ("UNCL4461");
+      rd (x).addPaymentMeans (aPM);
+    });
+    ret.add (x -> {
+      final CardAccountType aCA = new CardAccountType ();
+      aCA.setPrimaryAccountNumberID ("1234");
+      aCA.setNetworkID ("VISA");
+      aCA.setCardTypeCode ("Unexpected");
+      final PaymentMeansType aPM = _paymentMeans ();
+      aPM.setCardAccount (aCA);
+      rd (x).addPaymentMeans (aPM);
+    });
+    ret.add (x -> {
+      final PaymentMeansType aPM = _paymentMeans ();
+      aPM.setPayeeFinancialAccount (_financialAccount (true));
+      rd (x).addPaymentMeans (aPM);
+    });
+    ret.add (x -> {
+      final BranchType aBranch = new BranchType ();
+      aBranch.setID ("TATRSKBX");
+      aBranch.setName ("Unexpected");
+      final FinancialAccountType aFA = _financialAccount (false);
+      aFA.setFinancialInstitutionBranch (aBranch);
+      final PaymentMeansType aPM = _paymentMeans ();
+      aPM.setPayeeFinancialAccount (aFA);
+      rd (x).addPaymentMeans (aPM);
+    });
+    ret.add (x -> {
+      final PaymentMandateType aMandate = new PaymentMandateType ();
+      aMandate.setID ("M-1");
+      aMandate.setMandateTypeCode ("Unexpected");
+      final PaymentMeansType aPM = _paymentMeans ();
+      aPM.setPaymentMandate (aMandate);
+      rd (x).addPaymentMeans (aPM);
+    });
+    ret.add (x -> {
+      final PaymentMandateType aMandate = new PaymentMandateType ();
+      aMandate.setID ("M-1");
+      aMandate.setPayerFinancialAccount (_financialAccount (true));
+      final PaymentMeansType aPM = _paymentMeans ();
+      aPM.setPaymentMandate (aMandate);
+      rd (x).addPaymentMeans (aPM);
+    });
+
+    // cac:AllowanceCharge on document level
+    ret.add (x -> {
+      final AllowanceChargeType aAC = _allowanceCharge ();
+      aAC.setID ("Unexpected");
+      rd (x).addAllowanceCharge (aAC);
+    });
+    ret.add (x -> {
+      final AllowanceChargeType aAC = _allowanceCharge ();
+      aAC.getAmount ().setCurrencyCodeListVersionID ("2001");
+      rd (x).addAllowanceCharge (aAC);
+    });
+    ret.add (x -> {
+      final AllowanceChargeType aAC = _allowanceCharge ();
+      aAC.setBaseAmount (BigDecimal.TEN).setCurrencyCodeListVersionID ("2001");
+      rd (x).addAllowanceCharge (aAC);
+    });
+    ret.add (x -> {
+      final AllowanceChargeType aAC = _allowanceCharge ();
+      aAC.addTaxCategory (_taxCategory (true, false));
+      rd (x).addAllowanceCharge (aAC);
+    });
+    ret.add (x -> {
+      final AllowanceChargeType aAC = _allowanceCharge ();
+      aAC.addTaxCategory (_taxCategory (false, true));
+      rd (x).addAllowanceCharge (aAC);
+    });
+
+    // cac:TaxTotal
+    ret.add (x -> {
+      final TaxTotalType aTT = _taxTotal (_taxSubtotal (_taxCategory (false, false)));
+      aTT.setTaxEvidenceIndicator (true);
+      rd (x).addTaxTotal (aTT);
+    });
+    ret.add (x -> {
+      final TaxTotalType aTT = _taxTotal (_taxSubtotal (_taxCategory (false, false)));
+      aTT.getTaxAmount ().setCurrencyCodeListVersionID ("2001");
+      rd (x).addTaxTotal (aTT);
+    });
+    ret.add (x -> {
+      final TaxSubtotalType aTS = _taxSubtotal (_taxCategory (false, false));
+      aTS.setPercent (new BigDecimal ("20"));
+      rd (x).addTaxTotal (_taxTotal (aTS));
+    });
+    ret.add (x -> {
+      final TaxSubtotalType aTS = _taxSubtotal (_taxCategory (false, false));
+      aTS.getTaxableAmount ().setCurrencyCodeListVersionID ("2001");
+      rd (x).addTaxTotal (_taxTotal (aTS));
+    });
+    ret.add (x -> {
+      final TaxSubtotalType aTS = _taxSubtotal (_taxCategory (false, false));
+      aTS.getTaxAmount ().setCurrencyCodeListVersionID ("2001");
+      rd (x).addTaxTotal (_taxTotal (aTS));
+    });
+    ret.add (x -> rd (x).addTaxTotal (_taxTotal (_taxSubtotal (_taxCategory (true, false)))));
+    ret.add (x -> rd (x).addTaxTotal (_taxTotal (_taxSubtotal (_taxCategory (false, true)))));
+
+    // pxs:MonetaryTotal
+    ret.add (x -> mt (x).setPayableAmount (BigDecimal.TEN).setCurrencyCodeListVersionID ("2001"));
+
+    // pxs:DocumentLine
+    ret.add (x -> {
+      final PeriodType aPeriod = new PeriodType ();
+      aPeriod.addDescriptionCode (new DescriptionCodeType ("35"));
+      _line (x).setInvoicePeriod (aPeriod);
+    });
+    ret.add (x -> {
+      final AllowanceChargeType aAC = _allowanceCharge ();
+      aAC.addTaxCategory (_taxCategory (false, false));
+      _line (x).addAllowanceCharge (aAC);
+    });
+    ret.add (x -> {
+      final AllowanceChargeType aAC = _allowanceCharge ();
+      aAC.getAmount ().setCurrencyCodeListVersionID ("2001");
+      _line (x).addAllowanceCharge (aAC);
+    });
+    ret.add (x -> {
+      final AllowanceChargeType aAC = _allowanceCharge ();
+      aAC.setBaseAmount (BigDecimal.TEN).setCurrencyCodeListVersionID ("2001");
+      _line (x).addAllowanceCharge (aAC);
+    });
+    ret.add (x -> {
+      final InvoicedQuantityType aQuantity = new InvoicedQuantityType (BigDecimal.ONE);
+      aQuantity.setUnitCode ("C62");
+      aQuantity.setUnitCodeListID ("UNECERec20");
+      _line (x).setInvoicedQuantity (aQuantity);
+    });
+    ret.add (x -> _line (x).setLineExtensionAmount (BigDecimal.TEN).setCurrencyCodeListVersionID ("2001"));
+    ret.add (x -> {
+      final ItemType aItem = _item ();
+      aItem.setPackSizeNumeric (BigDecimal.ONE);
+      _line (x).setItem (aItem);
+    });
+    ret.add (x -> {
+      final CommodityClassificationType aCC = new CommodityClassificationType ();
+      aCC.setItemClassificationCode ("09348023").setListID ("SRV");
+      aCC.setCargoTypeCode ("Unexpected");
+      final ItemType aItem = _item ();
+      aItem.addCommodityClassification (aCC);
+      _line (x).setItem (aItem);
+    });
+    ret.add (x -> {
+      final ItemClassificationCodeType aICC = new ItemClassificationCodeType ("09348023");
+      aICC.setListID ("SRV");
+      aICC.setListVersionID ("1");
+      final CommodityClassificationType aCC = new CommodityClassificationType ();
+      aCC.setItemClassificationCode (aICC);
+      final ItemType aItem = _item ();
+      aItem.addCommodityClassification (aCC);
+      _line (x).setItem (aItem);
+    });
+    ret.add (x -> {
+      final ItemType aItem = _item ();
+      aItem.addClassifiedTaxCategory (_taxCategory (true, false));
+      _line (x).setItem (aItem);
+    });
+    ret.add (x -> {
+      final ItemType aItem = _item ();
+      aItem.addClassifiedTaxCategory (_taxCategory (false, true));
+      _line (x).setItem (aItem);
+    });
+    ret.add (x -> {
+      final PriceType aPrice = _price ();
+      aPrice.setPriceTypeCode ("Unexpected");
+      _line (x).setPrice (aPrice);
+    });
+    ret.add (x -> {
+      final PriceType aPrice = _price ();
+      aPrice.getPriceAmount ().setCurrencyCodeListVersionID ("2001");
+      _line (x).setPrice (aPrice);
+    });
+    return ret;
+  }
+
+  /**
+   * @return Modifications of the good test files that affect the document totals.
+   */
+  @NonNull
+  static ICommonsList <Consumer <TaxDataType>> getAllTotalsModifiers ()
+  {
+    final BigDecimal aCent = new BigDecimal ("0.01");
+    final ICommonsList <Consumer <TaxDataType>> ret = new CommonsArrayList <> ();
+    ret.add (x -> mt (x).getLineExtensionAmount ().setValue (mt (x).getLineExtensionAmountValue ().add (aCent)));
+    ret.add (x -> mt (x).setLineExtensionAmount ((LineExtensionAmountType) null));
+    ret.add (x -> mt (x).getTaxExclusiveAmount ().setValue (mt (x).getTaxExclusiveAmountValue ().add (aCent)));
+    ret.add (x -> mt (x).getTaxInclusiveAmount ().setValue (mt (x).getTaxInclusiveAmountValue ().add (aCent)));
+    ret.add (x -> mt (x).setTaxInclusiveAmount ((TaxInclusiveAmountType) null));
+    ret.add (x -> mt (x).getPayableAmount ().setValue (mt (x).getPayableAmountValue ().add (aCent)));
+    ret.add (x -> mt (x).setPayableAmount ((PayableAmountType) null));
+    ret.add (x -> mt (x).setPrepaidAmount (BigDecimal.TEN));
+    ret.add (x -> mt (x).setPayableRoundingAmount (aCent));
+    ret.add (x -> mt (x).setAllowanceTotalAmount (BigDecimal.ONE));
+    ret.add (x -> mt (x).setChargeTotalAmount (BigDecimal.ONE));
+    ret.add (x -> rd (x).getDocumentLine ().remove (0));
+    ret.add (x -> rd (x).getDocumentLine ().get (0).setLineExtensionAmount ((LineExtensionAmountType) null));
+    ret.add (x -> x.getReportedTransaction ().add (x.getReportedTransaction ().get (0).clone ()));
+    ret.add (x -> {
+      final TaxTotalType aTT = rd (x).getTaxTotal ().get (0);
+      aTT.getTaxAmount ().setValue (aTT.getTaxAmountValue ().add (aCent));
+    });
+    ret.add (x -> {
+      final TaxSubtotalType aTS = rd (x).getTaxTotal ().get (0).getTaxSubtotal ().get (0);
+      aTS.getTaxAmount ().setValue (aTS.getTaxAmountValue ().add (new BigDecimal ("1.5")));
+    });
+    ret.add (x -> {
+      final TaxSubtotalType aTS = rd (x).getTaxTotal ().get (0).getTaxSubtotal ().get (0);
+      aTS.getTaxCategory ().setPercent (BigDecimal.ZERO);
+    });
+    ret.add (x -> {
+      final TaxSubtotalType aTS = rd (x).getTaxTotal ().get (0).getTaxSubtotal ().get (0);
+      aTS.getTaxCategory ().getTaxScheme ().setID ("other");
+    });
+    ret.add (x -> rd (x).getTaxTotal ().get (0).getTaxAmount ().setCurrencyID ("XXX"));
+    ret.add (x -> rd (x).setDocumentCurrencyCode ((String) null));
+    return ret;
+  }
+
+  /**
+   * Apply each modifier to a freshly read copy of each good test file.
+   *
+   * @param aModifiers
+   *        The modifiers to apply.
+   * @param aChecker
+   *        Invoked with the name of the test case and the modified TDD.
+   */
+  static void forEachModified (@NonNull final Iterable <? extends Consumer <TaxDataType>> aModifiers,
+                               @NonNull final BiConsumer <String, TaxDataType> aChecker)
+  {
+    final PeppolSKTDD100Marshaller aMarshaller = new PeppolSKTDD100Marshaller ();
+    for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      int nIndex = 0;
+      for (final Consumer <TaxDataType> aModifier : aModifiers)
+      {
+        final TaxDataType aTDD = aMarshaller.read (aRes);
+        assertNotNull (aTDD);
+        aModifier.accept (aTDD);
+        aChecker.accept (aRes.getPath () + " #" + nIndex, aTDD);
+        nIndex++;
+      }
+    }
+  }
+}
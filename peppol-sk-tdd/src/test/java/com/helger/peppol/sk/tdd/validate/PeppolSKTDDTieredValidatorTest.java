@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import com.helger.diagnostics.error.IError;
+import com.helger.io.resource.IReadableResource;
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.peppol.sk.tdd.v2026_04_14.MonetaryTotalType;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+import com.helger.phive.api.result.ValidationResultList;
+
+/**
+ * Test class for class {@link PeppolSKTDDTieredValidator}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDDTieredValidatorTest
+{
+  @Test
+  public void testGood ()
+  {
+    for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final ValidationResultList aVRL = PeppolSKTDDTieredValidator.validateSK_TDD_100 (aRes);
+      assertTrue (aRes.getPath (), aVRL.getOverallValidity ().isValid ());
+      // All layers were evaluated
+      assertEquals (ESKTDDValidationLayer.values ().length, aVRL.size ());
+      assertTrue (aVRL.stream ().noneMatch (x -> x.isIgnored ()));
+    }
+  }
+
+  @Test
+  public void testFailInFirstTier ()
+  {
+    final PeppolSKTDD100Marshaller aMarshaller = new PeppolSKTDD100Marshaller ();
+    final TaxDataType aTDD = aMarshaller.read (PeppolSKTestFiles.getAllGoodTDD100Files ().getFirstOrNull ());
+    assertNotNull (aTDD);
+    aTDD.setID ("unexpected");
+
+    final ValidationResultList aVRL = PeppolSKTDDTieredValidator.validateSK_TDD_100 (aTDD);
+    assertEquals (ESKTDDValidationLayer.values ().length, aVRL.size ());
+    assertTrue (aVRL.get (ESKTDDValidationLayer.XSD.ordinal ()).isIgnored ());
+    assertTrue (aVRL.get (ESKTDDValidationLayer.CEN.ordinal ()).isIgnored ());
+    assertTrue (aVRL.get (ESKTDDValidationLayer.PEPPOL.ordinal ()).isIgnored ());
+    assertFalse (aVRL.get (ESKTDDValidationLayer.SK.ordinal ()).isIgnored ());
+    assertTrue (aVRL.getAllErrors ().containsAtLeastOneError ());
+
+    // Same errors as the regular validation
+    final ValidationResultList aVRL2 = PeppolSKTDDValidator.validateSK_TDD_100 (aTDD);
+    assertEquals (aVRL2.get (ESKTDDValidationLayer.SK.ordinal ()).getErrorList ().getAllMapped (IError::getErrorID),
+                  aVRL.get (ESKTDDValidationLayer.SK.ordinal ()).getErrorList ().getAllMapped (IError::getErrorID));
+  }
+
+  @Test
+  public void testFailInArithmeticRules ()
+  {
+    final PeppolSKTDD100Marshaller aMarshaller = new PeppolSKTDD100Marshaller ();
+    final TaxDataType aTDD = aMarshaller.read (PeppolSKTestFiles.getAllGoodTDD100Files ().getFirstOrNull ());
+    assertNotNull (aTDD);
+    final MonetaryTotalType aMT = aTDD.getReportedTransaction ().get (0).getReportedDocument ().getMonetaryTotal ();
+    aMT.getPayableAmount ().setValue (aMT.getPayableAmountValue ().add (BigDecimal.ONE));
+
+    final ValidationResultList aVRL = PeppolSKTDDTieredValidator.validateSK_TDD_100 (aTDD);
+    assertEquals (ESKTDDValidationLayer.values ().length, aVRL.size ());
+    assertTrue (aVRL.get (ESKTDDValidationLayer.XSD.ordinal ()).isIgnored ());
+    assertFalse (aVRL.get (ESKTDDValidationLayer.CEN.ordinal ()).isIgnored ());
+    assertTrue (aVRL.get (ESKTDDValidationLayer.PEPPOL.ordinal ()).isIgnored ());
+    assertFalse (aVRL.get (ESKTDDValidationLayer.SK.ordinal ()).isIgnored ());
+    assertEquals ("BR-CO-16",
+                  aVRL.get (ESKTDDValidationLayer.CEN.ordinal ()).getErrorList ().getFirstOrNull ().getErrorID ());
+  }
+}
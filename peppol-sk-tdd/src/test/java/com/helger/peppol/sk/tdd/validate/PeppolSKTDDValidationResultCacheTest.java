@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.time.Duration;
+
+import org.junit.Test;
+
+import com.helger.diagnostics.error.IError;
+import com.helger.io.resource.IReadableResource;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.phive.api.result.ValidationResultList;
+
+/**
+ * Test class for class {@link PeppolSKTDDValidationResultCache}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDDValidationResultCacheTest
+{
+  @Test
+  public void testHit ()
+  {
+    final PeppolSKTDDValidationResultCache aCache = new PeppolSKTDDValidationResultCache ();
+    final IReadableResource aRes = PeppolSKTestFiles.getAllGoodTDD100Files ().getFirstOrNull ();
+
+    final ValidationResultList aVRL1 = aCache.validateSK_TDD_100 (aRes);
+    assertTrue (aVRL1.getOverallValidity ().isValid ());
+    assertEquals (0, aCache.getHitCount ());
+    assertEquals (1, aCache.getMissCount ());
+
+    // Modifying the returned list must not change the cache
+    aVRL1.clear ();
+
+    final ValidationResultList aVRL2 = aCache.validateSK_TDD_100 (aRes);
+    assertTrue (aVRL2.getOverallValidity ().isValid ());
+    assertEquals (4, aVRL2.size ());
+    assertEquals (1, aCache.getHitCount ());
+    assertEquals (0.5, aCache.getHitRate (), 0.0001);
+
+    // Different layers mean a different key
+    aCache.validateSK_TDD_100 (aRes,
+                               new PeppolSKTDDValidationSettings ().validationLayers (ESKTDDValidationLayer.XSD,
+                                                                                      ESKTDDValidationLayer.SK));
+    assertEquals (2, aCache.getMissCount ());
+    assertEquals (2, aCache.size ());
+
+    // Result affecting settings mean a different key
+    aCache.validateSK_TDD_100 (aRes, new PeppolSKTDDValidationSettings ().streamingXSD (true));
+    aCache.validateSK_TDD_100 (aRes, new PeppolSKTDDValidationSettings ().streamingSVRL (true));
+    aCache.validateSK_TDD_100 (aRes, new PeppolSKTDDValidationSettings ().nativeSKRules (true));
+    assertEquals (5, aCache.getMissCount ());
+    assertEquals (5, aCache.size ());
+
+    // The concurrent evaluation doesn't
+    aCache.validateSK_TDD_100 (aRes, new PeppolSKTDDValidationSettings ().parallelSchematron (true));
+    assertEquals (2, aCache.getHitCount ());
+  }
+
+  @Test
+  public void testSystemID () throws Exception
+  {
+    final byte [] aBytes;
+    try (final InputStream aIS = PeppolSKTDDValidatorTest.getMutatedBaseExample ("<cbc:IssueDate>2025-01-25</cbc:IssueDate>",
+                                                                                "<cbc:IssueDate>25.01.2025</cbc:IssueDate>")
+                                                         .getInputStream ())
+    {
+      aBytes = aIS.readAllBytes ();
+    }
+
+    final PeppolSKTDDValidationResultCache aCache = new PeppolSKTDDValidationResultCache ();
+    final PeppolSKTDDValidationSettings aSettings = new PeppolSKTDDValidationSettings ();
+    for (final String sSystemID : new String [] { "first.xml", "second.xml", null })
+    {
+      final ValidationResultList aVRL = aCache.validateSK_TDD_100 (sSystemID, aBytes, aSettings);
+      assertFalse (aVRL.getOverallValidity ().isValid ());
+      assertTrue (aVRL.getAllErrors ().containsAtLeastOneError ());
+      // The error locations name the resource of the current call
+      for (final IError aError : aVRL.getAllErrors ())
+        if (aError.getErrorLocation () != null && aError.getErrorLocation ().isAnyInformationPresent ())
+          assertEquals (sSystemID, aError.getErrorLocation ().getResourceID ());
+    }
+    assertEquals (1, aCache.getMissCount ());
+    assertEquals (2, aCache.getHitCount ());
+  }
+
+  @Test
+  public void testEviction ()
+  {
+    final PeppolSKTDDValidationResultCache aCache = new PeppolSKTDDValidationResultCache (2, Duration.ofHours (1));
+    final PeppolSKTDDValidationSettings aSettings = new PeppolSKTDDValidationSettings ().validationLayers (ESKTDDValidationLayer.SK);
+    for (int i = 0; i < 3; ++i)
+      aCache.validateSK_TDD_100 (PeppolSKTestFiles.getAllGoodTDD100Files ().get (i), aSettings);
+    assertEquals (2, aCache.size ());
+    assertEquals (1, aCache.getEvictionCount ());
+  }
+
+  @Test
+  public void testExpiration ()
+  {
+    final PeppolSKTDDValidationResultCache aCache = new PeppolSKTDDValidationResultCache (10, Duration.ofNanos (1));
+    final PeppolSKTDDValidationSettings aSettings = new PeppolSKTDDValidationSettings ().validationLayers (ESKTDDValidationLayer.SK);
+    final IReadableResource aRes = PeppolSKTestFiles.getAllGoodTDD100Files ().getFirstOrNull ();
+    aCache.validateSK_TDD_100 (aRes, aSettings);
+    aCache.validateSK_TDD_100 (aRes, aSettings);
+    assertEquals (0, aCache.getHitCount ());
+    assertEquals (2, aCache.getMissCount ());
+    assertEquals (1, aCache.getExpirationCount ());
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import com.helger.base.location.ILocation;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.diagnostics.error.IError;
+import com.helger.io.resource.IReadableResource;
+import com.helger.io.resource.inmemory.ReadableResourceString;
+import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
+import com.helger.phive.api.result.ValidationResult;
+import com.helger.phive.api.result.ValidationResultList;
+
+/**
+ * Test class for class {@link PeppolSKTDDValidationResultCodec}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDDValidationResultCodecTest
+{
+  private static String _getAsString (final ILocation aLocation)
+  {
+    if (aLocation == null || !aLocation.isAnyInformationPresent ())
+      return "";
+    return aLocation.getResourceID () + ":" + aLocation.getLineNumber () + ":" + aLocation.getColumnNumber ();
+  }
+
+  private static ICommonsList <String> _getAsComparable (final ValidationResultList aVRL)
+  {
+    final ICommonsList <String> ret = new CommonsArrayList <> ();
+    for (final ValidationResult aResult : aVRL)
+    {
+      ret.add (aResult.getValidationArtefact ().getRuleResource ().getPath () + " | " + aResult.isIgnored ());
+      for (final IError aError : aResult.getErrorList ())
+        ret.add (aError.getErrorLevel () +
+                 " | " +
+                 aError.getErrorID () +
+                 " | " +
+                 aError.getErrorFieldName () +
+                 " | " +
+                 aError.getErrorText (Locale.US) +
+                 " | " +
+                 _getAsString (aError.getErrorLocation ()));
+    }
+    return ret;
+  }
+
+  private static byte [] _assertRoundtrip (final ValidationResultList aVRL) throws IOException
+  {
+    final byte [] aEncoded = PeppolSKTDDValidationResultCodec.encode (aVRL);
+    assertNotNull (aEncoded);
+    final ValidationResultList aDecoded = PeppolSKTDDValidationResultCodec.decode (aEncoded);
+    assertEquals (_getAsComparable (aVRL), _getAsComparable (aDecoded));
+    return aEncoded;
+  }
+
+  @Test
+  public void testGood () throws IOException
+  {
+    for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final ValidationResultList aVRL = PeppolSKTDDValidator.validateSK_TDD_100 (aRes);
+      final byte [] aEncoded = _assertRoundtrip (aVRL);
+      assertTrue (PeppolSKTDDValidationResultCodec.getAllFiredRuleIDs (aEncoded).isEmpty ());
+    }
+  }
+
+  @Test
+  public void testSchematronErrors () throws IOException
+  {
+    final TaxDataType aTDD = new PeppolSKTDD100Marshaller ().read (PeppolSKTestFiles.getAllGoodTDD100Files ()
+                                                                                    .getFirstOrNull ());
+    assertNotNull (aTDD);
+    aTDD.setID ("unexpected");
+    aTDD.getReportedTransaction ().get (0).getReportedDocument ().getMonetaryTotal ().setPayableAmount ((BigDecimal) null);
+
+    final ValidationResultList aVRL = PeppolSKTDDValidator.validateSK_TDD_100 (aTDD);
+    assertTrue (aVRL.getAllErrors ().containsAtLeastOneError ());
+    final byte [] aEncoded = _assertRoundtrip (aVRL);
+
+    for (final IError aError : aVRL.getAllErrors ())
+      if (aError.getErrorID () != null)
+        assertTrue (aError.getErrorID (), PeppolSKTDDValidationResultCodec.containsRuleID (aEncoded, aError.getErrorID ()));
+    assertFalse (PeppolSKTDDValidationResultCodec.containsRuleID (aEncoded, "BR-CO-10"));
+    assertFalse (PeppolSKTDDValidationResultCodec.containsRuleID (aEncoded, "unknown"));
+    assertEquals (aVRL.size (), PeppolSKTDDValidationResultCodec.getAllFiredRules (aEncoded).size ());
+  }
+
+  @Test
+  public void testXSDErrors () throws IOException
+  {
+    final ValidationResultList aVRL = PeppolSKTDDValidator.validateSK_TDD_100 (new ReadableResourceString ("<TaxData xmlns='" +
+                                                                                                          PeppolSKTDD100NativeRules.NS_PXS +
+                                                                                                          "'/>",
+                                                                                                          StandardCharsets.UTF_8));
+    assertTrue (aVRL.getAllErrors ().containsAtLeastOneError ());
+    _assertRoundtrip (aVRL);
+  }
+
+  @Test (expected = IOException.class)
+  public void testInvalid () throws IOException
+  {
+    PeppolSKTDDValidationResultCodec.decode (new byte [] { 'S', 'K', 'V', 'X', 1 });
+  }
+
+  private static byte [] _getHeader (final int nFingerprint, final int... aVarInts)
+  {
+    final ByteBuffer aBB = ByteBuffer.allocate (9 + aVarInts.length * 5);
+    aBB.put (PeppolSKTDDValidationResultCodec.MAGIC);
+    aBB.put ((byte) PeppolSKTDDValidationResultCodec.FORMAT_VERSION);
+    aBB.putInt (nFingerprint);
+    for (final int nValue : aVarInts)
+    {
+      int n = nValue;
+      while ((n & ~0x7f) != 0)
+      {
+        aBB.put ((byte) ((n & 0x7f) | 0x80));
+        n >>>= 7;
+      }
+      aBB.put ((byte) n);
+    }
+    return Arrays.copyOf (aBB.array (), aBB.position ());
+  }
+
+  private static void _assertInvalid (final byte [] aEncoded)
+  {
+    try
+    {
+      PeppolSKTDDValidationResultCodec.decode (aEncoded);
+      fail ();
+    }
+    catch (final IOException ex)
+    {
+      // expected
+    }
+  }
+
+  @Test
+  public void testCorrupt () throws IOException
+  {
+    final int nFingerprint = PeppolSKTDDRuleDictionary.getInstance ().getFingerprint ();
+    final byte [] aEmpty = PeppolSKTDDValidationResultCodec.encode (new ValidationResultList ());
+    assertSame (PeppolSKTDDRuleDictionary.getInstance (), PeppolSKTDDValidationResultCodec.getRuleDictionary (aEmpty));
+    assertEquals (0, PeppolSKTDDValidationResultCodec.decode (aEmpty).size ());
+
+    // Unknown dictionary
+    _assertInvalid (_getHeader (nFingerprint + 1, 0, 0));
+    // Huge result count
+    _assertInvalid (_getHeader (nFingerprint, Integer.MAX_VALUE));
+    // Huge bit set length
+    _assertInvalid (_getHeader (nFingerprint, 1, 0, 0, 0, Integer.MAX_VALUE));
+    // Huge string count
+    _assertInvalid (_getHeader (nFingerprint, 0, Integer.MAX_VALUE));
+    // Huge string length
+    _assertInvalid (_getHeader (nFingerprint, 0, 1, Integer.MAX_VALUE));
+    // Huge error count
+    _assertInvalid (_getHeader (nFingerprint, 1, 0, 0, 0, 0, 0, Integer.MAX_VALUE));
+  }
+}
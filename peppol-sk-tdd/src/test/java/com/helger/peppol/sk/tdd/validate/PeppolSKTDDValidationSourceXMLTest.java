@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2026 Philip Helger
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.peppol.sk.tdd.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import com.helger.io.resource.IReadableResource;
+import com.helger.io.resource.inmemory.ReadableResourceString;
+import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
+import com.helger.phive.api.result.ValidationResultList;
+
+/**
+ * Test class for class {@link PeppolSKTDDValidationSourceXML}.
+ *
+ * @author Philip Helger
+ */
+public final class PeppolSKTDDValidationSourceXMLTest
+{
+  @Test
+  public void testParseOnce ()
+  {
+    for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final PeppolSKTDDValidationSourceXML aSource = new PeppolSKTDDValidationSourceXML (aRes);
+      assertEquals (0, aSource.getParseCount ());
+
+      final ValidationResultList aVRL = PeppolSKTDDValidator.validateSK_TDD_100 (aSource);
+      assertTrue (aVRL.getOverallValidity ().isValid ());
+
+      // One parse for XSD and all Schematron layers
+      assertEquals (1, aSource.getParseCount ());
+      assertTrue (aSource.getTreeAccessCount () >= aVRL.size ());
+      assertTrue (aSource.isWellFormed ());
+      assertTrue (aSource.getParseErrorList ().isEmpty ());
+    }
+  }
+
+  @Test
+  public void testCountOnlyExecutorAccess ()
+  {
+    final PeppolSKTDDValidationSourceXML aSource = new PeppolSKTDDValidationSourceXML (PeppolSKTestFiles.getAllGoodTDD100Files ()
+                                                                                                         .getFirstOrNull ());
+    assertNotNull (aSource.getParsedNode ());
+    assertTrue (aSource.isWellFormed ());
+    assertEquals (1, aSource.getParseCount ());
+    assertEquals (0, aSource.getTreeAccessCount ());
+
+    assertNotNull (aSource.getNode ());
+    assertNotNull (aSource.getAsTransformSource ());
+    assertEquals (1, aSource.getParseCount ());
+    assertEquals (2, aSource.getTreeAccessCount ());
+  }
+
+  private static void _assertNotWellFormed (@NonNull final ValidationResultList aVRL)
+  {
+    assertFalse (aVRL.getOverallValidity ().isValid ());
+    // The parse error is reported by the first layer, all others are ignored
+    assertTrue (aVRL.getFirstOrNull ().getErrorList ().containsAtLeastOneError ());
+    for (int i = 1; i < aVRL.size (); ++i)
+      assertTrue (aVRL.get (i).isIgnored ());
+  }
+
+  @Test
+  public void testNotWellFormed ()
+  {
+    final ReadableResourceString aRes = new ReadableResourceString ("<pxs:TaxData", StandardCharsets.UTF_8);
+    final PeppolSKTDDValidationSourceXML aSource = new PeppolSKTDDValidationSourceXML (aRes);
+    final ValidationResultList aVRL = PeppolSKTDDValidator.validateSK_TDD_100 (aSource);
+    _assertNotWellFormed (aVRL);
+    assertEquals (ESKTDDValidationLayer.values ().length, aVRL.size ());
+
+    // Parsed exactly once and never handed out
+    assertEquals (1, aSource.getParseCount ());
+    assertEquals (0, aSource.getTreeAccessCount ());
+    assertFalse (aSource.isWellFormed ());
+    assertTrue (aSource.getParseErrorList ().containsAtLeastOneError ());
+    assertEquals (aSource.getParseErrorList (), aVRL.getFirstOrNull ().getErrorList ());
+
+    // Same with settings
+    _assertNotWellFormed (PeppolSKTDDValidator.validateSK_TDD_100 (aRes,
+                                                                   new PeppolSKTDDValidationSettings ().parallelSchematron (true)));
+    _assertNotWellFormed (PeppolSKTDDValidator.validateSK_TDD_100 (aRes,
+                                                                   new PeppolSKTDDValidationSettings ().validationLayers (ESKTDDValidationLayer.SK)));
+  }
+
+  @Test (expected = IllegalStateException.class)
+  public void testNotWellFormedTransformSource ()
+  {
+    new PeppolSKTDDValidationSourceXML (new ReadableResourceString ("<pxs:TaxData", StandardCharsets.UTF_8)).getAsTransformSource ();
+  }
+}
@@ -16,26 +16,46 @@
  */
 package com.helger.peppol.sk.tdd.validate;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumSet;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.diagnostics.error.IError;
+import com.helger.diagnostics.error.level.EErrorLevel;
 import com.helger.io.file.FilenameHelper;
 import com.helger.io.resource.IReadableResource;
+import com.helger.io.resource.inmemory.ReadableResourceString;
 import com.helger.peppol.sk.tdd.jaxb.PeppolSKTDD100Marshaller;
 import com.helger.peppol.sk.tdd.testfiles.PeppolSKTestFiles;
 import com.helger.peppol.sk.tdd.v2026_04_14.TaxDataType;
 import com.helger.phive.api.executor.IValidationExecutor;
 import com.helger.phive.api.executorset.IValidationExecutorSet;
+import com.helger.phive.api.result.ValidationResult;
+import com.helger.phive.api.result.ValidationResultList;
 import com.helger.phive.xml.source.IValidationSourceXML;
 
 /**
@@ -58,6 +78,35 @@ public final class PeppolSKTDDValidatorTest
       }
   }
 
+  @Test
+  public void testWarmUp () throws Exception
+  {
+    final ICommonsOrderedMap <String, Duration> aTimes = PeppolSKTDDValidator.warmUp (PeppolSKTestFiles.getAllGoodTDD100Files ()
+                                                                                                        .getFirstOrNull ());
+    assertEquals (3, aTimes.size ());
+    assertEquals (PeppolSKTDDValidator.XSLT_CEN_TDD_100.getPath (), aTimes.getFirstKey ());
+    // The streaming SVRL evaluation uses the same compiled XSLTs
+    assertEquals (3, PeppolSKTDDStreamingSVRLValidator.getCachedXSLTCount ());
+    LOGGER.info ("Warm up times: " + aTimes);
+
+    // Reuse the compiled XSLTs from multiple threads
+    final ExecutorService aES = Executors.newFixedThreadPool (4);
+    try
+    {
+      final ICommonsList <Future <Boolean>> aFutures = new CommonsArrayList <> ();
+      for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+        aFutures.add (aES.submit ( () -> Boolean.valueOf (PeppolSKTDDValidator.validateSK_TDD_100 (aRes)
+                                                                              .getOverallValidity ()
+                                                                              .isValid ())));
+      for (final Future <Boolean> aFuture : aFutures)
+        assertTrue (aFuture.get ().booleanValue ());
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+
   @Test
   public void testReadTDD100Good () throws Exception
   {
@@ -103,4 +152,217 @@ public final class PeppolSKTDDValidatorTest
                   aAllErrorIDs.contains (sBaseName.substring (sBaseName.indexOf ('-') + 1)));
     }
   }
+
+  @Test
+  public void testParallelSchematron () throws Exception
+  {
+    final PeppolSKTDDValidationSettings aSettings = new PeppolSKTDDValidationSettings ().parallelSchematron (true);
+    final ICommonsList <IReadableResource> aAll = new CommonsArrayList <> ();
+    aAll.addAll (PeppolSKTestFiles.getAllGoodTDD100Files ());
+    // Fatal CEN assertion UBL-SR-53
+    aAll.add (getMutatedBaseExample ("<cbc:CompanyID>GB1232434</cbc:CompanyID>", ""));
+    // Fatal SK assertion ibr-tdd-01
+    aAll.add (getMutatedBaseExample ("<cbc:CustomizationID>urn:peppol:taxdata:sk-1</cbc:CustomizationID>",
+                                     "<cbc:CustomizationID>urn:peppol:taxdata:sk-0</cbc:CustomizationID>"));
+    int nInvalid = 0;
+    for (final IReadableResource aRes : aAll)
+    {
+      final ValidationResultList aSequential = PeppolSKTDDValidator.validateSK_TDD_100 (aRes);
+      final ValidationResultList aParallel = PeppolSKTDDValidator.validateSK_TDD_100 (aRes, aSettings);
+      assertEquals (aRes.getPath (), aSequential.getOverallValidity (), aParallel.getOverallValidity ());
+      assertEquals (aSequential.size (), aParallel.size ());
+      for (int i = 0; i < aSequential.size (); ++i)
+        assertEquals (aSequential.get (i).getErrorList ().getAllMapped (IError::getAsStringLocaleIndepdent),
+                      aParallel.get (i).getErrorList ().getAllMapped (IError::getAsStringLocaleIndepdent));
+      if (!aSequential.getOverallValidity ().isValid ())
+        nInvalid++;
+    }
+    // The mutated documents must have been compared as well
+    assertEquals (2, nInvalid);
+  }
+
+  @Test
+  public void testDefaultExecutor ()
+  {
+    final ExecutorService aES = new PeppolSKTDDValidationSettings ().getEffectiveExecutor ();
+    assertNotSame (ForkJoinPool.commonPool (), aES);
+    assertFalse (aES.isShutdown ());
+    // Shared by all settings
+    assertSame (aES, new PeppolSKTDDValidationSettings ().getEffectiveExecutor ());
+
+    // An explicit executor is used as is
+    final ExecutorService aOwnES = Executors.newSingleThreadExecutor ();
+    try
+    {
+      assertSame (aOwnES, new PeppolSKTDDValidationSettings ().executor (aOwnES).getEffectiveExecutor ());
+    }
+    finally
+    {
+      aOwnES.shutdown ();
+    }
+  }
+
+  @NonNull
+  static IReadableResource getMutatedBaseExample (@NonNull final String sSearch, @NonNull final String sReplace)
+    throws IOException
+  {
+    final IReadableResource aRes = PeppolSKTestFiles.getAllGoodTDD100Files ()
+                                                    .findFirst (x -> x.getPath ().endsWith ("/base-example.xml"));
+    assertNotNull (aRes);
+    final String sXML;
+    try (final InputStream aIS = aRes.getInputStream ())
+    {
+      sXML = new String (aIS.readAllBytes (), StandardCharsets.UTF_8);
+    }
+    assertTrue (sSearch, sXML.contains (sSearch));
+    return new ReadableResourceString ("mutated-base-example.xml", sXML.replace (sSearch, sReplace), StandardCharsets.UTF_8);
+  }
+
+  private static void _assertFailFast (@NonNull final IReadableResource aRes,
+                                       @NonNull final ESKTDDValidationLayer eFailingLayer,
+                                       @Nullable final String sExpectedErrorID)
+  {
+    for (final boolean bParallel : new boolean [] { false, true })
+    {
+      final PeppolSKTDDValidationSettings aSettings = new PeppolSKTDDValidationSettings ().failFast (true)
+                                                                                          .parallelSchematron (bParallel);
+      final ValidationResultList aVRL = PeppolSKTDDValidator.validateSK_TDD_100 (aRes, aSettings);
+      assertFalse (aVRL.getOverallValidity ().isValid ());
+      assertEquals (ESKTDDValidationLayer.values ().length, aVRL.size ());
+      for (final ESKTDDValidationLayer eLayer : ESKTDDValidationLayer.values ())
+      {
+        final ValidationResult aResult = aVRL.get (eLayer.ordinal ());
+        final String sMsg = eLayer + " with parallel=" + bParallel;
+        if (eLayer.ordinal () < eFailingLayer.ordinal ())
+        {
+          assertFalse (sMsg, aResult.isIgnored ());
+          assertFalse (sMsg, aResult.getErrorList ().containsAtLeastOneError ());
+        }
+        else
+          if (eLayer == eFailingLayer)
+          {
+            assertFalse (sMsg, aResult.isIgnored ());
+            assertTrue (sMsg, aResult.getErrorList ().containsAtLeastOneError ());
+            if (sExpectedErrorID != null)
+              assertTrue (sMsg,
+                          aResult.getErrorList ()
+                                 .containsAny (x -> x.getErrorLevel ().isGE (EErrorLevel.FATAL_ERROR) &&
+                                                    sExpectedErrorID.equals (x.getErrorID ())));
+          }
+          else
+          {
+            // Nothing is evaluated after the failed layer
+            assertTrue (sMsg, aResult.isIgnored ());
+          }
+      }
+    }
+  }
+
+  @Test
+  public void testFailFast () throws Exception
+  {
+    for (final boolean bParallel : new boolean [] { false, true })
+    {
+      final PeppolSKTDDValidationSettings aSettings = new PeppolSKTDDValidationSettings ().failFast (true)
+                                                                                          .parallelSchematron (bParallel);
+      for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+        assertTrue (aRes.getPath (),
+                    PeppolSKTDDValidator.validateSK_TDD_100 (aRes, aSettings).getOverallValidity ().isValid ());
+    }
+
+    // XSD error
+    _assertFailFast (getMutatedBaseExample ("<cbc:IssueDate>2025-01-25</cbc:IssueDate>",
+                                            "<cbc:IssueDate>25.01.2025</cbc:IssueDate>"),
+                     ESKTDDValidationLayer.XSD,
+                     null);
+
+    // Fatal CEN assertion UBL-SR-53: PartyTaxScheme without CompanyID
+    _assertFailFast (getMutatedBaseExample ("<cbc:CompanyID>GB1232434</cbc:CompanyID>", ""),
+                     ESKTDDValidationLayer.CEN,
+                     "UBL-SR-53");
+
+    // Fatal SK assertion ibr-tdd-01: invalid customization ID
+    _assertFailFast (getMutatedBaseExample ("<cbc:CustomizationID>urn:peppol:taxdata:sk-1</cbc:CustomizationID>",
+                                            "<cbc:CustomizationID>urn:peppol:taxdata:sk-0</cbc:CustomizationID>"),
+                     ESKTDDValidationLayer.SK,
+                     "ibr-tdd-01");
+  }
+
+  @Test
+  public void testValidateTaxDataType () throws Exception
+  {
+    final PeppolSKTDD100Marshaller aMarshaller = new PeppolSKTDD100Marshaller ();
+    final ICommonsList <IReadableResource> aAll = new CommonsArrayList <> ();
+    aAll.addAll (PeppolSKTestFiles.getAllGoodTDD100Files ());
+    aAll.addAll (PeppolSKTestFiles.getAllSchematronBadTDD100Files ());
+    for (final IReadableResource aRes : aAll)
+    {
+      final TaxDataType aTDD = aMarshaller.read (aRes);
+      assertNotNull (aTDD);
+
+      final ValidationResultList aExpected = PeppolSKTDDValidator.validateSK_TDD_100 (aRes);
+      final ValidationResultList aVRL = PeppolSKTDDValidator.validateSK_TDD_100 (aTDD);
+      assertEquals (aRes.getPath (), aExpected.getOverallValidity (), aVRL.getOverallValidity ());
+      assertEquals (aExpected.getAllErrors ().size (), aVRL.getAllErrors ().size ());
+
+      final ValidationResultList aVRL2 = PeppolSKTDDValidator.validateSK_TDD_100 (aTDD,
+                                                                                  new PeppolSKTDDValidationSettings ().parallelSchematron (true));
+      assertEquals (aExpected.getOverallValidity (), aVRL2.getOverallValidity ());
+      assertEquals (aExpected.getAllErrors ().size (), aVRL2.getAllErrors ().size ());
+    }
+  }
+
+  @Test
+  public void testValidationLayers () throws Exception
+  {
+    // All non-empty combinations of layers
+    assertEquals (15, PeppolSKTDDValidator.VES_REGISTRY.getAll ().size ());
+    assertEquals (PeppolSKTDDValidator.VID_TDD_SK_100,
+                  PeppolSKTDDValidator.getVesID (EnumSet.allOf (ESKTDDValidationLayer.class)));
+    assertEquals ("xsd-sk", PeppolSKTDDValidator.VID_TDD_SK_100_XSD_SK.getClassifier ());
+    assertEquals ("sk", PeppolSKTDDValidator.VID_TDD_SK_100_SK_ONLY.getClassifier ());
+    assertEquals (1,
+                  new CommonsArrayList <> (PeppolSKTDDValidator.getValidationExecutorSet (EnumSet.of (ESKTDDValidationLayer.SK))).size ());
+
+    final PeppolSKTDDValidationSettings aSettings = new PeppolSKTDDValidationSettings ().validationLayers (ESKTDDValidationLayer.XSD,
+                                                                                                          ESKTDDValidationLayer.SK);
+    assertFalse (aSettings.isAllValidationLayers ());
+    for (final IReadableResource aRes : PeppolSKTestFiles.getAllGoodTDD100Files ())
+    {
+      final ValidationResultList aVRL = PeppolSKTDDValidator.validateSK_TDD_100 (aRes, aSettings);
+      assertTrue (aRes.getPath (), aVRL.getOverallValidity ().isValid ());
+      assertEquals (2, aVRL.size ());
+      assertEquals (PeppolSKTDDValidator.XSLT_SK_TDD_100, aVRL.getLastOrNull ().getValidationArtefact ().getRuleResource ());
+    }
+  }
+
+  @Test
+  public void testInitialize ()
+  {
+    PeppolSKTDDValidator.initialize ();
+    assertTrue (PeppolSKTDDValidator.isInitialized ());
+    // Only ready after all XSLTs were compiled
+    PeppolSKTDDValidator.warmUp (null);
+    assertTrue (PeppolSKTDDValidator.isReady ());
+  }
+
+  @Test
+  public void testInitializeAsync () throws Exception
+  {
+    final ExecutorService aES = Executors.newSingleThreadExecutor ();
+    try
+    {
+      final CompletableFuture <Void> aFuture = PeppolSKTDDValidator.initializeAsync (aES);
+      // Same future on subsequent calls
+      assertSame (aFuture, PeppolSKTDDValidator.initializeAsync (aES));
+      aFuture.get ();
+      assertTrue (PeppolSKTDDValidator.isInitialized ());
+      assertTrue (PeppolSKTDDValidator.isReady ());
+      assertNotNull (PeppolSKTDDValidator.VES_REGISTRY.getOfID (PeppolSKTDDValidator.VID_TDD_SK_100));
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
 }